@@ -0,0 +1,108 @@
+package com.judgmentlabs.judgeval;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Controls the per-endpoint circuit breakers of the API transport.
+ * <p>
+ * After {@code failureThreshold} consecutive failures (connection errors,
+ * timeouts, 429 or 5xx responses) an endpoint's breaker opens and requests to
+ * it fail immediately. After {@code openDuration} a single trial request is let
+ * through; its success closes the breaker and its failure reopens it.
+ */
+public final class CircuitBreakerPolicy {
+    public static final int      DEFAULT_FAILURE_THRESHOLD = 5;
+    public static final Duration DEFAULT_OPEN_DURATION     = Duration.ofSeconds(30);
+
+    private final int            failureThreshold;
+    private final Duration       openDuration;
+
+    private CircuitBreakerPolicy(Builder builder) {
+        if (builder.failureThreshold <= 0) {
+            throw new IllegalArgumentException("failureThreshold must be positive");
+        }
+        this.failureThreshold = builder.failureThreshold;
+        this.openDuration = Objects.requireNonNull(builder.openDuration, "openDuration required");
+    }
+
+    /**
+     * Returns the default circuit breaker policy.
+     *
+     * @return the default policy
+     */
+    public static CircuitBreakerPolicy defaults() {
+        return builder().build();
+    }
+
+    /**
+     * Returns a policy whose breakers never open.
+     *
+     * @return a disabled policy
+     */
+    public static CircuitBreakerPolicy disabled() {
+        return builder().failureThreshold(Integer.MAX_VALUE)
+                .build();
+    }
+
+    public int getFailureThreshold() {
+        return failureThreshold;
+    }
+
+    public Duration getOpenDuration() {
+        return openDuration;
+    }
+
+    /**
+     * Creates a new builder for configuring a CircuitBreakerPolicy.
+     *
+     * @return a new builder instance
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Builder for configuring and creating CircuitBreakerPolicy instances.
+     */
+    public static final class Builder {
+        private int      failureThreshold = DEFAULT_FAILURE_THRESHOLD;
+        private Duration openDuration     = DEFAULT_OPEN_DURATION;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets how many consecutive failures open the breaker.
+         *
+         * @param failureThreshold
+         *            the failure threshold
+         * @return this builder
+         */
+        public Builder failureThreshold(int failureThreshold) {
+            this.failureThreshold = failureThreshold;
+            return this;
+        }
+
+        /**
+         * Sets how long the breaker stays open before a trial request.
+         *
+         * @param openDuration
+         *            the open duration
+         * @return this builder
+         */
+        public Builder openDuration(Duration openDuration) {
+            this.openDuration = openDuration;
+            return this;
+        }
+
+        /**
+         * Builds and returns a new CircuitBreakerPolicy instance.
+         *
+         * @return the configured CircuitBreakerPolicy
+         */
+        public CircuitBreakerPolicy build() {
+            return new CircuitBreakerPolicy(this);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.judgmentlabs.judgeval;
+
+import java.util.Optional;
+
+/**
+ * Request body compression for JSON API calls.
+ */
+public enum Compression {
+    /** Send request bodies uncompressed. */
+    NONE(null),
+    /** Compress request bodies with gzip. */
+    GZIP("gzip"),
+    /**
+     * Compress request bodies with zstd. Requires {@code com.github.luben:zstd-jni}
+     * on the classpath; falls back to gzip when it is missing.
+     */
+    ZSTD("zstd");
+
+    private final String contentEncoding;
+
+    Compression(String contentEncoding) {
+        this.contentEncoding = contentEncoding;
+    }
+
+    /**
+     * Returns the {@code Content-Encoding} header value for this compression.
+     *
+     * @return the content encoding, or empty for {@link #NONE}
+     */
+    public Optional<String> getContentEncoding() {
+        return Optional.ofNullable(contentEncoding);
+    }
+}
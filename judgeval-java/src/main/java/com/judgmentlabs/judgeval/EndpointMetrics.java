@@ -0,0 +1,87 @@
+package com.judgmentlabs.judgeval;
+
+/**
+ * Point-in-time request, retry and circuit breaker statistics for one API
+ * endpoint.
+ */
+public final class EndpointMetrics {
+    /**
+     * State of an endpoint's circuit breaker.
+     */
+    public enum CircuitState {
+        /** Requests flow normally. */
+        CLOSED,
+        /** Requests fail fast without reaching the server. */
+        OPEN,
+        /** A single trial request is allowed to probe the server. */
+        HALF_OPEN
+    }
+
+    private final String       endpoint;
+    private final CircuitState circuitState;
+    private final long         attempts;
+    private final long         retries;
+    private final long         failures;
+    private final long         rejected;
+
+    public EndpointMetrics(String endpoint, CircuitState circuitState, long attempts, long retries, long failures,
+            long rejected) {
+        this.endpoint = endpoint;
+        this.circuitState = circuitState;
+        this.attempts = attempts;
+        this.retries = retries;
+        this.failures = failures;
+        this.rejected = rejected;
+    }
+
+    /**
+     * Returns the endpoint, as HTTP method and path.
+     *
+     * @return the endpoint
+     */
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public CircuitState getCircuitState() {
+        return circuitState;
+    }
+
+    /**
+     * Returns the number of requests sent to the server, including retries.
+     *
+     * @return the attempt count
+     */
+    public long getAttempts() {
+        return attempts;
+    }
+
+    public long getRetries() {
+        return retries;
+    }
+
+    /**
+     * Returns the number of attempts that failed with a connection error,
+     * timeout, 429 or 5xx response.
+     *
+     * @return the failure count
+     */
+    public long getFailures() {
+        return failures;
+    }
+
+    /**
+     * Returns the number of requests rejected by the open circuit breaker.
+     *
+     * @return the rejected count
+     */
+    public long getRejected() {
+        return rejected;
+    }
+
+    @Override
+    public String toString() {
+        return "EndpointMetrics{" + "endpoint='" + endpoint + '\'' + ", circuitState=" + circuitState + ", attempts="
+                + attempts + ", retries=" + retries + ", failures=" + failures + ", rejected=" + rejected + '}';
+    }
+}
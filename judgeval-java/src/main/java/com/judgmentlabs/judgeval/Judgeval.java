@@ -1,8 +1,10 @@
 package com.judgmentlabs.judgeval;
 
+import java.util.List;
 import java.util.Objects;
 
 import com.judgmentlabs.judgeval.evaluation.EvaluationFactory;
+import com.judgmentlabs.judgeval.internal.api.HttpTransport;
 import com.judgmentlabs.judgeval.internal.api.JudgmentSyncClient;
 import com.judgmentlabs.judgeval.scorers.ScorersFactory;
 import com.judgmentlabs.judgeval.tracer.TracerFactory;
@@ -21,7 +23,8 @@ public class Judgeval {
         this.apiKey = Objects.requireNonNull(builder.apiKey, "apiKey required");
         this.organizationId = Objects.requireNonNull(builder.organizationId, "organizationId required");
         this.apiUrl = builder.apiUrl != null ? builder.apiUrl : Env.JUDGMENT_API_URL;
-        this.internalClient = new JudgmentSyncClient(apiUrl, apiKey, organizationId);
+        this.internalClient = new JudgmentSyncClient(apiUrl, apiKey, organizationId,
+                HttpTransport.create(builder.transport != null ? builder.transport : TransportConfig.defaults()));
     }
 
     /**
@@ -51,6 +54,17 @@ public class Judgeval {
         return new EvaluationFactory(internalClient);
     }
 
+    /**
+     * Returns request, retry and circuit breaker statistics for each API
+     * endpoint called through this instance's transport.
+     *
+     * @return a snapshot per endpoint
+     */
+    public List<EndpointMetrics> transportMetrics() {
+        return internalClient.getTransport()
+                .getEndpointMetrics();
+    }
+
     /**
      * Creates a new builder for configuring a Judgeval.
      *
@@ -64,9 +78,10 @@ public class Judgeval {
      * Builder for configuring and creating Judgeval instances.
      */
     public static class Builder {
-        private String apiKey         = Env.JUDGMENT_API_KEY;
-        private String organizationId = Env.JUDGMENT_ORG_ID;
-        private String apiUrl         = Env.JUDGMENT_API_URL;
+        private String          apiKey         = Env.JUDGMENT_API_KEY;
+        private String          organizationId = Env.JUDGMENT_ORG_ID;
+        private String          apiUrl         = Env.JUDGMENT_API_URL;
+        private TransportConfig transport;
 
         /**
          * Sets the API key for authentication.
@@ -104,6 +119,20 @@ public class Judgeval {
             return this;
         }
 
+        /**
+         * Sets the HTTP transport settings. A single connection pool built from
+         * these settings serves every client and exporter created by this
+         * Judgeval instance.
+         *
+         * @param transport
+         *            the transport settings
+         * @return this builder
+         */
+        public Builder transport(TransportConfig transport) {
+            this.transport = transport;
+            return this;
+        }
+
         /**
          * Builds and returns a new Judgeval instance.
          *
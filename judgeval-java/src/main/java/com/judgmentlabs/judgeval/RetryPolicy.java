@@ -0,0 +1,200 @@
+package com.judgmentlabs.judgeval;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Controls how failed API requests are retried.
+ * <p>
+ * Connection failures, timeouts and responses with status 429, 500, 502, 503
+ * or 504 are retried with capped exponential backoff and full jitter: before
+ * attempt {@code n + 1} the transport waits a random duration between zero and
+ * {@code min(maxBackoff, initialBackoff * 2^(n - 1))}. A {@code Retry-After}
+ * header on a 429 or 503 response replaces the jittered delay, capped at
+ * {@code maxRetryAfter}.
+ */
+public final class RetryPolicy {
+    public static final int      DEFAULT_MAX_ATTEMPTS    = 3;
+    public static final Duration DEFAULT_INITIAL_BACKOFF = Duration.ofMillis(100);
+    public static final Duration DEFAULT_MAX_BACKOFF     = Duration.ofSeconds(5);
+    public static final Duration DEFAULT_MAX_RETRY_AFTER = Duration.ofSeconds(30);
+
+    private final int            maxAttempts;
+    private final Duration       initialBackoff;
+    private final Duration       maxBackoff;
+    private final Duration       maxRetryAfter;
+
+    private RetryPolicy(Builder builder) {
+        if (builder.maxAttempts <= 0) {
+            throw new IllegalArgumentException("maxAttempts must be positive");
+        }
+        this.maxAttempts = builder.maxAttempts;
+        this.initialBackoff = Objects.requireNonNull(builder.initialBackoff, "initialBackoff required");
+        this.maxBackoff = Objects.requireNonNull(builder.maxBackoff, "maxBackoff required");
+        this.maxRetryAfter = Objects.requireNonNull(builder.maxRetryAfter, "maxRetryAfter required");
+        if (initialBackoff.isNegative() || maxBackoff.compareTo(initialBackoff) < 0) {
+            throw new IllegalArgumentException("maxBackoff must be at least initialBackoff");
+        }
+    }
+
+    /**
+     * Returns the default retry policy.
+     *
+     * @return the default policy
+     */
+    public static RetryPolicy defaults() {
+        return builder().build();
+    }
+
+    /**
+     * Returns a policy that never retries.
+     *
+     * @return a single-attempt policy
+     */
+    public static RetryPolicy none() {
+        return builder().maxAttempts(1)
+                .build();
+    }
+
+    /**
+     * Returns whether a response status is worth retrying.
+     *
+     * @param statusCode
+     *            the HTTP status code
+     * @return true for 429, 500, 502, 503 and 504
+     */
+    public static boolean isRetryableStatus(int statusCode) {
+        return statusCode == 429 || statusCode == 500 || statusCode == 502 || statusCode == 503
+                || statusCode == 504;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public Duration getInitialBackoff() {
+        return initialBackoff;
+    }
+
+    public Duration getMaxBackoff() {
+        return maxBackoff;
+    }
+
+    public Duration getMaxRetryAfter() {
+        return maxRetryAfter;
+    }
+
+    /**
+     * Returns whether another attempt is allowed after the given one failed.
+     *
+     * @param attempt
+     *            the 1-based number of the attempt that failed
+     * @return true if the request should be retried
+     */
+    public boolean shouldRetry(int attempt) {
+        return attempt < maxAttempts;
+    }
+
+    /**
+     * Computes how long to wait before the next attempt.
+     *
+     * @param attempt
+     *            the 1-based number of the attempt that failed
+     * @param retryAfter
+     *            the server's requested delay, if any
+     * @return the delay before the next attempt
+     */
+    public Duration delayBefore(int attempt, Optional<Duration> retryAfter) {
+        if (retryAfter.isPresent()) {
+            Duration requested = retryAfter.get();
+            return requested.compareTo(maxRetryAfter) > 0 ? maxRetryAfter : requested;
+        }
+        long ceiling = initialBackoff.toMillis() << Math.min(attempt - 1, 30);
+        if (ceiling <= 0 || ceiling > maxBackoff.toMillis()) {
+            ceiling = maxBackoff.toMillis();
+        }
+        return Duration.ofMillis(ThreadLocalRandom.current()
+                .nextLong(ceiling + 1));
+    }
+
+    /**
+     * Creates a new builder for configuring a RetryPolicy.
+     *
+     * @return a new builder instance
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Builder for configuring and creating RetryPolicy instances.
+     */
+    public static final class Builder {
+        private int      maxAttempts    = DEFAULT_MAX_ATTEMPTS;
+        private Duration initialBackoff = DEFAULT_INITIAL_BACKOFF;
+        private Duration maxBackoff     = DEFAULT_MAX_BACKOFF;
+        private Duration maxRetryAfter  = DEFAULT_MAX_RETRY_AFTER;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the total number of attempts, including the first one.
+         *
+         * @param maxAttempts
+         *            the maximum number of attempts
+         * @return this builder
+         */
+        public Builder maxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+            return this;
+        }
+
+        /**
+         * Sets the backoff ceiling for the first retry.
+         *
+         * @param initialBackoff
+         *            the initial backoff
+         * @return this builder
+         */
+        public Builder initialBackoff(Duration initialBackoff) {
+            this.initialBackoff = initialBackoff;
+            return this;
+        }
+
+        /**
+         * Sets the upper bound on the backoff ceiling.
+         *
+         * @param maxBackoff
+         *            the maximum backoff
+         * @return this builder
+         */
+        public Builder maxBackoff(Duration maxBackoff) {
+            this.maxBackoff = maxBackoff;
+            return this;
+        }
+
+        /**
+         * Sets the longest {@code Retry-After} delay that will be honored.
+         *
+         * @param maxRetryAfter
+         *            the maximum server-requested delay
+         * @return this builder
+         */
+        public Builder maxRetryAfter(Duration maxRetryAfter) {
+            this.maxRetryAfter = maxRetryAfter;
+            return this;
+        }
+
+        /**
+         * Builds and returns a new RetryPolicy instance.
+         *
+         * @return the configured RetryPolicy
+         */
+        public RetryPolicy build() {
+            return new RetryPolicy(this);
+        }
+    }
+}
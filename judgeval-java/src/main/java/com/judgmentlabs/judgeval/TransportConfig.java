@@ -0,0 +1,261 @@
+package com.judgmentlabs.judgeval;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+
+/**
+ * HTTP transport settings shared by every API client and span exporter created
+ * from a {@link Judgeval} instance.
+ * <p>
+ * By default requests use HTTP/2, multiplexed over a single pooled connection
+ * per host, and fall back to HTTP/1.1 when the server does not negotiate
+ * HTTP/2.
+ */
+public final class TransportConfig {
+    public static final Duration       DEFAULT_CONNECT_TIMEOUT         = Duration.ofSeconds(10);
+    public static final Duration       DEFAULT_REQUEST_TIMEOUT         = Duration.ofSeconds(30);
+    public static final int            DEFAULT_MAX_CONCURRENT_REQUESTS = 64;
+    public static final int            DEFAULT_COMPRESSION_THRESHOLD   = 1024;
+
+    private final HttpClient.Version   httpVersion;
+    private final Duration             connectTimeout;
+    private final Duration             requestTimeout;
+    private final Optional<Executor>   executor;
+    private final int                  maxConcurrentRequests;
+    private final RetryPolicy          retryPolicy;
+    private final CircuitBreakerPolicy circuitBreaker;
+    private final Compression          compression;
+    private final int                  compressionThreshold;
+
+    private TransportConfig(Builder builder) {
+        this.httpVersion = Objects.requireNonNull(builder.httpVersion, "httpVersion required");
+        this.connectTimeout = requirePositive(builder.connectTimeout, "connectTimeout");
+        this.requestTimeout = requirePositive(builder.requestTimeout, "requestTimeout");
+        this.executor = Optional.ofNullable(builder.executor);
+        if (builder.maxConcurrentRequests <= 0) {
+            throw new IllegalArgumentException("maxConcurrentRequests must be positive");
+        }
+        this.maxConcurrentRequests = builder.maxConcurrentRequests;
+        this.retryPolicy = Objects.requireNonNull(builder.retryPolicy, "retryPolicy required");
+        this.circuitBreaker = Objects.requireNonNull(builder.circuitBreaker, "circuitBreaker required");
+        this.compression = Objects.requireNonNull(builder.compression, "compression required");
+        if (builder.compressionThreshold < 0) {
+            throw new IllegalArgumentException("compressionThreshold must not be negative");
+        }
+        this.compressionThreshold = builder.compressionThreshold;
+    }
+
+    private static Duration requirePositive(Duration value, String name) {
+        Objects.requireNonNull(value, name + " required");
+        if (value.isNegative() || value.isZero()) {
+            throw new IllegalArgumentException(name + " must be positive");
+        }
+        return value;
+    }
+
+    /**
+     * Returns the default transport settings.
+     *
+     * @return the default configuration
+     */
+    public static TransportConfig defaults() {
+        return builder().build();
+    }
+
+    public HttpClient.Version getHttpVersion() {
+        return httpVersion;
+    }
+
+    public Duration getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public Duration getRequestTimeout() {
+        return requestTimeout;
+    }
+
+    public Optional<Executor> getExecutor() {
+        return executor;
+    }
+
+    public int getMaxConcurrentRequests() {
+        return maxConcurrentRequests;
+    }
+
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    public CircuitBreakerPolicy getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public Compression getCompression() {
+        return compression;
+    }
+
+    public int getCompressionThreshold() {
+        return compressionThreshold;
+    }
+
+    /**
+     * Creates a new builder for configuring a TransportConfig.
+     *
+     * @return a new builder instance
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Builder for configuring and creating TransportConfig instances.
+     */
+    public static final class Builder {
+        private HttpClient.Version   httpVersion           = HttpClient.Version.HTTP_2;
+        private Duration             connectTimeout        = DEFAULT_CONNECT_TIMEOUT;
+        private Duration             requestTimeout        = DEFAULT_REQUEST_TIMEOUT;
+        private Executor             executor;
+        private int                  maxConcurrentRequests = DEFAULT_MAX_CONCURRENT_REQUESTS;
+        private RetryPolicy          retryPolicy           = RetryPolicy.defaults();
+        private CircuitBreakerPolicy circuitBreaker        = CircuitBreakerPolicy.defaults();
+        private Compression          compression           = Compression.NONE;
+        private int                  compressionThreshold  = DEFAULT_COMPRESSION_THRESHOLD;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the preferred HTTP version. {@code HTTP_2} falls back to HTTP/1.1
+         * when the server does not support it; {@code HTTP_1_1} disables
+         * HTTP/2 entirely.
+         *
+         * @param httpVersion
+         *            the preferred HTTP version
+         * @return this builder
+         */
+        public Builder httpVersion(HttpClient.Version httpVersion) {
+            this.httpVersion = httpVersion;
+            return this;
+        }
+
+        /**
+         * Sets how long to wait for a connection to be established.
+         *
+         * @param connectTimeout
+         *            the connect timeout
+         * @return this builder
+         */
+        public Builder connectTimeout(Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+            return this;
+        }
+
+        /**
+         * Sets how long to wait for a response before a request fails with
+         * {@link java.net.http.HttpTimeoutException}.
+         *
+         * @param requestTimeout
+         *            the request timeout
+         * @return this builder
+         */
+        public Builder requestTimeout(Duration requestTimeout) {
+            this.requestTimeout = requestTimeout;
+            return this;
+        }
+
+        /**
+         * Sets the executor used for asynchronous request handling. On Java 21
+         * pass {@code Executors.newVirtualThreadPerTaskExecutor()} to run
+         * response handling on virtual threads. Defaults to the HTTP client's
+         * own executor.
+         *
+         * @param executor
+         *            the executor, or null for the default
+         * @return this builder
+         */
+        public Builder executor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of requests in flight at once. Further
+         * requests wait for a slot.
+         *
+         * @param maxConcurrentRequests
+         *            the concurrency limit
+         * @return this builder
+         */
+        public Builder maxConcurrentRequests(int maxConcurrentRequests) {
+            this.maxConcurrentRequests = maxConcurrentRequests;
+            return this;
+        }
+
+        /**
+         * Sets how failed requests are retried. Use {@link RetryPolicy#none()}
+         * to disable retries.
+         *
+         * @param retryPolicy
+         *            the retry policy
+         * @return this builder
+         */
+        public Builder retryPolicy(RetryPolicy retryPolicy) {
+            this.retryPolicy = retryPolicy;
+            return this;
+        }
+
+        /**
+         * Sets the per-endpoint circuit breaker policy. Use
+         * {@link CircuitBreakerPolicy#disabled()} to never fail fast.
+         *
+         * @param circuitBreaker
+         *            the circuit breaker policy
+         * @return this builder
+         */
+        public Builder circuitBreaker(CircuitBreakerPolicy circuitBreaker) {
+            this.circuitBreaker = circuitBreaker;
+            return this;
+        }
+
+        /**
+         * Enables request body compression for JSON API calls. Disabled by
+         * default; only enable it for backends that accept compressed request
+         * bodies.
+         *
+         * @param compression
+         *            the compression to apply
+         * @return this builder
+         */
+        public Builder compression(Compression compression) {
+            this.compression = compression;
+            return this;
+        }
+
+        /**
+         * Sets the body size in bytes above which requests are compressed.
+         * Smaller bodies are sent as-is since compressing them saves little.
+         *
+         * @param compressionThreshold
+         *            the minimum body size to compress
+         * @return this builder
+         */
+        public Builder compressionThreshold(int compressionThreshold) {
+            this.compressionThreshold = compressionThreshold;
+            return this;
+        }
+
+        /**
+         * Builds and returns a new TransportConfig instance.
+         *
+         * @return the configured TransportConfig
+         * @throws IllegalArgumentException
+         *             if a timeout or the concurrency limit is not positive
+         */
+        public TransportConfig build() {
+            return new TransportConfig(this);
+        }
+    }
+}
@@ -0,0 +1,463 @@
+package com.judgmentlabs.judgeval.data;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.judgmentlabs.judgeval.internal.api.Json;
+
+/**
+ * Reads {@link Example}s from a JSONL or CSV dataset file without loading it
+ * into the heap.
+ * <p>
+ * The file is memory-mapped and records are parsed only as they are
+ * consumed, so memory use does not grow with the file. In JSONL files every
+ * line is a JSON object whose fields become example properties; in CSV files
+ * the first record names the columns and every value is a string. The
+ * {@code example_id}, {@code created_at} and {@code name} fields set those of
+ * the example rather than becoming properties.
+ * <p>
+ * {@link #stream()} can be made parallel: JSONL files are split at line
+ * breaks into ranges parsed independently, so fork-join workers each read
+ * their own part of the file. CSV records may contain quoted line breaks, so
+ * CSV files are read sequentially.
+ * <p>
+ * The reader must be closed when no longer used. Streams and iterators of a
+ * closed reader must not be used.
+ */
+public final class DatasetReader implements AutoCloseable {
+    /**
+     * Dataset file formats.
+     */
+    public enum Format {
+        /**
+         * One JSON object per line.
+         */
+        JSONL,
+
+        /**
+         * Comma-separated values with a header record.
+         */
+        CSV
+    }
+
+    static final long                 DEFAULT_REGION_SIZE = 1L << 30;
+
+    private static final long         MIN_SPLIT_SIZE      = 1L << 16;
+    private static final ObjectReader VALUE_READER        = Json.readerFor(Object.class);
+
+    private final FileChannel         channel;
+    private final Format              format;
+    private final long                size;
+    private final long                regionSize;
+    private final MappedByteBuffer[]  regions;
+    private final List<String>        columns;
+    private final long                dataStart;
+
+    DatasetReader(Path file, Format format, long regionSize) throws IOException {
+        this.format = Objects.requireNonNull(format, "format required");
+        this.regionSize = regionSize;
+        this.channel = FileChannel.open(Objects.requireNonNull(file, "file required"), StandardOpenOption.READ);
+        try {
+            this.size = channel.size();
+            int regionCount = (int) ((size + regionSize - 1) / regionSize);
+            this.regions = new MappedByteBuffer[regionCount];
+            for (int i = 0; i < regionCount; i++) {
+                long position = i * regionSize;
+                regions[i] = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.min(regionSize, size - position));
+            }
+            if (format == Format.CSV) {
+                CsvParser header = new CsvParser(new RegionInputStream(0, size));
+                List<String> names = header.next();
+                this.columns = names != null ? names : List.of();
+                this.dataStart = header.position();
+            } else {
+                this.columns = List.of();
+                this.dataStart = 0;
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens a dataset file, choosing the format from its extension:
+     * {@code .csv} files are read as CSV and all others as JSONL.
+     *
+     * @param file
+     *            the dataset file
+     * @return the reader
+     * @throws IOException
+     *             if the file cannot be opened or mapped
+     */
+    public static DatasetReader open(Path file) throws IOException {
+        String fileName = String.valueOf(file.getFileName())
+                .toLowerCase(Locale.ROOT);
+        return open(file, fileName.endsWith(".csv") ? Format.CSV : Format.JSONL);
+    }
+
+    /**
+     * Opens a dataset file in the given format.
+     *
+     * @param file
+     *            the dataset file
+     * @param format
+     *            the file format
+     * @return the reader
+     * @throws IOException
+     *             if the file cannot be opened or mapped, or a CSV header
+     *             cannot be read
+     */
+    public static DatasetReader open(Path file, Format format) throws IOException {
+        return new DatasetReader(file, format, DEFAULT_REGION_SIZE);
+    }
+
+    /**
+     * Returns the format the file is read in.
+     *
+     * @return the file format
+     */
+    public Format getFormat() {
+        return format;
+    }
+
+    /**
+     * Returns the column names of a CSV file.
+     *
+     * @return the column names, empty for JSONL files
+     */
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    /**
+     * Returns a stream of the examples in the file, in file order. A malformed
+     * record fails the stream with an {@link UncheckedIOException}.
+     *
+     * @return a sequential stream that may be made parallel
+     */
+    public Stream<Example> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * Returns an iterator over the examples in the file, in file order.
+     *
+     * @return the iterator
+     */
+    public Iterator<Example> iterator() {
+        return Spliterators.iterator(spliterator());
+    }
+
+    /**
+     * Returns a spliterator over the examples in the file. Its size estimate
+     * is the number of bytes it covers.
+     *
+     * @return the spliterator
+     */
+    public Spliterator<Example> spliterator() {
+        return format == Format.CSV ? new CsvSpliterator() : new JsonlSpliterator(0, size);
+    }
+
+    /**
+     * Closes the file. The mapped memory is released once it is no longer
+     * referenced.
+     *
+     * @throws IOException
+     *             if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private byte byteAt(long position) {
+        return regions[(int) (position / regionSize)].get((int) (position % regionSize));
+    }
+
+    /**
+     * Returns the position after the first line break at or after the given
+     * position, or -1 if there is none before the limit.
+     */
+    private long nextLineStart(long position, long limit) {
+        for (long i = position; i < limit; i++) {
+            if (byteAt(i) == '\n') {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    private static void set(Example example, String field, Object value) {
+        switch (field) {
+            case "example_id":
+                example.setExampleId(value != null ? value.toString() : null);
+                break;
+            case "created_at":
+                example.setCreatedAt(value != null ? value.toString() : null);
+                break;
+            case "name":
+                example.setName(value != null ? value.toString() : null);
+                break;
+            default:
+                example.setAdditionalProperty(field, value);
+        }
+    }
+
+    /**
+     * Reads the bytes of a range of the file across its mapped regions.
+     */
+    private final class RegionInputStream extends InputStream {
+        private final long end;
+        private long       position;
+
+        RegionInputStream(long start, long end) {
+            this.position = start;
+            this.end = end;
+        }
+
+        long position() {
+            return position;
+        }
+
+        @Override
+        public int read() {
+            return position < end ? byteAt(position++) & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (position >= end) {
+                return -1;
+            }
+            MappedByteBuffer region = regions[(int) (position / regionSize)];
+            int index = (int) (position % regionSize);
+            int count = (int) Math.min(Math.min(length, end - position), region.limit() - index);
+            region.get(index, buffer, offset, count);
+            position += count;
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return (int) Math.min(Integer.MAX_VALUE, end - position);
+        }
+    }
+
+    /**
+     * Parses the JSON objects in a byte range. Ranges are split after a line
+     * break, so every record is read by exactly one spliterator.
+     */
+    private final class JsonlSpliterator implements Spliterator<Example> {
+        private final long end;
+        private long       start;
+        private JsonParser parser;
+
+        JsonlSpliterator(long start, long end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Example> action) {
+            try {
+                if (parser == null) {
+                    parser = Json.mapper()
+                            .getFactory()
+                            .createParser(new RegionInputStream(start, end));
+                }
+                JsonToken token = parser.nextToken();
+                if (token == null) {
+                    parser.close();
+                    return false;
+                }
+                if (token != JsonToken.START_OBJECT) {
+                    throw new IOException("Expected a JSON object per line at byte "
+                            + (start + parser.currentTokenLocation()
+                                    .getByteOffset()) + ", got " + token);
+                }
+                Example example = new Example();
+                String field;
+                while ((field = parser.nextFieldName()) != null) {
+                    parser.nextToken();
+                    set(example, field, VALUE_READER.readValue(parser));
+                }
+                action.accept(example);
+                return true;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public Spliterator<Example> trySplit() {
+            if (parser != null || end - start < MIN_SPLIT_SIZE) {
+                return null;
+            }
+            long split = nextLineStart(start + (end - start) / 2, end);
+            if (split < 0 || split >= end) {
+                return null;
+            }
+            JsonlSpliterator prefix = new JsonlSpliterator(start, split);
+            this.start = split;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return end - start;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | NONNULL | IMMUTABLE;
+        }
+    }
+
+    /**
+     * Parses the CSV records after the header, sequentially.
+     */
+    private final class CsvSpliterator implements Spliterator<Example> {
+        private final CsvParser parser = new CsvParser(new RegionInputStream(dataStart, size));
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Example> action) {
+            try {
+                long position = parser.position();
+                List<String> values = parser.next();
+                if (values == null) {
+                    return false;
+                }
+                if (values.size() != columns.size()) {
+                    throw new IOException("CSV record at byte " + position + " has " + values.size()
+                            + " fields, expected " + columns.size());
+                }
+                Example example = new Example();
+                for (int i = 0; i < values.size(); i++) {
+                    set(example, columns.get(i), values.get(i));
+                }
+                action.accept(example);
+                return true;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public Spliterator<Example> trySplit() {
+            return null;
+        }
+
+        @Override
+        public long estimateSize() {
+            return size - dataStart;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | NONNULL | IMMUTABLE;
+        }
+    }
+
+    /**
+     * Reads RFC 4180 records: comma-separated fields, optionally quoted with
+     * doubled quotes inside, ending at CRLF or LF. Blank lines are skipped.
+     */
+    private static final class CsvParser {
+        private final RegionInputStream     input;
+        private final ByteArrayOutputStream field   = new ByteArrayOutputStream();
+        private int                         pending = -2;
+
+        CsvParser(RegionInputStream input) {
+            this.input = input;
+        }
+
+        long position() {
+            return pending == -2 ? input.position() : input.position() - 1;
+        }
+
+        private int read() {
+            if (pending != -2) {
+                int b = pending;
+                pending = -2;
+                return b;
+            }
+            return input.read();
+        }
+
+        /**
+         * Returns the next record's fields, or null at the end of the input.
+         */
+        List<String> next() throws IOException {
+            int b = read();
+            while (b == '\r' || b == '\n') {
+                b = read();
+            }
+            if (b == -1) {
+                return null;
+            }
+            List<String> fields = new ArrayList<>();
+            while (true) {
+                field.reset();
+                if (b == '"') {
+                    while (true) {
+                        b = read();
+                        if (b == -1) {
+                            throw new IOException("Unterminated quoted CSV field ending at byte " + position());
+                        }
+                        if (b == '"') {
+                            b = read();
+                            if (b != '"') {
+                                break;
+                            }
+                        }
+                        field.write(b);
+                    }
+                } else {
+                    while (b != ',' && b != '\n' && b != '\r' && b != -1) {
+                        field.write(b);
+                        b = read();
+                    }
+                }
+                fields.add(field.toString(StandardCharsets.UTF_8));
+                if (b == ',') {
+                    b = read();
+                    continue;
+                }
+                if (b == '\r') {
+                    int next = read();
+                    if (next != '\n') {
+                        pending = next;
+                    }
+                } else if (b != '\n' && b != -1) {
+                    throw new IOException("Unexpected character after quoted CSV field at byte " + position());
+                }
+                return fields;
+            }
+        }
+    }
+}
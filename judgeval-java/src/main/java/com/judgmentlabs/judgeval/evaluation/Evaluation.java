@@ -1,18 +1,96 @@
 package com.judgmentlabs.judgeval.evaluation;
 
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
+import com.judgmentlabs.judgeval.data.Example;
+import com.judgmentlabs.judgeval.data.ScoringResult;
 import com.judgmentlabs.judgeval.internal.api.JudgmentSyncClient;
+import com.judgmentlabs.judgeval.internal.api.ResultStream;
+import com.judgmentlabs.judgeval.internal.api.models.EvalResultsFetch;
+import com.judgmentlabs.judgeval.internal.api.models.ExampleEvaluationRun;
+import com.judgmentlabs.judgeval.internal.api.models.ScorerConfig;
+import com.judgmentlabs.judgeval.internal.api.models.ScorerData;
+import com.judgmentlabs.judgeval.scorers.APIScorer;
+import com.judgmentlabs.judgeval.scorers.BaseScorer;
+import com.judgmentlabs.judgeval.scorers.custom_scorer.CustomScorer;
 
 /**
- * Evaluation configuration for running evaluations against traces and spans.
+ * Runs offline evaluations of examples against scorers on the Judgment
+ * backend.
+ * <p>
+ * The examples are split into chunks, each submitted as its own evaluation
+ * run. At most the configured number of chunks are in flight at once; each
+ * is waited on with an {@link EvaluationStatusWaiter} until the backend has
+ * scored it and its results are then streamed back. {@link #run} and
+ * {@link #runAsync} return the results in chunk order, so a chunk's results
+ * follow those of the chunks before it; {@link #publish} emits them as each
+ * chunk is scored.
  */
 public final class Evaluation {
-    @SuppressWarnings("unused") // TODO: will add run_evaluation here
-    private final JudgmentSyncClient client;
+    public static final int                  DEFAULT_CHUNK_SIZE    = 100;
+    public static final int                  DEFAULT_MAX_IN_FLIGHT = 8;
+    public static final Duration             DEFAULT_POLL_INTERVAL = Duration.ofSeconds(2);
+    public static final Duration             DEFAULT_CHUNK_TIMEOUT = Duration.ofMinutes(30);
+
+    private final JudgmentSyncClient         client;
+    private final String                     projectName;
+    private final String                     runName;
+    private final String                     model;
+    private final int                        chunkSize;
+    private final int                        maxInFlight;
+    private final Duration                   pollInterval;
+    private final Duration                   chunkTimeout;
+    private final EvaluationStatusWaiter     statusWaiter;
+    private final ThreadFactory              threadFactory;
+    private final EvaluationProgressListener progressListener;
+    private final EvaluationResultCache      resultCache;
 
     private Evaluation(Builder builder) {
+        if (builder.chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive, got: " + builder.chunkSize);
+        }
+        if (builder.maxInFlight <= 0) {
+            throw new IllegalArgumentException("maxInFlight must be positive, got: " + builder.maxInFlight);
+        }
         this.client = Objects.requireNonNull(builder.client, "client required");
+        this.projectName = builder.projectName;
+        this.runName = builder.runName;
+        this.model = builder.model;
+        this.chunkSize = builder.chunkSize;
+        this.maxInFlight = builder.maxInFlight;
+        this.pollInterval = Objects.requireNonNull(builder.pollInterval, "pollInterval required");
+        this.chunkTimeout = Objects.requireNonNull(builder.chunkTimeout, "chunkTimeout required");
+        if (pollInterval.isNegative() || pollInterval.isZero()) {
+            throw new IllegalArgumentException("pollInterval must be positive, got: " + pollInterval);
+        }
+        this.statusWaiter = builder.statusWaiter;
+        this.threadFactory = builder.threadFactory != null ? builder.threadFactory : new WorkerThreadFactory();
+        this.progressListener = builder.progressListener != null ? builder.progressListener : (done, total) -> {
+        };
+        this.resultCache = builder.resultCache;
     }
 
     /**
@@ -24,21 +102,900 @@ public final class Evaluation {
         return new Builder();
     }
 
+    /**
+     * Scores every example with every scorer and waits for the results.
+     *
+     * @param examples
+     *            the examples to evaluate
+     * @param scorers
+     *            the scorers to apply to each example
+     * @return the scoring results, in chunk order
+     * @throws IOException
+     *             if a chunk could not be submitted, failed or timed out
+     * @throws InterruptedException
+     *             if interrupted while waiting; the evaluation is cancelled
+     */
+    public List<ScoringResult> run(List<Example> examples, List<BaseScorer> scorers)
+            throws IOException, InterruptedException {
+        CompletableFuture<List<ScoringResult>> results = runAsync(examples, scorers);
+        try {
+            return results.get();
+        } catch (InterruptedException e) {
+            results.cancel(true);
+            throw e;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Starts scoring every example with every scorer in the background.
+     * Cancelling the returned future stops submitting chunks and abandons
+     * those in flight.
+     *
+     * @param examples
+     *            the examples to evaluate
+     * @param scorers
+     *            the scorers to apply to each example
+     * @return a future completed with the scoring results, in chunk order
+     */
+    public CompletableFuture<List<ScoringResult>> runAsync(List<Example> examples, List<BaseScorer> scorers) {
+        checkRunnable(examples, scorers);
+        return new Job(examples, scorers).start();
+    }
+
+    /**
+     * Returns a publisher that scores every example with every scorer once
+     * subscribed, emitting each chunk's results as soon as it is scored.
+     * <p>
+     * Chunks are only submitted while the subscriber keeps up: workers stop
+     * taking new chunks once the results scored but not yet requested fill
+     * the window of {@code maxInFlight} chunks, so memory stays bounded
+     * however many examples are evaluated. Results are emitted in the order
+     * chunks finish, not in example order. A chunk that fails or times out
+     * signals {@code onError} with an IOException; cancelling the
+     * subscription abandons the chunks in flight.
+     * <p>
+     * The publisher runs the evaluation once and accepts a single
+     * subscriber.
+     *
+     * @param examples
+     *            the examples to evaluate
+     * @param scorers
+     *            the scorers to apply to each example
+     * @return a publisher of the scoring results
+     */
+    public Flow.Publisher<ScoringResult> publish(List<Example> examples, List<BaseScorer> scorers) {
+        checkRunnable(examples, scorers);
+        return new ResultPublisher(examples.iterator(), examples.size(), scorers);
+    }
+
+    /**
+     * Returns a publisher that scores the examples of the iterator, such as
+     * those of a {@link com.judgmentlabs.judgeval.data.DatasetReader}, once
+     * subscribed. Examples are taken from the iterator one chunk at a time as
+     * workers need them, so datasets larger than the heap can be evaluated;
+     * otherwise it behaves like {@link #publish(List, List)}. The progress
+     * listener is passed -1 as the total, which is not known in advance.
+     *
+     * @param examples
+     *            the examples to evaluate, read from the workers' threads
+     * @param scorers
+     *            the scorers to apply to each example
+     * @return a publisher of the scoring results
+     */
+    public Flow.Publisher<ScoringResult> publish(Iterator<Example> examples, List<BaseScorer> scorers) {
+        checkRunnable(examples, scorers);
+        return new ResultPublisher(examples, -1, scorers);
+    }
+
+    private void checkRunnable(Object examples, List<BaseScorer> scorers) {
+        Objects.requireNonNull(projectName, "projectName required");
+        Objects.requireNonNull(examples, "examples required");
+        if (Objects.requireNonNull(scorers, "scorers required")
+                .isEmpty()) {
+            throw new IllegalArgumentException("scorers must not be empty");
+        }
+        if (resultCache != null) {
+            Set<String> names = new HashSet<>();
+            for (BaseScorer scorer : scorers) {
+                if (!names.add(scorer.getName())) {
+                    throw new IllegalArgumentException(
+                            "scorer names must be unique when results are cached, got: " + scorer.getName());
+                }
+            }
+        }
+    }
+
+    private List<List<Example>> split(List<Example> examples) {
+        List<List<Example>> chunks = new ArrayList<>();
+        for (int i = 0; i < examples.size(); i += chunkSize) {
+            chunks.add(examples.subList(i, Math.min(examples.size(), i + chunkSize)));
+        }
+        return chunks;
+    }
+
+    private String evalName() {
+        return runName != null ? runName : "evaluation_" + System.currentTimeMillis();
+    }
+
+    /**
+     * Returns the waiter the chunks of one run wait on: the shared one if set,
+     * otherwise one of the run's own polling at the poll interval.
+     */
+    private EvaluationStatusWaiter openStatusWaiter() {
+        if (statusWaiter != null) {
+            return statusWaiter;
+        }
+        return EvaluationStatusWaiter.builder()
+                .client(client)
+                .minPollInterval(pollInterval)
+                .maxPollInterval(pollInterval)
+                .timeout(chunkTimeout)
+                .pollThreads(1)
+                .build();
+    }
+
+    private void closeStatusWaiter(EvaluationStatusWaiter waiter) {
+        if (waiter != statusWaiter) {
+            waiter.shutdown();
+        }
+    }
+
+    /**
+     * Submits one chunk, waits until it is scored and passes its results to
+     * the sink as they are streamed back.
+     */
+    private void scoreChunk(EvaluationStatusWaiter waiter, String evalName, List<Example> chunk,
+            List<BaseScorer> scorers, Consumer<ScoringResult> sink) throws IOException, InterruptedException {
+        List<ScorerConfig> cacheConfigs = cacheConfigs(scorers);
+        List<Example> pending = chunk;
+        if (cacheConfigs != null) {
+            pending = new ArrayList<>(chunk.size());
+            for (Example example : chunk) {
+                ScoringResult cached = cachedResult(example, cacheConfigs);
+                if (cached != null) {
+                    sink.accept(cached);
+                } else {
+                    pending.add(example);
+                }
+            }
+            if (pending.isEmpty()) {
+                return;
+            }
+        }
+
+        ExampleEvaluationRun evaluationRun = createEvaluationRun(evalName, pending, scorers);
+        String runId = evaluationRun.getId();
+        client.addToRunEvalQueue(evaluationRun);
+
+        CompletableFuture<Object> scored = waiter.await(runId, projectName, pending.size() * scorers.size());
+        try {
+            scored.get(chunkTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IOException("Timed out waiting for evaluation run " + runId);
+        } finally {
+            scored.cancel(false);
+        }
+
+        EvalResultsFetch fetch = new EvalResultsFetch();
+        fetch.setExperimentRunId(runId);
+        fetch.setProjectName(projectName);
+        try (ResultStream<com.judgmentlabs.judgeval.internal.api.models.ScoringResult> stream = client
+                .streamExperimentRunResults(fetch)) {
+            List<Example> submitted = pending;
+            stream.forEachRemaining(result -> {
+                ScoringResult converted = toScoringResult(result);
+                if (cacheConfigs != null) {
+                    cacheResult(submitted, cacheConfigs, converted);
+                }
+                sink.accept(converted);
+            });
+        }
+    }
+
+    /**
+     * Returns the configurations the scorers' results are cached under, or
+     * null if results are not cached. Custom scorers run outside the
+     * backend's scorer configuration, so runs using them are not cached.
+     */
+    private List<ScorerConfig> cacheConfigs(List<BaseScorer> scorers) {
+        if (resultCache == null) {
+            return null;
+        }
+        List<ScorerConfig> configs = new ArrayList<>(scorers.size());
+        for (BaseScorer scorer : scorers) {
+            if (scorer instanceof CustomScorer) {
+                return null;
+            }
+            ScorerConfig config = scorer.getScorerConfig();
+            if (model != null) {
+                config.setModel(model);
+            } else if (config.getModel() == null && scorer instanceof APIScorer) {
+                config.setModel(((APIScorer) scorer).getModel());
+            }
+            configs.add(config);
+        }
+        return configs;
+    }
+
+    /**
+     * Returns the example's result assembled from the cache, or null unless
+     * every scorer's result is cached.
+     */
+    private ScoringResult cachedResult(Example example, List<ScorerConfig> configs) {
+        List<ScorerData> scorersData = new ArrayList<>(configs.size());
+        boolean success = true;
+        for (ScorerConfig config : configs) {
+            ScorerData cached = resultCache.get(example, config);
+            if (cached == null) {
+                return null;
+            }
+            scorersData.add(cached);
+            success &= Boolean.TRUE.equals(cached.getSuccess());
+        }
+        ScoringResult result = new ScoringResult();
+        result.setSuccess(success);
+        result.setScorersData(scorersData);
+        result.setName(example.getName());
+        result.setDataObject(example);
+        return result;
+    }
+
+    /**
+     * Caches each scorer's part of a result, matched to the submitted example
+     * by its ID and to the scorer by name. Scorer errors are not cached.
+     */
+    private void cacheResult(List<Example> submitted, List<ScorerConfig> configs, ScoringResult result) {
+        Example example = findExample(submitted, result.getDataObject());
+        if (example == null || result.getScorersData() == null) {
+            return;
+        }
+        for (ScorerData scorerData : result.getScorersData()) {
+            if (scorerData.getError() != null) {
+                continue;
+            }
+            for (ScorerConfig config : configs) {
+                if (Objects.equals(config.getName(), scorerData.getName())) {
+                    resultCache.put(example, config, scorerData);
+                    break;
+                }
+            }
+        }
+    }
+
+    private static Example findExample(List<Example> submitted, Object dataObject) {
+        Object exampleId = null;
+        if (dataObject instanceof Example) {
+            exampleId = ((Example) dataObject).getExampleId();
+        } else if (dataObject instanceof Map) {
+            exampleId = ((Map<?, ?>) dataObject).get("example_id");
+        }
+        if (exampleId == null) {
+            return null;
+        }
+        for (Example example : submitted) {
+            if (exampleId.equals(example.getExampleId())) {
+                return example;
+            }
+        }
+        return null;
+    }
+
+    private ExampleEvaluationRun createEvaluationRun(String evalName, List<Example> chunk, List<BaseScorer> scorers) {
+        List<ScorerConfig> judgmentScorers = new ArrayList<>();
+        List<com.judgmentlabs.judgeval.internal.api.models.BaseScorer> customScorers = new ArrayList<>();
+        for (BaseScorer scorer : scorers) {
+            if (scorer instanceof CustomScorer) {
+                customScorers.add((com.judgmentlabs.judgeval.internal.api.models.BaseScorer) scorer);
+            } else {
+                judgmentScorers.add(scorer.getScorerConfig());
+            }
+        }
+
+        ExampleEvaluationRun evaluationRun = new ExampleEvaluationRun();
+        evaluationRun.setId(UUID.randomUUID()
+                .toString());
+        evaluationRun.setProjectName(projectName);
+        evaluationRun.setEvalName(evalName);
+        evaluationRun.setModel(model);
+        evaluationRun.setExamples(List.copyOf(chunk));
+        evaluationRun.setJudgmentScorers(judgmentScorers);
+        evaluationRun.setCustomScorers(customScorers);
+        evaluationRun.setCreatedAt(Instant.now()
+                .atOffset(ZoneOffset.UTC)
+                .format(DateTimeFormatter.ISO_INSTANT));
+        return evaluationRun;
+    }
+
+    private static ScoringResult toScoringResult(com.judgmentlabs.judgeval.internal.api.models.ScoringResult source) {
+        ScoringResult result = new ScoringResult();
+        result.setSuccess(source.getSuccess());
+        result.setScorersData(source.getScorersData());
+        result.setName(source.getName());
+        result.setDataObject(source.getDataObject());
+        result.setTraceId(source.getTraceId());
+        result.setRunDuration(source.getRunDuration());
+        result.setEvaluationCost(source.getEvaluationCost());
+        source.getAdditionalProperties()
+                .forEach(result::setAdditionalProperty);
+        return result;
+    }
+
+    /**
+     * One call to {@link #runAsync}: the chunks, their results and the worker
+     * threads that submit and poll them.
+     */
+    private final class Job {
+        private final List<List<Example>>                    chunks;
+        private final List<BaseScorer>                       scorers;
+        private final String                                 evalName;
+        private final int                                    totalExamples;
+        private final List<List<ScoringResult>>              results;
+        private final AtomicInteger                          nextChunk         = new AtomicInteger();
+        private final AtomicInteger                          remainingChunks;
+        private final AtomicInteger                          completedExamples = new AtomicInteger();
+        private final CompletableFuture<List<ScoringResult>> future            = new CompletableFuture<>();
+        private final List<Thread>                           workers           = new ArrayList<>();
+        private EvaluationStatusWaiter                       waiter;
+
+        Job(List<Example> examples, List<BaseScorer> scorers) {
+            this.chunks = split(examples);
+            this.scorers = List.copyOf(scorers);
+            this.evalName = evalName();
+            this.totalExamples = examples.size();
+            this.results = new ArrayList<>(chunks.size());
+            for (int i = 0; i < chunks.size(); i++) {
+                results.add(null);
+            }
+            this.remainingChunks = new AtomicInteger(chunks.size());
+        }
+
+        CompletableFuture<List<ScoringResult>> start() {
+            if (chunks.isEmpty()) {
+                future.complete(List.of());
+                return future;
+            }
+            int workerCount = maxInFlight;
+            if (totalExamples >= 0) {
+                workerCount = Math.min(workerCount, Math.max(1, (totalExamples + chunkSize - 1) / chunkSize));
+            }
+            waiter = openStatusWaiter();
+            synchronized (workers) {
+                for (int i = 0; i < workerCount; i++) {
+                    Thread worker = threadFactory.newThread(this::work);
+                    workers.add(worker);
+                    worker.start();
+                }
+            }
+            future.whenComplete((value, error) -> {
+                if (error != null) {
+                    synchronized (workers) {
+                        workers.forEach(Thread::interrupt);
+                    }
+                }
+                closeStatusWaiter(waiter);
+            });
+            return future;
+        }
+
+        private void work() {
+            while (!future.isDone()) {
+                int index = nextChunk.getAndIncrement();
+                if (index >= chunks.size()) {
+                    return;
+                }
+                try {
+                    List<ScoringResult> chunkResults = new ArrayList<>();
+                    scoreChunk(waiter, evalName, chunks.get(index), scorers, chunkResults::add);
+                    synchronized (results) {
+                        results.set(index, chunkResults);
+                    }
+                } catch (InterruptedException e) {
+                    future.completeExceptionally(new CancellationException("Evaluation interrupted"));
+                    return;
+                } catch (Exception e) {
+                    future.completeExceptionally(e);
+                    return;
+                }
+                progressListener.onProgress(completedExamples.addAndGet(chunks.get(index)
+                        .size()), totalExamples);
+                if (remainingChunks.decrementAndGet() == 0) {
+                    future.complete(collect());
+                }
+            }
+        }
+
+        private List<ScoringResult> collect() {
+            List<ScoringResult> all = new ArrayList<>();
+            synchronized (results) {
+                results.forEach(all::addAll);
+            }
+            return all;
+        }
+    }
+
+    /**
+     * The publisher returned by {@link #publish}. The evaluation starts on the
+     * subscriber's first request.
+     */
+    private final class ResultPublisher implements Flow.Publisher<ScoringResult> {
+        private final Iterator<Example> examples;
+        private final int               totalExamples;
+        private final List<BaseScorer>  scorers;
+        private final AtomicBoolean     subscribed = new AtomicBoolean();
+
+        ResultPublisher(Iterator<Example> examples, int totalExamples, List<BaseScorer> scorers) {
+            this.examples = examples;
+            this.totalExamples = totalExamples;
+            this.scorers = List.copyOf(scorers);
+        }
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super ScoringResult> subscriber) {
+            Objects.requireNonNull(subscriber, "subscriber required");
+            if (!subscribed.compareAndSet(false, true)) {
+                subscriber.onSubscribe(new Flow.Subscription() {
+                    @Override
+                    public void request(long n) {
+                    }
+
+                    @Override
+                    public void cancel() {
+                    }
+                });
+                subscriber.onError(new IllegalStateException("Evaluation results can only be subscribed to once"));
+                return;
+            }
+            ResultSubscription subscription = new ResultSubscription(subscriber, examples, totalExamples,
+                    scorers);
+            subscriber.onSubscribe(subscription);
+            subscription.drain();
+        }
+    }
+
+    /**
+     * Delivers the results of one {@link #publish} call. Workers score chunks
+     * into a buffer and wait while it is full; results leave the buffer only
+     * as the subscriber requests them.
+     */
+    private final class ResultSubscription implements Flow.Subscription {
+        private final Flow.Subscriber<? super ScoringResult> subscriber;
+        private final Iterator<Example>                      source;
+        private final List<BaseScorer>                       scorers;
+        private final String                                 evalName;
+        private final int                                    totalExamples;
+        private final int                                    bufferLimit;
+        private final ArrayDeque<ScoringResult>              buffer            = new ArrayDeque<>();
+        private final List<Thread>                           workers           = new ArrayList<>();
+        private final AtomicInteger                          completedExamples = new AtomicInteger();
+        private final AtomicInteger                          draining          = new AtomicInteger();
+        private EvaluationStatusWaiter                       waiter;
+        private long                                         demand;
+        private int                                          inFlightChunks;
+        private boolean                                      exhausted;
+        private boolean                                      started;
+        private boolean                                      cancelled;
+        private boolean                                      terminated;
+        private Throwable                                    error;
+
+        ResultSubscription(Flow.Subscriber<? super ScoringResult> subscriber, Iterator<Example> source,
+                int totalExamples, List<BaseScorer> scorers) {
+            this.subscriber = subscriber;
+            this.source = source;
+            this.scorers = scorers;
+            this.evalName = evalName();
+            this.totalExamples = totalExamples;
+            this.bufferLimit = maxInFlight * chunkSize * scorers.size();
+            this.exhausted = totalExamples == 0;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                fail(new IllegalArgumentException("request must be positive, got: " + n));
+                return;
+            }
+            boolean start;
+            synchronized (buffer) {
+                if (cancelled) {
+                    return;
+                }
+                demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+                start = !started;
+                started = true;
+            }
+            if (start) {
+                startWorkers();
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            synchronized (buffer) {
+                if (cancelled) {
+                    return;
+                }
+                cancelled = true;
+                buffer.clear();
+                buffer.notifyAll();
+            }
+            synchronized (workers) {
+                workers.forEach(Thread::interrupt);
+            }
+            closeWaiter();
+        }
+
+        private void closeWaiter() {
+            synchronized (workers) {
+                if (waiter != null) {
+                    closeStatusWaiter(waiter);
+                }
+            }
+        }
+
+        private void startWorkers() {
+            int workerCount = maxInFlight;
+            if (totalExamples >= 0) {
+                workerCount = Math.min(workerCount, Math.max(1, (totalExamples + chunkSize - 1) / chunkSize));
+            }
+            synchronized (workers) {
+                waiter = openStatusWaiter();
+                for (int i = 0; i < workerCount; i++) {
+                    Thread worker = threadFactory.newThread(this::work);
+                    workers.add(worker);
+                    worker.start();
+                }
+            }
+        }
+
+        private void work() {
+            while (true) {
+                try {
+                    if (!awaitBufferSpace()) {
+                        return;
+                    }
+                    List<Example> chunk = nextChunk();
+                    if (chunk == null) {
+                        drain();
+                        return;
+                    }
+                    scoreChunk(waiter, evalName, chunk, scorers, this::offer);
+                    progressListener.onProgress(completedExamples.addAndGet(chunk.size()), totalExamples);
+                    synchronized (buffer) {
+                        inFlightChunks--;
+                    }
+                } catch (InterruptedException | CancellationException e) {
+                    return;
+                } catch (Exception e) {
+                    fail(e);
+                    return;
+                }
+                drain();
+            }
+        }
+
+        /**
+         * Takes the next chunk from the source and counts it as in flight.
+         *
+         * @return the chunk, or null once the source is exhausted
+         */
+        private List<Example> nextChunk() {
+            synchronized (source) {
+                List<Example> chunk = new ArrayList<>(chunkSize);
+                boolean more;
+                synchronized (buffer) {
+                    more = !exhausted;
+                }
+                while (more && chunk.size() < chunkSize && source.hasNext()) {
+                    chunk.add(source.next());
+                }
+                synchronized (buffer) {
+                    if (!chunk.isEmpty()) {
+                        inFlightChunks++;
+                    }
+                    if (!more || !source.hasNext()) {
+                        exhausted = true;
+                    }
+                }
+                return chunk.isEmpty() ? null : chunk;
+            }
+        }
+
+        /**
+         * Waits until the buffer has room for another chunk's results.
+         *
+         * @return false if the subscription ended while waiting
+         */
+        private boolean awaitBufferSpace() throws InterruptedException {
+            synchronized (buffer) {
+                while (!cancelled && error == null && buffer.size() >= bufferLimit) {
+                    buffer.wait();
+                }
+                return !cancelled && error == null;
+            }
+        }
+
+        private void offer(ScoringResult result) {
+            synchronized (buffer) {
+                if (!cancelled) {
+                    buffer.add(result);
+                }
+            }
+            drain();
+        }
+
+        private void fail(Throwable failure) {
+            synchronized (buffer) {
+                if (cancelled || error != null) {
+                    return;
+                }
+                error = failure;
+                buffer.notifyAll();
+            }
+            synchronized (workers) {
+                workers.forEach(Thread::interrupt);
+            }
+            drain();
+        }
+
+        /**
+         * Emits buffered results up to the outstanding demand, then the
+         * terminal signal once every chunk has been emitted or the evaluation
+         * failed. Only one thread emits at a time; calls made meanwhile are
+         * picked up by that thread before it returns.
+         */
+        void drain() {
+            if (draining.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            while (true) {
+                while (true) {
+                    ScoringResult next;
+                    Throwable failure = null;
+                    boolean complete = false;
+                    synchronized (buffer) {
+                        if (cancelled || terminated) {
+                            return;
+                        }
+                        if (error != null) {
+                            failure = error;
+                        } else if (buffer.isEmpty() && exhausted && inFlightChunks == 0) {
+                            complete = true;
+                        }
+                        if (failure != null || complete) {
+                            terminated = true;
+                            next = null;
+                        } else if (demand > 0 && !buffer.isEmpty()) {
+                            next = buffer.poll();
+                            demand--;
+                            buffer.notifyAll();
+                        } else {
+                            break;
+                        }
+                    }
+                    if (failure != null) {
+                        closeWaiter();
+                        subscriber.onError(failure);
+                        return;
+                    }
+                    if (complete) {
+                        closeWaiter();
+                        subscriber.onComplete();
+                        return;
+                    }
+                    subscriber.onNext(next);
+                }
+                missed = draining.addAndGet(-missed);
+                if (missed == 0) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private static final class WorkerThreadFactory implements ThreadFactory {
+        private final AtomicInteger index = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "judgeval-evaluation-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
     /**
      * Builder for configuring and creating Evaluation instances.
      */
     public static final class Builder {
-        private JudgmentSyncClient client;
+        private JudgmentSyncClient         client;
+        private String                     projectName;
+        private String                     runName;
+        private String                     model;
+        private int                        chunkSize    = DEFAULT_CHUNK_SIZE;
+        private int                        maxInFlight  = DEFAULT_MAX_IN_FLIGHT;
+        private Duration                   pollInterval = DEFAULT_POLL_INTERVAL;
+        private Duration                   chunkTimeout = DEFAULT_CHUNK_TIMEOUT;
+        private EvaluationStatusWaiter     statusWaiter;
+        private ThreadFactory              threadFactory;
+        private EvaluationProgressListener progressListener;
+        private EvaluationResultCache      resultCache;
 
         Builder client(JudgmentSyncClient client) {
             this.client = client;
             return this;
         }
 
+        /**
+         * Sets the project evaluation runs are created in. Required to run
+         * an evaluation.
+         *
+         * @param projectName
+         *            the project name
+         * @return this builder
+         */
+        public Builder projectName(String projectName) {
+            this.projectName = projectName;
+            return this;
+        }
+
+        /**
+         * Sets the name shared by the evaluation runs of one call to
+         * {@link Evaluation#run}. Defaults to a name with the start time.
+         *
+         * @param runName
+         *            the evaluation run name
+         * @return this builder
+         */
+        public Builder runName(String runName) {
+            this.runName = runName;
+            return this;
+        }
+
+        /**
+         * Sets the model the scorers should use, overriding their defaults.
+         *
+         * @param model
+         *            the model name
+         * @return this builder
+         */
+        public Builder model(String model) {
+            this.model = model;
+            return this;
+        }
+
+        /**
+         * Sets the number of examples submitted in one evaluation run.
+         * Defaults to {@value Evaluation#DEFAULT_CHUNK_SIZE}.
+         *
+         * @param chunkSize
+         *            the chunk size
+         * @return this builder
+         */
+        public Builder chunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of chunks submitted and not yet scored at
+         * once. Defaults to {@value Evaluation#DEFAULT_MAX_IN_FLIGHT}.
+         *
+         * @param maxInFlight
+         *            the maximum in-flight chunk count
+         * @return this builder
+         */
+        public Builder maxInFlight(int maxInFlight) {
+            this.maxInFlight = maxInFlight;
+            return this;
+        }
+
+        /**
+         * Sets how often a submitted chunk's status is checked when no
+         * {@link #statusWaiter(EvaluationStatusWaiter) status waiter} is set.
+         * Defaults to 2 seconds.
+         *
+         * @param pollInterval
+         *            the poll interval
+         * @return this builder
+         */
+        public Builder pollInterval(Duration pollInterval) {
+            this.pollInterval = pollInterval;
+            return this;
+        }
+
+        /**
+         * Sets how long to wait for one chunk to be scored before failing the
+         * evaluation. Defaults to 30 minutes.
+         *
+         * @param chunkTimeout
+         *            the chunk timeout
+         * @return this builder
+         */
+        public Builder chunkTimeout(Duration chunkTimeout) {
+            this.chunkTimeout = chunkTimeout;
+            return this;
+        }
+
+        /**
+         * Sets the waiter submitted chunks wait on, such as one built with
+         * {@link EvaluationFactory#statusWaiter()} and shared by several
+         * evaluations, whose poll intervals then apply. The evaluation does not
+         * shut it down. By default each run polls with a waiter of its own.
+         *
+         * @param statusWaiter
+         *            the status waiter
+         * @return this builder
+         */
+        public Builder statusWaiter(EvaluationStatusWaiter statusWaiter) {
+            this.statusWaiter = statusWaiter;
+            return this;
+        }
+
+        /**
+         * Sets the thread factory for the threads submitting and polling
+         * chunks. Pass {@code Thread.ofVirtual().factory()} to use virtual
+         * threads.
+         *
+         * @param threadFactory
+         *            the thread factory
+         * @return this builder
+         */
+        public Builder threadFactory(ThreadFactory threadFactory) {
+            this.threadFactory = threadFactory;
+            return this;
+        }
+
+        /**
+         * Sets the listener notified as chunks are scored.
+         *
+         * @param progressListener
+         *            the progress listener
+         * @return this builder
+         */
+        public Builder progressListener(EvaluationProgressListener progressListener) {
+            this.progressListener = progressListener;
+            return this;
+        }
+
+        /**
+         * Sets the cache scorer results are looked up in before submitting
+         * examples and stored in once received. Examples whose results are
+         * cached for every scorer are not submitted. Results are matched to
+         * scorers by name, so runs using a cache must not pass two scorers with
+         * the same name. By default nothing is cached.
+         *
+         * @param resultCache
+         *            the result cache
+         * @return this builder
+         */
+        public Builder resultCache(EvaluationResultCache resultCache) {
+            this.resultCache = resultCache;
+            return this;
+        }
+
         /**
          * Builds and returns a new Evaluation instance.
          *
          * @return the configured Evaluation
+         * @throws IllegalArgumentException
+         *             if the chunk size, in-flight limit or poll interval is
+         *             not positive
          */
         public Evaluation build() {
             return new Evaluation(this);
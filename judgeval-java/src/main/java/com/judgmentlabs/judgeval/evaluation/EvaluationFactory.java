@@ -3,7 +3,7 @@ package com.judgmentlabs.judgeval.evaluation;
 import com.judgmentlabs.judgeval.internal.api.JudgmentSyncClient;
 
 /**
- * Factory for creating evaluation builders.
+ * Factory for creating evaluation and status waiter builders.
  */
 public final class EvaluationFactory {
     private final JudgmentSyncClient client;
@@ -20,4 +20,15 @@ public final class EvaluationFactory {
     public Evaluation.Builder create() {
         return Evaluation.builder().client(client);
     }
+
+    /**
+     * Creates a new evaluation status waiter builder configured with this
+     * factory's client.
+     *
+     * @return a new status waiter builder
+     */
+    public EvaluationStatusWaiter.Builder statusWaiter() {
+        return EvaluationStatusWaiter.builder()
+                .client(client);
+    }
 }
@@ -0,0 +1,20 @@
+package com.judgmentlabs.judgeval.evaluation;
+
+/**
+ * Receives progress updates from {@link Evaluation}. Called on the
+ * evaluation's worker threads each time a batch of examples is scored, so
+ * implementations must be thread-safe and should return quickly.
+ */
+@FunctionalInterface
+public interface EvaluationProgressListener {
+    /**
+     * Called after a batch of examples has been scored.
+     *
+     * @param completedExamples
+     *            the number of examples scored so far
+     * @param totalExamples
+     *            the number of examples in the evaluation, or -1 if it is
+     *            not known in advance
+     */
+    void onProgress(int completedExamples, int totalExamples);
+}
@@ -0,0 +1,322 @@
+package com.judgmentlabs.judgeval.evaluation;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.judgmentlabs.judgeval.data.Example;
+import com.judgmentlabs.judgeval.internal.api.Json;
+import com.judgmentlabs.judgeval.internal.api.models.ScorerConfig;
+import com.judgmentlabs.judgeval.internal.api.models.ScorerData;
+import com.judgmentlabs.judgeval.utils.Logger;
+
+/**
+ * Opt-in cache of scorer results, keyed by the content of the example and
+ * the configuration of the scorer that scored it.
+ * <p>
+ * The key is a SHA-256 hash of the example's properties, without its
+ * {@code example_id} and {@code created_at}, and of the scorer's type, name,
+ * threshold, strict mode, kwargs and model. Re-running the same dataset with
+ * the same scorers therefore finds the earlier results however the examples
+ * were recreated. Entries are kept in an on-heap LRU map and, if a directory
+ * is configured, also written to one file per key so they survive the
+ * process.
+ * <p>
+ * An {@link Evaluation} built with a cache submits only examples with at
+ * least one scorer missing from it, and caches the results it receives.
+ */
+public final class EvaluationResultCache {
+    public static final int               DEFAULT_MAX_ENTRIES = 10_000;
+
+    private static final String           KEY_VERSION         = "1";
+    private static final String           FILE_SUFFIX         = ".json";
+    private static final ObjectWriter     KEY_WRITER          = Json.mapper()
+            .writer()
+            .with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+
+    private final Map<String, ScorerData> entries;
+    private final Path                    directory;
+    private final AtomicLong              hits                = new AtomicLong();
+    private final AtomicLong              misses              = new AtomicLong();
+
+    private EvaluationResultCache(Builder builder) {
+        if (builder.maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive, got: " + builder.maxEntries);
+        }
+        int maxEntries = builder.maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ScorerData> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.directory = builder.directory;
+        if (directory != null) {
+            try {
+                Files.createDirectories(directory);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to create cache directory " + directory, e);
+            }
+        }
+    }
+
+    /**
+     * Creates a new builder for configuring an EvaluationResultCache.
+     *
+     * @return a new builder instance
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns the cached result of the scorer for the example.
+     *
+     * @param example
+     *            the scored example
+     * @param scorer
+     *            the scorer configuration, including the model it ran with
+     * @return the cached scorer result, or null if there is none
+     */
+    public ScorerData get(Example example, ScorerConfig scorer) {
+        String key = key(example, scorer);
+        ScorerData cached;
+        synchronized (entries) {
+            cached = entries.get(key);
+        }
+        if (cached == null && directory != null) {
+            cached = read(key);
+            if (cached != null) {
+                synchronized (entries) {
+                    entries.put(key, cached);
+                }
+            }
+        }
+        (cached != null ? hits : misses).incrementAndGet();
+        return cached;
+    }
+
+    /**
+     * Caches the result of the scorer for the example.
+     *
+     * @param example
+     *            the scored example
+     * @param scorer
+     *            the scorer configuration, including the model it ran with
+     * @param result
+     *            the scorer result
+     */
+    public void put(Example example, ScorerConfig scorer, ScorerData result) {
+        Objects.requireNonNull(result, "result required");
+        String key = key(example, scorer);
+        synchronized (entries) {
+            entries.put(key, result);
+        }
+        if (directory != null) {
+            write(key, result);
+        }
+    }
+
+    /**
+     * Removes the cached result of the scorer for the example.
+     *
+     * @param example
+     *            the scored example
+     * @param scorer
+     *            the scorer configuration
+     */
+    public void invalidate(Example example, ScorerConfig scorer) {
+        String key = key(example, scorer);
+        synchronized (entries) {
+            entries.remove(key);
+        }
+        if (directory != null) {
+            delete(directory.resolve(key + FILE_SUFFIX));
+        }
+    }
+
+    /**
+     * Removes every cached result, including those on disk.
+     */
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+        }
+        if (directory == null) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + FILE_SUFFIX)) {
+            files.forEach(EvaluationResultCache::delete);
+        } catch (IOException e) {
+            Logger.warning("Failed to clear evaluation result cache " + directory + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the number of results held in memory.
+     *
+     * @return the in-memory entry count
+     */
+    public int getSize() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Returns the number of lookups that found a cached result.
+     *
+     * @return the hit count
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * Returns the number of lookups that found no cached result.
+     *
+     * @return the miss count
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * Returns the share of lookups that found a cached result.
+     *
+     * @return the hit ratio between 0 and 1, or 0 before any lookup
+     */
+    public double getHitRatio() {
+        long hitCount = hits.get();
+        long total = hitCount + misses.get();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    static String key(Example example, ScorerConfig scorer) {
+        Map<String, Object> exampleFields = new TreeMap<>(example.getAdditionalProperties());
+        exampleFields.put("name", example.getName());
+
+        Map<String, Object> scorerFields = new TreeMap<>();
+        scorerFields.put("score_type", scorer.getScoreType());
+        scorerFields.put("name", scorer.getName());
+        scorerFields.put("threshold", scorer.getThreshold());
+        scorerFields.put("strict_mode", scorer.getStrictMode());
+        scorerFields.put("kwargs", scorer.getKwargs());
+        scorerFields.put("model", scorer.getModel());
+
+        Map<String, Object> content = new TreeMap<>();
+        content.put("version", KEY_VERSION);
+        content.put("example", exampleFields);
+        content.put("scorer", scorerFields);
+        try {
+            return HexFormat.of()
+                    .formatHex(MessageDigest.getInstance("SHA-256")
+                            .digest(KEY_WRITER.writeValueAsString(content)
+                                    .getBytes(StandardCharsets.UTF_8)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Example or scorer cannot be serialized for caching", e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private ScorerData read(String key) {
+        Path file = directory.resolve(key + FILE_SUFFIX);
+        try {
+            return Json.readerFor(ScorerData.class)
+                    .readValue(Files.readAllBytes(file));
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            Logger.warning("Ignoring unreadable cached evaluation result " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void write(String key, ScorerData result) {
+        Path file = directory.resolve(key + FILE_SUFFIX);
+        try {
+            Path temp = Files.createTempFile(directory, key, ".tmp");
+            Files.write(temp, Json.writerFor(ScorerData.class)
+                    .writeValueAsBytes(result));
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Logger.warning("Failed to write cached evaluation result " + file + ": " + e.getMessage());
+        }
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            Logger.warning("Failed to delete cached evaluation result " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Builder for configuring and creating EvaluationResultCache instances.
+     */
+    public static final class Builder {
+        private int  maxEntries = DEFAULT_MAX_ENTRIES;
+        private Path directory;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the maximum number of results held in memory; the least
+         * recently used are evicted first. Defaults to
+         * {@value EvaluationResultCache#DEFAULT_MAX_ENTRIES}.
+         *
+         * @param maxEntries
+         *            the maximum in-memory entry count
+         * @return this builder
+         */
+        public Builder maxEntries(int maxEntries) {
+            this.maxEntries = maxEntries;
+            return this;
+        }
+
+        /**
+         * Sets a directory to also keep results in, so they are found by later
+         * processes. By default results are only kept in memory.
+         *
+         * @param directory
+         *            the cache directory, created if missing
+         * @return this builder
+         */
+        public Builder directory(Path directory) {
+            this.directory = directory;
+            return this;
+        }
+
+        /**
+         * Builds and returns a new EvaluationResultCache instance.
+         *
+         * @return the configured cache
+         * @throws IllegalArgumentException
+         *             if the maximum entry count is not positive
+         * @throws UncheckedIOException
+         *             if the cache directory cannot be created
+         */
+        public EvaluationResultCache build() {
+            return new EvaluationResultCache(this);
+        }
+    }
+}
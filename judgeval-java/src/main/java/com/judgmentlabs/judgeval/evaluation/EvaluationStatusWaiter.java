@@ -0,0 +1,459 @@
+package com.judgmentlabs.judgeval.evaluation;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.judgmentlabs.judgeval.internal.api.JudgmentSyncClient;
+import com.judgmentlabs.judgeval.utils.Logger;
+
+/**
+ * Waits for queued evaluation runs to finish by polling their status, shared
+ * by every thread waiting on runs of one client.
+ * <p>
+ * Threads awaiting the same run share one poll: however many are waiting,
+ * the run's status is requested once per poll interval and all of them are
+ * completed from that response. Each run is polled on its own schedule. A new
+ * run is first polled around the time recent runs took to finish, and a run
+ * still pending after that is polled with exponential backoff between the
+ * minimum and maximum poll intervals.
+ */
+public final class EvaluationStatusWaiter {
+    public static final Duration           DEFAULT_MIN_POLL_INTERVAL = Duration.ofMillis(500);
+    public static final Duration           DEFAULT_MAX_POLL_INTERVAL = Duration.ofSeconds(30);
+    public static final Duration           DEFAULT_TIMEOUT           = Duration.ofMinutes(30);
+    public static final int                DEFAULT_POLL_THREADS      = 2;
+
+    private static final double            LATENCY_WEIGHT            = 0.2;
+
+    private final JudgmentSyncClient       client;
+    private final long                     minPollIntervalNanos;
+    private final long                     maxPollIntervalNanos;
+    private final long                     timeoutNanos;
+    private final ScheduledExecutorService executor;
+    private final Map<RunKey, Watch>       watches                   = new ConcurrentHashMap<>();
+    private final AtomicBoolean            shutdown                  = new AtomicBoolean();
+    private volatile long                  expectedLatencyNanos;
+
+    private EvaluationStatusWaiter(Builder builder) {
+        if (builder.pollThreads <= 0) {
+            throw new IllegalArgumentException("pollThreads must be positive, got: " + builder.pollThreads);
+        }
+        this.client = Objects.requireNonNull(builder.client, "client required");
+        this.minPollIntervalNanos = Objects.requireNonNull(builder.minPollInterval, "minPollInterval required")
+                .toNanos();
+        this.maxPollIntervalNanos = Objects.requireNonNull(builder.maxPollInterval, "maxPollInterval required")
+                .toNanos();
+        this.timeoutNanos = Objects.requireNonNull(builder.timeout, "timeout required")
+                .toNanos();
+        if (minPollIntervalNanos <= 0) {
+            throw new IllegalArgumentException("minPollInterval must be positive, got: " + builder.minPollInterval);
+        }
+        if (maxPollIntervalNanos < minPollIntervalNanos) {
+            throw new IllegalArgumentException("maxPollInterval must not be less than minPollInterval, got: "
+                    + builder.maxPollInterval);
+        }
+        AtomicInteger index = new AtomicInteger();
+        this.executor = Executors.newScheduledThreadPool(builder.pollThreads, runnable -> {
+            Thread thread = new Thread(runnable, "judgeval-evaluation-status-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Creates a new builder for configuring an EvaluationStatusWaiter.
+     *
+     * @return a new builder instance
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns a future completed with the run's final status once the backend
+     * reports it completed. The future fails with an IOException if the run
+     * failed or did not finish within the timeout. Cancelling the future stops
+     * polling the run once no other caller is waiting on it.
+     *
+     * @param experimentRunId
+     *            the evaluation run ID
+     * @param projectName
+     *            the project the run belongs to
+     * @return a future completed with the status reported by the backend
+     * @throws IllegalStateException
+     *             if the waiter is shut down
+     */
+    public CompletableFuture<Object> await(String experimentRunId, String projectName) {
+        return await(experimentRunId, projectName, 0);
+    }
+
+    /**
+     * Returns a future completed with the run's status once the backend
+     * reports it completed or lists at least the expected number of results,
+     * whichever comes first. Otherwise behaves like
+     * {@link #await(String, String)}.
+     *
+     * @param experimentRunId
+     *            the evaluation run ID
+     * @param projectName
+     *            the project the run belongs to
+     * @param expectedResults
+     *            the number of results the scored run lists, or 0 to wait
+     *            for the completed status only
+     * @return a future completed with the status reported by the backend
+     * @throws IllegalStateException
+     *             if the waiter is shut down
+     */
+    public CompletableFuture<Object> await(String experimentRunId, String projectName, int expectedResults) {
+        RunKey key = new RunKey(Objects.requireNonNull(experimentRunId, "experimentRunId required"),
+                Objects.requireNonNull(projectName, "projectName required"), expectedResults);
+        while (true) {
+            if (shutdown.get()) {
+                throw new IllegalStateException("EvaluationStatusWaiter is shut down");
+            }
+            Watch watch = watches.computeIfAbsent(key, this::startWatch);
+            CompletableFuture<Object> waiter = watch.join();
+            if (waiter != null) {
+                return waiter;
+            }
+            watches.remove(key, watch);
+        }
+    }
+
+    /**
+     * Returns the number of runs being polled.
+     *
+     * @return the pending run count
+     */
+    public int getPendingCount() {
+        return watches.size();
+    }
+
+    /**
+     * Returns the average time recent runs took from the first wait to
+     * completion, which sets when new runs are first polled.
+     *
+     * @return the observed queue latency, zero before any run has completed
+     */
+    public Duration getObservedLatency() {
+        return Duration.ofNanos(expectedLatencyNanos);
+    }
+
+    /**
+     * Stops polling and fails every pending future with a
+     * CancellationException.
+     */
+    public void shutdown() {
+        if (!shutdown.compareAndSet(false, true)) {
+            return;
+        }
+        executor.shutdownNow();
+        for (Watch watch : new ArrayList<>(watches.values())) {
+            watch.complete(null, new CancellationException("EvaluationStatusWaiter shut down"));
+        }
+    }
+
+    /**
+     * Returns whether the status reported by the backend shows the run as
+     * completed.
+     *
+     * @throws IOException
+     *             if the backend reports the run as failed
+     */
+    static boolean isCompleted(Object status, String runId) throws IOException {
+        if (!(status instanceof Map)) {
+            return false;
+        }
+        Map<?, ?> fields = (Map<?, ?>) status;
+        Object state = fields.get("status");
+        if (state == null) {
+            return false;
+        }
+        String value = state.toString()
+                .toLowerCase(Locale.ROOT);
+        if (value.equals("failed") || value.equals("error")) {
+            throw new IOException("Evaluation run " + runId + " failed: " + fields.get("error"));
+        }
+        return value.equals("completed");
+    }
+
+    /**
+     * Returns whether the status shows the run as completed or lists at least
+     * the expected number of results.
+     *
+     * @throws IOException
+     *             if the backend reports the run as failed
+     */
+    private static boolean isScored(Object status, String runId, int expectedResults) throws IOException {
+        if (isCompleted(status, runId)) {
+            return true;
+        }
+        if (expectedResults <= 0 || !(status instanceof Map)) {
+            return false;
+        }
+        Object results = ((Map<?, ?>) status).get("results");
+        return results instanceof List && ((List<?>) results).size() >= expectedResults;
+    }
+
+    private Watch startWatch(RunKey key) {
+        Watch watch = new Watch(key);
+        watch.schedule(clamp(expectedLatencyNanos));
+        return watch;
+    }
+
+    private long clamp(long delayNanos) {
+        return Math.max(minPollIntervalNanos, Math.min(maxPollIntervalNanos, delayNanos));
+    }
+
+    private void recordLatency(long latencyNanos) {
+        long expected = expectedLatencyNanos;
+        expectedLatencyNanos = expected == 0 ? latencyNanos
+                : (long) (expected + LATENCY_WEIGHT * (latencyNanos - expected));
+    }
+
+    private static final class RunKey {
+        private final String runId;
+        private final String projectName;
+        private final int    expectedResults;
+
+        RunKey(String runId, String projectName, int expectedResults) {
+            this.runId = runId;
+            this.projectName = projectName;
+            this.expectedResults = expectedResults;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof RunKey)) {
+                return false;
+            }
+            RunKey key = (RunKey) other;
+            return runId.equals(key.runId) && projectName.equals(key.projectName)
+                    && expectedResults == key.expectedResults;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(runId, projectName, expectedResults);
+        }
+    }
+
+    /**
+     * The polling of one run and the futures of the callers waiting on it.
+     */
+    private final class Watch {
+        private final RunKey                          key;
+        private final long                            startNanos = System.nanoTime();
+        private final List<CompletableFuture<Object>> waiters    = new ArrayList<>();
+        private long                                  backoffNanos;
+        private boolean                               done;
+
+        Watch(RunKey key) {
+            this.key = key;
+            this.backoffNanos = minPollIntervalNanos;
+        }
+
+        /**
+         * Adds a caller's future, or returns null if the run has already
+         * finished and a new watch is needed.
+         */
+        CompletableFuture<Object> join() {
+            CompletableFuture<Object> waiter = new CompletableFuture<>();
+            synchronized (this) {
+                if (done) {
+                    return null;
+                }
+                waiters.add(waiter);
+            }
+            waiter.whenComplete((value, error) -> {
+                if (waiter.isCancelled()) {
+                    leave(waiter);
+                }
+            });
+            return waiter;
+        }
+
+        private void leave(CompletableFuture<Object> waiter) {
+            synchronized (this) {
+                waiters.remove(waiter);
+                if (done || !waiters.isEmpty()) {
+                    return;
+                }
+                done = true;
+            }
+            watches.remove(key, this);
+        }
+
+        void schedule(long delayNanos) {
+            try {
+                executor.schedule(this::poll, delayNanos, TimeUnit.NANOSECONDS);
+            } catch (RejectedExecutionException e) {
+                complete(null, new CancellationException("EvaluationStatusWaiter shut down"));
+            }
+        }
+
+        private void poll() {
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+            }
+            Object status = null;
+            Exception failure = null;
+            try {
+                status = client.getEvaluationStatus(key.runId, key.projectName);
+            } catch (InterruptedException e) {
+                Thread.currentThread()
+                        .interrupt();
+                return;
+            } catch (IOException | RuntimeException e) {
+                failure = e;
+                Logger.debug("Polling evaluation run " + key.runId + " failed: " + e.getMessage());
+            }
+            if (failure == null) {
+                try {
+                    if (isScored(status, key.runId, key.expectedResults)) {
+                        recordLatency(System.nanoTime() - startNanos);
+                        complete(status, null);
+                        return;
+                    }
+                } catch (IOException e) {
+                    complete(null, e);
+                    return;
+                }
+            }
+
+            long elapsed = System.nanoTime() - startNanos;
+            long remaining = timeoutNanos - elapsed;
+            if (remaining <= 0) {
+                complete(null, new IOException("Timed out waiting for evaluation run " + key.runId, failure));
+                return;
+            }
+            long delay;
+            long expected = expectedLatencyNanos;
+            if (elapsed < expected) {
+                delay = clamp(expected - elapsed);
+            } else {
+                delay = backoffNanos;
+                backoffNanos = Math.min(maxPollIntervalNanos, backoffNanos * 2);
+            }
+            schedule(Math.min(delay, remaining));
+        }
+
+        void complete(Object status, Throwable error) {
+            List<CompletableFuture<Object>> completed;
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+                done = true;
+                completed = new ArrayList<>(waiters);
+                waiters.clear();
+            }
+            watches.remove(key, this);
+            for (CompletableFuture<Object> waiter : completed) {
+                if (error != null) {
+                    waiter.completeExceptionally(error);
+                } else {
+                    waiter.complete(status);
+                }
+            }
+        }
+    }
+
+    /**
+     * Builder for configuring and creating EvaluationStatusWaiter instances.
+     */
+    public static final class Builder {
+        private JudgmentSyncClient client;
+        private Duration           minPollInterval = DEFAULT_MIN_POLL_INTERVAL;
+        private Duration           maxPollInterval = DEFAULT_MAX_POLL_INTERVAL;
+        private Duration           timeout         = DEFAULT_TIMEOUT;
+        private int                pollThreads     = DEFAULT_POLL_THREADS;
+
+        private Builder() {
+        }
+
+        Builder client(JudgmentSyncClient client) {
+            this.client = client;
+            return this;
+        }
+
+        /**
+         * Sets the shortest time between two polls of one run. Defaults to
+         * 500 milliseconds.
+         *
+         * @param minPollInterval
+         *            the minimum poll interval
+         * @return this builder
+         */
+        public Builder minPollInterval(Duration minPollInterval) {
+            this.minPollInterval = minPollInterval;
+            return this;
+        }
+
+        /**
+         * Sets the longest time between two polls of one run, which backoff
+         * does not exceed. Defaults to 30 seconds.
+         *
+         * @param maxPollInterval
+         *            the maximum poll interval
+         * @return this builder
+         */
+        public Builder maxPollInterval(Duration maxPollInterval) {
+            this.maxPollInterval = maxPollInterval;
+            return this;
+        }
+
+        /**
+         * Sets how long to wait for one run before failing its futures.
+         * Defaults to 30 minutes.
+         *
+         * @param timeout
+         *            the run timeout
+         * @return this builder
+         */
+        public Builder timeout(Duration timeout) {
+            this.timeout = timeout;
+            return this;
+        }
+
+        /**
+         * Sets the number of threads polling run statuses. Defaults to
+         * {@value EvaluationStatusWaiter#DEFAULT_POLL_THREADS}.
+         *
+         * @param pollThreads
+         *            the poll thread count
+         * @return this builder
+         */
+        public Builder pollThreads(int pollThreads) {
+            this.pollThreads = pollThreads;
+            return this;
+        }
+
+        /**
+         * Builds the waiter and starts its poll threads.
+         *
+         * @return the waiter
+         * @throws IllegalArgumentException
+         *             if the poll intervals or thread count are invalid
+         */
+        public EvaluationStatusWaiter build() {
+            return new EvaluationStatusWaiter(this);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.judgmentlabs.judgeval.internal.api;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Optional;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+/**
+ * Everything about one API endpoint that does not change between calls: its
+ * method and resolved URI, the writer for its request type and the reader for
+ * its response type.
+ *
+ * @param <T>
+ *            the decoded response type
+ */
+final class ApiEndpoint<T> {
+    private final String                 method;
+    private final URI                    uri;
+    private final Optional<ObjectWriter> writer;
+    private final ObjectReader           reader;
+
+    ApiEndpoint(String method, URI uri, Optional<ObjectWriter> writer, ObjectReader reader) {
+        this.method = method;
+        this.uri = uri;
+        this.writer = writer;
+        this.reader = reader;
+    }
+
+    String method() {
+        return method;
+    }
+
+    URI uri() {
+        return uri;
+    }
+
+    /**
+     * Returns the endpoint URI with the given query parameters appended.
+     *
+     * @param query
+     *            the query parameters, in order
+     * @return the request URI
+     */
+    URI uri(Map<String, String> query) {
+        if (query.isEmpty()) {
+            return uri;
+        }
+        StringBuilder url = new StringBuilder(uri.toString()).append('?');
+        query.forEach((name, value) -> url.append(url.charAt(url.length() - 1) == '?' ? "" : "&")
+                .append(URLEncoder.encode(name, StandardCharsets.UTF_8))
+                .append('=')
+                .append(URLEncoder.encode(value, StandardCharsets.UTF_8)));
+        return URI.create(url.toString());
+    }
+
+    /**
+     * Returns the writer for the request body, or empty when the endpoint takes
+     * no body.
+     *
+     * @return the request writer
+     */
+    Optional<ObjectWriter> writer() {
+        return writer;
+    }
+
+    ObjectReader reader() {
+        return reader;
+    }
+}
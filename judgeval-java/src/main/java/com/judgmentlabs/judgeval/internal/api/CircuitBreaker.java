@@ -0,0 +1,85 @@
+package com.judgmentlabs.judgeval.internal.api;
+
+import com.judgmentlabs.judgeval.CircuitBreakerPolicy;
+import com.judgmentlabs.judgeval.EndpointMetrics;
+import com.judgmentlabs.judgeval.EndpointMetrics.CircuitState;
+
+/**
+ * Circuit breaker and request counters for a single endpoint.
+ */
+final class CircuitBreaker {
+    private final String               endpoint;
+    private final CircuitBreakerPolicy policy;
+    private CircuitState               state = CircuitState.CLOSED;
+    private int                        consecutiveFailures;
+    private long                       openedAtNanos;
+    private boolean                    trialInFlight;
+    private long                       attempts;
+    private long                       retries;
+    private long                       failures;
+    private long                       rejected;
+
+    CircuitBreaker(String endpoint, CircuitBreakerPolicy policy) {
+        this.endpoint = endpoint;
+        this.policy = policy;
+    }
+
+    /**
+     * Claims permission to send one attempt.
+     *
+     * @return false if the breaker is open and the attempt must fail fast
+     */
+    synchronized boolean tryAcquire() {
+        if (state == CircuitState.OPEN) {
+            if (System.nanoTime() - openedAtNanos < policy.getOpenDuration()
+                    .toNanos()) {
+                rejected++;
+                return false;
+            }
+            state = CircuitState.HALF_OPEN;
+            trialInFlight = false;
+        }
+        if (state == CircuitState.HALF_OPEN) {
+            if (trialInFlight) {
+                rejected++;
+                return false;
+            }
+            trialInFlight = true;
+        }
+        attempts++;
+        return true;
+    }
+
+    synchronized void recordSuccess() {
+        consecutiveFailures = 0;
+        trialInFlight = false;
+        state = CircuitState.CLOSED;
+    }
+
+    synchronized void recordFailure() {
+        failures++;
+        consecutiveFailures++;
+        trialInFlight = false;
+        if (state == CircuitState.HALF_OPEN || consecutiveFailures >= policy.getFailureThreshold()) {
+            state = CircuitState.OPEN;
+            openedAtNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * Gives up a claimed attempt that ended without saying anything about the
+     * endpoint, such as an interrupted or locally failed send. A half-open
+     * breaker lets the next attempt be the trial instead.
+     */
+    synchronized void releaseTrial() {
+        trialInFlight = false;
+    }
+
+    synchronized void recordRetry() {
+        retries++;
+    }
+
+    synchronized EndpointMetrics snapshot() {
+        return new EndpointMetrics(endpoint, state, attempts, retries, failures, rejected);
+    }
+}
@@ -0,0 +1,22 @@
+package com.judgmentlabs.judgeval.internal.api;
+
+import java.io.IOException;
+
+/**
+ * Thrown instead of sending a request while the endpoint's circuit breaker is
+ * open.
+ */
+public class CircuitBreakerOpenException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    private final String      endpoint;
+
+    public CircuitBreakerOpenException(String endpoint) {
+        super("Circuit breaker open for " + endpoint);
+        this.endpoint = endpoint;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+}
@@ -0,0 +1,402 @@
+package com.judgmentlabs.judgeval.internal.api;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.judgmentlabs.judgeval.Compression;
+import com.judgmentlabs.judgeval.EndpointMetrics;
+import com.judgmentlabs.judgeval.RetryPolicy;
+import com.judgmentlabs.judgeval.TransportConfig;
+
+/**
+ * A single pooled {@link HttpClient} together with the request timeout,
+ * concurrency limit, retry policy and per-endpoint circuit breakers from a
+ * {@link TransportConfig}. One instance is shared by every API client and span
+ * exporter created from the same configuration.
+ */
+public final class HttpTransport {
+    private static volatile HttpTransport        shared;
+
+    private final HttpClient                     client;
+    private final TransportConfig                config;
+    private final Compression                    compression;
+    private final Executor                       bodyExecutor;
+    private final Deque<CompletableFuture<Void>> waiters  = new ArrayDeque<>();
+    private final Map<String, CircuitBreaker>    breakers = new ConcurrentHashMap<>();
+    private int                                  inFlight;
+
+    private HttpTransport(TransportConfig config) {
+        this.config = Objects.requireNonNull(config, "config required");
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .version(config.getHttpVersion())
+                .connectTimeout(config.getConnectTimeout());
+        config.getExecutor()
+                .ifPresent(builder::executor);
+        this.client = builder.build();
+        this.compression = JsonRequestBody.resolve(config.getCompression());
+        this.bodyExecutor = config.getExecutor()
+                .orElseGet(JsonRequestBody::defaultExecutor);
+    }
+
+    /**
+     * Creates a transport with its own connection pool.
+     *
+     * @param config
+     *            the transport settings
+     * @return a new transport
+     */
+    public static HttpTransport create(TransportConfig config) {
+        return new HttpTransport(config);
+    }
+
+    /**
+     * Returns the process-wide transport with default settings, used by clients
+     * constructed without an explicit transport.
+     *
+     * @return the shared default transport
+     */
+    public static HttpTransport defaultTransport() {
+        HttpTransport transport = shared;
+        if (transport == null) {
+            synchronized (HttpTransport.class) {
+                transport = shared;
+                if (transport == null) {
+                    transport = new HttpTransport(TransportConfig.defaults());
+                    shared = transport;
+                }
+            }
+        }
+        return transport;
+    }
+
+    public TransportConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * Returns the executor for work that blocks on a request or response body,
+     * such as decoding a streamed response. It is the configured executor, or
+     * a shared pool of daemon threads when none is configured.
+     *
+     * @return the body executor
+     */
+    public Executor getBodyExecutor() {
+        return bodyExecutor;
+    }
+
+    /**
+     * Starts a request to the given URI with the configured request timeout
+     * applied.
+     *
+     * @param uri
+     *            the request URI
+     * @return a request builder
+     */
+    public HttpRequest.Builder newRequest(URI uri) {
+        return HttpRequest.newBuilder()
+                .uri(uri)
+                .timeout(config.getRequestTimeout());
+    }
+
+    /**
+     * Starts a request whose body is the JSON form of {@code payload}, compressed
+     * when it exceeds the compression threshold. Large payloads are streamed
+     * to the connection in chunks instead of being held in memory; see
+     * {@link JsonRequestBody}.
+     *
+     * @param method
+     *            the HTTP method
+     * @param uri
+     *            the request URI
+     * @param writer
+     *            the writer used to serialize the payload
+     * @param payload
+     *            the request payload
+     * @return a request builder with method and body set
+     * @throws IOException
+     *             if the payload cannot be serialized
+     */
+    public HttpRequest.Builder newJsonRequest(String method, URI uri, ObjectWriter writer, Object payload)
+            throws IOException {
+        JsonRequestBody body = JsonRequestBody.create(writer, payload, compression,
+                config.getCompressionThreshold(), bodyExecutor, config.getRequestTimeout());
+        HttpRequest.Builder builder = newRequest(uri);
+        body.contentEncoding()
+                .ifPresent(encoding -> builder.header("Content-Encoding", encoding));
+        return builder.method(method, body.publisher());
+    }
+
+    /**
+     * Sends a request, retrying according to the configured {@link RetryPolicy}
+     * and failing fast while the endpoint's circuit breaker is open. If every
+     * attempt gets a retryable error status, the last response is returned.
+     *
+     * @param request
+     *            the request
+     * @param handler
+     *            the response body handler
+     * @param <T>
+     *            the response body type
+     * @return the response
+     * @throws CircuitBreakerOpenException
+     *             if the endpoint's circuit breaker is open
+     * @throws IOException
+     *             if the last attempt fails
+     * @throws InterruptedException
+     *             if interrupted while waiting for a slot, a response or a
+     *             backoff delay
+     */
+    public <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> handler)
+            throws IOException, InterruptedException {
+        CircuitBreaker breaker = breakerFor(request);
+        RetryPolicy retryPolicy = config.getRetryPolicy();
+        for (int attempt = 1;; attempt++) {
+            if (!breaker.tryAcquire()) {
+                throw new CircuitBreakerOpenException(endpointOf(request));
+            }
+            HttpResponse<T> response;
+            try {
+                response = sendOnce(request, handler);
+            } catch (IOException e) {
+                breaker.recordFailure();
+                if (!retryPolicy.shouldRetry(attempt)) {
+                    throw e;
+                }
+                breaker.recordRetry();
+                Thread.sleep(retryPolicy.delayBefore(attempt, Optional.empty())
+                        .toMillis());
+                continue;
+            } catch (InterruptedException | RuntimeException e) {
+                breaker.releaseTrial();
+                throw e;
+            }
+            if (!isFailure(response.statusCode())) {
+                breaker.recordSuccess();
+                return response;
+            }
+            breaker.recordFailure();
+            if (!RetryPolicy.isRetryableStatus(response.statusCode()) || !retryPolicy.shouldRetry(attempt)) {
+                return response;
+            }
+            discard(response);
+            breaker.recordRetry();
+            Thread.sleep(retryPolicy.delayBefore(attempt, retryAfter(response))
+                    .toMillis());
+        }
+    }
+
+    /**
+     * Sends a request asynchronously with the same retry and circuit breaker
+     * behavior as {@link #send}. Backoff delays do not block a thread.
+     *
+     * @param request
+     *            the request
+     * @param handler
+     *            the response body handler
+     * @param <T>
+     *            the response body type
+     * @return a future completing with the response
+     */
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> handler) {
+        CompletableFuture<HttpResponse<T>> result = new CompletableFuture<>();
+        try {
+            attemptAsync(request, handler, breakerFor(request), 1, result);
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    private <T> void attemptAsync(HttpRequest request, HttpResponse.BodyHandler<T> handler, CircuitBreaker breaker,
+            int attempt, CompletableFuture<HttpResponse<T>> result) {
+        if (!breaker.tryAcquire()) {
+            result.completeExceptionally(new CircuitBreakerOpenException(endpointOf(request)));
+            return;
+        }
+        sendOnceAsync(request, handler).whenComplete((response, error) -> {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause()
+                    : error;
+            if (cause == null && !isFailure(response.statusCode())) {
+                breaker.recordSuccess();
+                result.complete(response);
+                return;
+            }
+            breaker.recordFailure();
+            RetryPolicy retryPolicy = config.getRetryPolicy();
+            boolean retryable = cause != null ? cause instanceof IOException
+                    : RetryPolicy.isRetryableStatus(response.statusCode());
+            if (!retryable || !retryPolicy.shouldRetry(attempt)) {
+                if (cause != null) {
+                    result.completeExceptionally(cause);
+                } else {
+                    result.complete(response);
+                }
+                return;
+            }
+            if (cause == null) {
+                discard(response);
+            }
+            breaker.recordRetry();
+            Duration delay = retryPolicy.delayBefore(attempt,
+                    cause != null ? Optional.empty() : retryAfter(response));
+            CompletableFuture.delayedExecutor(delay.toMillis(), TimeUnit.MILLISECONDS)
+                    .execute(() -> attemptAsync(request, handler, breaker, attempt + 1, result));
+        });
+    }
+
+    private <T> HttpResponse<T> sendOnce(HttpRequest request, HttpResponse.BodyHandler<T> handler)
+            throws IOException, InterruptedException {
+        CompletableFuture<Void> permit = acquire();
+        try {
+            permit.get();
+        } catch (InterruptedException e) {
+            if (!permit.cancel(false)) {
+                release();
+            }
+            throw e;
+        } catch (ExecutionException | CancellationException e) {
+            throw new IOException("Failed to acquire request slot", e);
+        }
+        try {
+            return client.send(request, handler);
+        } finally {
+            release();
+        }
+    }
+
+    private <T> CompletableFuture<HttpResponse<T>> sendOnceAsync(HttpRequest request,
+            HttpResponse.BodyHandler<T> handler) {
+        return acquire().thenCompose(ignored -> {
+            CompletableFuture<HttpResponse<T>> response;
+            try {
+                response = client.sendAsync(request, handler);
+            } catch (RuntimeException e) {
+                release();
+                return CompletableFuture.failedFuture(e);
+            }
+            return response.whenComplete((ignoredResponse, error) -> release());
+        });
+    }
+
+    private static boolean isFailure(int statusCode) {
+        return statusCode == 429 || statusCode >= 500;
+    }
+
+    /**
+     * Releases the body of a response that is about to be retried, so that a
+     * streamed body does not hold on to its connection.
+     */
+    private static void discard(HttpResponse<?> response) {
+        if (response.body() instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) response.body()).close();
+            } catch (Exception ignored) {
+                // the connection is dropped instead of being reused
+            }
+        }
+    }
+
+    private static Optional<Duration> retryAfter(HttpResponse<?> response) {
+        if (response.statusCode() != 429 && response.statusCode() != 503) {
+            return Optional.empty();
+        }
+        return response.headers()
+                .firstValue("Retry-After")
+                .flatMap(HttpTransport::parseRetryAfter);
+    }
+
+    static Optional<Duration> parseRetryAfter(String value) {
+        try {
+            return Optional.of(Duration.ofSeconds(Math.max(0, Long.parseLong(value.trim()))));
+        } catch (NumberFormatException e) {
+            try {
+                Duration delay = Duration.between(Instant.now(),
+                        ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME));
+                return Optional.of(delay.isNegative() ? Duration.ZERO : delay);
+            } catch (DateTimeParseException ignored) {
+                return Optional.empty();
+            }
+        }
+    }
+
+    private static String endpointOf(HttpRequest request) {
+        return request.method() + " " + request.uri()
+                .getPath();
+    }
+
+    private CircuitBreaker breakerFor(HttpRequest request) {
+        return breakers.computeIfAbsent(endpointOf(request),
+                endpoint -> new CircuitBreaker(endpoint, config.getCircuitBreaker()));
+    }
+
+    /**
+     * Returns request, retry and circuit breaker statistics for every endpoint
+     * this transport has called.
+     *
+     * @return a snapshot per endpoint
+     */
+    public List<EndpointMetrics> getEndpointMetrics() {
+        List<EndpointMetrics> metrics = new ArrayList<>();
+        breakers.values()
+                .forEach(breaker -> metrics.add(breaker.snapshot()));
+        return metrics;
+    }
+
+    /**
+     * Returns the number of requests currently in flight.
+     *
+     * @return the in-flight request count
+     */
+    public synchronized int getInFlightRequests() {
+        return inFlight;
+    }
+
+    private synchronized CompletableFuture<Void> acquire() {
+        if (inFlight < config.getMaxConcurrentRequests()) {
+            inFlight++;
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Void> waiter = new CompletableFuture<>();
+        waiters.addLast(waiter);
+        return waiter;
+    }
+
+    private void release() {
+        CompletableFuture<Void> next;
+        synchronized (this) {
+            do {
+                next = waiters.pollFirst();
+            } while (next != null && next.isCancelled());
+            if (next == null) {
+                inFlight--;
+                return;
+            }
+        }
+        if (!next.complete(null)) {
+            release();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.judgmentlabs.judgeval.internal.api;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.judgmentlabs.judgeval.internal.api.models.BaseScorer;
+import com.judgmentlabs.judgeval.internal.api.models.EvalResults;
+import com.judgmentlabs.judgeval.internal.api.models.ExampleEvaluationRun;
+import com.judgmentlabs.judgeval.internal.api.models.PromptScorer;
+import com.judgmentlabs.judgeval.internal.api.models.ScorerConfig;
+import com.judgmentlabs.judgeval.internal.api.models.ScorerData;
+import com.judgmentlabs.judgeval.internal.api.models.ScoringResult;
+import com.judgmentlabs.judgeval.internal.api.models.TraceEvaluationRun;
+import com.judgmentlabs.judgeval.utils.Logger;
+
+/**
+ * The SDK-wide Jackson mapper with a cached writer and reader per type.
+ * <p>
+ * A writer or reader resolves its type's serializer or deserializer when it is
+ * created, so reusing one skips the lookup that
+ * {@link ObjectMapper#writeValueAsString(Object)} does on every call. The
+ * models sent with every evaluation are resolved when this class loads. If
+ * {@code jackson-module-blackbird} is on the classpath it is registered, which
+ * replaces reflective property access with generated accessors; set the system
+ * property {@value #BLACKBIRD_PROPERTY} to {@code false} to leave it out.
+ */
+public final class Json {
+    public static final String                    BLACKBIRD_PROPERTY = "judgeval.jackson.blackbird";
+
+    private static final ObjectMapper             MAPPER             = createMapper();
+    private static final ClassValue<ObjectWriter> WRITERS            = new ClassValue<>() {
+        @Override
+        protected ObjectWriter computeValue(Class<?> type) {
+            return MAPPER.writerFor(type);
+        }
+    };
+    private static final ClassValue<ObjectReader> READERS            = new ClassValue<>() {
+        @Override
+        protected ObjectReader computeValue(Class<?> type) {
+            return MAPPER.readerFor(type);
+        }
+    };
+
+    static {
+        for (Class<?> type : new Class<?>[] { ExampleEvaluationRun.class, TraceEvaluationRun.class,
+                EvalResults.class, ScoringResult.class, ScorerData.class, ScorerConfig.class, BaseScorer.class,
+                PromptScorer.class }) {
+            WRITERS.get(type);
+            READERS.get(type);
+        }
+    }
+
+    private Json() {
+    }
+
+    /**
+     * Returns the shared mapper. It must not be reconfigured, since every
+     * client and tracer in the process uses it.
+     *
+     * @return the shared mapper
+     */
+    public static ObjectMapper mapper() {
+        return MAPPER;
+    }
+
+    /**
+     * Returns the cached writer for a type.
+     *
+     * @param type
+     *            the type to serialize
+     * @return the writer
+     */
+    public static ObjectWriter writerFor(Class<?> type) {
+        return WRITERS.get(type);
+    }
+
+    /**
+     * Returns the cached reader for a type.
+     *
+     * @param type
+     *            the type to deserialize
+     * @return the reader
+     */
+    public static ObjectReader readerFor(Class<?> type) {
+        return READERS.get(type);
+    }
+
+    private static ObjectMapper createMapper() {
+        ObjectMapper mapper = new ObjectMapper();
+        if (Boolean.parseBoolean(System.getProperty(BLACKBIRD_PROPERTY, "true"))) {
+            try {
+                Class.forName("com.fasterxml.jackson.module.blackbird.BlackbirdModule");
+                mapper.registerModule(Blackbird.create());
+            } catch (ClassNotFoundException | LinkageError e) {
+                Logger.debug("jackson-module-blackbird is not available; using reflective serialization");
+            }
+        }
+        return mapper;
+    }
+
+    private static final class Blackbird {
+        static Module create() {
+            return new com.fasterxml.jackson.module.blackbird.BlackbirdModule();
+        }
+    }
+}
@@ -0,0 +1,380 @@
+package com.judgmentlabs.judgeval.internal.api;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.http.HttpRequest;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.judgmentlabs.judgeval.Compression;
+import com.judgmentlabs.judgeval.utils.Logger;
+
+/**
+ * The body of a JSON API request.
+ * <p>
+ * Payloads up to the inline limit are serialized up front into one buffer and
+ * compressed from there when they cross the compression threshold. Larger
+ * payloads are never materialized: each time the HTTP client subscribes, the
+ * payload is serialized on a writer thread straight into fixed-size chunks
+ * that are handed to the client as it asks for them. The writer waits while
+ * the client has no outstanding demand, so the memory held per request is
+ * bounded by the chunk size and the client's demand, not by the payload size.
+ * A retried request simply subscribes again and serializes the payload anew.
+ */
+final class JsonRequestBody {
+    static final int                        CHUNK_BYTES    = 16 * 1024;
+    static final int                        INLINE_LIMIT   = 64 * 1024;
+
+    private static final boolean            ZSTD_AVAILABLE = detectZstd();
+
+    private final HttpRequest.BodyPublisher publisher;
+    private final Optional<String>          contentEncoding;
+
+    private JsonRequestBody(HttpRequest.BodyPublisher publisher, Optional<String> contentEncoding) {
+        this.publisher = publisher;
+        this.contentEncoding = contentEncoding;
+    }
+
+    /**
+     * Encodes a payload, compressing it when it is larger than the threshold.
+     *
+     * @param writer
+     *            the writer used to serialize the payload
+     * @param payload
+     *            the payload
+     * @param compression
+     *            the resolved compression
+     * @param threshold
+     *            the minimum body size to compress
+     * @param executor
+     *            runs the writer of streamed bodies
+     * @param demandTimeout
+     *            how long a writer waits for the client to ask for more data
+     * @return the request body
+     * @throws IOException
+     *             if a small payload cannot be serialized
+     */
+    static JsonRequestBody create(ObjectWriter writer, Object payload, Compression compression, int threshold,
+            Executor executor, Duration demandTimeout) throws IOException {
+        BoundedBuffer head = new BoundedBuffer(Math.max(INLINE_LIMIT, threshold));
+        try (head) {
+            writer.writeValue(head, payload);
+        } catch (InlineLimitExceeded e) {
+            return new JsonRequestBody(new StreamingPublisher(writer, payload, compression, executor, demandTimeout),
+                    compression.getContentEncoding());
+        }
+        if (compression == Compression.NONE || head.size() <= threshold) {
+            return new JsonRequestBody(head.publisher(), Optional.empty());
+        }
+        BoundedBuffer compressed = new BoundedBuffer(Integer.MAX_VALUE);
+        try (OutputStream out = compress(compression, compressed)) {
+            head.writeTo(out);
+        }
+        return new JsonRequestBody(compressed.publisher(), compression.getContentEncoding());
+    }
+
+    HttpRequest.BodyPublisher publisher() {
+        return publisher;
+    }
+
+    Optional<String> contentEncoding() {
+        return contentEncoding;
+    }
+
+    /**
+     * Returns the compression that will actually be used for the requested
+     * one, falling back to gzip when zstd is not available.
+     *
+     * @param requested
+     *            the configured compression
+     * @return the usable compression
+     */
+    static Compression resolve(Compression requested) {
+        if (requested == Compression.ZSTD && !ZSTD_AVAILABLE) {
+            Logger.warning("zstd-jni is not available; compressing requests with gzip instead");
+            return Compression.GZIP;
+        }
+        return requested;
+    }
+
+    private static boolean detectZstd() {
+        try {
+            Class.forName("com.github.luben.zstd.ZstdOutputStream");
+            ZstdCodec.open(OutputStream.nullOutputStream())
+                    .close();
+            return true;
+        } catch (ClassNotFoundException | LinkageError | IOException e) {
+            return false;
+        }
+    }
+
+    static OutputStream compress(Compression compression, OutputStream out) throws IOException {
+        switch (compression) {
+            case GZIP:
+                return new GZIPOutputStream(out, 8192);
+            case ZSTD:
+                return ZstdCodec.open(out);
+            default:
+                return out;
+        }
+    }
+
+    /**
+     * Returns the executor that runs body writers when the transport has no
+     * executor of its own.
+     *
+     * @return the shared writer executor
+     */
+    static Executor defaultExecutor() {
+        return DefaultWriters.EXECUTOR;
+    }
+
+    private static final class DefaultWriters {
+        private static final AtomicInteger   COUNTER  = new AtomicInteger();
+        private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(DefaultWriters::newThread);
+
+        private static Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "judgeval-body-" + COUNTER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+    private static final class ZstdCodec {
+        static OutputStream open(OutputStream out) throws IOException {
+            return new com.github.luben.zstd.ZstdOutputStream(out);
+        }
+    }
+
+    private static final class InlineLimitExceeded extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+
+    private static final class CancelledByClient extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+
+    /**
+     * An in-memory body that refuses to grow past a limit.
+     */
+    private static final class BoundedBuffer extends OutputStream {
+        private final int limit;
+        private byte[]    buffer = new byte[1024];
+        private int       count;
+
+        BoundedBuffer(int limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (len > limit - count) {
+                throw new InlineLimitExceeded();
+            }
+            if (count + len > buffer.length) {
+                buffer = Arrays.copyOf(buffer, (int) Math.min(limit, Math.max(count + len, buffer.length * 2L)));
+            }
+            System.arraycopy(b, off, buffer, count, len);
+            count += len;
+        }
+
+        int size() {
+            return count;
+        }
+
+        void writeTo(OutputStream out) throws IOException {
+            out.write(buffer, 0, count);
+        }
+
+        HttpRequest.BodyPublisher publisher() {
+            return HttpRequest.BodyPublishers.ofByteArray(buffer, 0, count);
+        }
+    }
+
+    private static final class StreamingPublisher implements HttpRequest.BodyPublisher {
+        private final ObjectWriter writer;
+        private final Object       payload;
+        private final Compression  compression;
+        private final Executor     executor;
+        private final Duration     demandTimeout;
+
+        StreamingPublisher(ObjectWriter writer, Object payload, Compression compression, Executor executor,
+                Duration demandTimeout) {
+            this.writer = writer;
+            this.payload = payload;
+            this.compression = compression;
+            this.executor = executor;
+            this.demandTimeout = demandTimeout;
+        }
+
+        @Override
+        public long contentLength() {
+            return -1;
+        }
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
+            ChunkWriter chunks = new ChunkWriter(subscriber, demandTimeout);
+            subscriber.onSubscribe(chunks);
+            try {
+                executor.execute(() -> chunks.run(writer, payload, compression));
+            } catch (RejectedExecutionException e) {
+                chunks.cancel();
+                subscriber.onError(e);
+            }
+        }
+    }
+
+    /**
+     * Serializes into chunks and hands each one to the subscriber once it has
+     * asked for more. All subscriber signals come from the writer thread.
+     */
+    private static final class ChunkWriter extends OutputStream implements Flow.Subscription {
+        private final Flow.Subscriber<? super ByteBuffer> subscriber;
+        private final long                                demandTimeoutNanos;
+        private long                                      demand;
+        private boolean                                   cancelled;
+        private Throwable                                 requestError;
+        private byte[]                                    chunk;
+        private int                                       position;
+        private boolean                                   closed;
+
+        ChunkWriter(Flow.Subscriber<? super ByteBuffer> subscriber, Duration demandTimeout) {
+            this.subscriber = subscriber;
+            this.demandTimeoutNanos = demandTimeout.toNanos();
+        }
+
+        @Override
+        public synchronized void request(long n) {
+            if (n <= 0) {
+                requestError = new IllegalArgumentException("non-positive request: " + n);
+                cancelled = true;
+            } else {
+                demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+            }
+            notifyAll();
+        }
+
+        @Override
+        public synchronized void cancel() {
+            cancelled = true;
+            notifyAll();
+        }
+
+        void run(ObjectWriter writer, Object payload, Compression compression) {
+            try {
+                try (OutputStream out = compress(compression, this)) {
+                    writer.writeValue(out, payload);
+                }
+                subscriber.onComplete();
+            } catch (CancelledByClient e) {
+                Throwable error = takeRequestError();
+                if (error != null) {
+                    subscriber.onError(error);
+                }
+            } catch (Throwable e) {
+                if (!isCancelled()) {
+                    subscriber.onError(e);
+                }
+            }
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                if (chunk == null) {
+                    chunk = new byte[CHUNK_BYTES];
+                }
+                int copied = Math.min(len, CHUNK_BYTES - position);
+                System.arraycopy(b, off, chunk, position, copied);
+                position += copied;
+                off += copied;
+                len -= copied;
+                if (position == CHUNK_BYTES) {
+                    emit();
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (position > 0) {
+                emit();
+            }
+        }
+
+        private void emit() throws IOException {
+            ByteBuffer buffer = ByteBuffer.wrap(chunk, 0, position);
+            chunk = null;
+            position = 0;
+            awaitDemand();
+            subscriber.onNext(buffer);
+        }
+
+        private synchronized void awaitDemand() throws IOException {
+            long deadline = System.nanoTime() + demandTimeoutNanos;
+            while (demand == 0 && !cancelled) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw new IOException("Timed out waiting for the HTTP client to read the request body");
+                }
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread()
+                            .interrupt();
+                    throw new IOException("Interrupted while streaming the request body", e);
+                }
+            }
+            if (cancelled) {
+                throw new CancelledByClient();
+            }
+            demand--;
+        }
+
+        private synchronized boolean isCancelled() {
+            return cancelled && requestError == null;
+        }
+
+        private synchronized Throwable takeRequestError() {
+            Throwable error = requestError;
+            requestError = null;
+            return error;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.judgmentlabs.judgeval.internal.api;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.judgmentlabs.judgeval.internal.api.models.*;
+
+/**
+ * The request pipeline behind {@link JudgmentSyncClient} and
+ * {@link JudgmentAsyncClient}. Every endpoint's URI, request writer and response
+ * reader are resolved once when the core is created, and the headers are built
+ * once, so a call only serializes, sends and decodes.
+ */
+final class JudgmentApiCore {
+    private final HttpTransport                   transport;
+    private final String                          baseUrl;
+    private final String                          apiKey;
+    private final String                          organizationId;
+    private final String[]                        headers;
+
+    final ApiEndpoint<Object>                     addToRunEvalQueue;
+    final ApiEndpoint<Object>                     addToRunEvalQueueTraces;
+    final ApiEndpoint<Object>                     logEvalResults;
+    final ApiEndpoint<Object>                     fetchExperimentRun;
+    final ApiEndpoint<ScoringResult>              streamExperimentRunResults;
+    final ApiEndpoint<Object>                     getEvaluationStatus;
+    final ApiEndpoint<ScorerExistsResponse>       scorerExists;
+    final ApiEndpoint<SavePromptScorerResponse>   saveScorer;
+    final ApiEndpoint<FetchPromptScorersResponse> fetchScorers;
+    final ApiEndpoint<ResolveProjectNameResponse> projectsResolve;
+
+    JudgmentApiCore(String baseUrl, String apiKey, String organizationId, HttpTransport transport) {
+        this.baseUrl = Objects.requireNonNull(baseUrl, "Base URL cannot be null");
+        this.apiKey = Objects.requireNonNull(apiKey, "API key cannot be null");
+        this.organizationId = Objects.requireNonNull(organizationId, "Organization ID cannot be null");
+        this.transport = Objects.requireNonNull(transport, "Transport cannot be null");
+        this.headers = new String[] {
+                "Content-Type",
+                "application/json",
+                "Authorization",
+                "Bearer " + apiKey,
+                "X-Organization-Id",
+                organizationId
+        };
+        this.addToRunEvalQueue = endpoint("POST", "/add_to_run_eval_queue/", ExampleEvaluationRun.class,
+                Object.class);
+        this.addToRunEvalQueueTraces = endpoint("POST", "/add_to_run_eval_queue/traces", TraceEvaluationRun.class,
+                Object.class);
+        this.logEvalResults = endpoint("POST", "/log_eval_results/", EvalResults.class, Object.class);
+        this.fetchExperimentRun = endpoint("POST", "/fetch_experiment_run/", EvalResultsFetch.class, Object.class);
+        this.streamExperimentRunResults = endpoint("POST", "/fetch_experiment_run/", EvalResultsFetch.class,
+                ScoringResult.class);
+        this.getEvaluationStatus = endpoint("GET", "/get_evaluation_status/", null, Object.class);
+        this.scorerExists = endpoint("POST", "/scorer_exists/", ScorerExistsRequest.class,
+                ScorerExistsResponse.class);
+        this.saveScorer = endpoint("POST", "/save_scorer/", SavePromptScorerRequest.class,
+                SavePromptScorerResponse.class);
+        this.fetchScorers = endpoint("POST", "/fetch_scorers/", FetchPromptScorersRequest.class,
+                FetchPromptScorersResponse.class);
+        this.projectsResolve = endpoint("POST", "/projects/resolve/", ResolveProjectNameRequest.class,
+                ResolveProjectNameResponse.class);
+    }
+
+    private <T> ApiEndpoint<T> endpoint(String method, String path, Class<?> requestType, Class<T> responseType) {
+        return new ApiEndpoint<>(method, URI.create(baseUrl + path),
+                Optional.ofNullable(requestType)
+                        .map(Json::writerFor),
+                Json.readerFor(responseType));
+    }
+
+    String getApiUrl() {
+        return baseUrl;
+    }
+
+    String getApiKey() {
+        return apiKey;
+    }
+
+    String getOrganizationId() {
+        return organizationId;
+    }
+
+    HttpTransport getTransport() {
+        return transport;
+    }
+
+    static Map<String, String> query(String... namesAndValues) {
+        Map<String, String> query = new LinkedHashMap<>();
+        for (int i = 0; i < namesAndValues.length; i += 2) {
+            if (namesAndValues[i + 1] != null) {
+                query.put(namesAndValues[i], namesAndValues[i + 1]);
+            }
+        }
+        return query;
+    }
+
+    private HttpRequest request(ApiEndpoint<?> endpoint, Object payload, Map<String, String> query)
+            throws IOException {
+        URI uri = endpoint.uri(query);
+        Optional<ObjectWriter> writer = endpoint.writer();
+        HttpRequest.Builder builder;
+        if (writer.isPresent()) {
+            builder = transport.newJsonRequest(endpoint.method(), uri, writer.get(), payload);
+        } else {
+            builder = transport.newRequest(uri)
+                    .method(endpoint.method(), HttpRequest.BodyPublishers.noBody());
+        }
+        return builder.headers(headers)
+                .build();
+    }
+
+    private HttpRequest requestAsync(ApiEndpoint<?> endpoint, Object payload, Map<String, String> query) {
+        try {
+            return request(endpoint, payload, query);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to serialize payload", e);
+        }
+    }
+
+    <T> T send(ApiEndpoint<T> endpoint, Object payload, Map<String, String> query)
+            throws IOException, InterruptedException {
+        HttpRequest request = request(endpoint, payload, query);
+        HttpResponse<InputStream> response = transport.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        return decode(endpoint, response);
+    }
+
+    <T> CompletableFuture<T> sendAsync(ApiEndpoint<T> endpoint, Object payload, Map<String, String> query) {
+        HttpRequest request = requestAsync(endpoint, payload, query);
+        return transport.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream())
+                .thenApplyAsync(response -> decodeAsync(endpoint, response), transport.getBodyExecutor());
+    }
+
+    <T> ResultStream<T> stream(ApiEndpoint<T> endpoint, Object payload, String field)
+            throws IOException, InterruptedException {
+        HttpRequest request = request(endpoint, payload, Map.of());
+        HttpResponse<InputStream> response = transport.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        return open(endpoint, response, field);
+    }
+
+    <T> CompletableFuture<ResultStream<T>> streamAsync(ApiEndpoint<T> endpoint, Object payload, String field) {
+        HttpRequest request = requestAsync(endpoint, payload, Map.of());
+        return transport.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream())
+                .thenApplyAsync(response -> openAsync(endpoint, response, field), transport.getBodyExecutor());
+    }
+
+    private static <T> T decodeAsync(ApiEndpoint<T> endpoint, HttpResponse<InputStream> response) {
+        try {
+            return decode(endpoint, response);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to parse response", e);
+        }
+    }
+
+    private static <T> ResultStream<T> openAsync(ApiEndpoint<T> endpoint, HttpResponse<InputStream> response,
+            String field) {
+        try {
+            return open(endpoint, response, field);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to parse response", e);
+        }
+    }
+
+    private static <T> T decode(ApiEndpoint<T> endpoint, HttpResponse<InputStream> response) throws IOException {
+        try (InputStream body = response.body()) {
+            checkStatus(response.statusCode(), body);
+            return endpoint.reader()
+                    .readValue(body);
+        }
+    }
+
+    private static <T> ResultStream<T> open(ApiEndpoint<T> endpoint, HttpResponse<InputStream> response,
+            String field) throws IOException {
+        if (response.statusCode() >= 400) {
+            try (InputStream body = response.body()) {
+                checkStatus(response.statusCode(), body);
+            }
+        }
+        return ResultStream.open(endpoint.reader(), response.body(), field);
+    }
+
+    private static void checkStatus(int statusCode, InputStream body) throws IOException {
+        if (statusCode >= 400) {
+            throw new JudgmentApiException(statusCode, new String(body.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+}
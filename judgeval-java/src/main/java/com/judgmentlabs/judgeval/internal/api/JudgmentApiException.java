@@ -0,0 +1,36 @@
+package com.judgmentlabs.judgeval.internal.api;
+
+import com.judgmentlabs.judgeval.RetryPolicy;
+
+/**
+ * Thrown when the Judgment API answers with an error status.
+ */
+public class JudgmentApiException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final int         statusCode;
+    private final String      responseBody;
+
+    public JudgmentApiException(int statusCode, String responseBody) {
+        super("HTTP Error: " + statusCode + " - " + responseBody);
+        this.statusCode = statusCode;
+        this.responseBody = responseBody;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public String getResponseBody() {
+        return responseBody;
+    }
+
+    /**
+     * Returns whether the same request may succeed if sent again later.
+     *
+     * @return true for throttling and transient server errors
+     */
+    public boolean isRetryable() {
+        return RetryPolicy.isRetryableStatus(statusCode);
+    }
+}
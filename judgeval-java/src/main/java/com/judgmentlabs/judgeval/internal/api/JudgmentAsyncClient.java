@@ -1,203 +1,75 @@
 package com.judgmentlabs.judgeval.internal.api;
 
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
-import java.util.HashMap;
 import java.util.Map;
-import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.judgmentlabs.judgeval.internal.api.models.*;
 
 public class JudgmentAsyncClient {
-    private final HttpClient   client;
-    private final ObjectMapper mapper;
-    private final String       baseUrl;
-    private final String       apiKey;
-    private final String       organizationId;
+    private final JudgmentApiCore core;
 
     public JudgmentAsyncClient(String baseUrl, String apiKey, String organizationId) {
-        this.baseUrl = Objects.requireNonNull(baseUrl, "Base URL cannot be null");
-        this.apiKey = Objects.requireNonNull(apiKey, "API key cannot be null");
-        this.organizationId = Objects.requireNonNull(organizationId, "Organization ID cannot be null");
-        this.client = HttpClient.newBuilder()
-                .version(HttpClient.Version.HTTP_1_1)
-                .build();
-        this.mapper = new ObjectMapper();
+        this(baseUrl, apiKey, organizationId, HttpTransport.defaultTransport());
+    }
+
+    public JudgmentAsyncClient(String baseUrl, String apiKey, String organizationId, HttpTransport transport) {
+        this.core = new JudgmentApiCore(baseUrl, apiKey, organizationId, transport);
     }
 
     public String getApiUrl() {
-        return baseUrl;
+        return core.getApiUrl();
     }
 
     public String getApiKey() {
-        return apiKey;
+        return core.getApiKey();
     }
 
     public String getOrganizationId() {
-        return organizationId;
+        return core.getOrganizationId();
     }
 
-    private String buildUrl(String path, Map<String, String> queryParams) {
-        StringBuilder url = new StringBuilder(baseUrl).append(path);
-        if (!queryParams.isEmpty()) {
-            url.append("?");
-            String queryString = queryParams.entrySet().stream()
-                    .map(entry -> entry.getKey() + "=" + entry.getValue())
-                    .reduce("", (a, b) -> a.isEmpty() ? b : a + "&" + b);
-            url.append(queryString);
-        }
-        return url.toString();
+    public HttpTransport getTransport() {
+        return core.getTransport();
     }
 
-    private String buildUrl(String path) {
-        return buildUrl(path, new HashMap<>());
+    public CompletableFuture<Object> addToRunEvalQueue(ExampleEvaluationRun payload) {
+        return core.sendAsync(core.addToRunEvalQueue, payload, Map.of());
     }
 
-    private String[] buildHeaders() {
-        return new String[] {
-                "Content-Type",
-                "application/json",
-                "Authorization",
-                "Bearer " + apiKey,
-                "X-Organization-Id",
-                organizationId
-        };
+    public CompletableFuture<Object> addToRunEvalQueueTraces(TraceEvaluationRun payload) {
+        return core.sendAsync(core.addToRunEvalQueueTraces, payload, Map.of());
     }
 
-    private <T> T handleResponse(HttpResponse<String> response) {
-        if (response.statusCode() >= 400) {
-            throw new RuntimeException("HTTP Error: " + response.statusCode() + " - " + response.body());
-        }
-        try {
-            return mapper.readValue(response.body(), new TypeReference<T>() {
-            });
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to parse response", e);
-        }
+    public CompletableFuture<Object> logEvalResults(EvalResults payload) {
+        return core.sendAsync(core.logEvalResults, payload, Map.of());
     }
 
-    public CompletableFuture<Object> addToRunEvalQueue(ExampleEvaluationRun payload) {
-        String url = buildUrl("/add_to_run_eval_queue/");
-        String jsonPayload;
-        try {
-            jsonPayload = mapper.writeValueAsString(payload);
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to serialize payload", e);
-        }
-        HttpRequest request = HttpRequest.newBuilder()
-                .POST(HttpRequest.BodyPublishers.ofString(jsonPayload))
-                .uri(URI.create(url))
-                .headers(buildHeaders())
-                .build();
-        return client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
-                .thenApply(this::handleResponse);
+    public CompletableFuture<Object> fetchExperimentRun(EvalResultsFetch payload) {
+        return core.sendAsync(core.fetchExperimentRun, payload, Map.of());
     }
 
-    public CompletableFuture<Object> logEvalResults(EvalResults payload) {
-        String url = buildUrl("/log_eval_results/");
-        String jsonPayload;
-        try {
-            jsonPayload = mapper.writeValueAsString(payload);
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to serialize payload", e);
-        }
-        HttpRequest request = HttpRequest.newBuilder()
-                .POST(HttpRequest.BodyPublishers.ofString(jsonPayload))
-                .uri(URI.create(url))
-                .headers(buildHeaders())
-                .build();
-        return client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
-                .thenApply(this::handleResponse);
+    public CompletableFuture<ResultStream<ScoringResult>> streamExperimentRunResults(EvalResultsFetch payload) {
+        return core.streamAsync(core.streamExperimentRunResults, payload, "results");
     }
 
-    public CompletableFuture<Object> fetchExperimentRun(EvalResultsFetch payload) {
-        String url = buildUrl("/fetch_experiment_run/");
-        String jsonPayload;
-        try {
-            jsonPayload = mapper.writeValueAsString(payload);
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to serialize payload", e);
-        }
-        HttpRequest request = HttpRequest.newBuilder()
-                .POST(HttpRequest.BodyPublishers.ofString(jsonPayload))
-                .uri(URI.create(url))
-                .headers(buildHeaders())
-                .build();
-        return client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
-                .thenApply(this::handleResponse);
+    public CompletableFuture<Object> getEvaluationStatus(String experimentRunId, String projectName) {
+        return core.sendAsync(core.getEvaluationStatus, null,
+                JudgmentApiCore.query("experiment_run_id", experimentRunId, "project_name", projectName));
     }
 
     public CompletableFuture<ScorerExistsResponse> scorerExists(ScorerExistsRequest payload) {
-        String url = buildUrl("/scorer_exists/");
-        String jsonPayload;
-        try {
-            jsonPayload = mapper.writeValueAsString(payload);
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to serialize payload", e);
-        }
-        HttpRequest request = HttpRequest.newBuilder()
-                .POST(HttpRequest.BodyPublishers.ofString(jsonPayload))
-                .uri(URI.create(url))
-                .headers(buildHeaders())
-                .build();
-        return client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
-                .thenApply(this::handleResponse);
+        return core.sendAsync(core.scorerExists, payload, Map.of());
     }
 
     public CompletableFuture<SavePromptScorerResponse> saveScorer(SavePromptScorerRequest payload) {
-        String url = buildUrl("/save_scorer/");
-        String jsonPayload;
-        try {
-            jsonPayload = mapper.writeValueAsString(payload);
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to serialize payload", e);
-        }
-        HttpRequest request = HttpRequest.newBuilder()
-                .POST(HttpRequest.BodyPublishers.ofString(jsonPayload))
-                .uri(URI.create(url))
-                .headers(buildHeaders())
-                .build();
-        return client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
-                .thenApply(this::handleResponse);
+        return core.sendAsync(core.saveScorer, payload, Map.of());
     }
 
     public CompletableFuture<FetchPromptScorersResponse> fetchScorers(FetchPromptScorersRequest payload) {
-        String url = buildUrl("/fetch_scorers/");
-        String jsonPayload;
-        try {
-            jsonPayload = mapper.writeValueAsString(payload);
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to serialize payload", e);
-        }
-        HttpRequest request = HttpRequest.newBuilder()
-                .POST(HttpRequest.BodyPublishers.ofString(jsonPayload))
-                .uri(URI.create(url))
-                .headers(buildHeaders())
-                .build();
-        return client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
-                .thenApply(this::handleResponse);
+        return core.sendAsync(core.fetchScorers, payload, Map.of());
     }
 
     public CompletableFuture<ResolveProjectNameResponse> projectsResolve(ResolveProjectNameRequest payload) {
-        String url = buildUrl("/projects/resolve/");
-        String jsonPayload;
-        try {
-            jsonPayload = mapper.writeValueAsString(payload);
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to serialize payload", e);
-        }
-        HttpRequest request = HttpRequest.newBuilder()
-                .POST(HttpRequest.BodyPublishers.ofString(jsonPayload))
-                .uri(URI.create(url))
-                .headers(buildHeaders())
-                .build();
-        return client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
-                .thenApply(this::handleResponse);
-    }
-
-}
\ No newline at end of file
+        return core.sendAsync(core.projectsResolve, payload, Map.of());
+    }
+}
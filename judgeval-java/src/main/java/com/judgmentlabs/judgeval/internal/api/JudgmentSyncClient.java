@@ -1,171 +1,80 @@
 package com.judgmentlabs.judgeval.internal.api;
 
 import java.io.IOException;
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
-import java.util.HashMap;
 import java.util.Map;
-import java.util.Objects;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.judgmentlabs.judgeval.internal.api.models.*;
 
 public class JudgmentSyncClient {
-    private final HttpClient   client;
-    private final ObjectMapper mapper;
-    private final String       baseUrl;
-    private final String       apiKey;
-    private final String       organizationId;
+    private final JudgmentApiCore core;
 
     public JudgmentSyncClient(String baseUrl, String apiKey, String organizationId) {
-        this.baseUrl = Objects.requireNonNull(baseUrl, "Base URL cannot be null");
-        this.apiKey = Objects.requireNonNull(apiKey, "API key cannot be null");
-        this.organizationId = Objects.requireNonNull(organizationId, "Organization ID cannot be null");
-        this.client = HttpClient.newBuilder()
-                .version(HttpClient.Version.HTTP_1_1)
-                .build();
-        this.mapper = new ObjectMapper();
+        this(baseUrl, apiKey, organizationId, HttpTransport.defaultTransport());
+    }
+
+    public JudgmentSyncClient(String baseUrl, String apiKey, String organizationId, HttpTransport transport) {
+        this.core = new JudgmentApiCore(baseUrl, apiKey, organizationId, transport);
     }
 
     public String getApiUrl() {
-        return baseUrl;
+        return core.getApiUrl();
     }
 
     public String getApiKey() {
-        return apiKey;
+        return core.getApiKey();
     }
 
     public String getOrganizationId() {
-        return organizationId;
+        return core.getOrganizationId();
     }
 
-    private String buildUrl(String path, Map<String, String> queryParams) {
-        StringBuilder url = new StringBuilder(baseUrl).append(path);
-        if (!queryParams.isEmpty()) {
-            url.append("?");
-            String queryString = queryParams.entrySet().stream()
-                    .map(entry -> entry.getKey() + "=" + entry.getValue())
-                    .reduce("", (a, b) -> a.isEmpty() ? b : a + "&" + b);
-            url.append(queryString);
-        }
-        return url.toString();
+    public HttpTransport getTransport() {
+        return core.getTransport();
     }
 
-    private String buildUrl(String path) {
-        return buildUrl(path, new HashMap<>());
+    public Object addToRunEvalQueue(ExampleEvaluationRun payload) throws IOException, InterruptedException {
+        return core.send(core.addToRunEvalQueue, payload, Map.of());
     }
 
-    private String[] buildHeaders() {
-        return new String[] {
-                "Content-Type",
-                "application/json",
-                "Authorization",
-                "Bearer " + apiKey,
-                "X-Organization-Id",
-                organizationId
-        };
+    public Object addToRunEvalQueueTraces(TraceEvaluationRun payload) throws IOException, InterruptedException {
+        return core.send(core.addToRunEvalQueueTraces, payload, Map.of());
     }
 
-    private <T> T handleResponse(HttpResponse<String> response) throws IOException {
-        if (response.statusCode() >= 400) {
-            throw new RuntimeException("HTTP Error: " + response.statusCode() + " - " + response.body());
-        }
-        try {
-            return mapper.readValue(response.body(), new TypeReference<T>() {
-            });
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to parse response", e);
-        }
+    public Object logEvalResults(EvalResults payload) throws IOException, InterruptedException {
+        return core.send(core.logEvalResults, payload, Map.of());
     }
 
-    public Object addToRunEvalQueue(ExampleEvaluationRun payload) throws IOException, InterruptedException {
-        String url = buildUrl("/add_to_run_eval_queue/");
-        String jsonPayload = mapper.writeValueAsString(payload);
-        HttpRequest request = HttpRequest.newBuilder()
-                .POST(HttpRequest.BodyPublishers.ofString(jsonPayload))
-                .uri(URI.create(url))
-                .headers(buildHeaders())
-                .build();
-        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
-        return handleResponse(response);
+    public Object fetchExperimentRun(EvalResultsFetch payload) throws IOException, InterruptedException {
+        return core.send(core.fetchExperimentRun, payload, Map.of());
     }
 
-    public Object logEvalResults(EvalResults payload) throws IOException, InterruptedException {
-        String url = buildUrl("/log_eval_results/");
-        String jsonPayload = mapper.writeValueAsString(payload);
-        HttpRequest request = HttpRequest.newBuilder()
-                .POST(HttpRequest.BodyPublishers.ofString(jsonPayload))
-                .uri(URI.create(url))
-                .headers(buildHeaders())
-                .build();
-        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
-        return handleResponse(response);
+    public ResultStream<ScoringResult> streamExperimentRunResults(EvalResultsFetch payload)
+            throws IOException, InterruptedException {
+        return core.stream(core.streamExperimentRunResults, payload, "results");
     }
 
-    public Object fetchExperimentRun(EvalResultsFetch payload) throws IOException, InterruptedException {
-        String url = buildUrl("/fetch_experiment_run/");
-        String jsonPayload = mapper.writeValueAsString(payload);
-        HttpRequest request = HttpRequest.newBuilder()
-                .POST(HttpRequest.BodyPublishers.ofString(jsonPayload))
-                .uri(URI.create(url))
-                .headers(buildHeaders())
-                .build();
-        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
-        return handleResponse(response);
+    public Object getEvaluationStatus(String experimentRunId, String projectName)
+            throws IOException, InterruptedException {
+        return core.send(core.getEvaluationStatus, null,
+                JudgmentApiCore.query("experiment_run_id", experimentRunId, "project_name", projectName));
     }
 
     public ScorerExistsResponse scorerExists(ScorerExistsRequest payload) throws IOException, InterruptedException {
-        String url = buildUrl("/scorer_exists/");
-        String jsonPayload = mapper.writeValueAsString(payload);
-        HttpRequest request = HttpRequest.newBuilder()
-                .POST(HttpRequest.BodyPublishers.ofString(jsonPayload))
-                .uri(URI.create(url))
-                .headers(buildHeaders())
-                .build();
-        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
-        return mapper.readValue(response.body(), ScorerExistsResponse.class);
+        return core.send(core.scorerExists, payload, Map.of());
     }
 
     public SavePromptScorerResponse saveScorer(SavePromptScorerRequest payload)
             throws IOException, InterruptedException {
-        String url = buildUrl("/save_scorer/");
-        String jsonPayload = mapper.writeValueAsString(payload);
-        HttpRequest request = HttpRequest.newBuilder()
-                .POST(HttpRequest.BodyPublishers.ofString(jsonPayload))
-                .uri(URI.create(url))
-                .headers(buildHeaders())
-                .build();
-        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
-        return mapper.readValue(response.body(), SavePromptScorerResponse.class);
+        return core.send(core.saveScorer, payload, Map.of());
     }
 
     public FetchPromptScorersResponse fetchScorers(FetchPromptScorersRequest payload)
             throws IOException, InterruptedException {
-        String url = buildUrl("/fetch_scorers/");
-        String jsonPayload = mapper.writeValueAsString(payload);
-        HttpRequest request = HttpRequest.newBuilder()
-                .POST(HttpRequest.BodyPublishers.ofString(jsonPayload))
-                .uri(URI.create(url))
-                .headers(buildHeaders())
-                .build();
-        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
-        return mapper.readValue(response.body(), FetchPromptScorersResponse.class);
+        return core.send(core.fetchScorers, payload, Map.of());
     }
 
     public ResolveProjectNameResponse projectsResolve(ResolveProjectNameRequest payload)
             throws IOException, InterruptedException {
-        String url = buildUrl("/projects/resolve/");
-        String jsonPayload = mapper.writeValueAsString(payload);
-        HttpRequest request = HttpRequest.newBuilder()
-                .POST(HttpRequest.BodyPublishers.ofString(jsonPayload))
-                .uri(URI.create(url))
-                .headers(buildHeaders())
-                .build();
-        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
-        return mapper.readValue(response.body(), ResolveProjectNameResponse.class);
-    }
-
-}
\ No newline at end of file
+        return core.send(core.projectsResolve, payload, Map.of());
+    }
+}
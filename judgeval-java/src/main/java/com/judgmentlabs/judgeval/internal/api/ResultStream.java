@@ -0,0 +1,145 @@
+package com.judgmentlabs.judgeval.internal.api;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+/**
+ * Iterates over the elements of a JSON array in a response body, decoding one
+ * element at a time as it is read from the connection. Memory use stays flat
+ * however many elements the array holds.
+ * <p>
+ * The stream must be closed if it is not iterated to the end; closing it
+ * early abandons the rest of the response.
+ *
+ * @param <T>
+ *            the element type
+ */
+public final class ResultStream<T> implements Iterator<T>, Closeable {
+    private final JsonParser   parser;
+    private final ObjectReader reader;
+    private boolean            ready;
+    private boolean            done;
+
+    private ResultStream(JsonParser parser, ObjectReader reader, boolean done) {
+        this.parser = parser;
+        this.reader = reader;
+        this.done = done;
+        if (done) {
+            closeQuietly();
+        }
+    }
+
+    /**
+     * Opens a stream over the array held by {@code field} of the top-level
+     * object in {@code body}, or over {@code body} itself when it is an array.
+     * A body without such an array yields no elements.
+     *
+     * @param reader
+     *            the reader for the element type
+     * @param body
+     *            the response body, closed when the stream is closed
+     * @param field
+     *            the name of the field holding the array
+     * @param <T>
+     *            the element type
+     * @return a stream positioned at the first element
+     * @throws IOException
+     *             if the body cannot be read up to the start of the array
+     */
+    static <T> ResultStream<T> open(ObjectReader reader, InputStream body, String field) throws IOException {
+        JsonParser parser = reader.createParser(body);
+        try {
+            return new ResultStream<>(parser, reader, !seekArray(parser, field));
+        } catch (IOException | RuntimeException e) {
+            parser.close();
+            throw e;
+        }
+    }
+
+    private static boolean seekArray(JsonParser parser, String field) throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token == JsonToken.START_ARRAY) {
+            return true;
+        }
+        if (token != JsonToken.START_OBJECT) {
+            return false;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            if (parser.nextToken() == JsonToken.START_ARRAY && field.equals(name)) {
+                return true;
+            }
+            parser.skipChildren();
+        }
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws UncheckedIOException
+     *             if the response cannot be read
+     */
+    @Override
+    public boolean hasNext() {
+        if (done) {
+            return false;
+        }
+        if (!ready) {
+            try {
+                JsonToken token = parser.nextToken();
+                if (token == null || token == JsonToken.END_ARRAY) {
+                    close();
+                    return false;
+                }
+            } catch (IOException e) {
+                closeQuietly();
+                throw new UncheckedIOException("Failed to read response", e);
+            }
+            ready = true;
+        }
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws UncheckedIOException
+     *             if the response cannot be read or decoded
+     */
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        ready = false;
+        try {
+            return reader.readValue(parser);
+        } catch (IOException e) {
+            closeQuietly();
+            throw new UncheckedIOException("Failed to parse response", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        closeQuietly();
+    }
+
+    private void closeQuietly() {
+        done = true;
+        try {
+            parser.close();
+        } catch (IOException ignored) {
+            // nothing more will be read from the connection
+        }
+    }
+}
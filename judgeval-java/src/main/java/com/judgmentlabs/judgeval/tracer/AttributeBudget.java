@@ -0,0 +1,94 @@
+package com.judgmentlabs.judgeval.tracer;
+
+import java.lang.reflect.Type;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+
+/**
+ * Applies {@link AttributeLimits} to the attributes serialized for each span,
+ * tracking how much of every span's budget has been used until the span ends
+ * and {@link SpanBudgetReleaser} releases it.
+ */
+final class AttributeBudget {
+    private final AttributeLimits       limits;
+    private final SpanState<AtomicLong> used = new SpanState<>(false);
+
+    AttributeBudget(AttributeLimits limits) {
+        this.limits = limits;
+    }
+
+    AttributeLimits limits() {
+        return limits;
+    }
+
+    /**
+     * Serializes a value for the given span within the remaining budgets.
+     *
+     * @param serializer
+     *            the serializer
+     * @param span
+     *            the span the value is set on
+     * @param value
+     *            the value to serialize
+     * @param type
+     *            the type to use for serialization
+     * @return the serialized value, or null when there is none or it does not
+     *         fit
+     */
+    SerializedAttribute serialize(ISerializer serializer, Span span, Object value, Type type) {
+        if (!limits.hasSpanLimit()) {
+            return AttributeBuffer.serialize(serializer, value, type, limits.getMaxAttributeBytes());
+        }
+        AtomicLong spanBytes = used.get(span, AtomicLong::new);
+        long spent = spanBytes.get();
+        SerializedAttribute serialized = AttributeBuffer.serialize(serializer, value, type, limits.limitFor(spent),
+                limits.truncatedLimitFor(spent));
+        if (serialized != null) {
+            spanBytes.addAndGet(serialized.bytes());
+        }
+        return serialized;
+    }
+
+    /**
+     * Applies the remaining budgets to a string value set on the given span.
+     *
+     * @param span
+     *            the span the value is set on
+     * @param value
+     *            the value
+     * @return the value to set, or null when it does not fit
+     */
+    SerializedAttribute bound(Span span, String value) {
+        if (!limits.hasSpanLimit()) {
+            int limit = limits.getMaxAttributeBytes();
+            return AttributeBuffer.bound(value, limit, limit);
+        }
+        AtomicLong spanBytes = used.get(span, AtomicLong::new);
+        long spent = spanBytes.get();
+        SerializedAttribute bounded = AttributeBuffer.bound(value, limits.limitFor(spent),
+                limits.truncatedLimitFor(spent));
+        if (bounded != null) {
+            spanBytes.addAndGet(bounded.bytes());
+        }
+        return bounded;
+    }
+
+    /**
+     * Stops tracking a span and returns how many bytes of its budget were
+     * used.
+     *
+     * @param context
+     *            the span context
+     * @return the bytes used
+     */
+    long release(SpanContext context) {
+        AtomicLong spanBytes = used.remove(context);
+        return spanBytes == null ? 0 : spanBytes.get();
+    }
+
+    int trackedSpans() {
+        return used.size();
+    }
+}
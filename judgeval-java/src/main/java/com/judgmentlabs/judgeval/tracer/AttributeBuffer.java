@@ -0,0 +1,128 @@
+package com.judgmentlabs.judgeval.tracer;
+
+import java.lang.reflect.Type;
+
+/**
+ * A per-thread {@link AttributeWriter} that serializers write span attributes
+ * into. Buffers that grew past {@value #MAX_RETAINED_CHARS} characters for one
+ * large value are dropped afterwards rather than kept for the life of the
+ * thread.
+ */
+final class AttributeBuffer {
+    static final int                                  MAX_RETAINED_CHARS = 64 * 1024;
+
+    private static final int                          INITIAL_CHARS      = 512;
+    private static final ThreadLocal<AttributeBuffer> BUFFERS            = ThreadLocal.withInitial(
+            AttributeBuffer::new);
+
+    private AttributeWriter                           writer             = new AttributeWriter(INITIAL_CHARS);
+    private boolean                                   inUse;
+
+    private AttributeBuffer() {
+    }
+
+    /**
+     * Serializes a value without a byte budget.
+     *
+     * @param serializer
+     *            the serializer
+     * @param value
+     *            the value to serialize
+     * @param type
+     *            the type to use for serialization
+     * @return the serialized value, or null when there is none
+     */
+    static String serialize(ISerializer serializer, Object value, Type type) {
+        SerializedAttribute serialized = serialize(serializer, value, type, AttributeWriter.UNBOUNDED);
+        return serialized == null ? null : serialized.value();
+    }
+
+    /**
+     * Serializes a value within a byte budget, through this thread's buffer
+     * when the serializer supports it.
+     *
+     * @param serializer
+     *            the serializer
+     * @param value
+     *            the value to serialize
+     * @param type
+     *            the type to use for serialization
+     * @param limit
+     *            the budget in UTF-8 bytes
+     * @return the serialized value, or null when there is none
+     */
+    static SerializedAttribute serialize(ISerializer serializer, Object value, Type type, int limit) {
+        return serialize(serializer, value, type, limit, limit);
+    }
+
+    /**
+     * Serializes a value that is kept whole within {@code limit} bytes and
+     * otherwise truncated to {@code truncatedLimit} bytes.
+     *
+     * @param serializer
+     *            the serializer
+     * @param value
+     *            the value to serialize
+     * @param type
+     *            the type to use for serialization
+     * @param limit
+     *            the budget for the whole value in UTF-8 bytes
+     * @param truncatedLimit
+     *            the budget for the truncated value in UTF-8 bytes
+     * @return the serialized value, or null when there is none or it does not
+     *         fit
+     */
+    static SerializedAttribute serialize(ISerializer serializer, Object value, Type type, int limit,
+            int truncatedLimit) {
+        if (limit == 0) {
+            return null;
+        }
+        if (!(serializer instanceof IAppendingSerializer)) {
+            String serialized = serializer.serialize(value, type);
+            return serialized == null ? null : bound(serialized, limit, truncatedLimit);
+        }
+        IAppendingSerializer appending = (IAppendingSerializer) serializer;
+        AttributeBuffer buffer = BUFFERS.get();
+        if (buffer.inUse) {
+            // The serializer set an attribute itself, so the buffer is taken.
+            AttributeWriter out = new AttributeWriter();
+            out.reset(limit, truncatedLimit);
+            return appending.appendTo(value, type, out) ? out.finish() : null;
+        }
+        buffer.inUse = true;
+        AttributeWriter out = buffer.writer;
+        try {
+            out.reset(limit, truncatedLimit);
+            return appending.appendTo(value, type, out) ? out.finish() : null;
+        } finally {
+            if (out.capacity() > MAX_RETAINED_CHARS) {
+                buffer.writer = new AttributeWriter(INITIAL_CHARS);
+            }
+            buffer.inUse = false;
+        }
+    }
+
+    /**
+     * Applies a byte budget to a string value.
+     *
+     * @param value
+     *            the value
+     * @param limit
+     *            the budget for the whole value in UTF-8 bytes
+     * @param truncatedLimit
+     *            the budget for the truncated value in UTF-8 bytes
+     * @return the value, or null when it does not fit
+     */
+    static SerializedAttribute bound(String value, int limit, int truncatedLimit) {
+        if (limit == 0) {
+            return null;
+        }
+        if (limit == AttributeWriter.UNBOUNDED) {
+            return new SerializedAttribute(value, AttributeWriter.utf8Length(value), -1, null);
+        }
+        AttributeWriter out = new AttributeWriter(0);
+        out.reset(limit, truncatedLimit);
+        return out.append(value)
+                .finish();
+    }
+}
@@ -0,0 +1,37 @@
+package com.judgmentlabs.judgeval.tracer;
+
+/**
+ * When span attribute values passed to {@link BaseTracer#setAttribute(String,
+ * Object, java.lang.reflect.Type)}, {@code setInput} and {@code setOutput} are
+ * serialized.
+ * <p>
+ * The deferred policies hold the value until the span is exported and
+ * serialize it on the exporter thread, so spans that are never exported, for
+ * example because the span queue was full, are never serialized. Deferred
+ * values are only resolved by the exporter returned from
+ * {@link BaseTracer#getSpanExporter()}.
+ */
+public enum AttributeCapture {
+    /**
+     * Serializes the value immediately on the calling thread.
+     */
+    EAGER,
+
+    /**
+     * Copies the value when it is set and serializes the copy at export time.
+     * Strings, boxed primitives, {@code BigInteger}, {@code BigDecimal} and
+     * enums are kept as they are; lists, sets, maps and arrays made of those
+     * are copied element by element. Any other value cannot be copied safely
+     * and is serialized immediately, as under {@link #EAGER}, so later changes
+     * to the caller's object are never seen.
+     */
+    SNAPSHOT,
+
+    /**
+     * Keeps a reference to the value and serializes it at export time. The
+     * caller must not modify the value after setting it: changes made before
+     * the span is exported are exported, and changes made concurrently with the
+     * export can corrupt the attribute.
+     */
+    REFERENCE
+}
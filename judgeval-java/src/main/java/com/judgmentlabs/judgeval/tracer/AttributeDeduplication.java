@@ -0,0 +1,34 @@
+package com.judgmentlabs.judgeval.tracer;
+
+/**
+ * How repeated large span attribute values, such as a system prompt or
+ * retrieval context set on many spans of a trace, are stored and exported.
+ * Values of at least {@value #MIN_CHARS} characters are considered.
+ */
+public enum AttributeDeduplication {
+    /**
+     * Every span holds and exports its own copy of each value.
+     */
+    OFF,
+
+    /**
+     * Equal values share one string while spans wait in the export queue, and
+     * every span still exports the value in full. Use this with backends that
+     * do not understand content references.
+     */
+    INLINE,
+
+    /**
+     * As {@link #INLINE}, and within each export batch only the first span
+     * carrying a value exports it, with its SHA-256 content id under the key
+     * suffixed with {@value #CONTENT_ID_SUFFIX}. Later spans replace the
+     * attribute with that id under the key suffixed with
+     * {@value #CONTENT_REF_SUFFIX}. Each batch is self-contained, so a
+     * reference always resolves within the request that carries it.
+     */
+    REFERENCE;
+
+    public static final int    MIN_CHARS          = 1024;
+    public static final String CONTENT_ID_SUFFIX  = ".content_id";
+    public static final String CONTENT_REF_SUFFIX = ".content_ref";
+}
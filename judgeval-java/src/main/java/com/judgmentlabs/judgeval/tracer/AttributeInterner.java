@@ -0,0 +1,49 @@
+package com.judgmentlabs.judgeval.tracer;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Interns large attribute values so that spans queued for export share one
+ * string per distinct value. Entries are weak: a value is forgotten once no
+ * span holds it any more.
+ */
+final class AttributeInterner {
+    static final AttributeInterner                   NONE   = new AttributeInterner(Integer.MAX_VALUE);
+
+    private final int                                minChars;
+    private final Map<String, WeakReference<String>> values = new WeakHashMap<>();
+
+    AttributeInterner(int minChars) {
+        this.minChars = minChars;
+    }
+
+    static AttributeInterner of(AttributeDeduplication deduplication) {
+        return deduplication == AttributeDeduplication.OFF ? NONE
+                : new AttributeInterner(AttributeDeduplication.MIN_CHARS);
+    }
+
+    /**
+     * Returns the shared instance of a value, or the value itself when it is
+     * short or seen for the first time.
+     *
+     * @param value
+     *            the attribute value
+     * @return the canonical value
+     */
+    String intern(String value) {
+        if (value == null || value.length() < minChars) {
+            return value;
+        }
+        synchronized (values) {
+            WeakReference<String> existing = values.get(value);
+            String canonical = existing == null ? null : existing.get();
+            if (canonical != null) {
+                return canonical;
+            }
+            values.put(value, new WeakReference<>(value));
+            return value;
+        }
+    }
+}
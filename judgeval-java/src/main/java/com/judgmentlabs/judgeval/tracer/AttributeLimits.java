@@ -0,0 +1,105 @@
+package com.judgmentlabs.judgeval.tracer;
+
+/**
+ * Byte budgets for the serialized span attributes set through
+ * {@link BaseTracer#setAttribute(String, Object, java.lang.reflect.Type)},
+ * {@code setInput} and {@code setOutput}, measured in UTF-8 bytes.
+ * <p>
+ * A value larger than its budget keeps the prefix that fits, ends with
+ * {@value #TRUNCATION_MARKER}, and is accompanied by two attributes: the
+ * key suffixed with {@value #ORIGINAL_BYTES_SUFFIX} holds the full value's
+ * length and the key suffixed with {@value #SHA256_SUFFIX} its SHA-256 hash.
+ * The part beyond the budget is counted and hashed as it is serialized and
+ * never kept in memory.
+ * <p>
+ * The span budget also covers string attributes set through
+ * {@link BaseTracer#setAttribute(String, String)}, and the length and hash
+ * attributes of truncated values. A value that no longer fits, even
+ * truncated, is dropped.
+ */
+public final class AttributeLimits {
+    public static final String           TRUNCATION_MARKER         = "...[truncated]";
+    public static final String           ORIGINAL_BYTES_SUFFIX     = ".original_bytes";
+    public static final String           SHA256_SUFFIX             = ".sha256";
+
+    /**
+     * The bytes charged to the span budget for the length and hash attributes
+     * of a truncated value.
+     */
+    static final int                     TRUNCATION_METADATA_BYTES = Long.BYTES + 64;
+
+    private static final AttributeLimits NONE                      = new AttributeLimits(Integer.MAX_VALUE,
+            Long.MAX_VALUE);
+
+    private final int                    maxAttributeBytes;
+    private final long                   maxSpanAttributeBytes;
+
+    private AttributeLimits(int maxAttributeBytes, long maxSpanAttributeBytes) {
+        this.maxAttributeBytes = maxAttributeBytes;
+        this.maxSpanAttributeBytes = maxSpanAttributeBytes;
+    }
+
+    /**
+     * Returns limits that never truncate.
+     *
+     * @return the unbounded limits
+     */
+    public static AttributeLimits none() {
+        return NONE;
+    }
+
+    /**
+     * Creates limits with the given budgets.
+     *
+     * @param maxAttributeBytes
+     *            the budget for one attribute value
+     * @param maxSpanAttributeBytes
+     *            the budget for all serialized attribute values of one span
+     * @return the limits
+     * @throws IllegalArgumentException
+     *             if a budget is not positive, or the attribute budget is
+     *             too small to hold {@value #TRUNCATION_MARKER}
+     */
+    public static AttributeLimits of(int maxAttributeBytes, long maxSpanAttributeBytes) {
+        if (maxAttributeBytes <= 0 || maxSpanAttributeBytes <= 0) {
+            throw new IllegalArgumentException("Attribute byte budgets must be positive");
+        }
+        if (maxAttributeBytes < TRUNCATION_MARKER.length()) {
+            throw new IllegalArgumentException("maxAttributeBytes must be at least " + TRUNCATION_MARKER.length()
+                    + ", got: " + maxAttributeBytes);
+        }
+        return new AttributeLimits(maxAttributeBytes, maxSpanAttributeBytes);
+    }
+
+    public int getMaxAttributeBytes() {
+        return maxAttributeBytes;
+    }
+
+    public long getMaxSpanAttributeBytes() {
+        return maxSpanAttributeBytes;
+    }
+
+    boolean hasSpanLimit() {
+        return maxSpanAttributeBytes != Long.MAX_VALUE;
+    }
+
+    /**
+     * Returns the budget a value must fit in to be kept whole.
+     */
+    int limitFor(long spanBytesUsed) {
+        return (int) Math.min(maxAttributeBytes, Math.max(0, maxSpanAttributeBytes - spanBytesUsed));
+    }
+
+    /**
+     * Returns the budget for the truncated form of a value, which leaves room
+     * in the span budget for its length and hash attributes. It may be
+     * smaller than the marker, or negative, in which case the value is
+     * dropped.
+     */
+    int truncatedLimitFor(long spanBytesUsed) {
+        if (!hasSpanLimit()) {
+            return maxAttributeBytes;
+        }
+        return (int) Math.min(maxAttributeBytes, maxSpanAttributeBytes - spanBytesUsed - TRUNCATION_METADATA_BYTES);
+    }
+}
@@ -0,0 +1,298 @@
+package com.judgmentlabs.judgeval.tracer;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * The buffer an {@link IAppendingSerializer} writes a span attribute value
+ * into. When the value has a byte budget the writer keeps only the prefix
+ * that fits; everything after it is counted and hashed as it arrives, so an
+ * oversized value is never held in memory. See {@link AttributeLimits}.
+ */
+public final class AttributeWriter implements Appendable {
+    static final int            UNBOUNDED  = Integer.MAX_VALUE;
+
+    private static final int    HASH_CHUNK = 512;
+    private static final byte   REPLACED   = '?';
+
+    private final StringBuilder kept;
+    private int                 limit      = UNBOUNDED;
+    private int                 truncatedLimit;
+    private long                bytes;
+    private MessageDigest       digest;
+    private byte[]              hashBuffer;
+    private int                 hashed;
+    private char                highSurrogate;
+
+    /**
+     * Creates an unbounded writer.
+     */
+    public AttributeWriter() {
+        this(16);
+    }
+
+    AttributeWriter(int capacity) {
+        this.kept = new StringBuilder(capacity);
+    }
+
+    void reset(int limit) {
+        reset(limit, limit);
+    }
+
+    /**
+     * Starts a value that is kept whole if it fits in {@code limit} bytes and
+     * otherwise truncated to {@code truncatedLimit} bytes, or dropped when
+     * that cannot hold the marker.
+     */
+    void reset(int limit, int truncatedLimit) {
+        clear();
+        this.limit = limit;
+        this.truncatedLimit = truncatedLimit;
+    }
+
+    /**
+     * Discards everything written so far.
+     */
+    public void clear() {
+        kept.setLength(0);
+        bytes = 0;
+        digest = null;
+        hashed = 0;
+        highSurrogate = 0;
+    }
+
+    int capacity() {
+        return kept.capacity();
+    }
+
+    @Override
+    public AttributeWriter append(CharSequence chars) {
+        CharSequence value = chars == null ? "null" : chars;
+        return append(value, 0, value.length());
+    }
+
+    @Override
+    public AttributeWriter append(CharSequence chars, int start, int end) {
+        if (chars == null) {
+            return append("null", start, end);
+        }
+        if (limit == UNBOUNDED) {
+            kept.append(chars, start, end);
+            return this;
+        }
+        int next = start;
+        if (digest == null) {
+            long fitting = bytes;
+            while (next < end) {
+                int length = utf8Length(chars.charAt(next));
+                if (fitting + length > limit) {
+                    break;
+                }
+                fitting += length;
+                next++;
+            }
+            kept.append(chars, start, next);
+            bytes = fitting;
+            if (next == end) {
+                return this;
+            }
+            startTruncating();
+        }
+        for (; next < end; next++) {
+            hash(chars.charAt(next));
+        }
+        return this;
+    }
+
+    @Override
+    public AttributeWriter append(char c) {
+        if (limit == UNBOUNDED) {
+            kept.append(c);
+            return this;
+        }
+        if (digest == null) {
+            int length = utf8Length(c);
+            if (bytes + length <= limit) {
+                kept.append(c);
+                bytes += length;
+                return this;
+            }
+            startTruncating();
+        }
+        hash(c);
+        return this;
+    }
+
+    public AttributeWriter append(long value) {
+        if (limit == UNBOUNDED || digest == null && limit - bytes >= 20) {
+            int before = kept.length();
+            kept.append(value);
+            bytes += kept.length() - before;
+            return this;
+        }
+        return append(Long.toString(value));
+    }
+
+    public AttributeWriter append(double value) {
+        if (limit == UNBOUNDED || digest == null && limit - bytes >= 32) {
+            int before = kept.length();
+            kept.append(value);
+            bytes += kept.length() - before;
+            return this;
+        }
+        return append(Double.toString(value));
+    }
+
+    public AttributeWriter append(float value) {
+        if (limit == UNBOUNDED || digest == null && limit - bytes >= 32) {
+            int before = kept.length();
+            kept.append(value);
+            bytes += kept.length() - before;
+            return this;
+        }
+        return append(Float.toString(value));
+    }
+
+    public AttributeWriter append(boolean value) {
+        return append(value ? "true" : "false");
+    }
+
+    /**
+     * Returns whether the value ran over its budget.
+     *
+     * @return true if the value is truncated
+     */
+    public boolean isTruncated() {
+        return digest != null;
+    }
+
+    /**
+     * Returns the value written so far, ending with
+     * {@link AttributeLimits#TRUNCATION_MARKER} if it was truncated.
+     *
+     * @return the attribute value
+     */
+    @Override
+    public String toString() {
+        return digest == null ? kept.toString() : truncatedValue();
+    }
+
+    /**
+     * Completes the value.
+     *
+     * @return the value, or null if it was truncated and its truncated form
+     *         does not fit in the budget
+     */
+    SerializedAttribute finish() {
+        if (digest == null) {
+            return new SerializedAttribute(kept.toString(), limit == UNBOUNDED ? utf8Length(kept) : bytes, -1,
+                    null);
+        }
+        if (truncatedLimit < AttributeLimits.TRUNCATION_MARKER.length()) {
+            return null;
+        }
+        String value = truncatedValue();
+        if (highSurrogate != 0) {
+            highSurrogate = 0;
+            put(REPLACED);
+        }
+        digest.update(hashBuffer, 0, hashed);
+        hashed = 0;
+        return new SerializedAttribute(value, utf8Length(value) + AttributeLimits.TRUNCATION_METADATA_BYTES, bytes,
+                HexFormat.of()
+                        .formatHex(digest.digest()));
+    }
+
+    private String truncatedValue() {
+        long budget = (long) truncatedLimit - AttributeLimits.TRUNCATION_MARKER.length();
+        long used = 0;
+        int end = 0;
+        while (end < kept.length() && used + utf8Length(kept.charAt(end)) <= budget) {
+            used += utf8Length(kept.charAt(end));
+            end++;
+        }
+        if (end > 0 && Character.isHighSurrogate(kept.charAt(end - 1))) {
+            end--;
+        }
+        return new StringBuilder(end + AttributeLimits.TRUNCATION_MARKER.length()).append(kept, 0, end)
+                .append(AttributeLimits.TRUNCATION_MARKER)
+                .toString();
+    }
+
+    private void startTruncating() {
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        if (hashBuffer == null) {
+            hashBuffer = new byte[HASH_CHUNK];
+        }
+        bytes = 0;
+        for (int i = 0; i < kept.length(); i++) {
+            hash(kept.charAt(i));
+        }
+    }
+
+    /**
+     * Returns the UTF-8 length of a string. An unpaired surrogate counts as
+     * two bytes, as in the budget checks.
+     */
+    static long utf8Length(CharSequence chars) {
+        long length = 0;
+        for (int i = 0; i < chars.length(); i++) {
+            length += utf8Length(chars.charAt(i));
+        }
+        return length;
+    }
+
+    private static int utf8Length(char c) {
+        if (c < 0x80) {
+            return 1;
+        }
+        if (c < 0x800 || Character.isSurrogate(c)) {
+            return 2;
+        }
+        return 3;
+    }
+
+    private void hash(char c) {
+        if (highSurrogate != 0) {
+            char high = highSurrogate;
+            highSurrogate = 0;
+            if (Character.isLowSurrogate(c)) {
+                int codePoint = Character.toCodePoint(high, c);
+                put((byte) (0xF0 | codePoint >> 18));
+                put((byte) (0x80 | codePoint >> 12 & 0x3F));
+                put((byte) (0x80 | codePoint >> 6 & 0x3F));
+                put((byte) (0x80 | codePoint & 0x3F));
+                return;
+            }
+            put(REPLACED);
+        }
+        if (c < 0x80) {
+            put((byte) c);
+        } else if (c < 0x800) {
+            put((byte) (0xC0 | c >> 6));
+            put((byte) (0x80 | c & 0x3F));
+        } else if (Character.isHighSurrogate(c)) {
+            highSurrogate = c;
+        } else if (Character.isLowSurrogate(c)) {
+            put(REPLACED);
+        } else {
+            put((byte) (0xE0 | c >> 12));
+            put((byte) (0x80 | c >> 6 & 0x3F));
+            put((byte) (0x80 | c & 0x3F));
+        }
+    }
+
+    private void put(byte b) {
+        if (hashed == HASH_CHUNK) {
+            digest.update(hashBuffer, 0, hashed);
+            hashed = 0;
+        }
+        hashBuffer[hashed++] = b;
+        bytes++;
+    }
+}
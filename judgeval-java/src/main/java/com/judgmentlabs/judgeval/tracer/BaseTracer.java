@@ -1,5 +1,6 @@
 package com.judgmentlabs.judgeval.tracer;
 
+import java.io.IOException;
 import java.lang.reflect.Type;
 import java.time.Instant;
 import java.time.ZoneOffset;
@@ -10,9 +11,12 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.judgmentlabs.judgeval.JudgmentAttributeKeys;
 import com.judgmentlabs.judgeval.data.Example;
+import com.judgmentlabs.judgeval.internal.api.Json;
+import com.judgmentlabs.judgeval.internal.api.JudgmentApiException;
 import com.judgmentlabs.judgeval.internal.api.JudgmentSyncClient;
 import com.judgmentlabs.judgeval.internal.api.models.ExampleEvaluationRun;
 import com.judgmentlabs.judgeval.internal.api.models.ResolveProjectNameRequest;
@@ -20,15 +24,22 @@ import com.judgmentlabs.judgeval.internal.api.models.ResolveProjectNameResponse;
 import com.judgmentlabs.judgeval.internal.api.models.TraceEvaluationRun;
 import com.judgmentlabs.judgeval.scorers.BaseScorer;
 import com.judgmentlabs.judgeval.scorers.custom_scorer.CustomScorer;
+import com.judgmentlabs.judgeval.tracer.evaluation.EvaluationQueue;
 import com.judgmentlabs.judgeval.tracer.exporters.JudgmentSpanExporter;
 import com.judgmentlabs.judgeval.tracer.exporters.NoOpSpanExporter;
+import com.judgmentlabs.judgeval.tracer.metrics.TracerMetrics;
+import com.judgmentlabs.judgeval.tracer.spool.SegmentSpool;
+import com.judgmentlabs.judgeval.tracer.spool.SpoolOutcome;
+import com.judgmentlabs.judgeval.tracer.spool.SpoolRecordType;
 import com.judgmentlabs.judgeval.utils.Logger;
 
 import io.opentelemetry.api.GlobalOpenTelemetry;
+import io.opentelemetry.api.OpenTelemetry;
 import io.opentelemetry.api.trace.Span;
 import io.opentelemetry.api.trace.SpanContext;
 import io.opentelemetry.api.trace.StatusCode;
 import io.opentelemetry.context.Scope;
+import io.opentelemetry.sdk.trace.SpanProcessor;
 import io.opentelemetry.sdk.trace.export.SpanExporter;
 
 /**
@@ -36,26 +47,59 @@ import io.opentelemetry.sdk.trace.export.SpanExporter;
  * capabilities.
  */
 public abstract class BaseTracer {
-    public static final String         TRACER_NAME = "judgeval";
-
-    protected final String             projectName;
-    protected final boolean            enableEvaluation;
-    protected final JudgmentSyncClient apiClient;
-    protected final ISerializer        serializer;
-    protected final ObjectMapper       jacksonMapper;
-    protected final Optional<String>   projectId;
+    public static final String                                TRACER_NAME = "judgeval";
+
+    private static volatile io.opentelemetry.api.trace.Tracer defaultTracer;
+
+    protected final String                                    projectName;
+    protected final boolean                                   enableEvaluation;
+    protected final JudgmentSyncClient                        apiClient;
+    protected final ISerializer                               serializer;
+    protected final ObjectMapper                              jacksonMapper;
+    protected final Optional<String>                          projectId;
+    protected final EvaluationQueue                           evaluationQueue;
+    protected final Optional<SegmentSpool>                    spool;
+    protected final AttributeCapture                          attributeCapture;
+    protected final AttributeDeduplication                    attributeDeduplication;
+    protected final TracerMetrics                             metrics     = new TracerMetrics();
+    private final AttributeBudget                             attributeBudget;
+    private final DeferredAttributes                          deferredAttributes;
+    private final AttributeInterner                           attributeInterner;
+    private volatile JudgmentSpanExporter                     spanExporter;
+    private volatile io.opentelemetry.api.trace.Tracer        otelTracer;
 
     protected BaseTracer(String projectName,
             boolean enableEvaluation, JudgmentSyncClient apiClient, ISerializer serializer) {
+        this(projectName, enableEvaluation, apiClient, serializer, EvaluationQueue.builder(), null,
+                AttributeCapture.EAGER, AttributeLimits.none(), AttributeDeduplication.OFF);
+    }
+
+    protected BaseTracer(String projectName,
+            boolean enableEvaluation, JudgmentSyncClient apiClient, ISerializer serializer,
+            EvaluationQueue.Builder evaluationQueue, SegmentSpool spool, AttributeCapture attributeCapture,
+            AttributeLimits attributeLimits, AttributeDeduplication attributeDeduplication) {
         this.projectName = Objects.requireNonNull(projectName, "projectName required");
         this.enableEvaluation = enableEvaluation;
         this.apiClient = Objects.requireNonNull(apiClient, "apiClient required");
         this.serializer = Objects.requireNonNull(serializer, "serializer required");
-        this.jacksonMapper = new ObjectMapper();
+        this.jacksonMapper = Json.mapper();
+        this.attributeCapture = Objects.requireNonNull(attributeCapture, "attributeCapture required");
+        this.attributeBudget = new AttributeBudget(
+                Objects.requireNonNull(attributeLimits, "attributeLimits required"));
+        this.deferredAttributes = attributeCapture == AttributeCapture.EAGER ? null
+                : new DeferredAttributes(serializer, attributeCapture, attributeBudget);
+        this.attributeDeduplication = Objects.requireNonNull(attributeDeduplication,
+                "attributeDeduplication required");
+        this.attributeInterner = AttributeInterner.of(attributeDeduplication);
+        this.evaluationQueue = Objects.requireNonNull(evaluationQueue, "evaluationQueue required")
+                .sink(this::submitEvaluation)
+                .build();
+        this.metrics.bindEvaluationQueue(this.evaluationQueue::size, this.evaluationQueue::getDroppedCount);
+        this.spool = Optional.ofNullable(spool);
         this.projectId = resolveProjectId(projectName);
 
-        this.projectId.ifPresentOrElse(id -> {
-        }, () -> Logger.error("Failed to resolve project " + projectName
+        this.projectId.ifPresentOrElse(id -> this.spool.ifPresent(s -> s.startReplay(this::replaySpooled)),
+                () -> Logger.error("Failed to resolve project " + projectName
                 + ", please create it first at https://app.judgmentlabs.ai/org/" + this.apiClient.getOrganizationId()
                 + "/projects. Skipping Judgment export."));
     }
@@ -88,13 +132,34 @@ public abstract class BaseTracer {
      * @return the span exporter
      */
     public SpanExporter getSpanExporter() {
-        return projectId.<SpanExporter>map(this::createJudgmentSpanExporter)
+        return projectId.map(this::createExportPipeline)
                 .orElseGet(() -> {
                     Logger.error("Project not resolved; cannot create exporter, returning NoOpSpanExporter");
-                    return new NoOpSpanExporter();
+                    return new NoOpSpanExporter(metrics);
                 });
     }
 
+    /**
+     * Returns a span processor that releases the attribute budget tracked for
+     * each span when it ends. It must be added to the tracer provider before
+     * the processors that export spans.
+     *
+     * @return the span processor
+     */
+    protected SpanProcessor createSpanBudgetReleaser() {
+        return new SpanBudgetReleaser(attributeBudget, deferredAttributes);
+    }
+
+    /**
+     * Returns the metrics recorded by this tracer's export pipeline and
+     * evaluation queue. Call {@link TracerMetrics#snapshot()} to read them.
+     *
+     * @return the tracer metrics
+     */
+    public TracerMetrics getMetrics() {
+        return metrics;
+    }
+
     /**
      * Sets the span kind attribute on the current span.
      *
@@ -135,7 +200,9 @@ public abstract class BaseTracer {
 
     /**
      * Sets an attribute on the current span by serializing the value with the
-     * specified type.
+     * specified type. Under a deferred {@link AttributeCapture} the value is
+     * serialized when the span is exported instead. Values over the tracer's
+     * {@link AttributeLimits} are truncated.
      *
      * @param key
      *            the attribute key
@@ -148,13 +215,25 @@ public abstract class BaseTracer {
         if (!isValidKey(key)) {
             return;
         }
-        if (value != null) {
-            withCurrentSpan(span -> span.setAttribute(key, serializer.serialize(value, type)));
+        if (value == null) {
+            return;
+        }
+        Span span = Span.current();
+        if (span == null || !span.isRecording()) {
+            return;
+        }
+        if (deferredAttributes != null && deferredAttributes.capture(span, key, value, type)) {
+            return;
+        }
+        SerializedAttribute serialized = attributeBudget.serialize(serializer, span, value, type);
+        if (serialized != null) {
+            serialized.setOn(span, key, attributeInterner);
         }
     }
 
     /**
-     * Sets a string attribute on the current span.
+     * Sets a string attribute on the current span. Values over the tracer's
+     * {@link AttributeLimits} are truncated.
      *
      * @param key
      *            the attribute key
@@ -162,10 +241,15 @@ public abstract class BaseTracer {
      *            the attribute value
      */
     public void setAttribute(String key, String value) {
-        if (!isValidKey(key)) {
+        if (!isValidKey(key) || value == null) {
             return;
         }
-        withCurrentSpan(span -> span.setAttribute(key, value));
+        withCurrentSpan(span -> {
+            SerializedAttribute bounded = attributeBudget.bound(span, value);
+            if (bounded != null) {
+                bounded.setOn(span, key, attributeInterner);
+            }
+        });
     }
 
     /**
@@ -246,8 +330,8 @@ public abstract class BaseTracer {
     /**
      * Asynchronously evaluates the current span using the specified scorer and
      * example.
-     * The evaluation is queued and processed asynchronously by the Judgment
-     * backend.
+     * The evaluation run is handed to a background queue and submitted off the
+     * calling thread, then processed asynchronously by the Judgment backend.
      *
      * @param scorer
      *            the scorer to use for evaluation
@@ -268,6 +352,7 @@ public abstract class BaseTracer {
 
                 ExampleEvaluationRun evaluationRun = createEvaluationRun(scorer, example, traceId, spanId);
                 enqueueEvaluation(evaluationRun);
+                onEvaluationScheduled(spanContext);
             });
         });
     }
@@ -294,10 +379,16 @@ public abstract class BaseTracer {
                 logEvaluationInfo("asyncTraceEvaluate", traceId, spanId, scorer.getName());
 
                 TraceEvaluationRun evaluationRun = createTraceEvaluationRun(scorer, traceId, spanId);
+                if (assembleTraceEvaluation(spanContext, evaluationRun)) {
+                    onEvaluationScheduled(spanContext);
+                    return;
+                }
                 try {
-                    String traceEvalJson = jacksonMapper.writeValueAsString(evaluationRun);
+                    String traceEvalJson = Json.writerFor(TraceEvaluationRun.class)
+                            .writeValueAsString(evaluationRun);
                     currentSpan.setAttribute(JudgmentAttributeKeys.AttributeKeys.JUDGMENT_PENDING_TRACE_EVAL,
                             traceEvalJson);
+                    onEvaluationScheduled(spanContext);
                 } catch (Exception e) {
                     Logger.error("Failed to serialize trace evaluation: " + e.getMessage());
                 }
@@ -431,15 +522,54 @@ public abstract class BaseTracer {
     }
 
     /**
-     * Returns the OpenTelemetry tracer instance.
+     * Returns the OpenTelemetry tracer instance. Before the tracer is
+     * initialized this is the tracer of the global OpenTelemetry instance.
      *
      * @return the OpenTelemetry tracer
      */
     public io.opentelemetry.api.trace.Tracer getTracer() {
+        io.opentelemetry.api.trace.Tracer tracer = otelTracer;
+        if (tracer != null) {
+            return tracer;
+        }
         return GlobalOpenTelemetry.get()
                 .getTracer(TRACER_NAME);
     }
 
+    /**
+     * Sets the OpenTelemetry instance this tracer creates spans with, and
+     * caches its tracer so span creation does not go through
+     * {@link GlobalOpenTelemetry}.
+     *
+     * @param openTelemetry
+     *            the OpenTelemetry instance
+     * @param useAsDefault
+     *            whether {@link #span(String)} should create spans with it
+     */
+    protected void useOpenTelemetry(OpenTelemetry openTelemetry, boolean useAsDefault) {
+        io.opentelemetry.api.trace.Tracer tracer = Objects.requireNonNull(openTelemetry, "openTelemetry required")
+                .getTracer(TRACER_NAME);
+        this.otelTracer = tracer;
+        if (useAsDefault) {
+            synchronized (BaseTracer.class) {
+                defaultTracer = tracer;
+            }
+        }
+    }
+
+    /**
+     * Stops {@link #span(String)} from creating spans with this tracer's
+     * OpenTelemetry instance, if it is the default, so a shut down tracer is
+     * neither used for new spans nor kept reachable.
+     */
+    protected void releaseOpenTelemetry() {
+        synchronized (BaseTracer.class) {
+            if (otelTracer != null && defaultTracer == otelTracer) {
+                defaultTracer = null;
+            }
+        }
+    }
+
     /**
      * Returns the project name.
      *
@@ -468,16 +598,21 @@ public abstract class BaseTracer {
     }
 
     /**
-     * Creates and returns a new span with the specified name.
+     * Creates and returns a new span with the specified name, using the
+     * tracer registered as the global one, or the global OpenTelemetry
+     * instance if there is none.
      *
      * @param spanName
      *            the name of the span
      * @return the created span
      */
     public static Span span(String spanName) {
-        return GlobalOpenTelemetry.get()
-                .getTracer(TRACER_NAME)
-                .spanBuilder(spanName)
+        io.opentelemetry.api.trace.Tracer tracer = defaultTracer;
+        if (tracer == null) {
+            tracer = GlobalOpenTelemetry.get()
+                    .getTracer(TRACER_NAME);
+        }
+        return tracer.spanBuilder(spanName)
                 .startSpan();
     }
 
@@ -497,13 +632,26 @@ public abstract class BaseTracer {
         return baseUrl.endsWith("/") ? baseUrl + "otel/v1/traces" : baseUrl + "/otel/v1/traces";
     }
 
+    private SpanExporter createExportPipeline(String projectId) {
+        SpanExporter exporter = createJudgmentSpanExporter(projectId);
+        if (attributeDeduplication == AttributeDeduplication.REFERENCE) {
+            exporter = new DeduplicatingExporter(exporter, AttributeDeduplication.MIN_CHARS);
+        }
+        return deferredAttributes == null ? exporter : deferredAttributes.wrap(exporter);
+    }
+
     private JudgmentSpanExporter createJudgmentSpanExporter(String projectId) {
-        return JudgmentSpanExporter.builder()
+        JudgmentSpanExporter exporter = JudgmentSpanExporter.builder()
                 .endpoint(buildEndpoint(apiClient.getApiUrl()))
                 .apiKey(apiClient.getApiKey())
                 .organizationId(apiClient.getOrganizationId())
                 .projectId(projectId)
+                .spool(spool.orElse(null))
+                .transport(apiClient.getTransport())
+                .metrics(metrics)
                 .build();
+        this.spanExporter = exporter;
+        return exporter;
     }
 
     private String generateRunId(String prefix, String spanId) {
@@ -553,11 +701,137 @@ public abstract class BaseTracer {
         return evaluationRun;
     }
 
+    /**
+     * Called after an evaluation is scheduled on a span, so that subclasses
+     * can make sure the span's trace is exported. Does nothing by default.
+     *
+     * @param spanContext
+     *            the evaluated span's context
+     */
+    protected void onEvaluationScheduled(SpanContext spanContext) {
+    }
+
+    /**
+     * Called before a trace evaluation is attached to its span, so that
+     * subclasses can submit the run themselves once the trace completes. By
+     * default the run is left to the backend.
+     *
+     * @param spanContext
+     *            the evaluated span's context
+     * @param evaluationRun
+     *            the trace evaluation run
+     * @return true if the subclass takes over submitting the run
+     */
+    protected boolean assembleTraceEvaluation(SpanContext spanContext, TraceEvaluationRun evaluationRun) {
+        return false;
+    }
+
+    /**
+     * Submits a trace evaluation run to the backend, spooling it for replay
+     * if the submission fails.
+     *
+     * @param evaluationRun
+     *            the trace evaluation run
+     */
+    protected void submitTraceEvaluation(TraceEvaluationRun evaluationRun) {
+        submitRun(evaluationRun, evaluationRun.getId(), SpoolRecordType.TRACE_EVALUATION_RUN,
+                apiClient::addToRunEvalQueueTraces);
+    }
+
     private void enqueueEvaluation(ExampleEvaluationRun evaluationRun) {
+        long start = System.nanoTime();
+        boolean accepted = evaluationQueue.offer(evaluationRun);
+        metrics.recordEvaluationEnqueue(System.nanoTime() - start, accepted);
+    }
+
+    private void submitEvaluation(ExampleEvaluationRun evaluationRun) {
+        submitRun(evaluationRun, evaluationRun.getId(), SpoolRecordType.EVALUATION_RUN,
+                apiClient::addToRunEvalQueue);
+    }
+
+    /**
+     * Sends an evaluation run to its queue endpoint, or spools it when the
+     * send fails or earlier runs are still waiting in the spool.
+     */
+    private <R> void submitRun(R evaluationRun, String runId, SpoolRecordType type, RunEndpoint<R> endpoint) {
+        if (spool.isPresent() && !spool.get()
+                .isEmpty()) {
+            spoolRun(evaluationRun, runId, type);
+            return;
+        }
         try {
-            apiClient.addToRunEvalQueue(evaluationRun);
+            endpoint.send(evaluationRun);
+            metrics.recordEvaluationSubmitted();
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                    .interrupt();
+            Logger.error("Interrupted while enqueueing evaluation run " + runId);
+            metrics.recordEvaluationFailure();
+            spoolRun(evaluationRun, runId, type);
         } catch (Exception e) {
-            Logger.error("Failed to enqueue evaluation run: " + e.getMessage());
+            Logger.error("Failed to enqueue evaluation run " + runId + ": " + e.getMessage());
+            metrics.recordEvaluationFailure();
+            spoolRun(evaluationRun, runId, type);
+        }
+    }
+
+    private void spoolRun(Object evaluationRun, String runId, SpoolRecordType type) {
+        spool.ifPresent(s -> {
+            try {
+                s.append(type, Json.writerFor(evaluationRun.getClass())
+                        .writeValueAsBytes(evaluationRun));
+            } catch (JsonProcessingException e) {
+                Logger.error("Failed to spool evaluation run " + runId + ": " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Sends a spooled evaluation run again, discarding it if it cannot be
+     * read or the backend rejects it for good.
+     */
+    private <R> SpoolOutcome replayRun(byte[] payload, Class<R> runType, RunEndpoint<R> endpoint)
+            throws Exception {
+        R evaluationRun;
+        try {
+            evaluationRun = Json.readerFor(runType)
+                    .readValue(payload);
+        } catch (JsonProcessingException e) {
+            Logger.error("Discarding unreadable spooled evaluation run: " + e.getMessage());
+            return SpoolOutcome.DISCARD;
+        }
+        try {
+            endpoint.send(evaluationRun);
+        } catch (JudgmentApiException e) {
+            if (e.isRetryable()) {
+                throw e;
+            }
+            Logger.error("Discarding spooled evaluation run rejected with HTTP " + e.getStatusCode());
+            return SpoolOutcome.DISCARD;
         }
+        metrics.recordEvaluationSubmitted();
+        return SpoolOutcome.REPLAYED;
+    }
+
+    private SpoolOutcome replaySpooled(SpoolRecordType type, byte[] payload) throws Exception {
+        switch (type) {
+            case EVALUATION_RUN:
+                return replayRun(payload, ExampleEvaluationRun.class, apiClient::addToRunEvalQueue);
+            case TRACE_EVALUATION_RUN:
+                return replayRun(payload, TraceEvaluationRun.class, apiClient::addToRunEvalQueueTraces);
+            case SPAN_BATCH:
+                JudgmentSpanExporter exporter = spanExporter;
+                return exporter == null ? SpoolOutcome.RETRY : exporter.replay(payload);
+            default:
+                return SpoolOutcome.DISCARD;
+        }
+    }
+
+    /**
+     * The client method that queues one kind of evaluation run.
+     */
+    @FunctionalInterface
+    private interface RunEndpoint<R> {
+        Object send(R evaluationRun) throws IOException, InterruptedException;
     }
 }
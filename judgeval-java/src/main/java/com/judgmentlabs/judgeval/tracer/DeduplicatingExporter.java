@@ -0,0 +1,89 @@
+package com.judgmentlabs.judgeval.tracer;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.AttributeType;
+import io.opentelemetry.api.common.AttributesBuilder;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+/**
+ * Replaces repeated large string attributes within each export batch with
+ * content references, as described by {@link AttributeDeduplication#REFERENCE}.
+ */
+final class DeduplicatingExporter implements SpanExporter {
+    private final SpanExporter delegate;
+    private final int          minChars;
+
+    DeduplicatingExporter(SpanExporter delegate, int minChars) {
+        this.delegate = delegate;
+        this.minChars = minChars;
+    }
+
+    @Override
+    public CompletableResultCode export(Collection<SpanData> spans) {
+        return delegate.export(deduplicate(spans, minChars));
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+        return delegate.flush();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        return delegate.shutdown();
+    }
+
+    static Collection<SpanData> deduplicate(Collection<SpanData> spans, int minChars) {
+        Map<String, String> contentIds = new HashMap<>();
+        List<SpanData> deduplicated = new ArrayList<>(spans.size());
+        for (SpanData span : spans) {
+            AttributesBuilder builder = null;
+            for (Map.Entry<AttributeKey<?>, Object> attribute : span.getAttributes()
+                    .asMap()
+                    .entrySet()) {
+                AttributeKey<?> key = attribute.getKey();
+                if (key.getType() != AttributeType.STRING || ((String) attribute.getValue()).length() < minChars) {
+                    continue;
+                }
+                if (builder == null) {
+                    builder = span.getAttributes()
+                            .toBuilder();
+                }
+                String value = (String) attribute.getValue();
+                String contentId = contentIds.get(value);
+                if (contentId == null) {
+                    contentId = contentId(value);
+                    contentIds.put(value, contentId);
+                    builder.put(key.getKey() + AttributeDeduplication.CONTENT_ID_SUFFIX, contentId);
+                } else {
+                    builder.remove(key);
+                    builder.put(key.getKey() + AttributeDeduplication.CONTENT_REF_SUFFIX, contentId);
+                }
+            }
+            deduplicated.add(builder == null ? span : RewrittenSpanData.of(span, builder.build()));
+        }
+        return deduplicated;
+    }
+
+    private static String contentId(String value) {
+        try {
+            return HexFormat.of()
+                    .formatHex(MessageDigest.getInstance("SHA-256")
+                            .digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
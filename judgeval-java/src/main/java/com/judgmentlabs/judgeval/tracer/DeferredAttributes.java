@@ -0,0 +1,233 @@
+package com.judgmentlabs.judgeval.tracer;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import io.opentelemetry.api.common.AttributesBuilder;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+/**
+ * Span attribute values held for serialization at export time under
+ * {@link AttributeCapture#SNAPSHOT} or {@link AttributeCapture#REFERENCE}.
+ * <p>
+ * Values are keyed by span context and removed when their span is exported.
+ * A span that is dropped before export is never serialized; its values are
+ * released once the span itself is garbage collected. When the span ends, the
+ * bytes it already spent on eagerly set attributes are kept with its values.
+ */
+final class DeferredAttributes {
+    private static final Object       UNCOPYABLE = new Object();
+
+    private final ISerializer         serializer;
+    private final AttributeCapture    capture;
+    private final AttributeBudget     budget;
+    private final SpanState<Captured> pending    = new SpanState<>(true);
+
+    DeferredAttributes(ISerializer serializer, AttributeCapture capture, AttributeBudget budget) {
+        this.serializer = serializer;
+        this.capture = capture;
+        this.budget = budget;
+    }
+
+    /**
+     * Holds a value for the given span until it is exported.
+     *
+     * @param span
+     *            the recording span
+     * @param key
+     *            the attribute key
+     * @param value
+     *            the attribute value
+     * @param type
+     *            the type to use for serialization
+     * @return false if the value could not be copied and must be serialized
+     *         now
+     */
+    boolean capture(Span span, String key, Object value, Type type) {
+        Object held = capture == AttributeCapture.SNAPSHOT ? snapshot(value) : value;
+        if (held == UNCOPYABLE) {
+            Captured stale = pending.peek(span.getSpanContext());
+            if (stale != null) {
+                stale.remove(key);
+            }
+            return false;
+        }
+        pending.get(span, Captured::new)
+                .put(key, held, type);
+        return true;
+    }
+
+    /**
+     * Keeps the bytes a span spent on eagerly set attributes with its deferred
+     * values once the span's budget is released.
+     *
+     * @param context
+     *            the span context
+     * @param spentBytes
+     *            the bytes the span spent
+     */
+    void spanEnded(SpanContext context, long spentBytes) {
+        Captured captured = pending.peek(context);
+        if (captured != null) {
+            captured.spend(spentBytes);
+        }
+    }
+
+    int pendingSpans() {
+        return pending.size();
+    }
+
+    /**
+     * Wraps an exporter so that spans reach it with their deferred attributes
+     * serialized.
+     *
+     * @param delegate
+     *            the exporter to wrap
+     * @return the wrapping exporter
+     */
+    SpanExporter wrap(SpanExporter delegate) {
+        return new ResolvingExporter(delegate);
+    }
+
+    Collection<SpanData> resolve(Collection<SpanData> spans) {
+        if (pending.isEmpty()) {
+            return spans;
+        }
+        List<SpanData> resolved = new ArrayList<>(spans.size());
+        for (SpanData span : spans) {
+            Captured captured = pending.remove(span.getSpanContext());
+            resolved.add(captured == null ? span : captured.applyTo(span, serializer, budget));
+        }
+        return resolved;
+    }
+
+    static Object snapshot(Object value) {
+        if (value == null || value instanceof String || value instanceof Integer || value instanceof Long
+                || value instanceof Double || value instanceof Float || value instanceof Short
+                || value instanceof Byte || value instanceof BigInteger || value instanceof BigDecimal
+                || value instanceof Boolean || value instanceof Character || value instanceof Enum) {
+            return value;
+        }
+        if (value instanceof List || value instanceof Set) {
+            Collection<Object> copy = value instanceof List ? new ArrayList<>(((Collection<?>) value).size())
+                    : new LinkedHashSet<>();
+            for (Object element : (Collection<?>) value) {
+                Object held = snapshot(element);
+                if (held == UNCOPYABLE) {
+                    return UNCOPYABLE;
+                }
+                copy.add(held);
+            }
+            return copy;
+        }
+        if (value instanceof Map) {
+            Map<Object, Object> copy = new LinkedHashMap<>();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                Object key = snapshot(entry.getKey());
+                Object held = snapshot(entry.getValue());
+                if (key == UNCOPYABLE || held == UNCOPYABLE) {
+                    return UNCOPYABLE;
+                }
+                copy.put(key, held);
+            }
+            return copy;
+        }
+        if (value.getClass()
+                .isArray()) {
+            return snapshotArray(value);
+        }
+        return UNCOPYABLE;
+    }
+
+    private static Object snapshotArray(Object array) {
+        Class<?> componentType = array.getClass()
+                .getComponentType();
+        int length = Array.getLength(array);
+        Object copy = Array.newInstance(componentType, length);
+        if (componentType.isPrimitive()) {
+            System.arraycopy(array, 0, copy, 0, length);
+            return copy;
+        }
+        for (int i = 0; i < length; i++) {
+            Object element = Array.get(array, i);
+            Object held = snapshot(element);
+            if (held == UNCOPYABLE || held != null && !componentType.isInstance(held)) {
+                return UNCOPYABLE;
+            }
+            Array.set(copy, i, held);
+        }
+        return copy;
+    }
+
+    private static final class Captured {
+        private final Map<String, Object> values = new LinkedHashMap<>(4);
+        private final Map<String, Type>   types  = new LinkedHashMap<>(4);
+        private long                      spentBytes;
+
+        synchronized void spend(long bytes) {
+            spentBytes += bytes;
+        }
+
+        synchronized void put(String key, Object value, Type type) {
+            values.put(key, value);
+            types.put(key, type);
+        }
+
+        synchronized void remove(String key) {
+            values.remove(key);
+            types.remove(key);
+        }
+
+        synchronized SpanData applyTo(SpanData span, ISerializer serializer, AttributeBudget budget) {
+            AttributeLimits limits = budget.limits();
+            long spanBytes = spentBytes + budget.release(span.getSpanContext());
+            AttributesBuilder builder = span.getAttributes()
+                    .toBuilder();
+            for (Map.Entry<String, Object> entry : values.entrySet()) {
+                SerializedAttribute serialized = AttributeBuffer.serialize(serializer, entry.getValue(),
+                        types.get(entry.getKey()), limits.limitFor(spanBytes), limits.truncatedLimitFor(spanBytes));
+                if (serialized != null) {
+                    serialized.putInto(builder, entry.getKey());
+                    spanBytes += serialized.bytes();
+                }
+            }
+            return RewrittenSpanData.of(span, builder.build());
+        }
+    }
+
+    private final class ResolvingExporter implements SpanExporter {
+        private final SpanExporter delegate;
+
+        ResolvingExporter(SpanExporter delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public CompletableResultCode export(Collection<SpanData> spans) {
+            return delegate.export(resolve(spans));
+        }
+
+        @Override
+        public CompletableResultCode flush() {
+            return delegate.flush();
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+            return delegate.shutdown();
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.judgmentlabs.judgeval.tracer;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+import com.google.gson.Gson;
+import com.judgmentlabs.judgeval.utils.Logger;
+
+/**
+ * The default span attribute serializer. Strings, boxed primitives, lists and
+ * maps are written straight into the buffer in the same form {@link Gson}
+ * produces, so the usual LLM inputs and outputs skip Gson's writer and its
+ * intermediate {@code StringWriter}; anything else is handed to Gson, still
+ * writing into the same buffer.
+ */
+final class GsonSerializer implements IAppendingSerializer {
+    private static final String[] REPLACEMENTS = new String[128];
+
+    static {
+        for (int c = 0; c < 0x20; c++) {
+            REPLACEMENTS[c] = String.format("\\u%04x", c);
+        }
+        REPLACEMENTS['"'] = "\\\"";
+        REPLACEMENTS['\\'] = "\\\\";
+        REPLACEMENTS['\t'] = "\\t";
+        REPLACEMENTS['\b'] = "\\b";
+        REPLACEMENTS['\n'] = "\\n";
+        REPLACEMENTS['\r'] = "\\r";
+        REPLACEMENTS['\f'] = "\\f";
+        REPLACEMENTS['<'] = "\\u003c";
+        REPLACEMENTS['>'] = "\\u003e";
+        REPLACEMENTS['&'] = "\\u0026";
+        REPLACEMENTS['='] = "\\u003d";
+        REPLACEMENTS['\''] = "\\u0027";
+    }
+
+    private final Gson gson = new Gson();
+
+    @Override
+    public String serialize(Object obj) {
+        return obj == null ? null : serialize(obj, obj.getClass());
+    }
+
+    @Override
+    public boolean appendTo(Object obj, Type type, AttributeWriter out) {
+        if (obj == null) {
+            return false;
+        }
+        try {
+            if (isDirect(obj)) {
+                write(obj, out);
+            } else {
+                gson.toJson(obj, type, out);
+            }
+        } catch (Exception e) {
+            Logger.error("Failed to serialize object: " + e.getMessage());
+            out.clear();
+            out.append(obj.toString());
+        }
+        return true;
+    }
+
+    private static boolean isDirect(Object value) {
+        return value instanceof String || value instanceof Number && isDirectNumber((Number) value)
+                || value instanceof Boolean || value instanceof Character || value instanceof List
+                || value instanceof Map;
+    }
+
+    private static boolean isDirectNumber(Number value) {
+        return value instanceof Integer || value instanceof Long || value instanceof Double
+                || value instanceof Float || value instanceof Short || value instanceof Byte;
+    }
+
+    private void write(Object value, AttributeWriter out) {
+        if (value == null) {
+            out.append("null");
+        } else if (value instanceof String) {
+            writeString((String) value, out);
+        } else if (value instanceof Integer || value instanceof Long || value instanceof Short
+                || value instanceof Byte) {
+            out.append(((Number) value).longValue());
+        } else if (value instanceof Double) {
+            out.append(checkFinite((Double) value));
+        } else if (value instanceof Float) {
+            float f = (Float) value;
+            checkFinite(f);
+            out.append(f);
+        } else if (value instanceof Boolean) {
+            out.append(((Boolean) value).booleanValue());
+        } else if (value instanceof Character) {
+            writeString(value.toString(), out);
+        } else if (value instanceof List) {
+            writeList((List<?>) value, out);
+        } else if (value instanceof Map) {
+            writeMap((Map<?, ?>) value, out);
+        } else {
+            gson.toJson(value, value.getClass(), out);
+        }
+    }
+
+    private void writeList(List<?> list, AttributeWriter out) {
+        out.append('[');
+        if (list instanceof RandomAccess) {
+            for (int i = 0, n = list.size(); i < n; i++) {
+                if (i > 0) {
+                    out.append(',');
+                }
+                write(list.get(i), out);
+            }
+        } else {
+            boolean first = true;
+            for (Object element : list) {
+                if (!first) {
+                    out.append(',');
+                }
+                first = false;
+                write(element, out);
+            }
+        }
+        out.append(']');
+    }
+
+    private void writeMap(Map<?, ?> map, AttributeWriter out) {
+        out.append('{');
+        boolean first = true;
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            // Gson leaves out null values unless serializeNulls is set.
+            if (entry.getValue() == null) {
+                continue;
+            }
+            if (!first) {
+                out.append(',');
+            }
+            first = false;
+            writeString(String.valueOf(entry.getKey()), out);
+            out.append(':');
+            write(entry.getValue(), out);
+        }
+        out.append('}');
+    }
+
+    private static double checkFinite(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            throw new IllegalArgumentException(value + " is not a valid double value as per JSON specification.");
+        }
+        return value;
+    }
+
+    private static void writeString(String value, AttributeWriter out) {
+        out.append('"');
+        int last = 0;
+        for (int i = 0, n = value.length(); i < n; i++) {
+            char c = value.charAt(i);
+            String replacement;
+            if (c < 128) {
+                replacement = REPLACEMENTS[c];
+                if (replacement == null) {
+                    continue;
+                }
+            } else if (c == '\u2028') {
+                replacement = "\\u2028";
+            } else if (c == '\u2029') {
+                replacement = "\\u2029";
+            } else {
+                continue;
+            }
+            out.append(value, last, i)
+                    .append(replacement);
+            last = i + 1;
+        }
+        out.append(value, last, value.length())
+                .append('"');
+    }
+}
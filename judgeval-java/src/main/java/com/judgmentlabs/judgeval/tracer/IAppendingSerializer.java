@@ -0,0 +1,31 @@
+package com.judgmentlabs.judgeval.tracer;
+
+import java.lang.reflect.Type;
+
+/**
+ * A serializer that can write into a caller-supplied buffer. The tracer hands
+ * it a per-thread buffer that is reused across attributes, so serializing a
+ * span input or output only allocates the final attribute string, and the
+ * buffer enforces the {@link AttributeLimits} as the value is written.
+ */
+public interface IAppendingSerializer extends ISerializer {
+    /**
+     * Appends the serialized form of an object to an empty buffer.
+     *
+     * @param obj
+     *            the object to serialize
+     * @param type
+     *            the type to use for serialization
+     * @param out
+     *            the buffer to append to
+     * @return whether anything was written; {@code false} means the attribute
+     *         has no value
+     */
+    boolean appendTo(Object obj, Type type, AttributeWriter out);
+
+    @Override
+    default String serialize(Object obj, Type type) {
+        AttributeWriter out = new AttributeWriter();
+        return appendTo(obj, type, out) ? out.toString() : null;
+    }
+}
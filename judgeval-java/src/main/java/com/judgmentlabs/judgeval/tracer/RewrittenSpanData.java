@@ -0,0 +1,45 @@
+package com.judgmentlabs.judgeval.tracer;
+
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.sdk.trace.data.DelegatingSpanData;
+import io.opentelemetry.sdk.trace.data.SpanData;
+
+/**
+ * A finished span with its attributes replaced on the way to the exporter.
+ */
+final class RewrittenSpanData extends DelegatingSpanData {
+    private final Attributes attributes;
+    private final int        totalAttributeCount;
+
+    private RewrittenSpanData(SpanData delegate, Attributes attributes, int totalAttributeCount) {
+        super(delegate);
+        this.attributes = attributes;
+        this.totalAttributeCount = totalAttributeCount;
+    }
+
+    /**
+     * Returns the span with the given attributes. Attributes the span dropped
+     * for exceeding its limits stay counted in the total.
+     *
+     * @param span
+     *            the exported span
+     * @param attributes
+     *            the replacement attributes
+     * @return the rewritten span
+     */
+    static SpanData of(SpanData span, Attributes attributes) {
+        return new RewrittenSpanData(span, attributes,
+                span.getTotalAttributeCount() + attributes.size() - span.getAttributes()
+                        .size());
+    }
+
+    @Override
+    public Attributes getAttributes() {
+        return attributes;
+    }
+
+    @Override
+    public int getTotalAttributeCount() {
+        return totalAttributeCount;
+    }
+}
@@ -0,0 +1,56 @@
+package com.judgmentlabs.judgeval.tracer;
+
+import io.opentelemetry.api.common.AttributesBuilder;
+import io.opentelemetry.api.trace.Span;
+
+/**
+ * A serialized attribute value, with the original length and hash of the full
+ * value when it was truncated.
+ */
+final class SerializedAttribute {
+    private final String value;
+    private final long   bytes;
+    private final long   originalBytes;
+    private final String sha256;
+
+    SerializedAttribute(String value, long bytes, long originalBytes, String sha256) {
+        this.value = value;
+        this.bytes = bytes;
+        this.originalBytes = originalBytes;
+        this.sha256 = sha256;
+    }
+
+    String value() {
+        return value;
+    }
+
+    /**
+     * Returns the bytes the value takes from its span's budget: its UTF-8
+     * size, plus its length and hash attributes when it was truncated.
+     *
+     * @return the charged size in bytes
+     */
+    long bytes() {
+        return bytes;
+    }
+
+    boolean isTruncated() {
+        return sha256 != null;
+    }
+
+    void setOn(Span span, String key, AttributeInterner interner) {
+        span.setAttribute(key, interner.intern(value));
+        if (isTruncated()) {
+            span.setAttribute(key + AttributeLimits.ORIGINAL_BYTES_SUFFIX, originalBytes);
+            span.setAttribute(key + AttributeLimits.SHA256_SUFFIX, sha256);
+        }
+    }
+
+    void putInto(AttributesBuilder attributes, String key) {
+        attributes.put(key, value);
+        if (isTruncated()) {
+            attributes.put(key + AttributeLimits.ORIGINAL_BYTES_SUFFIX, originalBytes);
+            attributes.put(key + AttributeLimits.SHA256_SUFFIX, sha256);
+        }
+    }
+}
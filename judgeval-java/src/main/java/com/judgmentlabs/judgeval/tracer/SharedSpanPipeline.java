@@ -0,0 +1,390 @@
+package com.judgmentlabs.judgeval.tracer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.judgmentlabs.judgeval.tracer.exporters.ProjectRoutingSpanExporter;
+import com.judgmentlabs.judgeval.tracer.metrics.SpanDropReason;
+import com.judgmentlabs.judgeval.tracer.metrics.TracerMetrics;
+import com.judgmentlabs.judgeval.tracer.processors.ShardedSpanProcessor;
+import com.judgmentlabs.judgeval.tracer.processors.SpanProcessorType;
+
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+/**
+ * One span processor shared by several tracers, for services that trace into
+ * many projects from one JVM.
+ * <p>
+ * Every tracer built with {@link Tracer.Builder#sharedPipeline(SharedSpanPipeline)}
+ * queues its ended spans into this pipeline's processor instead of starting
+ * its own. Export batches are split by the {@code judgment.project_id}
+ * resource attribute each tracer sets, and each part is sent by its project's
+ * exporter with that project's headers. The export threads and queue memory
+ * are those of a single processor however many projects are attached, and all
+ * exporters send through the shared HTTP transport.
+ * <p>
+ * A project can be attached by one tracer at a time. Shutting down a tracer
+ * detaches its project once every span ended before has been exported; the
+ * pipeline itself is shut down with {@link #shutdown()}.
+ */
+public final class SharedSpanPipeline {
+    private static final long                FLUSH_RETRY_MILLIS = 10;
+
+    private final TracerMetrics              metrics            = new TracerMetrics();
+    private final ProjectRoutingSpanExporter exporter           = new ProjectRoutingSpanExporter(metrics);
+    private final SpanProcessor              processor;
+    private final long                       scheduleDelayNanos;
+    private final AtomicLong                 endedSpans         = new AtomicLong();
+    private final AtomicLong                 exportedSpans      = new AtomicLong();
+    private final List<Drain>                drains             = new ArrayList<>();
+    private final AtomicBoolean              shutdown           = new AtomicBoolean();
+    private volatile boolean                 stopped;
+
+    private SharedSpanPipeline(Builder builder) {
+        this.processor = Tracer.spanProcessorFactory(builder.spanProcessorType, builder.spanQueueSize,
+                builder.spanBatchSize, builder.spanScheduleDelay, builder.spanExportTimeout,
+                builder.spanProcessorShards)
+                .apply(new CountingExporter(), metrics);
+        this.scheduleDelayNanos = builder.spanScheduleDelay.toNanos();
+    }
+
+    /**
+     * Creates a new builder for configuring a SharedSpanPipeline.
+     *
+     * @return a new builder instance
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns the metrics of the shared processor: its queue size, spans it
+     * dropped because the queue was full, and spans of unattached projects.
+     * Exports are recorded in each tracer's own metrics.
+     *
+     * @return the pipeline metrics
+     */
+    public TracerMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Returns the number of projects attached to the pipeline.
+     *
+     * @return the attached project count
+     */
+    public int getProjectCount() {
+        return exporter.getRouteCount();
+    }
+
+    /**
+     * Routes the project's spans to the exporter and returns the processor
+     * its tracer provider should use.
+     *
+     * @param projectId
+     *            the project ID set as the tracer's resource attribute
+     * @param projectExporter
+     *            the exporter for the project's spans
+     * @return a processor queueing into the shared processor
+     * @throws IllegalStateException
+     *             if the pipeline is shut down or the project is attached
+     *             already
+     */
+    SpanProcessor attach(String projectId, SpanExporter projectExporter) {
+        if (shutdown.get()) {
+            throw new IllegalStateException("SharedSpanPipeline is shut down");
+        }
+        exporter.register(projectId, projectExporter);
+        return new AttachedProcessor(projectId, projectExporter);
+    }
+
+    /**
+     * Flushes spans queued by all attached tracers. The result completes once
+     * every span ended before the call has been exported or dropped.
+     * <p>
+     * The batch processor folds a flush requested while another completes
+     * into that one, so the flush is requested again until the spans are out
+     * or the schedule delay, after which they are exported anyway, elapses.
+     *
+     * @return a CompletableResultCode representing the flush operation status
+     */
+    public CompletableResultCode forceFlush() {
+        CompletableResultCode result = new CompletableResultCode();
+        synchronized (drains) {
+            drains.add(new Drain(endedSpans.get(), result));
+        }
+        completeDrains();
+        if (!result.isDone()) {
+            requestFlush(result, System.nanoTime() + scheduleDelayNanos);
+        }
+        return result;
+    }
+
+    private void requestFlush(CompletableResultCode drain, long deadline) {
+        processor.forceFlush()
+                .whenComplete(() -> {
+                    if (!drain.isDone() && !stopped && System.nanoTime() - deadline < 0) {
+                        CompletableFuture.delayedExecutor(FLUSH_RETRY_MILLIS, TimeUnit.MILLISECONDS)
+                                .execute(() -> requestFlush(drain, deadline));
+                    }
+                });
+    }
+
+    private void completeDrains() {
+        List<CompletableResultCode> drained = new ArrayList<>();
+        synchronized (drains) {
+            if (drains.isEmpty()) {
+                return;
+            }
+            long settled = stopped ? Long.MAX_VALUE
+                    : exportedSpans.get() + metrics.snapshot()
+                            .getSpansDropped(SpanDropReason.QUEUE_FULL);
+            drains.removeIf(drain -> {
+                if (drain.target > settled) {
+                    return false;
+                }
+                drained.add(drain.result);
+                return true;
+            });
+        }
+        drained.forEach(CompletableResultCode::succeed);
+    }
+
+    /**
+     * Exports queued spans, then shuts down the shared processor and the
+     * exporters of all attached projects.
+     *
+     * @return a CompletableResultCode representing the shutdown operation status
+     */
+    public CompletableResultCode shutdown() {
+        if (!shutdown.compareAndSet(false, true)) {
+            return CompletableResultCode.ofSuccess();
+        }
+        return processor.shutdown()
+                .whenComplete(() -> {
+                    stopped = true;
+                    completeDrains();
+                });
+    }
+
+    /**
+     * A flush waiting for the number of exported or dropped spans to reach
+     * the number of spans ended when it was requested.
+     */
+    private static final class Drain {
+        private final long                  target;
+        private final CompletableResultCode result;
+
+        Drain(long target, CompletableResultCode result) {
+            this.target = target;
+            this.result = result;
+        }
+    }
+
+    /**
+     * Counts the spans leaving the shared processor, routed or not, so that
+     * flushes know when the spans ended before them are out.
+     */
+    private final class CountingExporter implements SpanExporter {
+        @Override
+        public CompletableResultCode export(Collection<SpanData> spans) {
+            int count = spans.size();
+            return exporter.export(spans)
+                    .whenComplete(() -> {
+                        exportedSpans.addAndGet(count);
+                        completeDrains();
+                    });
+        }
+
+        @Override
+        public CompletableResultCode flush() {
+            return exporter.flush();
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+            return exporter.shutdown();
+        }
+    }
+
+    /**
+     * The view of the shared processor given to one tracer. Shutting it down
+     * detaches the project once the spans ended before have been exported,
+     * instead of stopping the shared processor.
+     */
+    private final class AttachedProcessor implements SpanProcessor {
+        private final String        projectId;
+        private final SpanExporter  projectExporter;
+        private final AtomicBoolean detached = new AtomicBoolean();
+
+        AttachedProcessor(String projectId, SpanExporter projectExporter) {
+            this.projectId = projectId;
+            this.projectExporter = projectExporter;
+        }
+
+        @Override
+        public void onStart(Context parentContext, ReadWriteSpan span) {
+            processor.onStart(parentContext, span);
+        }
+
+        @Override
+        public boolean isStartRequired() {
+            return processor.isStartRequired();
+        }
+
+        @Override
+        public void onEnd(ReadableSpan span) {
+            if (span.getSpanContext()
+                    .isSampled()) {
+                endedSpans.incrementAndGet();
+            }
+            processor.onEnd(span);
+        }
+
+        @Override
+        public boolean isEndRequired() {
+            return processor.isEndRequired();
+        }
+
+        @Override
+        public CompletableResultCode forceFlush() {
+            return SharedSpanPipeline.this.forceFlush();
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+            if (!detached.compareAndSet(false, true)) {
+                return CompletableResultCode.ofSuccess();
+            }
+            CompletableResultCode result = new CompletableResultCode();
+            SharedSpanPipeline.this.forceFlush()
+                    .whenComplete(() -> {
+                        if (exporter.unregister(projectId, projectExporter)) {
+                            projectExporter.shutdown()
+                                    .whenComplete(result::succeed);
+                        } else {
+                            result.succeed();
+                        }
+                    });
+            return result;
+        }
+    }
+
+    /**
+     * Builder for configuring and creating SharedSpanPipeline instances.
+     */
+    public static final class Builder {
+        private SpanProcessorType spanProcessorType   = SpanProcessorType.BATCH;
+        private int               spanQueueSize       = ShardedSpanProcessor.DEFAULT_MAX_QUEUE_SIZE;
+        private int               spanBatchSize       = ShardedSpanProcessor.DEFAULT_MAX_EXPORT_BATCH_SIZE;
+        private Duration          spanScheduleDelay   = ShardedSpanProcessor.DEFAULT_SCHEDULE_DELAY;
+        private Duration          spanExportTimeout   = ShardedSpanProcessor.DEFAULT_EXPORTER_TIMEOUT;
+        private int               spanProcessorShards = Runtime.getRuntime()
+                .availableProcessors();
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the shared processor that queues ended spans for export.
+         * Defaults to {@link SpanProcessorType#BATCH}.
+         *
+         * @param spanProcessorType
+         *            the span processor type
+         * @return this builder
+         */
+        public Builder spanProcessor(SpanProcessorType spanProcessorType) {
+            this.spanProcessorType = spanProcessorType;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of ended spans queued for export across all
+         * projects. Defaults to
+         * {@value ShardedSpanProcessor#DEFAULT_MAX_QUEUE_SIZE}.
+         *
+         * @param spanQueueSize
+         *            the span queue size
+         * @return this builder
+         */
+        public Builder spanQueueSize(int spanQueueSize) {
+            this.spanQueueSize = spanQueueSize;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of spans exported in one batch, before it is
+         * split by project. Defaults to
+         * {@value ShardedSpanProcessor#DEFAULT_MAX_EXPORT_BATCH_SIZE}.
+         *
+         * @param spanBatchSize
+         *            the span batch size
+         * @return this builder
+         */
+        public Builder spanBatchSize(int spanBatchSize) {
+            this.spanBatchSize = spanBatchSize;
+            return this;
+        }
+
+        /**
+         * Sets how long ended spans may wait for a batch to fill before being
+         * exported. Defaults to 5 seconds.
+         *
+         * @param spanScheduleDelay
+         *            the schedule delay
+         * @return this builder
+         */
+        public Builder spanScheduleDelay(Duration spanScheduleDelay) {
+            this.spanScheduleDelay = spanScheduleDelay;
+            return this;
+        }
+
+        /**
+         * Sets how long to wait for one span batch export to complete.
+         * Defaults to 30 seconds.
+         *
+         * @param spanExportTimeout
+         *            the export timeout
+         * @return this builder
+         */
+        public Builder spanExportTimeout(Duration spanExportTimeout) {
+            this.spanExportTimeout = spanExportTimeout;
+            return this;
+        }
+
+        /**
+         * Sets the number of queue shards used by
+         * {@link SpanProcessorType#SHARDED}. Defaults to the number of
+         * available processors.
+         *
+         * @param spanProcessorShards
+         *            the shard count
+         * @return this builder
+         */
+        public Builder spanProcessorShards(int spanProcessorShards) {
+            this.spanProcessorShards = spanProcessorShards;
+            return this;
+        }
+
+        /**
+         * Builds the pipeline and starts its processor.
+         *
+         * @return the pipeline
+         */
+        public SharedSpanPipeline build() {
+            return new SharedSpanPipeline(this);
+        }
+    }
+}
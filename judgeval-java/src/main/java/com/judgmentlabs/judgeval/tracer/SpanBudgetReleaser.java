@@ -0,0 +1,55 @@
+package com.judgmentlabs.judgeval.tracer;
+
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+
+/**
+ * Stops tracking a span's {@link AttributeBudget} when the span ends. Values
+ * deferred for the span keep the bytes it spent so they are serialized against
+ * the rest of its budget at export time.
+ * <p>
+ * Must be registered before the processors that export spans, since a
+ * synchronous processor exports the span from its own {@code onEnd}.
+ */
+final class SpanBudgetReleaser implements SpanProcessor {
+    private final AttributeBudget    budget;
+    private final DeferredAttributes deferred;
+
+    SpanBudgetReleaser(AttributeBudget budget, DeferredAttributes deferred) {
+        this.budget = budget;
+        this.deferred = deferred;
+    }
+
+    @Override
+    public void onStart(Context parentContext, ReadWriteSpan span) {
+    }
+
+    @Override
+    public boolean isStartRequired() {
+        return false;
+    }
+
+    @Override
+    public void onEnd(ReadableSpan span) {
+        SpanContext context = span.getSpanContext();
+        long spent = budget.release(context);
+        if (deferred != null && spent > 0) {
+            deferred.spanEnded(context, spent);
+        }
+    }
+
+    @Override
+    public boolean isEndRequired() {
+        return budget.limits()
+                .hasSpanLimit();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        return CompletableResultCode.ofSuccess();
+    }
+}
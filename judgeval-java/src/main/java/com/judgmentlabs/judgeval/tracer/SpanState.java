@@ -0,0 +1,64 @@
+package com.judgmentlabs.judgeval.tracer;
+
+import java.lang.ref.Cleaner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+
+/**
+ * Per-span state keyed by span context. State is removed explicitly by its
+ * owner. State that may outlive that point, for example when the span queue
+ * drops a span before it is exported, can also be released once the span is
+ * garbage collected.
+ *
+ * @param <T>
+ *            the state type
+ */
+final class SpanState<T> {
+    private final ConcurrentHashMap<SpanContext, T> states = new ConcurrentHashMap<>();
+    private final boolean                           releaseWhenCollected;
+
+    /**
+     * @param releaseWhenCollected
+     *            whether to also release a span's state once the span is
+     *            garbage collected
+     */
+    SpanState(boolean releaseWhenCollected) {
+        this.releaseWhenCollected = releaseWhenCollected;
+    }
+
+    T get(Span span, Supplier<T> initial) {
+        return states.computeIfAbsent(span.getSpanContext(), context -> {
+            if (releaseWhenCollected) {
+                Cleanup.CLEANER.register(span, () -> states.remove(context));
+            }
+            return initial.get();
+        });
+    }
+
+    T peek(SpanContext context) {
+        return states.get(context);
+    }
+
+    T remove(SpanContext context) {
+        return states.remove(context);
+    }
+
+    boolean isEmpty() {
+        return states.isEmpty();
+    }
+
+    int size() {
+        return states.size();
+    }
+
+    private static final class Cleanup {
+        static final Cleaner CLEANER = Cleaner.create(runnable -> {
+            Thread thread = new Thread(runnable, "judgeval-span-state");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -1,76 +1,199 @@
 package com.judgmentlabs.judgeval.tracer;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Objects;
-import java.util.Optional;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
-import com.google.gson.Gson;
+import com.judgmentlabs.judgeval.JudgmentAttributeKeys;
 import com.judgmentlabs.judgeval.Version;
 import com.judgmentlabs.judgeval.internal.api.JudgmentSyncClient;
+import com.judgmentlabs.judgeval.internal.api.models.TraceEvaluationRun;
+import com.judgmentlabs.judgeval.tracer.evaluation.BackpressurePolicy;
+import com.judgmentlabs.judgeval.tracer.evaluation.EvaluationQueue;
+import com.judgmentlabs.judgeval.tracer.evaluation.TraceAssembler;
+import com.judgmentlabs.judgeval.tracer.metrics.BatchSpanProcessorMetrics;
+import com.judgmentlabs.judgeval.tracer.metrics.TracerMetrics;
+import com.judgmentlabs.judgeval.tracer.processors.ShardedSpanProcessor;
+import com.judgmentlabs.judgeval.tracer.processors.SpanProcessorType;
+import com.judgmentlabs.judgeval.tracer.sampling.RateLimitingSampler;
+import com.judgmentlabs.judgeval.tracer.sampling.TailSamplingProcessor;
+import com.judgmentlabs.judgeval.tracer.spool.SegmentSpool;
 import com.judgmentlabs.judgeval.utils.Logger;
 
 import io.opentelemetry.api.GlobalOpenTelemetry;
 import io.opentelemetry.api.OpenTelemetry;
 import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.SpanContext;
 import io.opentelemetry.sdk.OpenTelemetrySdk;
 import io.opentelemetry.sdk.resources.Resource;
 import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.SpanProcessor;
 import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
 import io.opentelemetry.sdk.trace.export.SpanExporter;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
 
 public final class Tracer extends BaseTracer {
-    private SdkTracerProvider tracerProvider;
-    private final Attributes  resourceAttributes;
+    private SdkTracerProvider                                            tracerProvider;
+    private final Attributes                                             resourceAttributes;
+    private final BiFunction<SpanExporter, TracerMetrics, SpanProcessor> spanProcessorFactory;
+    private final Sampler                                                sampler;
+    private final Function<SpanProcessor, TailSamplingProcessor>         tailSamplerFactory;
+    private volatile TailSamplingProcessor                               tailSampler;
+    private final TraceAssembler.Builder                                 traceAssemblerBuilder;
+    private volatile TraceAssembler                                      traceAssembler;
+    private final boolean                                                registerGlobal;
+    private final SharedSpanPipeline                                     sharedPipeline;
+    private volatile OpenTelemetry                                       openTelemetry;
 
     private Tracer(Builder builder) {
         super(
                 Objects.requireNonNull(builder.projectName, "projectName required"),
                 builder.enableEvaluation,
                 Objects.requireNonNull(builder.client, "client required"),
-                builder.serializer != null ? builder.serializer : new GsonSerializer());
+                builder.serializer != null ? builder.serializer : new GsonSerializer(),
+                builder.evaluationQueue,
+                openSpool(builder),
+                builder.attributeCapture,
+                builder.attributeLimits(),
+                builder.attributeDeduplication);
 
         this.resourceAttributes = builder.resourceAttributes != null ? builder.resourceAttributes
                 : Attributes.empty();
+        this.spanProcessorFactory = builder.spanProcessorFactory();
+        this.sampler = builder.headSampler();
+        this.tailSamplerFactory = builder.tailSamplerFactory();
+        this.traceAssemblerBuilder = builder.traceAssembler();
+        this.registerGlobal = builder.registerGlobal;
+        this.sharedPipeline = builder.sharedPipeline;
 
         if (builder.initialize) {
             initialize();
         }
     }
 
+    private static SegmentSpool openSpool(Builder builder) {
+        if (builder.spoolDirectory == null) {
+            return null;
+        }
+        try {
+            return builder.spool.directory(builder.spoolDirectory)
+                    .build();
+        } catch (IOException e) {
+            Logger.error("Failed to open spool at " + builder.spoolDirectory + ", continuing without it: "
+                    + e.getMessage());
+            return null;
+        }
+    }
+
     /**
      * Initializes the tracer by setting up the OpenTelemetry SDK with a span
-     * exporter,
-     * configuring the tracer provider with batch span processing, and registering
-     * it globally.
+     * exporter and configuring the tracer provider with the span processor
+     * chosen on the builder. Spans are created with this tracer's own
+     * OpenTelemetry instance, which is also registered globally unless
+     * disabled on the builder.
      */
     @Override
     public void initialize() {
         SpanExporter spanExporter = getSpanExporter();
+        if (traceAssemblerBuilder != null) {
+            this.traceAssembler = traceAssemblerBuilder.sink(this::submitTraceEvaluation)
+                    .build();
+            spanExporter = traceAssembler.trackExports(spanExporter);
+        }
 
         var attributesBuilder = Attributes.builder()
                 .put("service.name", projectName)
                 .put("telemetry.sdk.name", TRACER_NAME)
                 .put("telemetry.sdk.version", Version.getVersion())
                 .putAll(resourceAttributes);
+        projectId.ifPresent(id -> attributesBuilder.put(JudgmentAttributeKeys.ResourceKeys.JUDGMENT_PROJECT_ID, id));
 
         var resource = Resource.getDefault()
                 .merge(Resource.create(attributesBuilder.build()));
 
-        this.tracerProvider = SdkTracerProvider.builder()
+        SpanProcessor spanProcessor;
+        if (sharedPipeline == null) {
+            spanProcessor = spanProcessorFactory.apply(spanExporter, metrics);
+        } else if (projectId.isPresent()) {
+            spanProcessor = sharedPipeline.attach(projectId.get(), spanExporter);
+        } else {
+            spanProcessor = SimpleSpanProcessor.create(spanExporter);
+        }
+        if (tailSamplerFactory != null) {
+            this.tailSampler = tailSamplerFactory.apply(spanProcessor);
+            spanProcessor = tailSampler;
+        }
+
+        var tracerProviderBuilder = SdkTracerProvider.builder()
                 .setResource(resource)
-                .addSpanProcessor(BatchSpanProcessor.builder(spanExporter)
-                        .build())
+                .setSampler(sampler)
+                .addSpanProcessor(createSpanBudgetReleaser());
+        if (traceAssembler != null) {
+            tracerProviderBuilder.addSpanProcessor(traceAssembler);
+        }
+        this.tracerProvider = tracerProviderBuilder.addSpanProcessor(spanProcessor)
                 .build();
 
         OpenTelemetry openTelemetry = OpenTelemetrySdk.builder()
                 .setTracerProvider(this.tracerProvider)
                 .build();
+        this.openTelemetry = openTelemetry;
 
-        GlobalOpenTelemetry.set(openTelemetry);
+        boolean registered = false;
+        if (registerGlobal) {
+            try {
+                GlobalOpenTelemetry.set(openTelemetry);
+                registered = true;
+            } catch (IllegalStateException e) {
+                Logger.warning("GlobalOpenTelemetry is already set, tracer for project " + projectName
+                        + " will not be registered globally");
+            }
+        }
+        useOpenTelemetry(openTelemetry, registered);
     }
 
     /**
-     * Forces the tracer to flush any pending spans within the specified timeout.
+     * Returns the OpenTelemetry instance this tracer creates spans with, for
+     * wiring other instrumentation to the same pipeline.
+     *
+     * @return the OpenTelemetry instance, or the no-op instance if the tracer
+     *         is not initialized
+     */
+    public OpenTelemetry getOpenTelemetry() {
+        OpenTelemetry current = openTelemetry;
+        return current != null ? current : OpenTelemetry.noop();
+    }
+
+    /**
+     * Keeps the evaluated span's trace when tail sampling is enabled.
+     */
+    @Override
+    protected void onEvaluationScheduled(SpanContext spanContext) {
+        TailSamplingProcessor sampler = tailSampler;
+        if (sampler != null) {
+            sampler.keepTrace(spanContext);
+        }
+    }
+
+    /**
+     * Hands trace evaluation runs to the trace assembler when it is enabled,
+     * so they are submitted with all of the trace's spans once it completes.
+     */
+    @Override
+    protected boolean assembleTraceEvaluation(SpanContext spanContext, TraceEvaluationRun evaluationRun) {
+        TraceAssembler assembler = traceAssembler;
+        return assembler != null && assembler.addEvaluation(spanContext, evaluationRun);
+    }
+
+    /**
+     * Forces the tracer to flush any pending spans and queued evaluation runs
+     * within the specified timeout.
      *
      * @param timeoutMillis
      *            the maximum time to wait in milliseconds
@@ -78,29 +201,80 @@ public final class Tracer extends BaseTracer {
      */
     @Override
     public boolean forceFlush(int timeoutMillis) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        boolean evaluationsFlushed = evaluationQueue.forceFlush(timeoutMillis);
         if (tracerProvider == null) {
             Logger.error("Cannot forceFlush: tracer not initialized");
             return false;
         }
-        return tracerProvider.forceFlush()
-                .join(timeoutMillis, java.util.concurrent.TimeUnit.MILLISECONDS)
+        boolean spansFlushed = tracerProvider.forceFlush()
+                .join(remainingMillis(deadline), TimeUnit.MILLISECONDS)
                 .isSuccess();
+        // Trace evaluation runs released by the exports just flushed.
+        TraceAssembler assembler = traceAssembler;
+        if (assembler != null) {
+            spansFlushed &= assembler.forceFlush()
+                    .join(remainingMillis(deadline), TimeUnit.MILLISECONDS)
+                    .isSuccess();
+        }
+        return spansFlushed && evaluationsFlushed;
     }
 
     /**
-     * Shuts down the tracer, flushing any remaining spans and releasing resources.
+     * Shuts down the tracer, draining queued evaluation runs, flushing any
+     * remaining spans and releasing resources. Spooled records that have not
+     * been delivered stay on disk and are replayed by the next tracer opened
+     * on the same spool directory.
      *
      * @param timeoutMillis
      *            the maximum time to wait for shutdown in milliseconds
      */
     @Override
     public void shutdown(int timeoutMillis) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        releaseOpenTelemetry();
+        evaluationQueue.shutdown(timeoutMillis);
         if (tracerProvider == null) {
             Logger.error("Cannot shutdown: tracer not initialized");
+            spool.ifPresent(SegmentSpool::close);
             return;
         }
         tracerProvider.shutdown()
-                .join(timeoutMillis, java.util.concurrent.TimeUnit.MILLISECONDS);
+                .join(remainingMillis(deadline), TimeUnit.MILLISECONDS);
+        spool.ifPresent(SegmentSpool::close);
+    }
+
+    private static long remainingMillis(long deadlineNanos) {
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime()));
+    }
+
+    static BiFunction<SpanExporter, TracerMetrics, SpanProcessor> spanProcessorFactory(SpanProcessorType type,
+            int queueSize, int batchSize, Duration scheduleDelay, Duration exportTimeout, int shards) {
+        Objects.requireNonNull(type, "spanProcessor required");
+        if (type == SpanProcessorType.SHARDED) {
+            return (exporter, metrics) -> {
+                ShardedSpanProcessor processor = ShardedSpanProcessor.builder(exporter)
+                        .maxQueueSize(queueSize)
+                        .maxExportBatchSize(batchSize)
+                        .scheduleDelay(scheduleDelay)
+                        .exporterTimeout(exportTimeout)
+                        .shards(shards)
+                        .build();
+                metrics.bindSpanQueue(processor::getQueuedSpans, processor::getDroppedSpans);
+                return processor;
+            };
+        }
+        return (exporter, metrics) -> {
+            BatchSpanProcessorMetrics processorMetrics = new BatchSpanProcessorMetrics();
+            metrics.bindSpanQueue(processorMetrics::getQueuedSpans, processorMetrics::getDroppedSpans);
+            return BatchSpanProcessor.builder(exporter)
+                    .setMaxQueueSize(queueSize)
+                    .setMaxExportBatchSize(batchSize)
+                    .setScheduleDelay(scheduleDelay)
+                    .setExporterTimeout(exportTimeout)
+                    .setMeterProvider(processorMetrics.meterProvider())
+                    .build();
+        };
     }
 
     /**
@@ -116,12 +290,39 @@ public final class Tracer extends BaseTracer {
      * Builder for configuring and creating Tracer instances.
      */
     public static final class Builder {
-        private JudgmentSyncClient client;
-        private String             projectName;
-        private boolean            enableEvaluation = true;
-        private ISerializer        serializer;
-        private boolean            initialize       = true;
-        private Attributes         resourceAttributes;
+        private JudgmentSyncClient            client;
+        private String                        projectName;
+        private boolean                       enableEvaluation       = true;
+        private ISerializer                   serializer;
+        private AttributeCapture              attributeCapture       = AttributeCapture.EAGER;
+        private int                           maxAttributeBytes      = Integer.MAX_VALUE;
+        private AttributeDeduplication        attributeDeduplication = AttributeDeduplication.OFF;
+        private long                          maxSpanAttributeBytes  = Long.MAX_VALUE;
+        private SpanProcessorType             spanProcessorType      = SpanProcessorType.BATCH;
+        private int                           spanQueueSize          = ShardedSpanProcessor.DEFAULT_MAX_QUEUE_SIZE;
+        private int                           spanBatchSize          =
+                ShardedSpanProcessor.DEFAULT_MAX_EXPORT_BATCH_SIZE;
+        private Duration                      spanScheduleDelay      = ShardedSpanProcessor.DEFAULT_SCHEDULE_DELAY;
+        private Duration                      spanExportTimeout      = ShardedSpanProcessor.DEFAULT_EXPORTER_TIMEOUT;
+        private int                           spanProcessorShards    = Runtime.getRuntime()
+                .availableProcessors();
+        private Sampler                       sampler;
+        private double                        samplingRatio          = 1.0;
+        private double                        maxTracesPerSecond;
+        private double                        tailSamplingRatio      = -1;
+        private Duration                      tailLatencyThreshold   = TailSamplingProcessor.DEFAULT_LATENCY_THRESHOLD;
+        private Duration                      tailDecisionWait       = TailSamplingProcessor.DEFAULT_DECISION_WAIT;
+        private int                           tailMaxTraces          = TailSamplingProcessor.DEFAULT_MAX_TRACES;
+        private boolean                       assembleTraces;
+        private int                           assemblerMaxTraces     = TraceAssembler.DEFAULT_MAX_TRACES;
+        private Duration                      assemblerTraceTimeout  = TraceAssembler.DEFAULT_TRACE_TIMEOUT;
+        private boolean                       initialize             = true;
+        private boolean                       registerGlobal         = true;
+        private SharedSpanPipeline            sharedPipeline;
+        private Attributes                    resourceAttributes;
+        private final EvaluationQueue.Builder evaluationQueue        = EvaluationQueue.builder();
+        private Path                          spoolDirectory;
+        private final SegmentSpool.Builder    spool                  = SegmentSpool.builder();
 
         /**
          * Sets the Judgment API client.
@@ -171,6 +372,296 @@ public final class Tracer extends BaseTracer {
             return this;
         }
 
+        /**
+         * Sets when span attribute values are serialized. Defaults to
+         * {@link AttributeCapture#EAGER}.
+         *
+         * @param attributeCapture
+         *            the capture policy
+         * @return this builder
+         */
+        public Builder attributeCapture(AttributeCapture attributeCapture) {
+            this.attributeCapture = attributeCapture;
+            return this;
+        }
+
+        /**
+         * Sets the budget in UTF-8 bytes for one serialized span attribute
+         * value. Larger values are truncated as described in
+         * {@link AttributeLimits}. Must be at least the length of
+         * {@link AttributeLimits#TRUNCATION_MARKER}. Unlimited by default.
+         *
+         * @param maxAttributeBytes
+         *            the per-attribute budget
+         * @return this builder
+         */
+        public Builder maxAttributeBytes(int maxAttributeBytes) {
+            this.maxAttributeBytes = maxAttributeBytes;
+            return this;
+        }
+
+        /**
+         * Sets the budget in UTF-8 bytes for all serialized and string
+         * attribute values of one span, including the length and hash
+         * attributes of truncated values. Values that no longer fit, even
+         * truncated, are dropped. Unlimited by default.
+         *
+         * @param maxSpanAttributeBytes
+         *            the per-span budget
+         * @return this builder
+         */
+        public Builder maxSpanAttributeBytes(long maxSpanAttributeBytes) {
+            this.maxSpanAttributeBytes = maxSpanAttributeBytes;
+            return this;
+        }
+
+        /**
+         * Sets how repeated large attribute values are stored and exported.
+         * Defaults to {@link AttributeDeduplication#OFF}.
+         *
+         * @param attributeDeduplication
+         *            the deduplication mode
+         * @return this builder
+         */
+        public Builder attributeDeduplication(AttributeDeduplication attributeDeduplication) {
+            this.attributeDeduplication = attributeDeduplication;
+            return this;
+        }
+
+        /**
+         * Sets the processor that queues ended spans for export. Defaults to
+         * {@link SpanProcessorType#BATCH}.
+         *
+         * @param spanProcessorType
+         *            the span processor type
+         * @return this builder
+         */
+        public Builder spanProcessor(SpanProcessorType spanProcessorType) {
+            this.spanProcessorType = spanProcessorType;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of ended spans queued for export. Spans
+         * ended while the queue is full are dropped. Defaults to
+         * {@value ShardedSpanProcessor#DEFAULT_MAX_QUEUE_SIZE}.
+         *
+         * @param spanQueueSize
+         *            the span queue size
+         * @return this builder
+         */
+        public Builder spanQueueSize(int spanQueueSize) {
+            this.spanQueueSize = spanQueueSize;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of spans exported in one batch. Defaults to
+         * {@value ShardedSpanProcessor#DEFAULT_MAX_EXPORT_BATCH_SIZE}.
+         *
+         * @param spanBatchSize
+         *            the span batch size
+         * @return this builder
+         */
+        public Builder spanBatchSize(int spanBatchSize) {
+            this.spanBatchSize = spanBatchSize;
+            return this;
+        }
+
+        /**
+         * Sets how long ended spans may wait for a batch to fill before being
+         * exported. Defaults to 5 seconds.
+         *
+         * @param spanScheduleDelay
+         *            the schedule delay
+         * @return this builder
+         */
+        public Builder spanScheduleDelay(Duration spanScheduleDelay) {
+            this.spanScheduleDelay = spanScheduleDelay;
+            return this;
+        }
+
+        /**
+         * Sets how long to wait for one span batch export to complete.
+         * Defaults to 30 seconds.
+         *
+         * @param spanExportTimeout
+         *            the export timeout
+         * @return this builder
+         */
+        public Builder spanExportTimeout(Duration spanExportTimeout) {
+            this.spanExportTimeout = spanExportTimeout;
+            return this;
+        }
+
+        /**
+         * Sets the number of queue shards used by
+         * {@link SpanProcessorType#SHARDED}. Defaults to the number of
+         * available processors.
+         *
+         * @param spanProcessorShards
+         *            the shard count
+         * @return this builder
+         */
+        public Builder spanProcessorShards(int spanProcessorShards) {
+            this.spanProcessorShards = spanProcessorShards;
+            return this;
+        }
+
+        /**
+         * Queues this tracer's spans into a pipeline shared with other
+         * tracers instead of starting a span processor of its own. The span
+         * processor settings of this builder are then ignored. See
+         * {@link SharedSpanPipeline}.
+         *
+         * @param sharedPipeline
+         *            the shared pipeline, or null for a dedicated processor
+         * @return this builder
+         */
+        public Builder sharedPipeline(SharedSpanPipeline sharedPipeline) {
+            this.sharedPipeline = sharedPipeline;
+            return this;
+        }
+
+        /**
+         * Sets the head sampler deciding whether new spans are recorded.
+         * Overrides {@link #samplingRatio(double)} and
+         * {@link #maxTracesPerSecond(double)}. Defaults to sampling every
+         * trace.
+         *
+         * @param sampler
+         *            the sampler
+         * @return this builder
+         */
+        public Builder sampler(Sampler sampler) {
+            this.sampler = sampler;
+            return this;
+        }
+
+        /**
+         * Sets the fraction of new traces to record, chosen from the trace id.
+         * Child spans follow their parent's decision. Defaults to 1.
+         *
+         * @param samplingRatio
+         *            the ratio, between 0 and 1
+         * @return this builder
+         */
+        public Builder samplingRatio(double samplingRatio) {
+            this.samplingRatio = samplingRatio;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of new traces recorded per second, applied
+         * after the sampling ratio. Child spans follow their parent's
+         * decision. Unlimited by default.
+         *
+         * @param maxTracesPerSecond
+         *            the rate limit
+         * @return this builder
+         */
+        public Builder maxTracesPerSecond(double maxTracesPerSecond) {
+            this.maxTracesPerSecond = maxTracesPerSecond;
+            return this;
+        }
+
+        /**
+         * Enables tail sampling: complete traces are buffered and those with
+         * pending evaluations, errors or high latency are always exported,
+         * while the given fraction of the rest is kept. See
+         * {@link TailSamplingProcessor}.
+         *
+         * @param tailSamplingRatio
+         *            the fraction of ordinary traces to keep
+         * @return this builder
+         */
+        public Builder tailSamplingRatio(double tailSamplingRatio) {
+            this.tailSamplingRatio = tailSamplingRatio;
+            return this;
+        }
+
+        /**
+         * Sets the span duration at or above which tail sampling always keeps
+         * a trace. Defaults to 10 seconds.
+         *
+         * @param latencyThreshold
+         *            the latency threshold
+         * @return this builder
+         */
+        public Builder tailSamplingLatencyThreshold(Duration latencyThreshold) {
+            this.tailLatencyThreshold = latencyThreshold;
+            return this;
+        }
+
+        /**
+         * Sets how long tail sampling waits for a trace's root span before
+         * deciding with the spans seen so far. Defaults to 30 seconds.
+         *
+         * @param decisionWait
+         *            the decision wait
+         * @return this builder
+         */
+        public Builder tailSamplingDecisionWait(Duration decisionWait) {
+            this.tailDecisionWait = decisionWait;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of traces tail sampling buffers. Defaults
+         * to {@value TailSamplingProcessor#DEFAULT_MAX_TRACES}.
+         *
+         * @param maxTraces
+         *            the maximum buffered trace count
+         * @return this builder
+         */
+        public Builder tailSamplingMaxTraces(int maxTraces) {
+            this.tailMaxTraces = maxTraces;
+            return this;
+        }
+
+        /**
+         * Sets whether trace evaluations are submitted by the client once
+         * their trace completes and its spans are exported, listing every
+         * span of the trace, instead of being attached to the evaluated span
+         * for the backend to pick up. Disabled by default. See
+         * {@link TraceAssembler}.
+         *
+         * @param assembleTraces
+         *            true to submit trace evaluations from the client
+         * @return this builder
+         */
+        public Builder assembleTraces(boolean assembleTraces) {
+            this.assembleTraces = assembleTraces;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of traces followed for trace evaluations.
+         * Defaults to {@value TraceAssembler#DEFAULT_MAX_TRACES}.
+         *
+         * @param maxTraces
+         *            the maximum open trace count
+         * @return this builder
+         */
+        public Builder traceAssemblyMaxTraces(int maxTraces) {
+            this.assemblerMaxTraces = maxTraces;
+            return this;
+        }
+
+        /**
+         * Sets how long a trace may go without span activity before its
+         * trace evaluations are submitted with the spans seen so far.
+         * Defaults to 5 minutes.
+         *
+         * @param traceTimeout
+         *            the trace timeout
+         * @return this builder
+         */
+        public Builder traceAssemblyTimeout(Duration traceTimeout) {
+            this.assemblerTraceTimeout = traceTimeout;
+            return this;
+        }
+
         /**
          * Sets additional resource attributes to be included in the tracer.
          *
@@ -183,6 +674,162 @@ public final class Tracer extends BaseTracer {
             return this;
         }
 
+        /**
+         * Sets the maximum number of evaluation runs buffered for background
+         * submission. Defaults to {@value EvaluationQueue#DEFAULT_CAPACITY}.
+         *
+         * @param capacity
+         *            the evaluation queue capacity
+         * @return this builder
+         */
+        public Builder evaluationQueueCapacity(int capacity) {
+            this.evaluationQueue.capacity(capacity);
+            return this;
+        }
+
+        /**
+         * Sets the number of background workers submitting evaluation runs.
+         * Defaults to {@value EvaluationQueue#DEFAULT_WORKERS}.
+         *
+         * @param workers
+         *            the worker count
+         * @return this builder
+         */
+        public Builder evaluationWorkers(int workers) {
+            this.evaluationQueue.workers(workers);
+            return this;
+        }
+
+        /**
+         * Sets the thread factory for evaluation workers. Pass
+         * {@code Thread.ofVirtual().factory()} to submit on virtual threads.
+         *
+         * @param threadFactory
+         *            the thread factory
+         * @return this builder
+         */
+        public Builder evaluationThreadFactory(ThreadFactory threadFactory) {
+            this.evaluationQueue.threadFactory(threadFactory);
+            return this;
+        }
+
+        /**
+         * Sets the policy applied when the evaluation queue is full. Defaults
+         * to {@link BackpressurePolicy#DROP_NEWEST}.
+         *
+         * @param backpressurePolicy
+         *            the backpressure policy
+         * @return this builder
+         */
+        public Builder evaluationBackpressure(BackpressurePolicy backpressurePolicy) {
+            this.evaluationQueue.backpressurePolicy(backpressurePolicy);
+            return this;
+        }
+
+        /**
+         * Sets how long {@code asyncEvaluate} may block when the queue is full
+         * under {@link BackpressurePolicy#BLOCK_WITH_TIMEOUT}.
+         *
+         * @param offerTimeout
+         *            the offer timeout
+         * @return this builder
+         */
+        public Builder evaluationOfferTimeout(Duration offerTimeout) {
+            this.evaluationQueue.offerTimeout(offerTimeout);
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of evaluation runs coalesced into one
+         * submission batch. Defaults to
+         * {@value EvaluationQueue#DEFAULT_MAX_BATCH_SIZE}.
+         *
+         * @param maxBatchSize
+         *            the maximum batch size
+         * @return this builder
+         */
+        public Builder evaluationMaxBatchSize(int maxBatchSize) {
+            this.evaluationQueue.maxBatchSize(maxBatchSize);
+            return this;
+        }
+
+        /**
+         * Sets the maximum estimated size in bytes of one submission batch.
+         * Defaults to 1 MiB.
+         *
+         * @param maxBatchBytes
+         *            the maximum batch size in bytes
+         * @return this builder
+         */
+        public Builder evaluationMaxBatchBytes(long maxBatchBytes) {
+            this.evaluationQueue.maxBatchBytes(maxBatchBytes);
+            return this;
+        }
+
+        /**
+         * Sets how long evaluation runs may wait for a batch to fill before
+         * being submitted. Defaults to 100 milliseconds.
+         *
+         * @param maxBatchLatency
+         *            the maximum batch latency
+         * @return this builder
+         */
+        public Builder evaluationMaxBatchLatency(Duration maxBatchLatency) {
+            this.evaluationQueue.maxBatchLatency(maxBatchLatency);
+            return this;
+        }
+
+        /**
+         * Enables the on-disk spool. Evaluation runs and span batches that
+         * cannot be delivered are written to this directory and replayed in
+         * order once the backend is reachable again, including after a restart.
+         *
+         * @param spoolDirectory
+         *            the spool directory, or null to disable spooling
+         * @return this builder
+         */
+        public Builder spoolDirectory(Path spoolDirectory) {
+            this.spoolDirectory = spoolDirectory;
+            return this;
+        }
+
+        /**
+         * Sets the maximum size of the spool on disk. When full, the oldest
+         * records are dropped.
+         *
+         * @param maxBytes
+         *            the spool size cap in bytes
+         * @return this builder
+         */
+        public Builder spoolMaxBytes(long maxBytes) {
+            this.spool.maxBytes(maxBytes);
+            return this;
+        }
+
+        /**
+         * Sets the size of each spool segment file.
+         *
+         * @param segmentBytes
+         *            the segment size in bytes
+         * @return this builder
+         */
+        public Builder spoolSegmentBytes(int segmentBytes) {
+            this.spool.segmentBytes(segmentBytes);
+            return this;
+        }
+
+        /**
+         * Sets how often spooled records are retried.
+         *
+         * @param replayInterval
+         *            the replay interval
+         * @return this builder
+         */
+        public Builder spoolReplayInterval(Duration replayInterval) {
+            this.spool.replayInterval(replayInterval);
+            return this;
+        }
+
         /**
          * Sets whether to automatically initialize the tracer on build.
          *
@@ -196,35 +843,76 @@ public final class Tracer extends BaseTracer {
         }
 
         /**
-         * Builds and returns a new Tracer instance.
+         * Sets whether {@link #initialize(boolean) initialization} registers
+         * the tracer's OpenTelemetry instance with {@link GlobalOpenTelemetry}.
+         * The tracer itself never reads the global, so several tracers for
+         * different projects can coexist when at most one registers.
+         * Defaults to true.
          *
-         * @return the configured Tracer
+         * @param registerGlobal
+         *            true to register globally
+         * @return this builder
          */
-        public Tracer build() {
-            return new Tracer(this);
+        public Builder registerGlobal(boolean registerGlobal) {
+            this.registerGlobal = registerGlobal;
+            return this;
+        }
+
+        private AttributeLimits attributeLimits() {
+            if (maxAttributeBytes == Integer.MAX_VALUE && maxSpanAttributeBytes == Long.MAX_VALUE) {
+                return AttributeLimits.none();
+            }
+            return AttributeLimits.of(maxAttributeBytes, maxSpanAttributeBytes);
         }
-    }
 
-    private static class GsonSerializer implements ISerializer {
-        private final Gson gson = new Gson();
+        private Sampler headSampler() {
+            if (sampler != null) {
+                return sampler;
+            }
+            if (!(samplingRatio >= 0 && samplingRatio <= 1)) {
+                throw new IllegalArgumentException("samplingRatio must be between 0 and 1, got: " + samplingRatio);
+            }
+            Sampler root = samplingRatio < 1 ? Sampler.traceIdRatioBased(samplingRatio) : Sampler.alwaysOn();
+            if (maxTracesPerSecond > 0) {
+                root = new RateLimitingSampler(maxTracesPerSecond, root);
+            }
+            return Sampler.parentBased(root);
+        }
 
-        @Override
-        public String serialize(Object obj) {
-            return Optional.ofNullable(obj)
-                    .map(o -> serialize(o, o.getClass()))
-                    .orElse(null);
+        private Function<SpanProcessor, TailSamplingProcessor> tailSamplerFactory() {
+            if (tailSamplingRatio < 0) {
+                return null;
+            }
+            TailSamplingProcessor.Builder tailSampler = TailSamplingProcessor.builder()
+                    .samplingRatio(tailSamplingRatio)
+                    .latencyThreshold(tailLatencyThreshold)
+                    .decisionWait(tailDecisionWait)
+                    .maxTraces(tailMaxTraces);
+            return delegate -> tailSampler.delegate(delegate)
+                    .build();
         }
 
-        @Override
-        public String serialize(Object obj, Type type) {
-            try {
-                return gson.toJson(obj, type);
-            } catch (Exception e) {
-                Logger.error("Failed to serialize object: " + e.getMessage());
-                return Optional.ofNullable(obj)
-                        .map(Object::toString)
-                        .orElse(null);
+        private TraceAssembler.Builder traceAssembler() {
+            if (!assembleTraces) {
+                return null;
             }
+            return TraceAssembler.builder()
+                    .maxTraces(assemblerMaxTraces)
+                    .traceTimeout(assemblerTraceTimeout);
+        }
+
+        private BiFunction<SpanExporter, TracerMetrics, SpanProcessor> spanProcessorFactory() {
+            return Tracer.spanProcessorFactory(spanProcessorType, spanQueueSize, spanBatchSize, spanScheduleDelay,
+                    spanExportTimeout, spanProcessorShards);
+        }
+
+        /**
+         * Builds and returns a new Tracer instance.
+         *
+         * @return the configured Tracer
+         */
+        public Tracer build() {
+            return new Tracer(this);
         }
     }
 }
@@ -0,0 +1,22 @@
+package com.judgmentlabs.judgeval.tracer.evaluation;
+
+/**
+ * Strategy applied when the evaluation queue is full.
+ */
+public enum BackpressurePolicy {
+    /**
+     * Discards the evaluation run being enqueued.
+     */
+    DROP_NEWEST,
+
+    /**
+     * Discards the oldest queued evaluation run to make room for the new one.
+     */
+    DROP_OLDEST,
+
+    /**
+     * Blocks the caller until space is available or the offer timeout elapses,
+     * then discards the evaluation run being enqueued.
+     */
+    BLOCK_WITH_TIMEOUT
+}
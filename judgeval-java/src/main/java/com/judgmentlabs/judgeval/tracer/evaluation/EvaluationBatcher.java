@@ -0,0 +1,163 @@
+package com.judgmentlabs.judgeval.tracer.evaluation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import com.judgmentlabs.judgeval.internal.api.models.Example;
+import com.judgmentlabs.judgeval.internal.api.models.ExampleEvaluationRun;
+import com.judgmentlabs.judgeval.utils.Logger;
+
+/**
+ * Groups evaluation runs drained from the queue into as few requests as
+ * possible.
+ * <p>
+ * Runs are merged into a single multi-example run when they are scored the
+ * same way: same project, scorers and model. Their eval name and creation
+ * time are stamped once for the merged run, and each example keeps the trace
+ * and span it was evaluated in as its {@value #TRACE_ID} and
+ * {@value #SPAN_ID} properties, so runs from different spans share one
+ * request. A merged run is a new run with the id of the first one; the runs
+ * and examples it was built from are not modified.
+ */
+final class EvaluationBatcher {
+    static final String      TRACE_ID               = "trace_id";
+    static final String      SPAN_ID                = "span_id";
+    static final String      BATCH_EVAL_NAME_PREFIX = "async_evaluate_batch_";
+
+    private static final int RUN_OVERHEAD_BYTES     = 512;
+    private static final int SCALAR_ESTIMATE_BYTES  = 16;
+
+    private EvaluationBatcher() {
+    }
+
+    /**
+     * Merges compatible runs, preserving the order in which each group first
+     * appeared.
+     *
+     * @param runs
+     *            the drained runs
+     * @return the runs to submit
+     */
+    static List<ExampleEvaluationRun> coalesce(List<ExampleEvaluationRun> runs) {
+        if (runs.size() < 2) {
+            return runs;
+        }
+        Map<List<Object>, List<ExampleEvaluationRun>> groups = new LinkedHashMap<>();
+        for (ExampleEvaluationRun run : runs) {
+            groups.computeIfAbsent(compatibilityKey(run), key -> new ArrayList<>())
+                    .add(run);
+        }
+        List<ExampleEvaluationRun> merged = new ArrayList<>(groups.size());
+        for (List<ExampleEvaluationRun> group : groups.values()) {
+            merged.add(group.size() == 1 ? group.get(0) : merge(group));
+        }
+        return merged;
+    }
+
+    private static ExampleEvaluationRun merge(List<ExampleEvaluationRun> group) {
+        ExampleEvaluationRun first = group.get(0);
+        List<Example> examples = new ArrayList<>();
+        List<String> ids = new ArrayList<>(group.size());
+        boolean sameEvalName = true;
+        boolean sameSpan = true;
+        for (ExampleEvaluationRun run : group) {
+            if (run.getExamples() != null) {
+                for (Example example : run.getExamples()) {
+                    examples.add(withSpan(example, run));
+                }
+            }
+            ids.add(run.getId());
+            sameEvalName &= Objects.equals(run.getEvalName(), first.getEvalName());
+            sameSpan &= Objects.equals(run.getTraceId(), first.getTraceId())
+                    && Objects.equals(run.getTraceSpanId(), first.getTraceSpanId());
+        }
+        ExampleEvaluationRun run = new ExampleEvaluationRun();
+        run.setId(first.getId());
+        run.setProjectName(first.getProjectName());
+        run.setEvalName(sameEvalName ? first.getEvalName() : BATCH_EVAL_NAME_PREFIX + first.getId());
+        run.setCreatedAt(first.getCreatedAt());
+        run.setJudgmentScorers(first.getJudgmentScorers());
+        run.setCustomScorers(first.getCustomScorers());
+        run.setModel(first.getModel());
+        if (sameSpan) {
+            run.setTraceId(first.getTraceId());
+            run.setTraceSpanId(first.getTraceSpanId());
+        }
+        first.getAdditionalProperties()
+                .forEach(run::setAdditionalProperty);
+        run.setExamples(examples);
+        Logger.debug("Coalesced evaluation runs " + ids + " into " + first.getId());
+        return run;
+    }
+
+    /**
+     * Returns a copy of the example that records the trace and span of the
+     * run it came from.
+     */
+    private static Example withSpan(Example example, ExampleEvaluationRun run) {
+        Example copy = new Example();
+        copy.setExampleId(example.getExampleId());
+        copy.setCreatedAt(example.getCreatedAt());
+        copy.setName(example.getName());
+        example.getAdditionalProperties()
+                .forEach(copy::setAdditionalProperty);
+        if (run.getTraceId() != null) {
+            copy.setAdditionalProperty(TRACE_ID, run.getTraceId());
+        }
+        if (run.getTraceSpanId() != null) {
+            copy.setAdditionalProperty(SPAN_ID, run.getTraceSpanId());
+        }
+        return copy;
+    }
+
+    private static List<Object> compatibilityKey(ExampleEvaluationRun run) {
+        return Arrays.asList(run.getProjectName(), run.getJudgmentScorers(), run.getCustomScorers(), run.getModel(),
+                run.getAdditionalProperties());
+    }
+
+    /**
+     * Estimates the serialized size of a run without serializing it.
+     *
+     * @param run
+     *            the evaluation run
+     * @return the approximate JSON size in bytes
+     */
+    static long estimateBytes(ExampleEvaluationRun run) {
+        long bytes = RUN_OVERHEAD_BYTES;
+        if (run.getExamples() != null) {
+            for (Example example : run.getExamples()) {
+                bytes += RUN_OVERHEAD_BYTES / 4 + estimateValue(example.getAdditionalProperties());
+            }
+        }
+        return bytes;
+    }
+
+    private static long estimateValue(Object value) {
+        if (value == null) {
+            return SCALAR_ESTIMATE_BYTES;
+        }
+        if (value instanceof CharSequence) {
+            return ((CharSequence) value).length() + 2L;
+        }
+        if (value instanceof Map) {
+            long bytes = 2;
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                bytes += estimateValue(String.valueOf(entry.getKey())) + estimateValue(entry.getValue()) + 2;
+            }
+            return bytes;
+        }
+        if (value instanceof Collection) {
+            long bytes = 2;
+            for (Object element : (Collection<?>) value) {
+                bytes += estimateValue(element) + 1;
+            }
+            return bytes;
+        }
+        return SCALAR_ESTIMATE_BYTES;
+    }
+}
@@ -0,0 +1,487 @@
+package com.judgmentlabs.judgeval.tracer.evaluation;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import com.judgmentlabs.judgeval.internal.api.models.ExampleEvaluationRun;
+import com.judgmentlabs.judgeval.utils.Logger;
+
+/**
+ * Bounded, non-blocking queue that hands evaluation runs to a pool of
+ * background workers for submission.
+ * <p>
+ * Runs are held in a lock-free queue whose capacity is enforced with
+ * semaphores, so producers never contend on a lock. When the queue is full
+ * the configured {@link BackpressurePolicy} decides which run is discarded.
+ * Worker threads are started lazily on the first enqueued run.
+ * <p>
+ * Each worker drains runs into a batch until it reaches the maximum size or
+ * estimated byte size, or the maximum latency since the first run elapses.
+ * Compatible runs in a batch are then merged into multi-example runs so that
+ * one request carries many evaluations.
+ */
+public final class EvaluationQueue {
+    public static final int                                   DEFAULT_CAPACITY          = 2048;
+    public static final int                                   DEFAULT_WORKERS           = 1;
+    public static final Duration                              DEFAULT_OFFER_TIMEOUT     = Duration.ofMillis(100);
+    public static final int                                   DEFAULT_MAX_BATCH_SIZE    = 64;
+    public static final long                                  DEFAULT_MAX_BATCH_BYTES   = 1024 * 1024;
+    public static final Duration                              DEFAULT_MAX_BATCH_LATENCY = Duration.ofMillis(100);
+
+    private static final long                                 WORKER_POLL_MILLIS        = 100;
+
+    private final ConcurrentLinkedQueue<ExampleEvaluationRun> queue                     = new ConcurrentLinkedQueue<>();
+    private final Semaphore                                   freeSlots;
+    private final Semaphore                                   queuedRuns                = new Semaphore(0);
+    private final int                                         workerCount;
+    private final ThreadFactory                               threadFactory;
+    private final BackpressurePolicy                          backpressurePolicy;
+    private final long                                        offerTimeoutNanos;
+    private final int                                         maxBatchSize;
+    private final long                                        maxBatchBytes;
+    private final long                                        maxBatchLatencyNanos;
+    private final Consumer<ExampleEvaluationRun>              sink;
+
+    private final AtomicBoolean                               started                   = new AtomicBoolean(false);
+    private final AtomicBoolean                               dropping                  = new AtomicBoolean(false);
+    private final AtomicLong                                  enqueued                  = new AtomicLong();
+    private final AtomicLong                                  completed                 = new AtomicLong();
+    private final AtomicLong                                  dropped                   = new AtomicLong();
+    private final Object                                      completionMonitor         = new Object();
+    private final List<Thread>                                workers                   = new ArrayList<>();
+    private volatile boolean                                  running                   = true;
+
+    private EvaluationQueue(Builder builder) {
+        if (builder.capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive, got: " + builder.capacity);
+        }
+        if (builder.workers <= 0) {
+            throw new IllegalArgumentException("workers must be positive, got: " + builder.workers);
+        }
+        if (builder.maxBatchSize <= 0) {
+            throw new IllegalArgumentException("maxBatchSize must be positive, got: " + builder.maxBatchSize);
+        }
+        if (builder.maxBatchBytes <= 0) {
+            throw new IllegalArgumentException("maxBatchBytes must be positive, got: " + builder.maxBatchBytes);
+        }
+        this.freeSlots = new Semaphore(builder.capacity);
+        this.workerCount = builder.workers;
+        this.threadFactory = builder.threadFactory != null ? builder.threadFactory : new WorkerThreadFactory();
+        this.backpressurePolicy = Objects.requireNonNull(builder.backpressurePolicy, "backpressurePolicy required");
+        this.offerTimeoutNanos = Objects.requireNonNull(builder.offerTimeout, "offerTimeout required")
+                .toNanos();
+        this.maxBatchSize = builder.maxBatchSize;
+        this.maxBatchBytes = builder.maxBatchBytes;
+        this.maxBatchLatencyNanos = Objects.requireNonNull(builder.maxBatchLatency, "maxBatchLatency required")
+                .toNanos();
+        this.sink = Objects.requireNonNull(builder.sink, "sink required");
+    }
+
+    /**
+     * Enqueues an evaluation run for background submission. Never blocks unless
+     * the policy is {@link BackpressurePolicy#BLOCK_WITH_TIMEOUT}.
+     *
+     * @param run
+     *            the evaluation run
+     * @return true if the run was accepted
+     */
+    public boolean offer(ExampleEvaluationRun run) {
+        Objects.requireNonNull(run, "run required");
+        if (!running) {
+            Logger.warning("Evaluation queue is shut down; dropping evaluation run " + run.getId());
+            dropped.incrementAndGet();
+            return false;
+        }
+        ensureStarted();
+
+        enqueued.incrementAndGet();
+        if (acquireSlot()) {
+            queue.offer(run);
+            queuedRuns.release();
+            dropping.set(false);
+            return true;
+        }
+        markCompleted(1);
+        onDrop("evaluation queue full");
+        return false;
+    }
+
+    private boolean acquireSlot() {
+        if (freeSlots.tryAcquire()) {
+            return true;
+        }
+        switch (backpressurePolicy) {
+            case DROP_OLDEST:
+                return evictOldest();
+            case BLOCK_WITH_TIMEOUT:
+                try {
+                    return freeSlots.tryAcquire(offerTimeoutNanos, TimeUnit.NANOSECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread()
+                            .interrupt();
+                    return false;
+                }
+            case DROP_NEWEST:
+            default:
+                return false;
+        }
+    }
+
+    private boolean evictOldest() {
+        while (true) {
+            if (queuedRuns.tryAcquire()) {
+                ExampleEvaluationRun oldest = queue.poll();
+                if (oldest != null) {
+                    markCompleted(1);
+                    onDrop("evicted oldest evaluation run " + oldest.getId());
+                }
+                return true;
+            }
+            if (freeSlots.tryAcquire()) {
+                return true;
+            }
+            if (queuedRuns.availablePermits() == 0 && freeSlots.availablePermits() == 0) {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    private void onDrop(String reason) {
+        dropped.incrementAndGet();
+        if (dropping.compareAndSet(false, true)) {
+            Logger.warning("Dropping evaluation runs: " + reason);
+        }
+    }
+
+    private void ensureStarted() {
+        if (!started.compareAndSet(false, true)) {
+            return;
+        }
+        synchronized (workers) {
+            for (int i = 0; i < workerCount; i++) {
+                Thread worker = threadFactory.newThread(this::workerLoop);
+                workers.add(worker);
+                worker.start();
+            }
+        }
+    }
+
+    private void workerLoop() {
+        ExampleEvaluationRun carried = null;
+        while (carried != null || running || queuedRuns.availablePermits() > 0) {
+            ExampleEvaluationRun first = carried != null ? carried
+                    : take(WORKER_POLL_MILLIS, TimeUnit.MILLISECONDS);
+            carried = null;
+            if (first == null) {
+                continue;
+            }
+
+            List<ExampleEvaluationRun> batch = new ArrayList<>();
+            batch.add(first);
+            long batchBytes = EvaluationBatcher.estimateBytes(first);
+            long deadline = System.nanoTime() + maxBatchLatencyNanos;
+            while (batch.size() < maxBatchSize && batchBytes < maxBatchBytes) {
+                long remaining = running ? deadline - System.nanoTime() : 0;
+                ExampleEvaluationRun next = take(Math.max(0, remaining), TimeUnit.NANOSECONDS);
+                if (next == null) {
+                    break;
+                }
+                long nextBytes = EvaluationBatcher.estimateBytes(next);
+                if (batchBytes + nextBytes > maxBatchBytes) {
+                    carried = next;
+                    break;
+                }
+                batch.add(next);
+                batchBytes += nextBytes;
+            }
+            submitBatch(batch);
+        }
+    }
+
+    private ExampleEvaluationRun take(long timeout, TimeUnit unit) {
+        try {
+            if (!queuedRuns.tryAcquire(timeout, unit)) {
+                return null;
+            }
+        } catch (InterruptedException e) {
+            if (!running) {
+                Thread.currentThread()
+                        .interrupt();
+            }
+            return null;
+        }
+        ExampleEvaluationRun run = queue.poll();
+        freeSlots.release();
+        return run;
+    }
+
+    private void submitBatch(List<ExampleEvaluationRun> batch) {
+        try {
+            for (ExampleEvaluationRun run : EvaluationBatcher.coalesce(batch)) {
+                try {
+                    sink.accept(run);
+                } catch (RuntimeException e) {
+                    Logger.error("Failed to submit evaluation run: " + e.getMessage());
+                }
+            }
+        } finally {
+            markCompleted(batch.size());
+        }
+    }
+
+    private void markCompleted(long count) {
+        completed.addAndGet(count);
+        synchronized (completionMonitor) {
+            completionMonitor.notifyAll();
+        }
+    }
+
+    /**
+     * Waits until every run enqueued before this call has been submitted or
+     * dropped.
+     *
+     * @param timeoutMillis
+     *            maximum time to wait in milliseconds
+     * @return true if the queue drained within the timeout
+     */
+    public boolean forceFlush(long timeoutMillis) {
+        long target = enqueued.get();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        synchronized (completionMonitor) {
+            while (completed.get() < target) {
+                long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remainingMillis <= 0) {
+                    return false;
+                }
+                try {
+                    completionMonitor.wait(remainingMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread()
+                            .interrupt();
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Stops accepting runs, drains the queue and stops the workers.
+     *
+     * @param timeoutMillis
+     *            maximum time to wait in milliseconds
+     * @return true if the queue drained within the timeout
+     */
+    public boolean shutdown(long timeoutMillis) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        running = false;
+        boolean drained = forceFlush(timeoutMillis);
+        List<Thread> snapshot;
+        synchronized (workers) {
+            snapshot = new ArrayList<>(workers);
+        }
+        for (Thread worker : snapshot) {
+            if (!drained) {
+                worker.interrupt();
+            }
+            try {
+                worker.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+            } catch (InterruptedException e) {
+                Thread.currentThread()
+                        .interrupt();
+                break;
+            }
+        }
+        if (!drained) {
+            Logger.warning("Evaluation queue shut down with " + size() + " pending evaluation runs");
+        }
+        return drained;
+    }
+
+    /**
+     * Returns the number of runs waiting to be submitted.
+     *
+     * @return the queue size
+     */
+    public int size() {
+        return queuedRuns.availablePermits();
+    }
+
+    /**
+     * Returns the number of runs dropped since creation.
+     *
+     * @return the dropped run count
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Creates a new builder for configuring an EvaluationQueue.
+     *
+     * @return a new builder instance
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Builder for configuring and creating EvaluationQueue instances.
+     */
+    public static final class Builder {
+        private int                            capacity           = DEFAULT_CAPACITY;
+        private int                            workers            = DEFAULT_WORKERS;
+        private ThreadFactory                  threadFactory;
+        private BackpressurePolicy             backpressurePolicy = BackpressurePolicy.DROP_NEWEST;
+        private Duration                       offerTimeout       = DEFAULT_OFFER_TIMEOUT;
+        private int                            maxBatchSize       = DEFAULT_MAX_BATCH_SIZE;
+        private long                           maxBatchBytes      = DEFAULT_MAX_BATCH_BYTES;
+        private Duration                       maxBatchLatency    = DEFAULT_MAX_BATCH_LATENCY;
+        private Consumer<ExampleEvaluationRun> sink;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the maximum number of queued evaluation runs.
+         *
+         * @param capacity
+         *            the queue capacity
+         * @return this builder
+         */
+        public Builder capacity(int capacity) {
+            this.capacity = capacity;
+            return this;
+        }
+
+        /**
+         * Sets the number of worker threads submitting evaluation runs.
+         *
+         * @param workers
+         *            the worker count
+         * @return this builder
+         */
+        public Builder workers(int workers) {
+            this.workers = workers;
+            return this;
+        }
+
+        /**
+         * Sets the thread factory used to create workers, e.g.
+         * {@code Thread.ofVirtual().factory()} for virtual threads.
+         *
+         * @param threadFactory
+         *            the thread factory
+         * @return this builder
+         */
+        public Builder threadFactory(ThreadFactory threadFactory) {
+            this.threadFactory = threadFactory;
+            return this;
+        }
+
+        /**
+         * Sets the policy applied when the queue is full.
+         *
+         * @param backpressurePolicy
+         *            the backpressure policy
+         * @return this builder
+         */
+        public Builder backpressurePolicy(BackpressurePolicy backpressurePolicy) {
+            this.backpressurePolicy = backpressurePolicy;
+            return this;
+        }
+
+        /**
+         * Sets how long a producer may block under
+         * {@link BackpressurePolicy#BLOCK_WITH_TIMEOUT}.
+         *
+         * @param offerTimeout
+         *            the offer timeout
+         * @return this builder
+         */
+        public Builder offerTimeout(Duration offerTimeout) {
+            this.offerTimeout = offerTimeout;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of queued runs drained into one batch.
+         *
+         * @param maxBatchSize
+         *            the maximum batch size
+         * @return this builder
+         */
+        public Builder maxBatchSize(int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+            return this;
+        }
+
+        /**
+         * Sets the maximum estimated JSON size of one batch in bytes. A run
+         * larger than this is still sent, on its own.
+         *
+         * @param maxBatchBytes
+         *            the maximum batch size in bytes
+         * @return this builder
+         */
+        public Builder maxBatchBytes(long maxBatchBytes) {
+            this.maxBatchBytes = maxBatchBytes;
+            return this;
+        }
+
+        /**
+         * Sets how long a worker waits for a batch to fill after taking its
+         * first run. Zero sends whatever is already queued without waiting.
+         *
+         * @param maxBatchLatency
+         *            the maximum batch latency
+         * @return this builder
+         */
+        public Builder maxBatchLatency(Duration maxBatchLatency) {
+            this.maxBatchLatency = maxBatchLatency;
+            return this;
+        }
+
+        /**
+         * Sets the consumer that submits each evaluation run.
+         *
+         * @param sink
+         *            the submission consumer
+         * @return this builder
+         */
+        public Builder sink(Consumer<ExampleEvaluationRun> sink) {
+            this.sink = sink;
+            return this;
+        }
+
+        /**
+         * Builds and returns a new EvaluationQueue instance.
+         *
+         * @return the configured EvaluationQueue
+         */
+        public EvaluationQueue build() {
+            return new EvaluationQueue(this);
+        }
+    }
+
+    private static final class WorkerThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "judgeval-evaluation-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,584 @@
+package com.judgmentlabs.judgeval.tracer.evaluation;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import com.judgmentlabs.judgeval.internal.api.models.TraceEvaluationRun;
+import com.judgmentlabs.judgeval.utils.Logger;
+
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.SpanId;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+/**
+ * A span processor that follows the open spans of each trace and submits the
+ * trace's evaluation runs once it completes, so the runs list every span of
+ * the trace instead of relying on the backend to find them.
+ * <p>
+ * For each sampled trace only a count of open spans and the ids of ended spans
+ * are kept, packed into a {@code long[]}. A trace completes when its local
+ * root span has ended and no other span of it is still open. Its evaluation
+ * runs, registered with {@link #addEvaluation(SpanContext, TraceEvaluationRun)}
+ * while the trace was open, then get every ended span in
+ * {@code trace_and_span_ids} and are handed to the sink on a background
+ * thread.
+ * <p>
+ * When the exporter is wrapped with {@link #trackExports(SpanExporter)}, a
+ * completed trace with evaluation runs also waits until each of its ended
+ * spans has been through an export, so the backend has the spans before it
+ * evaluates the trace.
+ * <p>
+ * Memory is bounded: at most the maximum number of traces are followed and at
+ * most the maximum number of span ids are kept per trace. Traces that do not
+ * complete within the trace timeout, for example because a span was never
+ * ended, are submitted with the spans seen so far. Traces whose spans are
+ * not all exported within the trace timeout, for example because they were
+ * dropped, are submitted then.
+ */
+public final class TraceAssembler implements SpanProcessor {
+    public static final int                    DEFAULT_MAX_TRACES          = 10_000;
+    public static final int                    DEFAULT_MAX_SPANS_PER_TRACE = 1024;
+    public static final Duration               DEFAULT_TRACE_TIMEOUT       = Duration.ofMinutes(5);
+
+    private final Consumer<TraceEvaluationRun> sink;
+    private final int                          maxTraces;
+    private final int                          maxSpansPerTrace;
+    private final long                         traceTimeoutNanos;
+    private final Map<String, OpenTrace>       traces                      = new ConcurrentHashMap<>();
+    private final Map<String, OpenTrace>       exporting                   = new ConcurrentHashMap<>();
+    private final AtomicInteger                pendingSubmissions          = new AtomicInteger();
+    private final LongAdder                    untrackedTraces             = new LongAdder();
+    private final LongAdder                    timedOutTraces              = new LongAdder();
+    private final LongAdder                    submittedRuns               = new LongAdder();
+    private final LongAdder                    droppedRuns                 = new LongAdder();
+    private final AtomicBoolean                shutdown                    = new AtomicBoolean();
+    private final ScheduledExecutorService     worker;
+    private volatile boolean                   awaitExports;
+
+    private TraceAssembler(Builder builder) {
+        if (builder.maxTraces <= 0) {
+            throw new IllegalArgumentException("maxTraces must be positive, got: " + builder.maxTraces);
+        }
+        if (builder.maxSpansPerTrace <= 0) {
+            throw new IllegalArgumentException("maxSpansPerTrace must be positive, got: " + builder.maxSpansPerTrace);
+        }
+        this.sink = Objects.requireNonNull(builder.sink, "sink required");
+        this.maxTraces = builder.maxTraces;
+        this.maxSpansPerTrace = builder.maxSpansPerTrace;
+        this.traceTimeoutNanos = Objects.requireNonNull(builder.traceTimeout, "traceTimeout required")
+                .toNanos();
+        this.worker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "judgeval-trace-assembler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long sweepNanos = Math.max(TimeUnit.MILLISECONDS.toNanos(100), traceTimeoutNanos / 4);
+        this.worker.scheduleWithFixedDelay(this::sweep, sweepNanos, sweepNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Creates a new builder for configuring a TraceAssembler.
+     *
+     * @return a new builder instance
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public void onStart(Context parentContext, ReadWriteSpan span) {
+        SpanContext spanContext = span.getSpanContext();
+        if (!spanContext.isSampled()) {
+            return;
+        }
+        String traceId = spanContext.getTraceId();
+        while (true) {
+            OpenTrace trace = traces.get(traceId);
+            if (trace == null) {
+                if (traces.size() + exporting.size() >= maxTraces) {
+                    untrackedTraces.increment();
+                    return;
+                }
+                OpenTrace created = new OpenTrace();
+                trace = traces.putIfAbsent(traceId, created);
+                if (trace == null) {
+                    trace = created;
+                }
+            }
+            if (trace.spanStarted()) {
+                return;
+            }
+            // The trace completed concurrently; it was removed, start a new one.
+            traces.remove(traceId, trace);
+        }
+    }
+
+    @Override
+    public boolean isStartRequired() {
+        return true;
+    }
+
+    @Override
+    public void onEnd(ReadableSpan span) {
+        SpanContext spanContext = span.getSpanContext();
+        if (!spanContext.isSampled()) {
+            return;
+        }
+        String traceId = spanContext.getTraceId();
+        OpenTrace trace = traces.get(traceId);
+        if (trace == null) {
+            return;
+        }
+        if (!trace.spanEnded(spanId(spanContext.getSpanId()), isLocalRoot(span), maxSpansPerTrace)) {
+            return;
+        }
+        if (!awaitExports || !trace.hasEvaluations() || exporting.putIfAbsent(traceId, trace) != null) {
+            traces.remove(traceId, trace);
+            submit(traceId, trace);
+            return;
+        }
+        // Listed as exporting before it leaves the open traces, so exports
+        // always find it in one of the two.
+        traces.remove(traceId, trace);
+        if (trace.isExported() && exporting.remove(traceId, trace)) {
+            submit(traceId, trace);
+        }
+    }
+
+    @Override
+    public boolean isEndRequired() {
+        return true;
+    }
+
+    /**
+     * Registers an evaluation run to submit when the span's trace completes.
+     * The run's {@code trace_and_span_ids} is replaced with the trace's ended
+     * spans at that point.
+     *
+     * @param spanContext
+     *            the context of an open span of the trace
+     * @param run
+     *            the trace evaluation run
+     * @return true if the run will be submitted, false if the trace is not
+     *         followed and the caller must submit the run another way
+     */
+    public boolean addEvaluation(SpanContext spanContext, TraceEvaluationRun run) {
+        Objects.requireNonNull(run, "run required");
+        if (shutdown.get() || !spanContext.isSampled()) {
+            return false;
+        }
+        OpenTrace trace = traces.get(spanContext.getTraceId());
+        return trace != null && trace.addEvaluation(run);
+    }
+
+    /**
+     * Wraps the exporter the trace's spans go through, so that completed
+     * traces with evaluation runs are submitted only once each of their ended
+     * spans has been through an export. Must be called before spans are
+     * started.
+     *
+     * @param exporter
+     *            the span exporter
+     * @return an exporter reporting exported spans to this assembler
+     */
+    public SpanExporter trackExports(SpanExporter exporter) {
+        Objects.requireNonNull(exporter, "exporter required");
+        awaitExports = true;
+        return new SpanExporter() {
+            @Override
+            public CompletableResultCode export(Collection<SpanData> spans) {
+                CompletableResultCode exported = new CompletableResultCode();
+                exporter.export(spans)
+                        .whenComplete(() -> {
+                            spansExported(spans);
+                            exported.succeed();
+                        });
+                return exported;
+            }
+
+            @Override
+            public CompletableResultCode flush() {
+                return exporter.flush();
+            }
+
+            @Override
+            public CompletableResultCode shutdown() {
+                return exporter.shutdown();
+            }
+        };
+    }
+
+    /**
+     * Returns the number of traces currently followed, including completed
+     * traces waiting for their spans to be exported.
+     *
+     * @return the open trace count
+     */
+    public int getOpenTraces() {
+        return traces.size() + exporting.size();
+    }
+
+    /**
+     * Returns the number of traces not followed because the maximum number
+     * of traces was reached.
+     *
+     * @return the untracked trace count
+     */
+    public long getUntrackedTraces() {
+        return untrackedTraces.sum();
+    }
+
+    /**
+     * Returns the number of traces submitted after the trace timeout instead
+     * of on completion.
+     *
+     * @return the timed out trace count
+     */
+    public long getTimedOutTraces() {
+        return timedOutTraces.sum();
+    }
+
+    /**
+     * Returns the number of evaluation runs handed to the sink.
+     *
+     * @return the submitted run count
+     */
+    public long getSubmittedRuns() {
+        return submittedRuns.sum();
+    }
+
+    /**
+     * Returns the number of evaluation runs dropped because too many were
+     * waiting to be submitted or the assembler was shut down.
+     *
+     * @return the dropped run count
+     */
+    public long getDroppedRuns() {
+        return droppedRuns.sum();
+    }
+
+    private static boolean isLocalRoot(ReadableSpan span) {
+        SpanContext parent = span.getParentSpanContext();
+        return !parent.isValid() || parent.isRemote();
+    }
+
+    private static long spanId(String spanId) {
+        return Long.parseUnsignedLong(spanId, 16);
+    }
+
+    /**
+     * Counts spans that went through an export, failed ones included since
+     * they are not retried, and submits traces that were only waiting for
+     * them.
+     */
+    private void spansExported(Collection<SpanData> spans) {
+        for (SpanData span : spans) {
+            String traceId = span.getTraceId();
+            OpenTrace trace = traces.get(traceId);
+            if (trace == null) {
+                trace = exporting.get(traceId);
+            }
+            if (trace != null && trace.spanExported() && exporting.remove(traceId, trace)) {
+                submit(traceId, trace);
+            }
+        }
+    }
+
+    private void submit(String traceId, OpenTrace trace) {
+        List<TraceEvaluationRun> runs = trace.takeEvaluations();
+        if (runs.isEmpty()) {
+            return;
+        }
+        List<List<Object>> traceAndSpanIds = trace.traceAndSpanIds(traceId);
+        for (TraceEvaluationRun run : runs) {
+            run.setTraceAndSpanIds(traceAndSpanIds);
+        }
+        if (pendingSubmissions.addAndGet(runs.size()) > maxTraces) {
+            pendingSubmissions.addAndGet(-runs.size());
+            droppedRuns.add(runs.size());
+            Logger.error("Dropping " + runs.size() + " trace evaluation runs for trace " + traceId
+                    + ": too many waiting to be submitted");
+            return;
+        }
+        try {
+            worker.execute(() -> deliver(runs));
+        } catch (RejectedExecutionException e) {
+            pendingSubmissions.addAndGet(-runs.size());
+            droppedRuns.add(runs.size());
+        }
+    }
+
+    private void deliver(List<TraceEvaluationRun> runs) {
+        for (TraceEvaluationRun run : runs) {
+            try {
+                sink.accept(run);
+                submittedRuns.increment();
+            } catch (RuntimeException e) {
+                Logger.error("Failed to submit trace evaluation run " + run.getId() + ": " + e.getMessage());
+            }
+        }
+        pendingSubmissions.addAndGet(-runs.size());
+    }
+
+    private void sweep() {
+        long now = System.nanoTime();
+        traces.forEach((traceId, trace) -> {
+            if (now - trace.touchedNanos() >= traceTimeoutNanos && trace.complete()) {
+                traces.remove(traceId, trace);
+                timedOutTraces.increment();
+                submit(traceId, trace);
+            }
+        });
+        exporting.forEach((traceId, trace) -> {
+            if (now - trace.touchedNanos() >= traceTimeoutNanos && exporting.remove(traceId, trace)) {
+                timedOutTraces.increment();
+                submit(traceId, trace);
+            }
+        });
+    }
+
+    /**
+     * Waits for evaluation runs of completed traces to be handed to the sink.
+     * Traces still open or waiting for their spans to be exported are not
+     * affected.
+     */
+    @Override
+    public CompletableResultCode forceFlush() {
+        CompletableResultCode result = new CompletableResultCode();
+        try {
+            worker.execute(result::succeed);
+        } catch (RejectedExecutionException e) {
+            result.succeed();
+        }
+        return result;
+    }
+
+    /**
+     * Submits the evaluation runs of every open trace with the spans seen so
+     * far, then stops the background thread once they are handed to the sink.
+     */
+    @Override
+    public CompletableResultCode shutdown() {
+        if (!shutdown.compareAndSet(false, true)) {
+            return CompletableResultCode.ofSuccess();
+        }
+        traces.forEach((traceId, trace) -> {
+            if (trace.complete()) {
+                traces.remove(traceId, trace);
+                submit(traceId, trace);
+            }
+        });
+        exporting.forEach((traceId, trace) -> {
+            if (exporting.remove(traceId, trace)) {
+                submit(traceId, trace);
+            }
+        });
+        CompletableResultCode result = forceFlush();
+        worker.shutdown();
+        return result;
+    }
+
+    /**
+     * The open span count, ended span ids, export progress and pending
+     * evaluation runs of one trace. Completion is decided under the trace's
+     * lock, so once completed the trace accepts no more spans or runs.
+     */
+    private static final class OpenTrace {
+        private int                      openSpans;
+        private boolean                  rootEnded;
+        private boolean                  completed;
+        private long[]                   spanIds      = new long[8];
+        private int                      spanCount;
+        private int                      endedSpans;
+        private int                      exportedSpans;
+        private List<TraceEvaluationRun> runs         = List.of();
+        private volatile long            touchedNanos = System.nanoTime();
+
+        synchronized boolean spanStarted() {
+            if (completed) {
+                return false;
+            }
+            openSpans++;
+            touchedNanos = System.nanoTime();
+            return true;
+        }
+
+        synchronized boolean spanEnded(long spanId, boolean localRoot, int maxSpans) {
+            if (completed) {
+                return false;
+            }
+            if (spanCount < maxSpans) {
+                if (spanCount == spanIds.length) {
+                    spanIds = Arrays.copyOf(spanIds, Math.min(maxSpans, spanCount * 2));
+                }
+                spanIds[spanCount++] = spanId;
+            }
+            endedSpans++;
+            openSpans--;
+            rootEnded |= localRoot;
+            touchedNanos = System.nanoTime();
+            completed = rootEnded && openSpans <= 0;
+            return completed;
+        }
+
+        /**
+         * Counts one exported span of the trace.
+         *
+         * @return true if the trace is completed and all its ended spans have
+         *         been exported
+         */
+        synchronized boolean spanExported() {
+            exportedSpans++;
+            touchedNanos = System.nanoTime();
+            return isExported();
+        }
+
+        synchronized boolean isExported() {
+            return completed && exportedSpans >= endedSpans;
+        }
+
+        synchronized boolean hasEvaluations() {
+            return !runs.isEmpty();
+        }
+
+        synchronized boolean addEvaluation(TraceEvaluationRun run) {
+            if (completed) {
+                return false;
+            }
+            if (runs.isEmpty()) {
+                runs = new ArrayList<>(2);
+            }
+            runs.add(run);
+            return true;
+        }
+
+        /**
+         * Completes the trace with the spans seen so far.
+         *
+         * @return false if the trace was already completed
+         */
+        synchronized boolean complete() {
+            if (completed) {
+                return false;
+            }
+            completed = true;
+            return true;
+        }
+
+        synchronized List<TraceEvaluationRun> takeEvaluations() {
+            List<TraceEvaluationRun> completedRuns = runs;
+            runs = List.of();
+            return completedRuns;
+        }
+
+        synchronized List<List<Object>> traceAndSpanIds(String traceId) {
+            List<List<Object>> ids = new ArrayList<>(spanCount);
+            for (int i = 0; i < spanCount; i++) {
+                ids.add(List.of(traceId, SpanId.fromLong(spanIds[i])));
+            }
+            return ids;
+        }
+
+        long touchedNanos() {
+            return touchedNanos;
+        }
+    }
+
+    /**
+     * Builder for configuring and creating TraceAssembler instances.
+     */
+    public static final class Builder {
+        private Consumer<TraceEvaluationRun> sink;
+        private int                          maxTraces        = DEFAULT_MAX_TRACES;
+        private int                          maxSpansPerTrace = DEFAULT_MAX_SPANS_PER_TRACE;
+        private Duration                     traceTimeout     = DEFAULT_TRACE_TIMEOUT;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the consumer that submits completed trace evaluation runs. It
+         * is called on the assembler's background thread.
+         *
+         * @param sink
+         *            the run consumer
+         * @return this builder
+         */
+        public Builder sink(Consumer<TraceEvaluationRun> sink) {
+            this.sink = sink;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of traces followed at once. Spans of
+         * further traces are ignored. Defaults to
+         * {@value TraceAssembler#DEFAULT_MAX_TRACES}.
+         *
+         * @param maxTraces
+         *            the maximum open trace count
+         * @return this builder
+         */
+        public Builder maxTraces(int maxTraces) {
+            this.maxTraces = maxTraces;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of span ids kept for one trace. Defaults to
+         * {@value TraceAssembler#DEFAULT_MAX_SPANS_PER_TRACE}.
+         *
+         * @param maxSpansPerTrace
+         *            the maximum span count per trace
+         * @return this builder
+         */
+        public Builder maxSpansPerTrace(int maxSpansPerTrace) {
+            this.maxSpansPerTrace = maxSpansPerTrace;
+            return this;
+        }
+
+        /**
+         * Sets how long a trace may go without a span starting or ending
+         * before it is submitted with the spans seen so far. Defaults to 5
+         * minutes.
+         *
+         * @param traceTimeout
+         *            the trace timeout
+         * @return this builder
+         */
+        public Builder traceTimeout(Duration traceTimeout) {
+            this.traceTimeout = traceTimeout;
+            return this;
+        }
+
+        /**
+         * Builds the assembler and starts its background thread.
+         *
+         * @return the assembler
+         * @throws IllegalArgumentException
+         *             if a maximum is not positive
+         */
+        public TraceAssembler build() {
+            return new TraceAssembler(this);
+        }
+    }
+}
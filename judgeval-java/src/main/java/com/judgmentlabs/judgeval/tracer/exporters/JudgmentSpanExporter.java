@@ -1,11 +1,26 @@
 package com.judgmentlabs.judgeval.tracer.exporters;
 
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import com.judgmentlabs.judgeval.internal.api.HttpTransport;
+import com.judgmentlabs.judgeval.tracer.metrics.SpanDropReason;
+import com.judgmentlabs.judgeval.tracer.metrics.TracerMetrics;
+import com.judgmentlabs.judgeval.tracer.spool.SegmentSpool;
+import com.judgmentlabs.judgeval.tracer.spool.SpoolOutcome;
+import com.judgmentlabs.judgeval.tracer.spool.SpoolRecordType;
 import com.judgmentlabs.judgeval.utils.Logger;
 
-import io.opentelemetry.exporter.otlp.http.trace.OtlpHttpSpanExporter;
 import io.opentelemetry.sdk.common.CompletableResultCode;
 import io.opentelemetry.sdk.trace.data.SpanData;
 import io.opentelemetry.sdk.trace.export.SpanExporter;
@@ -14,11 +29,24 @@ import io.opentelemetry.sdk.trace.export.SpanExporter;
  * SpanExporter implementation that sends spans to Judgment Labs with project
  * identification.
  * <p>
- * This exporter wraps the OTLP HTTP exporter and adds Judgment Labs specific
- * headers and project identification to all exported spans.
+ * Spans are encoded as OTLP protobuf export requests by
+ * {@link OtlpTraceEncoder} and posted through the SDK's shared
+ * {@link HttpTransport}, so span export uses the same connection pool,
+ * timeouts and concurrency limit as the API clients.
+ * <p>
+ * When a {@link SegmentSpool} is configured, batches that fail to export are
+ * written to the spool and replayed later through {@link #replay(byte[])}.
+ * While the spool holds a backlog, new batches are appended behind it so that
+ * spans are delivered in order.
  */
 public class JudgmentSpanExporter implements SpanExporter {
-    private final SpanExporter delegate;
+    private final URI                        endpoint;
+    private final String[]                   headers;
+    private final SegmentSpool               spool;
+    private final HttpTransport              transport;
+    private final TracerMetrics              metrics;
+    private final Set<CompletableResultCode> pending  = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean              shutdown = new AtomicBoolean();
 
     /**
      * Creates a new JudgmentSpanExporter with the specified configuration.
@@ -35,15 +63,73 @@ public class JudgmentSpanExporter implements SpanExporter {
      *             if projectId is null or empty
      */
     protected JudgmentSpanExporter(String endpoint, String apiKey, String organizationId, String projectId) {
+        this(endpoint, apiKey, organizationId, projectId, null, HttpTransport.defaultTransport());
+    }
+
+    /**
+     * Creates a new JudgmentSpanExporter that sends through the given transport
+     * and spools failed batches.
+     *
+     * @param endpoint
+     *            the OTLP endpoint URL
+     * @param apiKey
+     *            the API key for authentication
+     * @param organizationId
+     *            the organization ID
+     * @param projectId
+     *            the project ID (must not be null or empty)
+     * @param spool
+     *            the spool for failed batches, or null to disable spooling
+     * @param transport
+     *            the HTTP transport to send through
+     * @throws IllegalArgumentException
+     *             if projectId is null or empty
+     */
+    protected JudgmentSpanExporter(String endpoint, String apiKey, String organizationId, String projectId,
+            SegmentSpool spool, HttpTransport transport) {
+        this(endpoint, apiKey, organizationId, projectId, spool, transport, new TracerMetrics());
+    }
+
+    /**
+     * Creates a new JudgmentSpanExporter that sends through the given transport,
+     * spools failed batches and records its activity.
+     *
+     * @param endpoint
+     *            the OTLP endpoint URL
+     * @param apiKey
+     *            the API key for authentication
+     * @param organizationId
+     *            the organization ID
+     * @param projectId
+     *            the project ID (must not be null or empty)
+     * @param spool
+     *            the spool for failed batches, or null to disable spooling
+     * @param transport
+     *            the HTTP transport to send through
+     * @param metrics
+     *            the metrics to record exports into
+     * @throws IllegalArgumentException
+     *             if projectId is null or empty
+     */
+    protected JudgmentSpanExporter(String endpoint, String apiKey, String organizationId, String projectId,
+            SegmentSpool spool, HttpTransport transport, TracerMetrics metrics) {
         if (projectId.isEmpty()) {
             throw new IllegalArgumentException("projectId is required for JudgmentSpanExporter");
         }
-        this.delegate = OtlpHttpSpanExporter.builder()
-                .setEndpoint(endpoint)
-                .addHeader("Authorization", "Bearer " + apiKey)
-                .addHeader("X-Organization-Id", organizationId)
-                .addHeader("X-Project-Id", projectId)
-                .build();
+        this.endpoint = URI.create(endpoint);
+        this.headers = new String[] {
+                "Content-Type",
+                "application/x-protobuf",
+                "Authorization",
+                "Bearer " + apiKey,
+                "X-Organization-Id",
+                organizationId,
+                "X-Project-Id",
+                projectId
+        };
+        this.spool = spool;
+        this.transport = Objects.requireNonNull(transport, "transport required");
+        this.metrics = Objects.requireNonNull(metrics, "metrics required");
     }
 
     /**
@@ -64,38 +150,132 @@ public class JudgmentSpanExporter implements SpanExporter {
      */
     @Override
     public CompletableResultCode export(Collection<SpanData> spans) {
-        Logger.info("Exported " + spans.size() + " spans");
-        return delegate.export(spans);
+        if (shutdown.get()) {
+            metrics.recordSpansDropped(SpanDropReason.EXPORTER_SHUTDOWN, spans.size());
+            return CompletableResultCode.ofFailure();
+        }
+        byte[] otlpRequest = OtlpTraceEncoder.encode(spans);
+        if (spool != null && !spool.isEmpty()) {
+            if (spoolBatch(otlpRequest, spans.size())) {
+                return CompletableResultCode.ofSuccess();
+            }
+            metrics.recordSpansDropped(SpanDropReason.EXPORT_FAILED, spans.size());
+            return CompletableResultCode.ofFailure();
+        }
+
+        CompletableResultCode result = new CompletableResultCode();
+        pending.add(result);
+        long start = System.nanoTime();
+        CompletableFuture<HttpResponse<Void>> sent;
+        try {
+            sent = transport.sendAsync(buildRequest(otlpRequest), HttpResponse.BodyHandlers.discarding());
+        } catch (RuntimeException e) {
+            sent = CompletableFuture.failedFuture(e);
+        }
+        sent.whenComplete((response, error) -> {
+            SpoolOutcome outcome = error != null ? SpoolOutcome.RETRY : classify(response.statusCode());
+            metrics.recordExport(spans.size(), otlpRequest.length, System.nanoTime() - start,
+                    outcome == SpoolOutcome.REPLAYED);
+            if (outcome == SpoolOutcome.REPLAYED) {
+                Logger.info("Exported " + spans.size() + " spans");
+                result.succeed();
+            } else {
+                Logger.error("Failed to export " + spans.size() + " spans: "
+                        + (error != null ? error.getMessage() : "HTTP " + response.statusCode()));
+                if (outcome == SpoolOutcome.RETRY && spool != null && spoolBatch(otlpRequest, spans.size())) {
+                    result.succeed();
+                } else {
+                    metrics.recordSpansDropped(SpanDropReason.EXPORT_FAILED, spans.size());
+                    result.fail();
+                }
+            }
+            pending.remove(result);
+        });
+        return result;
+    }
+
+    private HttpRequest buildRequest(byte[] otlpRequest) {
+        return transport.newRequest(endpoint)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(otlpRequest))
+                .headers(headers)
+                .build();
+    }
+
+    private static SpoolOutcome classify(int status) {
+        if (status < 300) {
+            return SpoolOutcome.REPLAYED;
+        }
+        if (status == 429 || status >= 500) {
+            return SpoolOutcome.RETRY;
+        }
+        return SpoolOutcome.DISCARD;
+    }
+
+    private boolean spoolBatch(byte[] otlpRequest, int spanCount) {
+        boolean spooled = spool.append(SpoolRecordType.SPAN_BATCH, otlpRequest);
+        if (spooled) {
+            Logger.info("Spooled " + spanCount + " spans for replay");
+            metrics.recordSpansSpooled(spanCount);
+        }
+        return spooled;
     }
 
     /**
-     * Flushes any pending span exports.
+     * Sends a spooled OTLP protobuf trace request to the Judgment backend.
+     *
+     * @param otlpRequest
+     *            the encoded export request
+     * @return the replay outcome
+     * @throws IOException
+     *             if the request could not be sent
+     * @throws InterruptedException
+     *             if interrupted while sending
+     */
+    public SpoolOutcome replay(byte[] otlpRequest) throws IOException, InterruptedException {
+        int status = transport.send(buildRequest(otlpRequest), HttpResponse.BodyHandlers.discarding())
+                .statusCode();
+        SpoolOutcome outcome = classify(status);
+        if (outcome == SpoolOutcome.REPLAYED) {
+            metrics.recordBytesSent(otlpRequest.length);
+        } else if (outcome == SpoolOutcome.DISCARD) {
+            Logger.error("Discarding spooled span batch rejected with HTTP " + status);
+        }
+        return outcome;
+    }
+
+    /**
+     * Waits for in-flight span exports to complete.
      *
      * @return a CompletableResultCode representing the flush operation status
      */
     @Override
     public CompletableResultCode flush() {
-        return delegate.flush();
+        return CompletableResultCode.ofAll(new ArrayList<>(pending));
     }
 
     /**
-     * Shuts down this exporter and releases any resources.
+     * Shuts down this exporter, rejecting further exports once in-flight
+     * exports complete.
      *
      * @return a CompletableResultCode representing the shutdown operation status
      */
     @Override
     public CompletableResultCode shutdown() {
-        return delegate.shutdown();
+        shutdown.set(true);
+        return flush();
     }
 
     /**
      * Builder for creating JudgmentSpanExporter instances.
      */
     public static final class Builder {
-        private String endpoint;
-        private String apiKey;
-        private String organizationId;
-        private String projectId;
+        private String        endpoint;
+        private String        apiKey;
+        private String        organizationId;
+        private String        projectId;
+        private SegmentSpool  spool;
+        private HttpTransport transport;
+        private TracerMetrics metrics;
 
         private Builder() {
         }
@@ -148,6 +328,43 @@ public class JudgmentSpanExporter implements SpanExporter {
             return this;
         }
 
+        /**
+         * Sets the spool that holds batches which fail to export.
+         *
+         * @param spool
+         *            the spool, or null to disable spooling
+         * @return this builder for method chaining
+         */
+        public Builder spool(SegmentSpool spool) {
+            this.spool = spool;
+            return this;
+        }
+
+        /**
+         * Sets the HTTP transport to send through. Defaults to the shared
+         * default transport.
+         *
+         * @param transport
+         *            the transport
+         * @return this builder for method chaining
+         */
+        public Builder transport(HttpTransport transport) {
+            this.transport = transport;
+            return this;
+        }
+
+        /**
+         * Sets the metrics that exports, failures and drops are recorded into.
+         *
+         * @param metrics
+         *            the metrics
+         * @return this builder for method chaining
+         */
+        public Builder metrics(TracerMetrics metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+
         /**
          * Builds a new JudgmentSpanExporter instance with the configured settings.
          *
@@ -173,7 +390,11 @@ public class JudgmentSpanExporter implements SpanExporter {
                     .filter(id -> !id.isEmpty())
                     .orElseThrow(() -> new IllegalArgumentException("Project ID is required"));
 
-            return new JudgmentSpanExporter(validEndpoint, validApiKey, validOrganizationId, validProjectId);
+            return new JudgmentSpanExporter(validEndpoint, validApiKey, validOrganizationId, validProjectId, spool,
+                    Optional.ofNullable(transport)
+                            .orElseGet(HttpTransport::defaultTransport),
+                    Optional.ofNullable(metrics)
+                            .orElseGet(TracerMetrics::new));
         }
     }
 }
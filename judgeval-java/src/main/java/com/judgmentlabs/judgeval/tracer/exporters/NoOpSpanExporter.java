@@ -1,6 +1,10 @@
 package com.judgmentlabs.judgeval.tracer.exporters;
 
 import java.util.Collection;
+import java.util.Objects;
+
+import com.judgmentlabs.judgeval.tracer.metrics.SpanDropReason;
+import com.judgmentlabs.judgeval.tracer.metrics.TracerMetrics;
 
 import io.opentelemetry.sdk.common.CompletableResultCode;
 import io.opentelemetry.sdk.trace.data.SpanData;
@@ -11,6 +15,26 @@ import io.opentelemetry.sdk.trace.export.SpanExporter;
  * fallback when project resolution fails or when spans should not be exported.
  */
 public class NoOpSpanExporter implements SpanExporter {
+    private final TracerMetrics metrics;
+
+    /**
+     * Creates an exporter that discards spans without recording them.
+     */
+    public NoOpSpanExporter() {
+        this(new TracerMetrics());
+    }
+
+    /**
+     * Creates an exporter that discards spans and records them as dropped
+     * because the project could not be resolved.
+     *
+     * @param metrics
+     *            the metrics to record drops into
+     */
+    public NoOpSpanExporter(TracerMetrics metrics) {
+        this.metrics = Objects.requireNonNull(metrics, "metrics required");
+    }
+
     /**
      * Discards the collection of spans without exporting.
      *
@@ -20,6 +44,7 @@ public class NoOpSpanExporter implements SpanExporter {
      */
     @Override
     public CompletableResultCode export(Collection<SpanData> spans) {
+        metrics.recordSpansDropped(SpanDropReason.PROJECT_UNRESOLVED, spans.size());
         return CompletableResultCode.ofSuccess();
     }
 
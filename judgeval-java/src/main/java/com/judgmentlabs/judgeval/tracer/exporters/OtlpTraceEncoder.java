@@ -0,0 +1,335 @@
+package com.judgmentlabs.judgeval.tracer.exporters;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.TraceState;
+import io.opentelemetry.sdk.common.InstrumentationScopeInfo;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.trace.data.EventData;
+import io.opentelemetry.sdk.trace.data.LinkData;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.data.StatusData;
+
+/**
+ * Encodes spans as an OTLP {@code ExportTraceServiceRequest} in protobuf
+ * binary form.
+ * <p>
+ * The OpenTelemetry SDK only exposes its OTLP marshalers as internal classes,
+ * and the public exporters send the bytes themselves. Span batches here go
+ * through the SDK's own transport and spool, so the request is written
+ * directly from the field numbers of {@code opentelemetry/proto/trace/v1}.
+ * Spans are grouped by resource, then by instrumentation scope, in the order
+ * they first appear.
+ */
+public final class OtlpTraceEncoder {
+    private static final int WIRE_VARINT           = 0;
+    private static final int WIRE_FIXED64          = 1;
+    private static final int WIRE_LENGTH_DELIMITED = 2;
+    private static final int WIRE_FIXED32          = 5;
+
+    private static final int FLAG_HAS_IS_REMOTE    = 0x100;
+    private static final int FLAG_IS_REMOTE        = 0x200;
+
+    private OtlpTraceEncoder() {
+    }
+
+    /**
+     * Encodes spans as an OTLP export request.
+     *
+     * @param spans
+     *            the spans to encode
+     * @return the protobuf-encoded request
+     */
+    public static byte[] encode(Collection<SpanData> spans) {
+        Map<Resource, Map<InstrumentationScopeInfo, List<SpanData>>> grouped = new LinkedHashMap<>();
+        for (SpanData span : spans) {
+            grouped.computeIfAbsent(span.getResource(), resource -> new LinkedHashMap<>())
+                    .computeIfAbsent(span.getInstrumentationScopeInfo(), scope -> new ArrayList<>())
+                    .add(span);
+        }
+        ProtoBuffer request = new ProtoBuffer();
+        grouped.forEach((resource, scopes) -> request.message(1, resourceSpans(resource, scopes)));
+        return request.toByteArray();
+    }
+
+    private static ProtoBuffer resourceSpans(Resource resource,
+            Map<InstrumentationScopeInfo, List<SpanData>> scopes) {
+        ProtoBuffer out = new ProtoBuffer();
+        ProtoBuffer resourceMessage = new ProtoBuffer();
+        attributes(resourceMessage, 1, resource.getAttributes());
+        out.message(1, resourceMessage);
+        scopes.forEach((scope, spans) -> out.message(2, scopeSpans(scope, spans)));
+        out.string(3, resource.getSchemaUrl());
+        return out;
+    }
+
+    private static ProtoBuffer scopeSpans(InstrumentationScopeInfo scope, List<SpanData> spans) {
+        ProtoBuffer out = new ProtoBuffer();
+        ProtoBuffer scopeMessage = new ProtoBuffer();
+        scopeMessage.string(1, scope.getName());
+        scopeMessage.string(2, scope.getVersion());
+        attributes(scopeMessage, 3, scope.getAttributes());
+        out.message(1, scopeMessage);
+        for (SpanData span : spans) {
+            out.message(2, span(span));
+        }
+        out.string(3, scope.getSchemaUrl());
+        return out;
+    }
+
+    private static ProtoBuffer span(SpanData span) {
+        ProtoBuffer out = new ProtoBuffer();
+        SpanContext context = span.getSpanContext();
+        SpanContext parent = span.getParentSpanContext();
+        out.bytes(1, context.getTraceIdBytes());
+        out.bytes(2, context.getSpanIdBytes());
+        out.string(3, traceState(context.getTraceState()));
+        if (parent.isValid()) {
+            out.bytes(4, parent.getSpanIdBytes());
+        }
+        out.string(5, span.getName());
+        out.varint(6, spanKind(span.getKind()));
+        out.fixed64(7, span.getStartEpochNanos());
+        out.fixed64(8, span.getEndEpochNanos());
+        attributes(out, 9, span.getAttributes());
+        out.varint(10, span.getTotalAttributeCount() - span.getAttributes()
+                .size());
+        for (EventData event : span.getEvents()) {
+            out.message(11, event(event));
+        }
+        out.varint(12, span.getTotalRecordedEvents() - span.getEvents()
+                .size());
+        for (LinkData link : span.getLinks()) {
+            out.message(13, link(link));
+        }
+        out.varint(14, span.getTotalRecordedLinks() - span.getLinks()
+                .size());
+        out.message(15, status(span.getStatus()));
+        out.fixed32(16, flags(context, parent.isRemote()));
+        return out;
+    }
+
+    private static ProtoBuffer event(EventData event) {
+        ProtoBuffer out = new ProtoBuffer();
+        out.fixed64(1, event.getEpochNanos());
+        out.string(2, event.getName());
+        attributes(out, 3, event.getAttributes());
+        out.varint(4, event.getTotalAttributeCount() - event.getAttributes()
+                .size());
+        return out;
+    }
+
+    private static ProtoBuffer link(LinkData link) {
+        ProtoBuffer out = new ProtoBuffer();
+        SpanContext context = link.getSpanContext();
+        out.bytes(1, context.getTraceIdBytes());
+        out.bytes(2, context.getSpanIdBytes());
+        out.string(3, traceState(context.getTraceState()));
+        attributes(out, 4, link.getAttributes());
+        out.varint(5, link.getTotalAttributeCount() - link.getAttributes()
+                .size());
+        out.fixed32(6, flags(context, context.isRemote()));
+        return out;
+    }
+
+    private static ProtoBuffer status(StatusData status) {
+        ProtoBuffer out = new ProtoBuffer();
+        out.string(2, status.getDescription());
+        out.varint(3, status.getStatusCode() == StatusCode.OK ? 1
+                : status.getStatusCode() == StatusCode.ERROR ? 2 : 0);
+        return out;
+    }
+
+    private static int flags(SpanContext context, boolean remote) {
+        return (context.getTraceFlags()
+                .asByte() & 0xff) | FLAG_HAS_IS_REMOTE | (remote ? FLAG_IS_REMOTE : 0);
+    }
+
+    private static int spanKind(SpanKind kind) {
+        switch (kind) {
+            case INTERNAL:
+                return 1;
+            case SERVER:
+                return 2;
+            case CLIENT:
+                return 3;
+            case PRODUCER:
+                return 4;
+            case CONSUMER:
+                return 5;
+            default:
+                return 0;
+        }
+    }
+
+    private static String traceState(TraceState traceState) {
+        if (traceState.isEmpty()) {
+            return null;
+        }
+        StringBuilder encoded = new StringBuilder();
+        traceState.forEach((key, value) -> {
+            if (encoded.length() > 0) {
+                encoded.append(',');
+            }
+            encoded.append(key)
+                    .append('=')
+                    .append(value);
+        });
+        return encoded.toString();
+    }
+
+    private static void attributes(ProtoBuffer out, int field, Attributes attributes) {
+        attributes.forEach((key, value) -> {
+            ProtoBuffer keyValue = new ProtoBuffer();
+            keyValue.string(1, key.getKey());
+            keyValue.message(2, anyValue(key, value));
+            out.message(field, keyValue);
+        });
+    }
+
+    private static ProtoBuffer anyValue(AttributeKey<?> key, Object value) {
+        ProtoBuffer out = new ProtoBuffer();
+        switch (key.getType()) {
+            case STRING:
+                out.oneofString(1, (String) value);
+                break;
+            case BOOLEAN:
+                out.oneofVarint(2, (Boolean) value ? 1 : 0);
+                break;
+            case LONG:
+                out.oneofVarint(3, (Long) value);
+                break;
+            case DOUBLE:
+                out.oneofFixed64(4, Double.doubleToRawLongBits((Double) value));
+                break;
+            default:
+                ProtoBuffer array = new ProtoBuffer();
+                for (Object element : (List<?>) value) {
+                    array.message(1, anyValue(elementKey(key), element));
+                }
+                out.message(5, array);
+        }
+        return out;
+    }
+
+    private static AttributeKey<?> elementKey(AttributeKey<?> arrayKey) {
+        switch (arrayKey.getType()) {
+            case STRING_ARRAY:
+                return AttributeKey.stringKey(arrayKey.getKey());
+            case BOOLEAN_ARRAY:
+                return AttributeKey.booleanKey(arrayKey.getKey());
+            case LONG_ARRAY:
+                return AttributeKey.longKey(arrayKey.getKey());
+            default:
+                return AttributeKey.doubleKey(arrayKey.getKey());
+        }
+    }
+
+    /**
+     * A growable protobuf output. Fields holding their default value are
+     * skipped, as proto3 requires, except for members of a oneof.
+     */
+    private static final class ProtoBuffer {
+        private byte[] buffer = new byte[64];
+        private int    count;
+
+        void varint(int field, long value) {
+            if (value != 0) {
+                oneofVarint(field, value);
+            }
+        }
+
+        void oneofVarint(int field, long value) {
+            tag(field, WIRE_VARINT);
+            rawVarint(value);
+        }
+
+        void fixed64(int field, long value) {
+            if (value != 0) {
+                oneofFixed64(field, value);
+            }
+        }
+
+        void oneofFixed64(int field, long value) {
+            tag(field, WIRE_FIXED64);
+            ensure(8);
+            for (int i = 0; i < 8; i++) {
+                buffer[count++] = (byte) (value >>> (8 * i));
+            }
+        }
+
+        void fixed32(int field, int value) {
+            if (value == 0) {
+                return;
+            }
+            tag(field, WIRE_FIXED32);
+            ensure(4);
+            for (int i = 0; i < 4; i++) {
+                buffer[count++] = (byte) (value >>> (8 * i));
+            }
+        }
+
+        void string(int field, String value) {
+            if (value != null && !value.isEmpty()) {
+                oneofString(field, value);
+            }
+        }
+
+        void oneofString(int field, String value) {
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            lengthDelimited(field, utf8, utf8.length);
+        }
+
+        void bytes(int field, byte[] value) {
+            if (value.length > 0) {
+                lengthDelimited(field, value, value.length);
+            }
+        }
+
+        void message(int field, ProtoBuffer message) {
+            lengthDelimited(field, message.buffer, message.count);
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, count);
+        }
+
+        private void lengthDelimited(int field, byte[] value, int length) {
+            tag(field, WIRE_LENGTH_DELIMITED);
+            rawVarint(length);
+            ensure(length);
+            System.arraycopy(value, 0, buffer, count, length);
+            count += length;
+        }
+
+        private void tag(int field, int wireType) {
+            rawVarint((field << 3) | wireType);
+        }
+
+        private void rawVarint(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[count++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[count++] = (byte) value;
+        }
+
+        private void ensure(int extra) {
+            if (count + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(count + extra, buffer.length * 2));
+            }
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.judgmentlabs.judgeval.tracer.exporters;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.judgmentlabs.judgeval.JudgmentAttributeKeys;
+import com.judgmentlabs.judgeval.tracer.metrics.SpanDropReason;
+import com.judgmentlabs.judgeval.tracer.metrics.TracerMetrics;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+/**
+ * SpanExporter that splits each batch by the {@code judgment.project_id}
+ * resource attribute and hands every part to the exporter registered for that
+ * project, so that one span processor can serve many projects.
+ * <p>
+ * Spans of projects with no registered exporter are dropped and recorded as
+ * {@link SpanDropReason#PROJECT_UNRESOLVED}.
+ */
+public final class ProjectRoutingSpanExporter implements SpanExporter {
+    private static final AttributeKey<String> PROJECT_ID = AttributeKey.stringKey(
+            JudgmentAttributeKeys.ResourceKeys.JUDGMENT_PROJECT_ID);
+
+    private final Map<String, SpanExporter>   routes     = new ConcurrentHashMap<>();
+    private final TracerMetrics               metrics;
+
+    /**
+     * Creates an exporter with no routes.
+     *
+     * @param metrics
+     *            the metrics to record unrouted spans into
+     */
+    public ProjectRoutingSpanExporter(TracerMetrics metrics) {
+        this.metrics = Objects.requireNonNull(metrics, "metrics required");
+    }
+
+    /**
+     * Routes spans of the given project to the exporter.
+     *
+     * @param projectId
+     *            the project ID
+     * @param exporter
+     *            the exporter for the project's spans
+     * @throws IllegalStateException
+     *             if the project has a registered exporter already
+     */
+    public void register(String projectId, SpanExporter exporter) {
+        SpanExporter registered = routes.putIfAbsent(Objects.requireNonNull(projectId, "projectId required"),
+                Objects.requireNonNull(exporter, "exporter required"));
+        if (registered != null) {
+            throw new IllegalStateException("Project " + projectId + " already has a registered exporter");
+        }
+    }
+
+    /**
+     * Removes the route of the given project if it still leads to the
+     * exporter.
+     *
+     * @param projectId
+     *            the project ID
+     * @param exporter
+     *            the exporter registered for the project
+     * @return true if the route was removed
+     */
+    public boolean unregister(String projectId, SpanExporter exporter) {
+        return routes.remove(projectId, exporter);
+    }
+
+    /**
+     * Returns the number of projects with a registered exporter.
+     *
+     * @return the route count
+     */
+    public int getRouteCount() {
+        return routes.size();
+    }
+
+    @Override
+    public CompletableResultCode export(Collection<SpanData> spans) {
+        Map<String, List<SpanData>> byProject = new HashMap<>();
+        for (SpanData span : spans) {
+            String projectId = span.getResource()
+                    .getAttribute(PROJECT_ID);
+            byProject.computeIfAbsent(projectId == null ? "" : projectId, id -> new ArrayList<>())
+                    .add(span);
+        }
+        List<CompletableResultCode> results = new ArrayList<>(byProject.size());
+        byProject.forEach((projectId, projectSpans) -> {
+            SpanExporter exporter = routes.get(projectId);
+            if (exporter == null) {
+                metrics.recordSpansDropped(SpanDropReason.PROJECT_UNRESOLVED, projectSpans.size());
+                return;
+            }
+            results.add(exporter.export(projectSpans));
+        });
+        return CompletableResultCode.ofAll(results);
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+        List<CompletableResultCode> results = new ArrayList<>();
+        routes.values()
+                .forEach(exporter -> results.add(exporter.flush()));
+        return CompletableResultCode.ofAll(results);
+    }
+
+    /**
+     * Shuts down every registered exporter and removes all routes.
+     *
+     * @return a CompletableResultCode representing the shutdown operation status
+     */
+    @Override
+    public CompletableResultCode shutdown() {
+        List<CompletableResultCode> results = new ArrayList<>();
+        routes.values()
+                .forEach(exporter -> results.add(exporter.shutdown()));
+        routes.clear();
+        return CompletableResultCode.ofAll(results);
+    }
+}
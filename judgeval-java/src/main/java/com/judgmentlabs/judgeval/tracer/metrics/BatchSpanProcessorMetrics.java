@@ -0,0 +1,106 @@
+package com.judgmentlabs.judgeval.tracer.metrics;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.metrics.MeterProvider;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.metrics.InstrumentType;
+import io.opentelemetry.sdk.metrics.SdkMeterProvider;
+import io.opentelemetry.sdk.metrics.data.AggregationTemporality;
+import io.opentelemetry.sdk.metrics.data.LongPointData;
+import io.opentelemetry.sdk.metrics.data.MetricData;
+import io.opentelemetry.sdk.metrics.export.CollectionRegistration;
+import io.opentelemetry.sdk.metrics.export.MetricReader;
+
+/**
+ * Reads the queue size and drop count that the OpenTelemetry
+ * {@code BatchSpanProcessor} reports through its meter provider. Pass
+ * {@link #meterProvider()} to {@code BatchSpanProcessorBuilder.setMeterProvider}
+ * and read the values on demand; nothing is collected in the background.
+ */
+public final class BatchSpanProcessorMetrics {
+    private static final String                QUEUE_SIZE      = "queueSize";
+    private static final String                PROCESSED_SPANS = "processedSpans";
+    private static final AttributeKey<Boolean> DROPPED         = AttributeKey.booleanKey("dropped");
+
+    private final PullReader                   reader          = new PullReader();
+    private final SdkMeterProvider             meterProvider   = SdkMeterProvider.builder()
+            .registerMetricReader(reader)
+            .build();
+
+    /**
+     * Returns the meter provider the processor should report to.
+     *
+     * @return the meter provider
+     */
+    public MeterProvider meterProvider() {
+        return meterProvider;
+    }
+
+    /**
+     * Returns the number of spans currently queued in the processor.
+     *
+     * @return the queued span count
+     */
+    public long getQueuedSpans() {
+        long queued = 0;
+        for (MetricData metric : reader.collect()) {
+            if (QUEUE_SIZE.equals(metric.getName())) {
+                for (LongPointData point : metric.getLongGaugeData()
+                        .getPoints()) {
+                    queued += point.getValue();
+                }
+            }
+        }
+        return queued;
+    }
+
+    /**
+     * Returns the number of spans the processor dropped because its queue was
+     * full.
+     *
+     * @return the dropped span count
+     */
+    public long getDroppedSpans() {
+        long dropped = 0;
+        for (MetricData metric : reader.collect()) {
+            if (PROCESSED_SPANS.equals(metric.getName())) {
+                for (LongPointData point : metric.getLongSumData()
+                        .getPoints()) {
+                    if (Boolean.TRUE.equals(point.getAttributes()
+                            .get(DROPPED))) {
+                        dropped += point.getValue();
+                    }
+                }
+            }
+        }
+        return dropped;
+    }
+
+    private static final class PullReader implements MetricReader {
+        private volatile CollectionRegistration registration = CollectionRegistration.noop();
+
+        @Override
+        public void register(CollectionRegistration registration) {
+            this.registration = registration;
+        }
+
+        Iterable<MetricData> collect() {
+            return registration.collectAllMetrics();
+        }
+
+        @Override
+        public AggregationTemporality getAggregationTemporality(InstrumentType instrumentType) {
+            return AggregationTemporality.CUMULATIVE;
+        }
+
+        @Override
+        public CompletableResultCode forceFlush() {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+            return CompletableResultCode.ofSuccess();
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.judgmentlabs.judgeval.tracer.metrics;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free latency histogram with power-of-two microsecond buckets. Bucket
+ * {@code i} counts latencies below {@code 2^i} microseconds that did not fit
+ * the bucket before it; the last bucket also takes everything above it.
+ */
+public final class LatencyHistogram {
+    static final int              BUCKETS = 32;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder       count   = new LongAdder();
+    private final LongAdder       sum     = new LongAdder();
+    private final LongAccumulator max     = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Records one latency.
+     *
+     * @param nanos
+     *            the latency in nanoseconds; negative values count as zero
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        buckets.incrementAndGet(bucketOf(value));
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    static int bucketOf(long nanos) {
+        long micros = nanos / 1000;
+        return Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+    }
+
+    /**
+     * Returns the upper bound of a bucket.
+     *
+     * @param bucket
+     *            the bucket index
+     * @return the exclusive upper bound in nanoseconds
+     */
+    static long upperBoundNanos(int bucket) {
+        return (1L << bucket) * 1000;
+    }
+
+    /**
+     * Returns the current contents of the histogram. Latencies recorded while
+     * the snapshot is taken may be partly included.
+     *
+     * @return the snapshot
+     */
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+        }
+        return new Snapshot(counts, count.sum(), sum.sum(), max.get());
+    }
+
+    /**
+     * An immutable view of a {@link LatencyHistogram}.
+     */
+    public static final class Snapshot {
+        private final long[] bucketCounts;
+        private final long   count;
+        private final long   sumNanos;
+        private final long   maxNanos;
+
+        private Snapshot(long[] bucketCounts, long count, long sumNanos, long maxNanos) {
+            this.bucketCounts = bucketCounts;
+            this.count = count;
+            this.sumNanos = sumNanos;
+            this.maxNanos = maxNanos;
+        }
+
+        /**
+         * Returns the number of recorded latencies.
+         *
+         * @return the count
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * Returns the sum of all recorded latencies.
+         *
+         * @return the total
+         */
+        public Duration getTotal() {
+            return Duration.ofNanos(sumNanos);
+        }
+
+        /**
+         * Returns the largest recorded latency.
+         *
+         * @return the maximum, or zero if nothing was recorded
+         */
+        public Duration getMax() {
+            return Duration.ofNanos(maxNanos);
+        }
+
+        /**
+         * Returns the mean recorded latency.
+         *
+         * @return the mean, or zero if nothing was recorded
+         */
+        public Duration getMean() {
+            return count == 0 ? Duration.ZERO : Duration.ofNanos(sumNanos / count);
+        }
+
+        /**
+         * Returns an upper estimate of the latency below which the given
+         * fraction of recordings fall, accurate to the bucket width.
+         *
+         * @param quantile
+         *            the quantile, between 0 and 1
+         * @return the latency, or zero if nothing was recorded
+         * @throws IllegalArgumentException
+         *             if the quantile is outside [0, 1]
+         */
+        public Duration getPercentile(double quantile) {
+            if (quantile < 0 || quantile > 1) {
+                throw new IllegalArgumentException("quantile must be between 0 and 1, got: " + quantile);
+            }
+            long total = 0;
+            for (long bucketCount : bucketCounts) {
+                total += bucketCount;
+            }
+            if (total == 0) {
+                return Duration.ZERO;
+            }
+            long rank = Math.max(1, (long) Math.ceil(quantile * total));
+            long seen = 0;
+            for (int i = 0; i < bucketCounts.length; i++) {
+                seen += bucketCounts[i];
+                if (seen >= rank) {
+                    return Duration.ofNanos(Math.min(upperBoundNanos(i), maxNanos));
+                }
+            }
+            return Duration.ofNanos(maxNanos);
+        }
+
+        /**
+         * Returns the number of recordings in each bucket. Bucket {@code i}
+         * holds latencies below {@code 2^i} microseconds.
+         *
+         * @return a copy of the bucket counts
+         */
+        public long[] getBucketCounts() {
+            return bucketCounts.clone();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.judgmentlabs.judgeval.tracer.metrics;
+
+/**
+ * Why a finished span never reached the Judgment backend.
+ */
+public enum SpanDropReason {
+    /**
+     * The span processor's queue was full, or the processor was shut down,
+     * when the span ended.
+     */
+    QUEUE_FULL,
+
+    /**
+     * The tracer's project could not be resolved, so spans went to a no-op
+     * exporter.
+     */
+    PROJECT_UNRESOLVED,
+
+    /**
+     * The batch could not be encoded or was rejected by the backend, and was
+     * not spooled for replay.
+     */
+    EXPORT_FAILED,
+
+    /**
+     * The batch reached the exporter after it was shut down.
+     */
+    EXPORTER_SHUTDOWN
+}
@@ -0,0 +1,344 @@
+package com.judgmentlabs.judgeval.tracer.metrics;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Counters and latency histograms for a tracer's export pipeline and
+ * evaluation queue.
+ * <p>
+ * The tracer and its exporters record into this object as they run; callers
+ * read a consistent-enough view with {@link #snapshot()}. Recording only
+ * touches striped counters, so it is safe and cheap on hot paths. Queue sizes
+ * and processor drop counts are read from the components that own them when
+ * the snapshot is taken.
+ */
+public final class TracerMetrics {
+    private static final LongSupplier            ZERO                     = () -> 0;
+
+    private final Map<SpanDropReason, LongAdder> spansDropped             = new EnumMap<>(SpanDropReason.class);
+    private final LongAdder                      spansExported            = new LongAdder();
+    private final LongAdder                      spansSpooled             = new LongAdder();
+    private final LongAdder                      exportFailures           = new LongAdder();
+    private final LongAdder                      bytesSent                = new LongAdder();
+    private final LatencyHistogram               exportLatency            = new LatencyHistogram();
+    private final LongAdder                      evaluationsEnqueued      = new LongAdder();
+    private final LongAdder                      evaluationsSubmitted     = new LongAdder();
+    private final LongAdder                      evaluationFailures       = new LongAdder();
+    private final LatencyHistogram               evaluationEnqueueLatency = new LatencyHistogram();
+    private volatile LongSupplier                queuedSpans              = ZERO;
+    private volatile LongSupplier                processorDroppedSpans    = ZERO;
+    private volatile LongSupplier                queuedEvaluations        = ZERO;
+    private volatile LongSupplier                droppedEvaluations       = ZERO;
+
+    public TracerMetrics() {
+        for (SpanDropReason reason : SpanDropReason.values()) {
+            spansDropped.put(reason, new LongAdder());
+        }
+    }
+
+    /**
+     * Sets where the span processor's queue size and queue-full drop count
+     * are read from.
+     *
+     * @param queued
+     *            supplies the number of queued spans
+     * @param dropped
+     *            supplies the number of spans dropped by the processor
+     */
+    public void bindSpanQueue(LongSupplier queued, LongSupplier dropped) {
+        this.queuedSpans = Objects.requireNonNull(queued, "queued required");
+        this.processorDroppedSpans = Objects.requireNonNull(dropped, "dropped required");
+    }
+
+    /**
+     * Sets where the evaluation queue's size and drop count are read from.
+     *
+     * @param queued
+     *            supplies the number of queued evaluation runs
+     * @param dropped
+     *            supplies the number of evaluation runs dropped by the queue
+     */
+    public void bindEvaluationQueue(LongSupplier queued, LongSupplier dropped) {
+        this.queuedEvaluations = Objects.requireNonNull(queued, "queued required");
+        this.droppedEvaluations = Objects.requireNonNull(dropped, "dropped required");
+    }
+
+    /**
+     * Records spans dropped before reaching the backend.
+     *
+     * @param reason
+     *            why the spans were dropped
+     * @param count
+     *            the number of spans
+     */
+    public void recordSpansDropped(SpanDropReason reason, long count) {
+        spansDropped.get(reason)
+                .add(count);
+    }
+
+    /**
+     * Records spans written to the spool for later replay.
+     *
+     * @param count
+     *            the number of spans
+     */
+    public void recordSpansSpooled(long count) {
+        spansSpooled.add(count);
+    }
+
+    /**
+     * Records one export request to the backend.
+     *
+     * @param spans
+     *            the number of spans in the request
+     * @param bytes
+     *            the encoded request size
+     * @param latencyNanos
+     *            the time from sending the request to its completion
+     * @param success
+     *            whether the backend accepted the request
+     */
+    public void recordExport(int spans, long bytes, long latencyNanos, boolean success) {
+        exportLatency.record(latencyNanos);
+        if (success) {
+            spansExported.add(spans);
+            bytesSent.add(bytes);
+        } else {
+            exportFailures.increment();
+        }
+    }
+
+    /**
+     * Records bytes sent to the backend outside a regular export, such as a
+     * replayed spool record.
+     *
+     * @param bytes
+     *            the number of bytes
+     */
+    public void recordBytesSent(long bytes) {
+        bytesSent.add(bytes);
+    }
+
+    /**
+     * Records one attempt to enqueue an evaluation run.
+     *
+     * @param latencyNanos
+     *            the time spent enqueueing
+     * @param accepted
+     *            whether the queue accepted the run
+     */
+    public void recordEvaluationEnqueue(long latencyNanos, boolean accepted) {
+        evaluationEnqueueLatency.record(latencyNanos);
+        if (accepted) {
+            evaluationsEnqueued.increment();
+        }
+    }
+
+    /**
+     * Records an evaluation submission accepted by the backend.
+     */
+    public void recordEvaluationSubmitted() {
+        evaluationsSubmitted.increment();
+    }
+
+    /**
+     * Records an evaluation submission the backend did not accept.
+     */
+    public void recordEvaluationFailure() {
+        evaluationFailures.increment();
+    }
+
+    /**
+     * Returns the current values of all metrics.
+     *
+     * @return the snapshot
+     */
+    public Snapshot snapshot() {
+        Map<SpanDropReason, Long> dropped = new EnumMap<>(SpanDropReason.class);
+        spansDropped.forEach((reason, adder) -> dropped.put(reason, adder.sum()));
+        dropped.merge(SpanDropReason.QUEUE_FULL, processorDroppedSpans.getAsLong(), Long::sum);
+        return new Snapshot(this, dropped);
+    }
+
+    /**
+     * An immutable view of {@link TracerMetrics} at one point in time.
+     */
+    public static final class Snapshot {
+        private final long                      queuedSpans;
+        private final Map<SpanDropReason, Long> spansDropped;
+        private final long                      spansExported;
+        private final long                      spansSpooled;
+        private final long                      exportFailures;
+        private final long                      bytesSent;
+        private final LatencyHistogram.Snapshot exportLatency;
+        private final long                      queuedEvaluations;
+        private final long                      evaluationsEnqueued;
+        private final long                      evaluationsDropped;
+        private final long                      evaluationsSubmitted;
+        private final long                      evaluationFailures;
+        private final LatencyHistogram.Snapshot evaluationEnqueueLatency;
+
+        private Snapshot(TracerMetrics metrics, Map<SpanDropReason, Long> spansDropped) {
+            this.queuedSpans = metrics.queuedSpans.getAsLong();
+            this.spansDropped = Collections.unmodifiableMap(spansDropped);
+            this.spansExported = metrics.spansExported.sum();
+            this.spansSpooled = metrics.spansSpooled.sum();
+            this.exportFailures = metrics.exportFailures.sum();
+            this.bytesSent = metrics.bytesSent.sum();
+            this.exportLatency = metrics.exportLatency.snapshot();
+            this.queuedEvaluations = metrics.queuedEvaluations.getAsLong();
+            this.evaluationsEnqueued = metrics.evaluationsEnqueued.sum();
+            this.evaluationsDropped = metrics.droppedEvaluations.getAsLong();
+            this.evaluationsSubmitted = metrics.evaluationsSubmitted.sum();
+            this.evaluationFailures = metrics.evaluationFailures.sum();
+            this.evaluationEnqueueLatency = metrics.evaluationEnqueueLatency.snapshot();
+        }
+
+        /**
+         * Returns the number of ended spans waiting in the span processor.
+         *
+         * @return the queued span count
+         */
+        public long getQueuedSpans() {
+            return queuedSpans;
+        }
+
+        /**
+         * Returns the number of spans dropped for the given reason.
+         *
+         * @param reason
+         *            the drop reason
+         * @return the dropped span count
+         */
+        public long getSpansDropped(SpanDropReason reason) {
+            return spansDropped.get(reason);
+        }
+
+        /**
+         * Returns the number of spans dropped for each reason.
+         *
+         * @return the dropped span counts by reason
+         */
+        public Map<SpanDropReason, Long> getSpansDroppedByReason() {
+            return spansDropped;
+        }
+
+        /**
+         * Returns the number of spans dropped for any reason.
+         *
+         * @return the dropped span count
+         */
+        public long getSpansDropped() {
+            return spansDropped.values()
+                    .stream()
+                    .mapToLong(Long::longValue)
+                    .sum();
+        }
+
+        /**
+         * Returns the number of spans accepted by the backend.
+         *
+         * @return the exported span count
+         */
+        public long getSpansExported() {
+            return spansExported;
+        }
+
+        /**
+         * Returns the number of spans written to the spool for replay.
+         *
+         * @return the spooled span count
+         */
+        public long getSpansSpooled() {
+            return spansSpooled;
+        }
+
+        /**
+         * Returns the number of export requests the backend did not accept.
+         *
+         * @return the failed export count
+         */
+        public long getExportFailures() {
+            return exportFailures;
+        }
+
+        /**
+         * Returns the number of encoded bytes accepted by the backend.
+         *
+         * @return the byte count
+         */
+        public long getBytesSent() {
+            return bytesSent;
+        }
+
+        /**
+         * Returns the latency of export requests to the backend.
+         *
+         * @return the export latency histogram
+         */
+        public LatencyHistogram.Snapshot getExportLatency() {
+            return exportLatency;
+        }
+
+        /**
+         * Returns the number of evaluation runs waiting to be submitted.
+         *
+         * @return the queued evaluation count
+         */
+        public long getQueuedEvaluations() {
+            return queuedEvaluations;
+        }
+
+        /**
+         * Returns the number of evaluation runs accepted by the queue.
+         *
+         * @return the enqueued evaluation count
+         */
+        public long getEvaluationsEnqueued() {
+            return evaluationsEnqueued;
+        }
+
+        /**
+         * Returns the number of evaluation runs dropped by the queue.
+         *
+         * @return the dropped evaluation count
+         */
+        public long getEvaluationsDropped() {
+            return evaluationsDropped;
+        }
+
+        /**
+         * Returns the number of evaluation submissions accepted by the
+         * backend. Runs coalesced into one submission count once.
+         *
+         * @return the submitted evaluation count
+         */
+        public long getEvaluationsSubmitted() {
+            return evaluationsSubmitted;
+        }
+
+        /**
+         * Returns the number of evaluation submissions the backend did not
+         * accept, including those spooled for replay.
+         *
+         * @return the failed evaluation count
+         */
+        public long getEvaluationFailures() {
+            return evaluationFailures;
+        }
+
+        /**
+         * Returns how long callers spent enqueueing evaluation runs.
+         *
+         * @return the enqueue latency histogram
+         */
+        public LatencyHistogram.Snapshot getEvaluationEnqueueLatency() {
+            return evaluationEnqueueLatency;
+        }
+    }
+}
@@ -0,0 +1,375 @@
+package com.judgmentlabs.judgeval.tracer.processors;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import com.judgmentlabs.judgeval.utils.Logger;
+
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+/**
+ * A span processor for services that end spans on many threads at high rates.
+ * <p>
+ * Ended spans go into one of several lock-free ring buffers, picked by the
+ * ending thread, so producers on different threads rarely touch the same
+ * memory and never take a lock. A single worker drains the shards in turn
+ * and exports batches of up to the maximum batch size, when a batch fills or
+ * the schedule delay elapses. Spans that arrive while their shard is full are
+ * dropped and counted in {@link #getDroppedSpans()}.
+ * <p>
+ * Behaves like {@code BatchSpanProcessor} otherwise: only sampled spans are
+ * exported, and {@link #forceFlush()} exports everything queued before it
+ * was called.
+ */
+public final class ShardedSpanProcessor implements SpanProcessor {
+    public static final int                    DEFAULT_MAX_QUEUE_SIZE        = 2048;
+    public static final int                    DEFAULT_MAX_EXPORT_BATCH_SIZE = 512;
+    public static final Duration               DEFAULT_SCHEDULE_DELAY        = Duration.ofSeconds(5);
+    public static final Duration               DEFAULT_EXPORTER_TIMEOUT      = Duration.ofSeconds(30);
+
+    private final SpanExporter                 exporter;
+    private final SpanRing[]                   shards;
+    private final int                          maxExportBatchSize;
+    private final int                          wakeThreshold;
+    private final long                         scheduleDelayNanos;
+    private final long                         exporterTimeoutMillis;
+    private final Queue<CompletableResultCode> flushRequests                 = new ConcurrentLinkedQueue<>();
+    private final LongAdder                    droppedSpans                  = new LongAdder();
+    private final LongAdder                    exportedSpans                 = new LongAdder();
+    private final AtomicBoolean                shutdown                      = new AtomicBoolean();
+    private final Thread                       worker;
+    private volatile boolean                   running                       = true;
+    private volatile boolean                   sleeping;
+    private int                                nextShard;
+
+    private ShardedSpanProcessor(Builder builder) {
+        if (builder.maxQueueSize <= 0) {
+            throw new IllegalArgumentException("maxQueueSize must be positive, got: " + builder.maxQueueSize);
+        }
+        if (builder.maxExportBatchSize <= 0) {
+            throw new IllegalArgumentException(
+                    "maxExportBatchSize must be positive, got: " + builder.maxExportBatchSize);
+        }
+        if (builder.shards <= 0) {
+            throw new IllegalArgumentException("shards must be positive, got: " + builder.shards);
+        }
+        this.exporter = Objects.requireNonNull(builder.exporter, "exporter required");
+        // Every shard holds at least one span, so a queue smaller than the
+        // shard count gets fewer shards; the remainder goes to the first ones.
+        this.shards = new SpanRing[Math.min(builder.shards, builder.maxQueueSize)];
+        int shardCapacity = builder.maxQueueSize / shards.length;
+        int remainder = builder.maxQueueSize % shards.length;
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new SpanRing(i < remainder ? shardCapacity + 1 : shardCapacity);
+        }
+        this.maxExportBatchSize = builder.maxExportBatchSize;
+        this.wakeThreshold = Math.max(1, Math.min(shardCapacity, builder.maxExportBatchSize / shards.length));
+        this.scheduleDelayNanos = Objects.requireNonNull(builder.scheduleDelay, "scheduleDelay required")
+                .toNanos();
+        this.exporterTimeoutMillis = Objects.requireNonNull(builder.exporterTimeout, "exporterTimeout required")
+                .toMillis();
+        this.worker = new Thread(this::run, "judgeval-span-processor");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Creates a builder for a processor exporting to the given exporter.
+     *
+     * @param exporter
+     *            the span exporter
+     * @return a new builder
+     */
+    public static Builder builder(SpanExporter exporter) {
+        return new Builder(exporter);
+    }
+
+    @Override
+    public void onStart(Context parentContext, ReadWriteSpan span) {
+    }
+
+    @Override
+    public boolean isStartRequired() {
+        return false;
+    }
+
+    @Override
+    public void onEnd(ReadableSpan span) {
+        if (!span.getSpanContext()
+                .isSampled()) {
+            return;
+        }
+        SpanRing shard = shards[(Thread.currentThread()
+                .hashCode() & Integer.MAX_VALUE) % shards.length];
+        if (!running || !shard.offer(span)) {
+            droppedSpans.increment();
+            return;
+        }
+        if (sleeping && shard.size() >= wakeThreshold) {
+            sleeping = false;
+            LockSupport.unpark(worker);
+        }
+    }
+
+    @Override
+    public boolean isEndRequired() {
+        return true;
+    }
+
+    /**
+     * Returns the number of spans dropped because their shard was full or the
+     * processor was shut down.
+     *
+     * @return the dropped span count
+     */
+    public long getDroppedSpans() {
+        return droppedSpans.sum();
+    }
+
+    /**
+     * Returns the number of spans handed to the exporter.
+     *
+     * @return the exported span count
+     */
+    public long getExportedSpans() {
+        return exportedSpans.sum();
+    }
+
+    /**
+     * Returns the number of spans waiting to be exported.
+     *
+     * @return the queued span count
+     */
+    public int getQueuedSpans() {
+        int queued = 0;
+        for (SpanRing shard : shards) {
+            queued += shard.size();
+        }
+        return queued;
+    }
+
+    @Override
+    public CompletableResultCode forceFlush() {
+        CompletableResultCode result = new CompletableResultCode();
+        flushRequests.add(result);
+        LockSupport.unpark(worker);
+        if (!running) {
+            // Once shut down nothing is queued, and the worker may already
+            // have stopped taking requests.
+            result.succeed();
+        }
+        return result;
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        if (!shutdown.compareAndSet(false, true)) {
+            return CompletableResultCode.ofSuccess();
+        }
+        CompletableResultCode result = new CompletableResultCode();
+        forceFlush().whenComplete(() -> {
+            running = false;
+            LockSupport.unpark(worker);
+            exporter.shutdown()
+                    .whenComplete(result::succeed);
+        });
+        return result;
+    }
+
+    private void run() {
+        List<SpanData> batch = new ArrayList<>(maxExportBatchSize);
+        long nextExport = System.nanoTime() + scheduleDelayNanos;
+        while (running) {
+            List<CompletableResultCode> flushes = takeFlushRequests();
+            if (!flushes.isEmpty()) {
+                while (drain(batch) > 0) {
+                    batch = export(batch);
+                }
+                CompletableResultCode flushed = exporter.flush();
+                flushed.join(exporterTimeoutMillis, TimeUnit.MILLISECONDS);
+                flushes.forEach(flushed.isSuccess() ? CompletableResultCode::succeed : CompletableResultCode::fail);
+                nextExport = System.nanoTime() + scheduleDelayNanos;
+                continue;
+            }
+            drain(batch);
+            long now = System.nanoTime();
+            if (batch.size() >= maxExportBatchSize || !batch.isEmpty() && now - nextExport >= 0) {
+                batch = export(batch);
+                nextExport = now + scheduleDelayNanos;
+            } else if (batch.isEmpty() && now - nextExport >= 0) {
+                nextExport = now + scheduleDelayNanos;
+            } else {
+                // Producers only wake a sleeping worker, so check once more
+                // after announcing the sleep to avoid missing a full shard.
+                sleeping = true;
+                if (flushRequests.isEmpty() && !anyShardReady()) {
+                    LockSupport.parkNanos(this, nextExport - now);
+                }
+                sleeping = false;
+            }
+        }
+        takeFlushRequests().forEach(CompletableResultCode::succeed);
+    }
+
+    private boolean anyShardReady() {
+        for (SpanRing shard : shards) {
+            if (shard.size() >= wakeThreshold) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private List<CompletableResultCode> takeFlushRequests() {
+        List<CompletableResultCode> requests = new ArrayList<>();
+        for (CompletableResultCode request; (request = flushRequests.poll()) != null;) {
+            requests.add(request);
+        }
+        return requests;
+    }
+
+    /**
+     * Moves queued spans into the batch, visiting the shards in turn, until
+     * the batch is full or every shard is empty.
+     *
+     * @return the batch size
+     */
+    private int drain(List<SpanData> batch) {
+        int empty = 0;
+        while (batch.size() < maxExportBatchSize && empty < shards.length) {
+            ReadableSpan span = shards[nextShard].poll();
+            nextShard = (nextShard + 1) % shards.length;
+            if (span == null) {
+                empty++;
+            } else {
+                empty = 0;
+                batch.add(span.toSpanData());
+            }
+        }
+        return batch.size();
+    }
+
+    private List<SpanData> export(List<SpanData> batch) {
+        try {
+            CompletableResultCode result = exporter.export(batch);
+            result.join(exporterTimeoutMillis, TimeUnit.MILLISECONDS);
+            if (result.isSuccess()) {
+                exportedSpans.add(batch.size());
+            } else {
+                Logger.error("Failed to export " + batch.size() + " spans");
+            }
+        } catch (RuntimeException e) {
+            Logger.error("Failed to export " + batch.size() + " spans: " + e.getMessage());
+        }
+        // The exporter may still hold the batch, so the next one gets a new list.
+        return new ArrayList<>(maxExportBatchSize);
+    }
+
+    /**
+     * Builder for {@link ShardedSpanProcessor}.
+     */
+    public static final class Builder {
+        private final SpanExporter exporter;
+        private int                maxQueueSize       = DEFAULT_MAX_QUEUE_SIZE;
+        private int                maxExportBatchSize = DEFAULT_MAX_EXPORT_BATCH_SIZE;
+        private Duration           scheduleDelay      = DEFAULT_SCHEDULE_DELAY;
+        private Duration           exporterTimeout    = DEFAULT_EXPORTER_TIMEOUT;
+        private int                shards             = Runtime.getRuntime()
+                .availableProcessors();
+
+        private Builder(SpanExporter exporter) {
+            this.exporter = exporter;
+        }
+
+        /**
+         * Sets the total number of spans queued across all shards. Defaults
+         * to {@value ShardedSpanProcessor#DEFAULT_MAX_QUEUE_SIZE}.
+         *
+         * @param maxQueueSize
+         *            the queue size
+         * @return this builder
+         */
+        public Builder maxQueueSize(int maxQueueSize) {
+            this.maxQueueSize = maxQueueSize;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of spans exported in one batch. Defaults to
+         * {@value ShardedSpanProcessor#DEFAULT_MAX_EXPORT_BATCH_SIZE}.
+         *
+         * @param maxExportBatchSize
+         *            the batch size
+         * @return this builder
+         */
+        public Builder maxExportBatchSize(int maxExportBatchSize) {
+            this.maxExportBatchSize = maxExportBatchSize;
+            return this;
+        }
+
+        /**
+         * Sets how long spans may wait for a batch to fill before being
+         * exported. Defaults to 5 seconds.
+         *
+         * @param scheduleDelay
+         *            the schedule delay
+         * @return this builder
+         */
+        public Builder scheduleDelay(Duration scheduleDelay) {
+            this.scheduleDelay = scheduleDelay;
+            return this;
+        }
+
+        /**
+         * Sets how long to wait for one export to complete. Defaults to 30
+         * seconds.
+         *
+         * @param exporterTimeout
+         *            the export timeout
+         * @return this builder
+         */
+        public Builder exporterTimeout(Duration exporterTimeout) {
+            this.exporterTimeout = exporterTimeout;
+            return this;
+        }
+
+        /**
+         * Sets the number of queue shards. Defaults to the number of
+         * available processors. The queue size is split between the shards,
+         * so a queue smaller than the shard count gets fewer shards.
+         *
+         * @param shards
+         *            the shard count
+         * @return this builder
+         */
+        public Builder shards(int shards) {
+            this.shards = shards;
+            return this;
+        }
+
+        /**
+         * Builds the processor and starts its export worker.
+         *
+         * @return the processor
+         * @throws IllegalArgumentException
+         *             if a size is not positive
+         */
+        public ShardedSpanProcessor build() {
+            return new ShardedSpanProcessor(this);
+        }
+    }
+}
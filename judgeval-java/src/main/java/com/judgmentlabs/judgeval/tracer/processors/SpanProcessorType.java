@@ -0,0 +1,18 @@
+package com.judgmentlabs.judgeval.tracer.processors;
+
+/**
+ * The span processor a tracer queues ended spans in before export.
+ */
+public enum SpanProcessorType {
+    /**
+     * The OpenTelemetry {@code BatchSpanProcessor}, with a single bounded
+     * queue shared by all threads.
+     */
+    BATCH,
+
+    /**
+     * A {@link ShardedSpanProcessor}, with one lock-free queue per shard, for
+     * services ending spans on many threads at high rates.
+     */
+    SHARDED
+}
@@ -0,0 +1,93 @@
+package com.judgmentlabs.judgeval.tracer.processors;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import io.opentelemetry.sdk.trace.ReadableSpan;
+
+/**
+ * A bounded lock-free ring buffer with many producers and one consumer. Each
+ * slot carries a sequence number: a producer claims a position by advancing
+ * the tail, writes the span, then publishes it by bumping the slot's sequence,
+ * so producers never block each other or the consumer. The slot array is
+ * rounded up to a power of two for cheap indexing, but no more than the
+ * requested capacity is ever held.
+ */
+final class SpanRing {
+    private final AtomicReferenceArray<ReadableSpan> slots;
+    private final AtomicLongArray                    sequences;
+    private final int                                mask;
+    private final int                                capacity;
+    private final AtomicLong                         tail = new AtomicLong();
+    private volatile long                            head;
+
+    SpanRing(int capacity) {
+        int size = Math.max(2, Integer.highestOneBit(Math.max(1, capacity - 1)) << 1);
+        this.slots = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+        this.capacity = capacity;
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Adds a span unless the ring is full. Safe to call from any thread.
+     *
+     * @param span
+     *            the ended span
+     * @return false if the ring was full
+     */
+    boolean offer(ReadableSpan span) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                // A stale head only understates the free space.
+                if (position - head >= capacity) {
+                    return false;
+                }
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots.lazySet(index, span);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Removes the oldest published span. Only the consumer thread may call
+     * this.
+     *
+     * @return the span, or null if none is published
+     */
+    ReadableSpan poll() {
+        long position = head;
+        int index = (int) (position & mask);
+        if (sequences.get(index) != position + 1) {
+            return null;
+        }
+        ReadableSpan span = slots.get(index);
+        slots.lazySet(index, null);
+        sequences.set(index, position + mask + 1);
+        head = position + 1;
+        return span;
+    }
+
+    int size() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+}
@@ -0,0 +1,101 @@
+package com.judgmentlabs.judgeval.tracer.sampling;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.trace.data.LinkData;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import io.opentelemetry.sdk.trace.samplers.SamplingDecision;
+import io.opentelemetry.sdk.trace.samplers.SamplingResult;
+
+/**
+ * A sampler that samples at most a fixed number of traces per second, with
+ * bursts of up to one second's worth. Decisions are made without locking,
+ * using a generic cell rate algorithm over a single atomic timestamp.
+ * <p>
+ * Spans the delegate sampler drops are dropped without using up the rate.
+ * Wrap this sampler in {@link Sampler#parentBased(Sampler)} so it only
+ * decides for root spans.
+ */
+public final class RateLimitingSampler implements Sampler {
+    private final double     maxPerSecond;
+    private final Sampler    delegate;
+    private final long       intervalNanos;
+    private final long       burstNanos;
+    private final AtomicLong theoreticalArrival;
+
+    /**
+     * Creates a sampler that samples up to the given number of traces per
+     * second.
+     *
+     * @param maxPerSecond
+     *            the maximum sampled traces per second
+     * @throws IllegalArgumentException
+     *             if maxPerSecond is not positive
+     */
+    public RateLimitingSampler(double maxPerSecond) {
+        this(maxPerSecond, Sampler.alwaysOn());
+    }
+
+    /**
+     * Creates a sampler that samples up to the given number of the traces
+     * sampled by the delegate per second.
+     *
+     * @param maxPerSecond
+     *            the maximum sampled traces per second
+     * @param delegate
+     *            the sampler deciding first
+     * @throws IllegalArgumentException
+     *             if maxPerSecond is not positive
+     */
+    public RateLimitingSampler(double maxPerSecond, Sampler delegate) {
+        if (!(maxPerSecond > 0)) {
+            throw new IllegalArgumentException("maxPerSecond must be positive, got: " + maxPerSecond);
+        }
+        this.maxPerSecond = maxPerSecond;
+        this.delegate = Objects.requireNonNull(delegate, "delegate required");
+        this.intervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / maxPerSecond));
+        this.burstNanos = intervalNanos * (long) Math.max(1, Math.ceil(maxPerSecond));
+        this.theoreticalArrival = new AtomicLong(System.nanoTime());
+    }
+
+    @Override
+    public SamplingResult shouldSample(Context parentContext, String traceId, String name, SpanKind spanKind,
+            Attributes attributes, List<LinkData> parentLinks) {
+        SamplingResult result = delegate.shouldSample(parentContext, traceId, name, spanKind, attributes,
+                parentLinks);
+        if (result.getDecision() != SamplingDecision.RECORD_AND_SAMPLE || tryAcquire()) {
+            return result;
+        }
+        return SamplingResult.drop();
+    }
+
+    private boolean tryAcquire() {
+        while (true) {
+            long now = System.nanoTime();
+            long arrival = theoreticalArrival.get();
+            long next = Math.max(arrival, now) + intervalNanos;
+            if (next - now > burstNanos) {
+                return false;
+            }
+            if (theoreticalArrival.compareAndSet(arrival, next)) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public String getDescription() {
+        return "RateLimitingSampler{" + maxPerSecond + "/s, " + delegate.getDescription() + "}";
+    }
+
+    @Override
+    public String toString() {
+        return getDescription();
+    }
+}
@@ -0,0 +1,499 @@
+package com.judgmentlabs.judgeval.tracer.sampling;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+import com.judgmentlabs.judgeval.JudgmentAttributeKeys;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+
+/**
+ * A span processor that holds each trace's spans in memory until the trace
+ * completes, then decides whether to pass the whole trace on to the next
+ * processor.
+ * <p>
+ * A trace is kept when any of its spans carries a pending trace evaluation,
+ * ends with an error status or takes at least the latency threshold, or when
+ * {@link #keepTrace(SpanContext)} was called for it, for example because an
+ * evaluation was scheduled on one of its spans. Other traces are kept with
+ * the configured ratio, chosen from a hash of the whole trace id so that
+ * every service sampling the same trace agrees. The hash is independent of
+ * the low trace id bits that {@code TraceIdRatioBasedSampler} compares, so a
+ * ratio-based head sampler and this processor multiply their rates.
+ * <p>
+ * A trace completes when its local root span ends. Traces whose root has not
+ * ended within the decision wait are decided with the spans seen so far, and
+ * when more than the maximum number of traces are waiting, new traces are
+ * decided span by span. Spans that end after their trace was decided follow
+ * the decision, which is remembered for the decision wait for up to the
+ * maximum number of traces.
+ */
+public final class TailSamplingProcessor implements SpanProcessor {
+    public static final double                DEFAULT_SAMPLING_RATIO    = 0.1;
+    public static final Duration              DEFAULT_LATENCY_THRESHOLD = Duration.ofSeconds(10);
+    public static final Duration              DEFAULT_DECISION_WAIT     = Duration.ofSeconds(30);
+    public static final int                   DEFAULT_MAX_TRACES        = 10_000;
+
+    private static final AttributeKey<String> PENDING_TRACE_EVAL        = AttributeKey.stringKey(
+            JudgmentAttributeKeys.AttributeKeys.JUDGMENT_PENDING_TRACE_EVAL);
+    private static final long                 RATIO_SALT                = 0x6a75646765766c31L;
+
+    private final SpanProcessor               delegate;
+    private final long                        ratioThreshold;
+    private final long                        latencyThresholdNanos;
+    private final long                        decisionWaitNanos;
+    private final int                         maxTraces;
+    private final Map<String, PendingTrace>   traces                    = new ConcurrentHashMap<>();
+    private final DecidedTraces               decided;
+    private final AtomicInteger               undecided                 = new AtomicInteger();
+    private final LongAdder                   keptTraces                = new LongAdder();
+    private final LongAdder                   droppedTraces             = new LongAdder();
+    private final LongAdder                   droppedSpans              = new LongAdder();
+    private final AtomicBoolean               shutdown                  = new AtomicBoolean();
+    private final ScheduledExecutorService    sweeper;
+
+    private TailSamplingProcessor(Builder builder) {
+        if (!(builder.samplingRatio >= 0 && builder.samplingRatio <= 1)) {
+            throw new IllegalArgumentException("samplingRatio must be between 0 and 1, got: "
+                    + builder.samplingRatio);
+        }
+        if (builder.maxTraces <= 0) {
+            throw new IllegalArgumentException("maxTraces must be positive, got: " + builder.maxTraces);
+        }
+        this.delegate = Objects.requireNonNull(builder.delegate, "delegate required");
+        this.ratioThreshold = builder.samplingRatio >= 1 ? Long.MAX_VALUE
+                : (long) (builder.samplingRatio * Long.MAX_VALUE);
+        this.latencyThresholdNanos = Objects.requireNonNull(builder.latencyThreshold, "latencyThreshold required")
+                .toNanos();
+        this.decisionWaitNanos = Objects.requireNonNull(builder.decisionWait, "decisionWait required")
+                .toNanos();
+        this.maxTraces = builder.maxTraces;
+        this.decided = new DecidedTraces(builder.maxTraces);
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "judgeval-tail-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long sweepNanos = Math.max(TimeUnit.MILLISECONDS.toNanos(100), decisionWaitNanos / 4);
+        this.sweeper.scheduleWithFixedDelay(this::sweep, sweepNanos, sweepNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Creates a new builder for configuring a TailSamplingProcessor.
+     *
+     * @return a new builder instance
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public void onStart(Context parentContext, ReadWriteSpan span) {
+        delegate.onStart(parentContext, span);
+    }
+
+    @Override
+    public boolean isStartRequired() {
+        return delegate.isStartRequired();
+    }
+
+    @Override
+    public void onEnd(ReadableSpan span) {
+        if (!span.getSpanContext()
+                .isSampled()) {
+            return;
+        }
+        String traceId = span.getSpanContext()
+                .getTraceId();
+        boolean keep = isInteresting(span);
+        PendingTrace trace = traces.get(traceId);
+        if (trace == null) {
+            Boolean kept = decided.get(traceId);
+            if (kept != null) {
+                forward(List.of(span), kept);
+                return;
+            }
+            if (undecided.get() >= maxTraces) {
+                // Too many traces waiting: decide this span on its own.
+                forward(List.of(span), keep || sampledByRatio(traceId));
+                return;
+            }
+            PendingTrace created = new PendingTrace();
+            trace = traces.putIfAbsent(traceId, created);
+            if (trace == null) {
+                undecided.incrementAndGet();
+                trace = created;
+            }
+        }
+        if (!trace.add(span, keep)) {
+            forward(List.of(span), trace.kept());
+        } else if (isLocalRoot(span)) {
+            decide(traceId, trace);
+        }
+    }
+
+    @Override
+    public boolean isEndRequired() {
+        return true;
+    }
+
+    /**
+     * Marks a trace to be kept whatever the sampling ratio. Has no effect if
+     * the trace was already dropped. When the maximum number of traces are
+     * already waiting, the trace is kept without buffering, so its spans are
+     * passed on as they end.
+     *
+     * @param spanContext
+     *            a span context of the trace
+     */
+    public void keepTrace(SpanContext spanContext) {
+        if (!spanContext.isSampled()) {
+            return;
+        }
+        String traceId = spanContext.getTraceId();
+        PendingTrace trace = traces.get(traceId);
+        if (trace == null) {
+            if (decided.get(traceId) != null) {
+                return;
+            }
+            if (undecided.get() >= maxTraces) {
+                decided.put(traceId, true);
+                keptTraces.increment();
+                return;
+            }
+            PendingTrace created = new PendingTrace();
+            trace = traces.putIfAbsent(traceId, created);
+            if (trace == null) {
+                undecided.incrementAndGet();
+                trace = created;
+            }
+        }
+        trace.markKeep();
+    }
+
+    /**
+     * Returns the number of traces passed on to the next processor.
+     *
+     * @return the kept trace count
+     */
+    public long getKeptTraces() {
+        return keptTraces.sum();
+    }
+
+    /**
+     * Returns the number of traces dropped by the sampling ratio.
+     *
+     * @return the dropped trace count
+     */
+    public long getDroppedTraces() {
+        return droppedTraces.sum();
+    }
+
+    /**
+     * Returns the number of spans dropped with their traces.
+     *
+     * @return the dropped span count
+     */
+    public long getDroppedSpans() {
+        return droppedSpans.sum();
+    }
+
+    /**
+     * Returns the number of traces waiting for a decision.
+     *
+     * @return the pending trace count
+     */
+    public int getPendingTraces() {
+        return undecided.get();
+    }
+
+    private boolean isInteresting(ReadableSpan span) {
+        return span.getAttribute(PENDING_TRACE_EVAL) != null || span.getLatencyNanos() >= latencyThresholdNanos
+                || span.toSpanData()
+                        .getStatus()
+                        .getStatusCode() == StatusCode.ERROR;
+    }
+
+    private static boolean isLocalRoot(ReadableSpan span) {
+        SpanContext parent = span.getParentSpanContext();
+        return !parent.isValid() || parent.isRemote();
+    }
+
+    private boolean sampledByRatio(String traceId) {
+        // Head samplers compare the low 64 bits directly, so both halves are
+        // mixed with a fixed salt to keep this choice independent of theirs.
+        long high = Long.parseUnsignedLong(traceId, 0, 16, 16);
+        long low = Long.parseUnsignedLong(traceId, 16, 32, 16);
+        long randomness = mix(high ^ mix(low ^ RATIO_SALT)) & Long.MAX_VALUE;
+        return ratioThreshold == Long.MAX_VALUE || randomness < ratioThreshold;
+    }
+
+    /** The MurmurHash3 64-bit finalizer. */
+    private static long mix(long value) {
+        value = (value ^ (value >>> 33)) * 0xff51afd7ed558ccdL;
+        value = (value ^ (value >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return value ^ (value >>> 33);
+    }
+
+    private void decide(String traceId, PendingTrace trace) {
+        List<ReadableSpan> spans = trace.decide(this::sampledByRatio, traceId);
+        if (spans == null) {
+            return;
+        }
+        // Record the decision before dropping the entry, so a late span that
+        // misses the entry still finds the decision.
+        decided.put(traceId, trace.kept());
+        traces.remove(traceId, trace);
+        undecided.decrementAndGet();
+        if (trace.kept()) {
+            keptTraces.increment();
+        } else {
+            droppedTraces.increment();
+        }
+        forward(spans, trace.kept());
+    }
+
+    private void forward(List<ReadableSpan> spans, boolean keep) {
+        if (!keep) {
+            droppedSpans.add(spans.size());
+            return;
+        }
+        for (ReadableSpan span : spans) {
+            delegate.onEnd(span);
+        }
+    }
+
+    private void sweep() {
+        long now = System.nanoTime();
+        traces.forEach((traceId, trace) -> {
+            if (now - trace.touchedNanos() >= decisionWaitNanos) {
+                decide(traceId, trace);
+            }
+        });
+        decided.expire(now - decisionWaitNanos);
+    }
+
+    private void decideAll() {
+        traces.forEach(this::decide);
+    }
+
+    @Override
+    public CompletableResultCode forceFlush() {
+        decideAll();
+        return delegate.forceFlush();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        if (!shutdown.compareAndSet(false, true)) {
+            return CompletableResultCode.ofSuccess();
+        }
+        sweeper.shutdownNow();
+        decideAll();
+        return delegate.shutdown();
+    }
+
+    /**
+     * The spans of one trace seen so far, and the decision once made. A span
+     * that finds the entry just as it is decided follows the decision here.
+     */
+    private static final class PendingTrace {
+        private List<ReadableSpan> spans        = new ArrayList<>();
+        private boolean            keep;
+        private boolean            decided;
+        private boolean            kept;
+        private volatile long      touchedNanos = System.nanoTime();
+
+        synchronized boolean add(ReadableSpan span, boolean interesting) {
+            if (decided) {
+                return false;
+            }
+            spans.add(span);
+            keep |= interesting;
+            touchedNanos = System.nanoTime();
+            return true;
+        }
+
+        synchronized void markKeep() {
+            keep = true;
+        }
+
+        synchronized List<ReadableSpan> decide(Predicate<String> ratio, String traceId) {
+            if (decided) {
+                return null;
+            }
+            decided = true;
+            kept = keep || ratio.test(traceId);
+            touchedNanos = System.nanoTime();
+            List<ReadableSpan> decidedSpans = spans;
+            spans = null;
+            return decidedSpans;
+        }
+
+        synchronized boolean kept() {
+            return kept;
+        }
+
+        long touchedNanos() {
+            return touchedNanos;
+        }
+    }
+
+    /**
+     * Recent decisions by trace id, oldest first, so that late spans follow
+     * them. Holds at most the maximum number of traces, and the sweeper drops
+     * decisions older than the decision wait.
+     */
+    private static final class DecidedTraces {
+        private final Map<String, Decision> decisions;
+
+        DecidedTraces(int capacity) {
+            this.decisions = new LinkedHashMap<String, Decision>() {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Decision> eldest) {
+                    return size() > capacity;
+                }
+            };
+        }
+
+        synchronized void put(String traceId, boolean kept) {
+            decisions.remove(traceId);
+            decisions.put(traceId, new Decision(kept, System.nanoTime()));
+        }
+
+        synchronized Boolean get(String traceId) {
+            Decision decision = decisions.get(traceId);
+            return decision == null ? null : decision.kept;
+        }
+
+        synchronized void expire(long decidedBeforeNanos) {
+            Iterator<Decision> iterator = decisions.values()
+                    .iterator();
+            while (iterator.hasNext() && iterator.next().decidedNanos - decidedBeforeNanos < 0) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private static final class Decision {
+        private final boolean kept;
+        private final long    decidedNanos;
+
+        Decision(boolean kept, long decidedNanos) {
+            this.kept = kept;
+            this.decidedNanos = decidedNanos;
+        }
+    }
+
+    /**
+     * Builder for configuring and creating TailSamplingProcessor instances.
+     */
+    public static final class Builder {
+        private SpanProcessor delegate;
+        private double        samplingRatio    = DEFAULT_SAMPLING_RATIO;
+        private Duration      latencyThreshold = DEFAULT_LATENCY_THRESHOLD;
+        private Duration      decisionWait     = DEFAULT_DECISION_WAIT;
+        private int           maxTraces        = DEFAULT_MAX_TRACES;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the processor kept traces are passed to.
+         *
+         * @param delegate
+         *            the next processor
+         * @return this builder
+         */
+        public Builder delegate(SpanProcessor delegate) {
+            this.delegate = delegate;
+            return this;
+        }
+
+        /**
+         * Sets the fraction of ordinary traces to keep. Defaults to
+         * {@value TailSamplingProcessor#DEFAULT_SAMPLING_RATIO}.
+         *
+         * @param samplingRatio
+         *            the ratio, between 0 and 1
+         * @return this builder
+         */
+        public Builder samplingRatio(double samplingRatio) {
+            this.samplingRatio = samplingRatio;
+            return this;
+        }
+
+        /**
+         * Sets the span duration at or above which a trace is always kept.
+         * Defaults to 10 seconds.
+         *
+         * @param latencyThreshold
+         *            the latency threshold
+         * @return this builder
+         */
+        public Builder latencyThreshold(Duration latencyThreshold) {
+            this.latencyThreshold = latencyThreshold;
+            return this;
+        }
+
+        /**
+         * Sets how long a trace waits for its root span before being decided
+         * with the spans seen so far, and how long decisions are remembered
+         * for late spans. Defaults to 30 seconds.
+         *
+         * @param decisionWait
+         *            the decision wait
+         * @return this builder
+         */
+        public Builder decisionWait(Duration decisionWait) {
+            this.decisionWait = decisionWait;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of traces buffered while waiting for a
+         * decision. Defaults to {@value TailSamplingProcessor#DEFAULT_MAX_TRACES}.
+         *
+         * @param maxTraces
+         *            the maximum pending trace count
+         * @return this builder
+         */
+        public Builder maxTraces(int maxTraces) {
+            this.maxTraces = maxTraces;
+            return this;
+        }
+
+        /**
+         * Builds the processor and starts its sweeper thread.
+         *
+         * @return the processor
+         * @throws IllegalArgumentException
+         *             if the ratio or maximum trace count is out of range
+         */
+        public TailSamplingProcessor build() {
+            return new TailSamplingProcessor(this);
+        }
+    }
+}
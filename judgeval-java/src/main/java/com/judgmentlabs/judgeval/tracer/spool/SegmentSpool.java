@@ -0,0 +1,564 @@
+package com.judgmentlabs.judgeval.tracer.spool;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import com.judgmentlabs.judgeval.utils.Logger;
+
+/**
+ * Append-only, memory-mapped spool that holds evaluation runs and span
+ * batches while the Judgment API is unreachable.
+ * <p>
+ * Records are appended to fixed-size segment files under the spool
+ * directory. Each record is framed as {@code [length][crc32][type][payload]},
+ * and the length is written last so a record torn by a crash is never read.
+ * The replay position is kept in a checksummed cursor file, so a restarted
+ * JVM resumes where the previous one stopped. Delivery is at-least-once: a
+ * record replayed just before a crash may be replayed again.
+ * <p>
+ * When the spool would exceed its size cap the oldest segment is dropped.
+ * Only one spool may use a directory at a time.
+ */
+public final class SegmentSpool implements Closeable {
+    public static final long       DEFAULT_MAX_BYTES       = 256L * 1024 * 1024;
+    public static final int        DEFAULT_SEGMENT_BYTES   = 16 * 1024 * 1024;
+    public static final Duration   DEFAULT_REPLAY_INTERVAL = Duration.ofSeconds(5);
+
+    private static final int       HEADER_BYTES            = 9;
+    private static final int       CURSOR_BYTES            = 16;
+    private static final String    SEGMENT_SUFFIX          = ".seg";
+    private static final String    CURSOR_FILE             = "cursor";
+    private static final String    LOCK_FILE               = ".lock";
+
+    private final Path             directory;
+    private final long             maxBytes;
+    private final int              segmentBytes;
+    private final Duration         replayInterval;
+    private final Deque<Segment>   segments                = new ArrayDeque<>();
+    private final FileChannel      lockChannel;
+    private final FileLock         lock;
+    private final MappedByteBuffer cursor;
+    private final Object           replayMonitor           = new Object();
+
+    private long                   readSegmentId;
+    private int                    readOffset;
+    private Thread                 replayThread;
+    private volatile boolean       closed;
+
+    private SegmentSpool(Builder builder) throws IOException {
+        this.directory = Objects.requireNonNull(builder.directory, "directory required");
+        this.segmentBytes = builder.segmentBytes;
+        this.maxBytes = builder.maxBytes;
+        this.replayInterval = Objects.requireNonNull(builder.replayInterval, "replayInterval required");
+        if (segmentBytes <= HEADER_BYTES) {
+            throw new IllegalArgumentException("segmentBytes too small: " + segmentBytes);
+        }
+        if (maxBytes < 2L * segmentBytes) {
+            throw new IllegalArgumentException("maxBytes must hold at least two segments, got: " + maxBytes);
+        }
+
+        Files.createDirectories(directory);
+        this.lockChannel = FileChannel.open(directory.resolve(LOCK_FILE), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE);
+        this.lock = tryLock(lockChannel);
+        if (lock == null) {
+            lockChannel.close();
+            throw new IOException("Spool directory " + directory + " is already in use");
+        }
+
+        try (FileChannel channel = FileChannel.open(directory.resolve(CURSOR_FILE), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            this.cursor = channel.map(FileChannel.MapMode.READ_WRITE, 0, CURSOR_BYTES);
+        }
+        recover();
+    }
+
+    private void recover() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (Stream<Path> listing = Files.list(directory)) {
+            listing.filter(p -> p.getFileName()
+                    .toString()
+                    .endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .forEach(files::add);
+        }
+        for (Path file : files) {
+            String name = file.getFileName()
+                    .toString();
+            long id = Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+            Segment segment = Segment.open(file, id, segmentBytes);
+            segment.writePosition = scanValidEnd(segment);
+            segments.addLast(segment);
+        }
+
+        long storedSegment = cursor.getLong(0);
+        int storedOffset = cursor.getInt(8);
+        boolean cursorValid = cursor.getInt(12) == cursorChecksum(storedSegment, storedOffset);
+        Segment first = segments.peekFirst();
+        if (first == null) {
+            readSegmentId = 0;
+            readOffset = 0;
+        } else if (cursorValid && storedSegment >= first.id && findSegment(storedSegment) != null) {
+            readSegmentId = storedSegment;
+            readOffset = Math.min(storedOffset, findSegment(storedSegment).writePosition);
+        } else {
+            readSegmentId = first.id;
+            readOffset = 0;
+        }
+        if (!segments.isEmpty()) {
+            Logger.info("Recovered spool at " + directory + " with " + pendingBytes() + " pending bytes");
+        }
+    }
+
+    private static int scanValidEnd(Segment segment) {
+        int position = 0;
+        while (true) {
+            int recordSize = validRecordSize(segment, position);
+            if (recordSize < 0) {
+                return position;
+            }
+            position += recordSize;
+        }
+    }
+
+    private static int validRecordSize(Segment segment, int position) {
+        MappedByteBuffer buffer = segment.buffer;
+        if (position + HEADER_BYTES > buffer.capacity()) {
+            return -1;
+        }
+        int length = buffer.getInt(position);
+        if (length <= 0 || position + 8 + length > buffer.capacity()) {
+            return -1;
+        }
+        if (buffer.getInt(position + 4) != checksum(buffer, position + 8, length)) {
+            return -1;
+        }
+        return 8 + length;
+    }
+
+    private static FileLock tryLock(FileChannel channel) throws IOException {
+        try {
+            return channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Appends a record to the spool.
+     *
+     * @param type
+     *            the record type
+     * @param payload
+     *            the record payload
+     * @return true if the record was stored
+     */
+    public synchronized boolean append(SpoolRecordType type, byte[] payload) {
+        int recordSize = HEADER_BYTES + payload.length;
+        if (closed) {
+            return false;
+        }
+        if (recordSize > segmentBytes) {
+            Logger.error("Dropping " + type + " record of " + payload.length + " bytes: larger than spool segment");
+            return false;
+        }
+        try {
+            Segment active = segments.peekLast();
+            if (active == null || active.writePosition + recordSize > active.buffer.capacity()) {
+                active = rotate();
+            }
+            int position = active.writePosition;
+            MappedByteBuffer buffer = active.buffer;
+            buffer.put(position + 8, type.getCode());
+            buffer.put(position + HEADER_BYTES, payload);
+            buffer.putInt(position + 4, checksum(buffer, position + 8, 1 + payload.length));
+            buffer.putInt(position, 1 + payload.length);
+            active.writePosition = position + recordSize;
+            return true;
+        } catch (IOException e) {
+            Logger.error("Failed to append to spool: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private Segment rotate() throws IOException {
+        Segment previous = segments.peekLast();
+        if (previous != null) {
+            previous.buffer.force();
+        }
+        while ((segments.size() + 1L) * segmentBytes > maxBytes) {
+            dropOldestSegment();
+        }
+        long id = previous != null ? previous.id + 1 : Math.max(readSegmentId, 0);
+        Segment segment = Segment.open(directory.resolve(segmentName(id)), id, segmentBytes);
+        segments.addLast(segment);
+        if (segments.size() == 1) {
+            readSegmentId = id;
+            readOffset = 0;
+            writeCursor();
+        }
+        return segment;
+    }
+
+    private void dropOldestSegment() throws IOException {
+        Segment oldest = segments.pollFirst();
+        if (oldest == null) {
+            return;
+        }
+        Logger.warning("Spool size cap reached; dropping " + oldest.writePosition + " bytes of spooled data");
+        Files.deleteIfExists(oldest.path);
+        if (readSegmentId <= oldest.id) {
+            Segment next = segments.peekFirst();
+            readSegmentId = next != null ? next.id : oldest.id + 1;
+            readOffset = 0;
+            writeCursor();
+        }
+    }
+
+    /**
+     * Replays records in append order until the spool is empty or the handler
+     * asks to retry.
+     *
+     * @param handler
+     *            the handler delivering each record
+     * @return the number of records removed from the spool
+     */
+    public int replay(SpoolHandler handler) {
+        int removed = 0;
+        while (!closed) {
+            PendingRecord record = nextRecord();
+            if (record == null) {
+                return removed;
+            }
+            SpoolOutcome outcome;
+            try {
+                outcome = record.type == null ? SpoolOutcome.DISCARD : handler.replay(record.type, record.payload);
+            } catch (Exception e) {
+                Logger.debug("Spool replay failed, will retry: " + e.getMessage());
+                outcome = SpoolOutcome.RETRY;
+            }
+            if (outcome == SpoolOutcome.RETRY) {
+                return removed;
+            }
+            commit(record);
+            removed++;
+        }
+        return removed;
+    }
+
+    private synchronized PendingRecord nextRecord() {
+        while (true) {
+            Segment segment = findSegment(readSegmentId);
+            if (segment == null) {
+                return null;
+            }
+            if (readOffset < segment.writePosition) {
+                int recordSize = validRecordSize(segment, readOffset);
+                if (recordSize > 0) {
+                    byte[] payload = new byte[recordSize - HEADER_BYTES];
+                    segment.buffer.get(readOffset + HEADER_BYTES, payload);
+                    SpoolRecordType type = SpoolRecordType.fromCode(segment.buffer.get(readOffset + 8));
+                    return new PendingRecord(segment.id, readOffset, recordSize, type, payload);
+                }
+                Logger.error("Corrupt spool record in segment " + segment.id + "; skipping rest of segment");
+            }
+            if (segment == segments.peekLast()) {
+                if (readOffset >= segment.writePosition) {
+                    return null;
+                }
+                segment.writePosition = readOffset;
+                return null;
+            }
+            retireSegment(segment);
+        }
+    }
+
+    private synchronized void commit(PendingRecord record) {
+        if (record.segmentId != readSegmentId || record.offset != readOffset) {
+            return;
+        }
+        readOffset += record.size;
+        writeCursor();
+    }
+
+    private void retireSegment(Segment segment) {
+        segments.remove(segment);
+        try {
+            Files.deleteIfExists(segment.path);
+        } catch (IOException e) {
+            Logger.warning("Failed to delete spool segment " + segment.path + ": " + e.getMessage());
+        }
+        Segment next = segments.peekFirst();
+        readSegmentId = next != null ? next.id : segment.id + 1;
+        readOffset = 0;
+        writeCursor();
+    }
+
+    private Segment findSegment(long id) {
+        for (Segment segment : segments) {
+            if (segment.id == id) {
+                return segment;
+            }
+        }
+        return null;
+    }
+
+    private void writeCursor() {
+        cursor.putLong(0, readSegmentId);
+        cursor.putInt(8, readOffset);
+        cursor.putInt(12, cursorChecksum(readSegmentId, readOffset));
+    }
+
+    /**
+     * Starts a background thread that replays the spool at the configured
+     * interval.
+     *
+     * @param handler
+     *            the handler delivering each record
+     */
+    public synchronized void startReplay(SpoolHandler handler) {
+        Objects.requireNonNull(handler, "handler required");
+        if (replayThread != null || closed) {
+            return;
+        }
+        replayThread = new Thread(() -> replayLoop(handler), "judgeval-spool-replay");
+        replayThread.setDaemon(true);
+        replayThread.start();
+    }
+
+    private void replayLoop(SpoolHandler handler) {
+        while (!closed) {
+            int replayed = replay(handler);
+            if (replayed > 0) {
+                Logger.info("Replayed " + replayed + " spooled records");
+            }
+            synchronized (replayMonitor) {
+                if (closed) {
+                    return;
+                }
+                try {
+                    replayMonitor.wait(replayInterval.toMillis());
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns whether the spool holds no undelivered records.
+     *
+     * @return true if nothing is waiting to be replayed
+     */
+    public synchronized boolean isEmpty() {
+        return pendingBytes() == 0;
+    }
+
+    /**
+     * Returns the number of bytes waiting to be replayed.
+     *
+     * @return the pending byte count
+     */
+    public synchronized long pendingBytes() {
+        long pending = 0;
+        for (Segment segment : segments) {
+            if (segment.id > readSegmentId) {
+                pending += segment.writePosition;
+            } else if (segment.id == readSegmentId) {
+                pending += Math.max(0, segment.writePosition - readOffset);
+            }
+        }
+        return pending;
+    }
+
+    /**
+     * Stops replay, forces pending writes to disk and releases the directory.
+     */
+    @Override
+    public void close() {
+        Thread thread;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            thread = replayThread;
+            for (Segment segment : segments) {
+                segment.buffer.force();
+            }
+            cursor.force();
+        }
+        synchronized (replayMonitor) {
+            replayMonitor.notifyAll();
+        }
+        if (thread != null) {
+            try {
+                thread.join(replayInterval.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread()
+                        .interrupt();
+            }
+        }
+        try {
+            lock.release();
+            lockChannel.close();
+        } catch (IOException e) {
+            Logger.warning("Failed to release spool lock: " + e.getMessage());
+        }
+    }
+
+    private static String segmentName(long id) {
+        return String.format("%020d%s", id, SEGMENT_SUFFIX);
+    }
+
+    private static int checksum(MappedByteBuffer buffer, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(offset, length));
+        return (int) crc.getValue();
+    }
+
+    private static int cursorChecksum(long segmentId, int offset) {
+        CRC32 crc = new CRC32();
+        crc.update(ByteBuffer.allocate(12)
+                .putLong(segmentId)
+                .putInt(offset)
+                .flip());
+        // never zero, so a freshly created cursor file reads as invalid
+        return (int) crc.getValue() | 1;
+    }
+
+    /**
+     * Creates a new builder for configuring a SegmentSpool.
+     *
+     * @return a new builder instance
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Builder for configuring and creating SegmentSpool instances.
+     */
+    public static final class Builder {
+        private Path     directory;
+        private long     maxBytes       = DEFAULT_MAX_BYTES;
+        private int      segmentBytes   = DEFAULT_SEGMENT_BYTES;
+        private Duration replayInterval = DEFAULT_REPLAY_INTERVAL;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the directory holding spool segments.
+         *
+         * @param directory
+         *            the spool directory
+         * @return this builder
+         */
+        public Builder directory(Path directory) {
+            this.directory = directory;
+            return this;
+        }
+
+        /**
+         * Sets the maximum total size of all segments in bytes.
+         *
+         * @param maxBytes
+         *            the size cap
+         * @return this builder
+         */
+        public Builder maxBytes(long maxBytes) {
+            this.maxBytes = maxBytes;
+            return this;
+        }
+
+        /**
+         * Sets the size of each segment file in bytes. This is also the largest
+         * record the spool accepts.
+         *
+         * @param segmentBytes
+         *            the segment size
+         * @return this builder
+         */
+        public Builder segmentBytes(int segmentBytes) {
+            this.segmentBytes = segmentBytes;
+            return this;
+        }
+
+        /**
+         * Sets how often the background replay thread retries delivery.
+         *
+         * @param replayInterval
+         *            the replay interval
+         * @return this builder
+         */
+        public Builder replayInterval(Duration replayInterval) {
+            this.replayInterval = replayInterval;
+            return this;
+        }
+
+        /**
+         * Opens the spool, recovering any records left by a previous process.
+         *
+         * @return the opened SegmentSpool
+         * @throws IOException
+         *             if the directory cannot be opened or is locked
+         */
+        public SegmentSpool build() throws IOException {
+            return new SegmentSpool(this);
+        }
+    }
+
+    private static final class Segment {
+        private final long             id;
+        private final Path             path;
+        private final MappedByteBuffer buffer;
+        private int                    writePosition;
+
+        private Segment(long id, Path path, MappedByteBuffer buffer) {
+            this.id = id;
+            this.path = path;
+            this.buffer = buffer;
+        }
+
+        static Segment open(Path path, long id, int size) throws IOException {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE)) {
+                long mappedSize = Math.max(size, channel.size());
+                return new Segment(id, path, channel.map(FileChannel.MapMode.READ_WRITE, 0, mappedSize));
+            }
+        }
+    }
+
+    private static final class PendingRecord {
+        private final long            segmentId;
+        private final int             offset;
+        private final int             size;
+        private final SpoolRecordType type;
+        private final byte[]          payload;
+
+        private PendingRecord(long segmentId, int offset, int size, SpoolRecordType type, byte[] payload) {
+            this.segmentId = segmentId;
+            this.offset = offset;
+            this.size = size;
+            this.type = type;
+            this.payload = payload;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.judgmentlabs.judgeval.tracer.spool;
+
+/**
+ * Delivers records replayed from a {@link SegmentSpool}.
+ */
+@FunctionalInterface
+public interface SpoolHandler {
+    /**
+     * Attempts to deliver a spooled record. Throwing is treated as
+     * {@link SpoolOutcome#RETRY}.
+     *
+     * @param type
+     *            the record type
+     * @param payload
+     *            the record payload
+     * @return the replay outcome
+     * @throws Exception
+     *             if delivery failed
+     */
+    SpoolOutcome replay(SpoolRecordType type, byte[] payload) throws Exception;
+}
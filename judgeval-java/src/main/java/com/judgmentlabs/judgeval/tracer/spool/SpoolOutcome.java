@@ -0,0 +1,22 @@
+package com.judgmentlabs.judgeval.tracer.spool;
+
+/**
+ * Result of replaying one spooled record.
+ */
+public enum SpoolOutcome {
+    /**
+     * The record was delivered and is removed from the spool.
+     */
+    REPLAYED,
+
+    /**
+     * The record could not be delivered yet; replay stops and resumes from
+     * this record on the next attempt.
+     */
+    RETRY,
+
+    /**
+     * The record can never be delivered and is removed from the spool.
+     */
+    DISCARD
+}
@@ -0,0 +1,47 @@
+package com.judgmentlabs.judgeval.tracer.spool;
+
+/**
+ * Kinds of payload stored in a {@link SegmentSpool}.
+ */
+public enum SpoolRecordType {
+    /**
+     * A JSON-serialized {@code ExampleEvaluationRun}.
+     */
+    EVALUATION_RUN((byte) 1),
+
+    /**
+     * An OTLP protobuf-encoded trace export request.
+     */
+    SPAN_BATCH((byte) 2),
+
+    /**
+     * A JSON-serialized {@code TraceEvaluationRun}.
+     */
+    TRACE_EVALUATION_RUN((byte) 3);
+
+    private final byte code;
+
+    SpoolRecordType(byte code) {
+        this.code = code;
+    }
+
+    public byte getCode() {
+        return code;
+    }
+
+    /**
+     * Returns the record type for an on-disk code.
+     *
+     * @param code
+     *            the stored type code
+     * @return the record type, or null if the code is unknown
+     */
+    public static SpoolRecordType fromCode(byte code) {
+        for (SpoolRecordType type : values()) {
+            if (type.code == code) {
+                return type;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,63 @@
+package com.judgmentlabs.judgeval;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+
+class RetryPolicyTest {
+
+    private final RetryPolicy policy = RetryPolicy.builder()
+            .maxAttempts(4)
+            .initialBackoff(Duration.ofMillis(100))
+            .maxBackoff(Duration.ofMillis(300))
+            .maxRetryAfter(Duration.ofSeconds(2))
+            .build();
+
+    @Test
+    void delayBefore_staysWithinCappedExponentialCeiling() {
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(policy.delayBefore(1, Optional.empty())
+                    .toMillis() <= 100);
+            assertTrue(policy.delayBefore(2, Optional.empty())
+                    .toMillis() <= 200);
+            assertTrue(policy.delayBefore(10, Optional.empty())
+                    .toMillis() <= 300);
+        }
+    }
+
+    @Test
+    void delayBefore_usesCappedRetryAfter() {
+        assertEquals(Duration.ofSeconds(1), policy.delayBefore(1, Optional.of(Duration.ofSeconds(1))));
+        assertEquals(Duration.ofSeconds(2), policy.delayBefore(1, Optional.of(Duration.ofMinutes(5))));
+    }
+
+    @Test
+    void shouldRetry_stopsAtMaxAttempts() {
+        assertTrue(policy.shouldRetry(3));
+        assertFalse(policy.shouldRetry(4));
+        assertFalse(RetryPolicy.none()
+                .shouldRetry(1));
+    }
+
+    @Test
+    void isRetryableStatus_coversThrottlingAndTransientErrors() {
+        assertTrue(RetryPolicy.isRetryableStatus(429));
+        assertTrue(RetryPolicy.isRetryableStatus(503));
+        assertFalse(RetryPolicy.isRetryableStatus(400));
+        assertFalse(RetryPolicy.isRetryableStatus(501));
+    }
+
+    @Test
+    void builder_withMaxBackoffBelowInitial_throwsException() {
+        assertThrows(IllegalArgumentException.class, () -> RetryPolicy.builder()
+                .initialBackoff(Duration.ofSeconds(2))
+                .maxBackoff(Duration.ofSeconds(1))
+                .build());
+    }
+}
@@ -0,0 +1,141 @@
+package com.judgmentlabs.judgeval.data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DatasetReaderTest {
+    @TempDir
+    Path directory;
+
+    private Path write(String fileName, String content) throws IOException {
+        Path file = directory.resolve(fileName);
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    @Test
+    void jsonl_readsPropertiesAndExampleFields() throws IOException {
+        Path file = write("data.jsonl", "{\"example_id\":\"e1\",\"name\":\"first\",\"input\":\"q\",\"tags\":[\"a\"]}\n"
+                + "\n{\"input\":\"r\",\"score\":2}\n");
+
+        try (DatasetReader reader = DatasetReader.open(file)) {
+            List<Example> examples = reader.stream()
+                    .collect(Collectors.toList());
+
+            assertEquals(DatasetReader.Format.JSONL, reader.getFormat());
+            assertEquals(2, examples.size());
+            assertEquals("e1", examples.get(0)
+                    .getExampleId());
+            assertEquals("first", examples.get(0)
+                    .getName());
+            assertEquals(Map.of("input", "q", "tags", List.of("a")), examples.get(0)
+                    .getAdditionalProperties());
+            assertNotNull(examples.get(1)
+                    .getExampleId());
+            assertEquals(2, examples.get(1)
+                    .getAdditionalProperties()
+                    .get("score"));
+        }
+    }
+
+    @Test
+    void jsonl_readsRecordsAcrossMappedRegions() throws IOException {
+        Path file = write("data.jsonl", "{\"input\":\"first\"}\n{\"input\":\"second\"}\n");
+
+        try (DatasetReader reader = new DatasetReader(file, DatasetReader.Format.JSONL, 7)) {
+            assertEquals(List.of("first", "second"), reader.stream()
+                    .map(example -> example.getAdditionalProperties()
+                            .get("input"))
+                    .collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    void jsonl_parallelStream_splitsAndKeepsEveryRecord() throws IOException {
+        String content = IntStream.range(0, 5000)
+                .mapToObj(i -> "{\"index\":" + i + ",\"input\":\"question number " + i + "\"}\n")
+                .collect(Collectors.joining());
+        Path file = write("data.jsonl", content);
+
+        try (DatasetReader reader = DatasetReader.open(file)) {
+            assertNotNull(reader.spliterator()
+                    .trySplit());
+            List<Object> indexes = reader.stream()
+                    .parallel()
+                    .map(example -> example.getAdditionalProperties()
+                            .get("index"))
+                    .collect(Collectors.toList());
+
+            assertEquals(IntStream.range(0, 5000)
+                    .boxed()
+                    .collect(Collectors.toList()), indexes);
+        }
+    }
+
+    @Test
+    void jsonl_withNonObjectRecord_throws() throws IOException {
+        Path file = write("data.jsonl", "{\"input\":\"q\"}\n[1,2]\n");
+
+        try (DatasetReader reader = DatasetReader.open(file)) {
+            assertThrows(UncheckedIOException.class, () -> reader.stream()
+                    .count());
+        }
+    }
+
+    @Test
+    void csv_readsQuotedFieldsAgainstHeader() throws IOException {
+        Path file = write("data.CSV", "name,input,expected_output\r\n"
+                + "first,\"a, b\",\"say \"\"hi\"\"\"\r\n"
+                + "second,\"two\nlines\",\r\n");
+
+        try (DatasetReader reader = DatasetReader.open(file)) {
+            List<Example> examples = reader.stream()
+                    .collect(Collectors.toList());
+
+            assertEquals(DatasetReader.Format.CSV, reader.getFormat());
+            assertEquals(List.of("name", "input", "expected_output"), reader.getColumns());
+            assertEquals(2, examples.size());
+            assertEquals("first", examples.get(0)
+                    .getName());
+            assertEquals("a, b", examples.get(0)
+                    .getAdditionalProperties()
+                    .get("input"));
+            assertEquals("say \"hi\"", examples.get(0)
+                    .getAdditionalProperties()
+                    .get("expected_output"));
+            assertEquals("two\nlines", examples.get(1)
+                    .getAdditionalProperties()
+                    .get("input"));
+            assertEquals("", examples.get(1)
+                    .getAdditionalProperties()
+                    .get("expected_output"));
+            assertNull(reader.spliterator()
+                    .trySplit());
+        }
+    }
+
+    @Test
+    void csv_withWrongFieldCount_throws() throws IOException {
+        Path file = write("data.csv", "input,expected_output\nq\n");
+
+        try (DatasetReader reader = DatasetReader.open(file)) {
+            assertThrows(UncheckedIOException.class, () -> reader.iterator()
+                    .next());
+        }
+    }
+}
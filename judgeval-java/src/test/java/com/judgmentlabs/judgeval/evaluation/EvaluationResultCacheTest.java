@@ -0,0 +1,112 @@
+package com.judgmentlabs.judgeval.evaluation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.judgmentlabs.judgeval.data.Example;
+import com.judgmentlabs.judgeval.internal.api.models.ScorerConfig;
+import com.judgmentlabs.judgeval.internal.api.models.ScorerData;
+import com.judgmentlabs.judgeval.scorers.built_in.AnswerRelevancyScorer;
+
+class EvaluationResultCacheTest {
+    private static Example example(String input) {
+        return Example.builder()
+                .property("input", input)
+                .build();
+    }
+
+    private static ScorerConfig scorer(double threshold) {
+        return AnswerRelevancyScorer.builder()
+                .threshold(threshold)
+                .build()
+                .getScorerConfig();
+    }
+
+    private static ScorerData scored(double score) {
+        ScorerData data = new ScorerData();
+        data.setScore(score);
+        return data;
+    }
+
+    @Test
+    void key_ignoresExampleIdentity() {
+        assertEquals(EvaluationResultCache.key(example("q"), scorer(0.5)),
+                EvaluationResultCache.key(example("q"), scorer(0.5)));
+        assertNotEquals(EvaluationResultCache.key(example("q"), scorer(0.5)),
+                EvaluationResultCache.key(example("q"), scorer(0.7)));
+        assertNotEquals(EvaluationResultCache.key(example("q"), scorer(0.5)),
+                EvaluationResultCache.key(example("other"), scorer(0.5)));
+    }
+
+    @Test
+    void get_countsHitsAndMisses() {
+        EvaluationResultCache cache = EvaluationResultCache.builder()
+                .build();
+
+        assertNull(cache.get(example("q"), scorer(0.5)));
+        cache.put(example("q"), scorer(0.5), scored(0.9));
+
+        assertEquals(0.9, cache.get(example("q"), scorer(0.5))
+                .getScore());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(0.5, cache.getHitRatio());
+    }
+
+    @Test
+    void put_beyondMaxEntries_evictsLeastRecentlyUsed() {
+        EvaluationResultCache cache = EvaluationResultCache.builder()
+                .maxEntries(2)
+                .build();
+        cache.put(example("a"), scorer(0.5), scored(1));
+        cache.put(example("b"), scorer(0.5), scored(2));
+        cache.get(example("a"), scorer(0.5));
+
+        cache.put(example("c"), scorer(0.5), scored(3));
+
+        assertEquals(2, cache.getSize());
+        assertNotNull(cache.get(example("a"), scorer(0.5)));
+        assertNull(cache.get(example("b"), scorer(0.5)));
+    }
+
+    @Test
+    void directory_keepsResultsAcrossInstancesUntilInvalidated(@TempDir Path directory) {
+        EvaluationResultCache.builder()
+                .directory(directory)
+                .build()
+                .put(example("q"), scorer(0.5), scored(0.9));
+
+        EvaluationResultCache reopened = EvaluationResultCache.builder()
+                .directory(directory)
+                .build();
+        assertEquals(0.9, reopened.get(example("q"), scorer(0.5))
+                .getScore());
+
+        reopened.invalidate(example("q"), scorer(0.5));
+        assertNull(EvaluationResultCache.builder()
+                .directory(directory)
+                .build()
+                .get(example("q"), scorer(0.5)));
+    }
+
+    @Test
+    void invalidateAll_clearsMemoryAndDisk(@TempDir Path directory) {
+        EvaluationResultCache cache = EvaluationResultCache.builder()
+                .directory(directory)
+                .build();
+        cache.put(example("a"), scorer(0.5), scored(1));
+        cache.put(example("b"), scorer(0.5), scored(2));
+
+        cache.invalidateAll();
+
+        assertEquals(0, cache.getSize());
+        assertNull(cache.get(example("a"), scorer(0.5)));
+    }
+}
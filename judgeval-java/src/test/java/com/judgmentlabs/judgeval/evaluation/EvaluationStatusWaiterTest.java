@@ -0,0 +1,141 @@
+package com.judgmentlabs.judgeval.evaluation;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.judgmentlabs.judgeval.RetryPolicy;
+import com.judgmentlabs.judgeval.TransportConfig;
+import com.judgmentlabs.judgeval.internal.api.HttpTransport;
+import com.judgmentlabs.judgeval.internal.api.JudgmentSyncClient;
+
+class EvaluationStatusWaiterTest {
+    private WireMockServer         server;
+    private EvaluationStatusWaiter waiter;
+
+    @BeforeEach
+    void setUp() {
+        server = new WireMockServer(wireMockConfig().dynamicPort());
+        server.start();
+        JudgmentSyncClient client = new JudgmentSyncClient(server.baseUrl(), "key", "org",
+                HttpTransport.create(TransportConfig.builder()
+                        .retryPolicy(RetryPolicy.none())
+                        .build()));
+        waiter = new EvaluationFactory(client).statusWaiter()
+                .minPollInterval(Duration.ofMillis(10))
+                .maxPollInterval(Duration.ofMillis(40))
+                .timeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        waiter.shutdown();
+        server.stop();
+    }
+
+    private void status(String body) {
+        server.stubFor(get(urlPathEqualTo("/get_evaluation_status/")).willReturn(aResponse().withBody(body)));
+    }
+
+    private int statusRequests() {
+        return server.findAll(getRequestedFor(urlPathEqualTo("/get_evaluation_status/")))
+                .size();
+    }
+
+    @Test
+    void await_sameRun_sharesOnePoll() throws Exception {
+        status("{\"status\":\"completed\"}");
+
+        List<CompletableFuture<Object>> waiters = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            waiters.add(waiter.await("run", "project"));
+        }
+
+        for (CompletableFuture<Object> future : waiters) {
+            assertEquals("completed", ((Map<?, ?>) future.get(5, TimeUnit.SECONDS)).get("status"));
+        }
+        assertEquals(1, statusRequests());
+        assertEquals(0, waiter.getPendingCount());
+        assertTrue(waiter.getObservedLatency()
+                .toNanos() > 0);
+    }
+
+    @Test
+    void await_failedRun_failsWithIOException() {
+        status("{\"status\":\"failed\",\"error\":\"boom\"}");
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> waiter.await("run", "project")
+                .get(5, TimeUnit.SECONDS));
+
+        assertInstanceOf(IOException.class, error.getCause());
+    }
+
+    @Test
+    void await_pendingRun_backsOffUntilTimeout() throws Exception {
+        status("{\"status\":\"pending\"}");
+        EvaluationStatusWaiter shortWaiter = new EvaluationFactory(new JudgmentSyncClient(server.baseUrl(), "key",
+                "org", HttpTransport.create(TransportConfig.builder()
+                        .retryPolicy(RetryPolicy.none())
+                        .build()))).statusWaiter()
+                .minPollInterval(Duration.ofMillis(10))
+                .maxPollInterval(Duration.ofMillis(80))
+                .timeout(Duration.ofMillis(400))
+                .build();
+        try {
+            ExecutionException error = assertThrows(ExecutionException.class,
+                    () -> shortWaiter.await("run", "project")
+                            .get(5, TimeUnit.SECONDS));
+
+            assertInstanceOf(IOException.class, error.getCause());
+            assertTrue(statusRequests() < 15, "polled " + statusRequests() + " times");
+        } finally {
+            shortWaiter.shutdown();
+        }
+    }
+
+    @Test
+    void await_allWaitersCancelled_stopsPolling() throws Exception {
+        status("{\"status\":\"pending\"}");
+
+        CompletableFuture<Object> first = waiter.await("run", "project");
+        CompletableFuture<Object> second = waiter.await("run", "project");
+        first.cancel(false);
+        assertEquals(1, waiter.getPendingCount());
+        second.cancel(false);
+
+        assertEquals(0, waiter.getPendingCount());
+    }
+
+    @Test
+    void shutdown_failsPendingWaiters() {
+        status("{\"status\":\"pending\"}");
+        CompletableFuture<Object> future = waiter.await("run", "project");
+
+        waiter.shutdown();
+
+        assertThrows(CancellationException.class, () -> future.get(1, TimeUnit.SECONDS));
+        assertThrows(IllegalStateException.class, () -> waiter.await("other", "project"));
+    }
+}
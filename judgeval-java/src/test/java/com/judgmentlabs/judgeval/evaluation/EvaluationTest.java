@@ -0,0 +1,360 @@
+package com.judgmentlabs.judgeval.evaluation;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.judgmentlabs.judgeval.RetryPolicy;
+import com.judgmentlabs.judgeval.TransportConfig;
+import com.judgmentlabs.judgeval.data.Example;
+import com.judgmentlabs.judgeval.data.ScoringResult;
+import com.judgmentlabs.judgeval.internal.api.HttpTransport;
+import com.judgmentlabs.judgeval.internal.api.JudgmentSyncClient;
+import com.judgmentlabs.judgeval.scorers.BaseScorer;
+import com.judgmentlabs.judgeval.scorers.built_in.AnswerRelevancyScorer;
+
+class EvaluationTest {
+    private WireMockServer     server;
+    private JudgmentSyncClient client;
+
+    @BeforeEach
+    void setUp() {
+        server = new WireMockServer(wireMockConfig().dynamicPort());
+        server.start();
+        client = new JudgmentSyncClient(server.baseUrl(), "key", "org", HttpTransport.create(TransportConfig.builder()
+                .retryPolicy(RetryPolicy.none())
+                .build()));
+        server.stubFor(post(urlEqualTo("/add_to_run_eval_queue/")).willReturn(aResponse().withBody("{}")));
+        server.stubFor(post(urlEqualTo("/fetch_experiment_run/"))
+                .willReturn(aResponse().withBody("{\"results\":[{\"name\":\"a\",\"success\":true},"
+                        + "{\"name\":\"b\",\"success\":false}]}")));
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop();
+    }
+
+    private void status(String body) {
+        server.stubFor(get(urlPathEqualTo("/get_evaluation_status/")).willReturn(aResponse().withBody(body)));
+    }
+
+    private Evaluation.Builder evaluation() {
+        return new EvaluationFactory(client).create()
+                .projectName("project")
+                .pollInterval(Duration.ofMillis(10));
+    }
+
+    private static List<Example> examples(int count) {
+        List<Example> examples = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            examples.add(Example.builder()
+                    .property("input", "question " + i)
+                    .build());
+        }
+        return examples;
+    }
+
+    private static List<BaseScorer> scorers() {
+        return List.of(AnswerRelevancyScorer.builder()
+                .build());
+    }
+
+    @Test
+    void run_submitsChunksAndCollectsTheirResults() throws Exception {
+        status("{\"status\":\"completed\"}");
+        List<Integer> progress = new CopyOnWriteArrayList<>();
+
+        List<ScoringResult> results = evaluation().chunkSize(2)
+                .maxInFlight(2)
+                .progressListener((done, total) -> progress.add(done))
+                .build()
+                .run(examples(5), scorers());
+
+        assertEquals(6, results.size());
+        assertEquals("a", results.get(0)
+                .getName());
+        assertEquals(3, server.findAll(postRequestedFor(urlEqualTo("/add_to_run_eval_queue/")))
+                .size());
+        assertEquals(5, progress.stream()
+                .mapToInt(Integer::intValue)
+                .max()
+                .getAsInt());
+    }
+
+    @Test
+    void run_waitsUntilExpectedResultsAreListed() throws Exception {
+        status("{\"results\":[{},{}]}");
+
+        List<ScoringResult> results = evaluation().chunkSize(2)
+                .build()
+                .run(examples(2), scorers());
+
+        assertEquals(2, results.size());
+    }
+
+    @Test
+    void run_withSharedStatusWaiter_waitsThroughIt() throws Exception {
+        status("{\"status\":\"completed\"}");
+        EvaluationStatusWaiter waiter = new EvaluationFactory(client).statusWaiter()
+                .minPollInterval(Duration.ofMillis(10))
+                .build();
+        try {
+            List<ScoringResult> results = evaluation().chunkSize(2)
+                    .pollInterval(Duration.ofHours(1))
+                    .statusWaiter(waiter)
+                    .build()
+                    .run(examples(3), scorers());
+
+            assertEquals(4, results.size());
+            assertEquals(0, waiter.getPendingCount());
+            assertTrue(waiter.getObservedLatency()
+                    .toNanos() > 0);
+        } finally {
+            waiter.shutdown();
+        }
+    }
+
+    @Test
+    void run_withFailedChunk_throws() {
+        status("{\"status\":\"failed\",\"error\":\"scorer crashed\"}");
+
+        IOException error = assertThrows(IOException.class, () -> evaluation().build()
+                .run(examples(3), scorers()));
+
+        assertTrue(error.getMessage()
+                .contains("scorer crashed"));
+    }
+
+    @Test
+    void run_withChunkTimeout_throws() {
+        status("{\"status\":\"pending\"}");
+
+        assertThrows(IOException.class, () -> evaluation().chunkTimeout(Duration.ofMillis(50))
+                .build()
+                .run(examples(3), scorers()));
+    }
+
+    @Test
+    void runAsync_cancelled_stopsSubmittingChunks() throws Exception {
+        status("{\"status\":\"pending\"}");
+
+        CompletableFuture<List<ScoringResult>> results = evaluation().chunkSize(1)
+                .maxInFlight(1)
+                .build()
+                .runAsync(examples(10), scorers());
+        Thread.sleep(50);
+        results.cancel(true);
+        Thread.sleep(50);
+
+        assertTrue(results.isCancelled());
+        assertEquals(1, server.findAll(postRequestedFor(urlEqualTo("/add_to_run_eval_queue/")))
+                .size());
+    }
+
+    @Test
+    void runAsync_withoutExamples_completesEmpty() throws Exception {
+        assertEquals(List.of(), evaluation().build()
+                .runAsync(List.of(), scorers())
+                .get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void runAsync_withoutProjectName_throws() {
+        assertThrows(NullPointerException.class, () -> new EvaluationFactory(client).create()
+                .build()
+                .runAsync(examples(1), scorers()));
+    }
+
+    @Test
+    void run_withResultCache_skipsExamplesScoredBefore() throws Exception {
+        status("{\"status\":\"completed\"}");
+        server.stubFor(post(urlEqualTo("/fetch_experiment_run/"))
+                .willReturn(aResponse().withBody("{\"results\":["
+                        + "{\"success\":true,\"data_object\":{\"example_id\":\"e0\"},"
+                        + "\"scorers_data\":[{\"name\":\"Answer Relevancy\",\"score\":0.9,\"success\":true}]},"
+                        + "{\"success\":true,\"data_object\":{\"example_id\":\"e1\"},"
+                        + "\"scorers_data\":[{\"name\":\"Answer Relevancy\",\"score\":0.4,\"success\":false}]}]}")));
+        EvaluationResultCache cache = EvaluationResultCache.builder()
+                .build();
+        Evaluation cached = evaluation().resultCache(cache)
+                .build();
+        List<Example> examples = examples(2);
+        examples.get(0)
+                .setExampleId("e0");
+        examples.get(1)
+                .setExampleId("e1");
+
+        cached.run(examples, scorers());
+        List<ScoringResult> rerun = cached.run(examples(2), scorers());
+
+        assertEquals(1, server.findAll(postRequestedFor(urlEqualTo("/add_to_run_eval_queue/")))
+                .size());
+        assertEquals(2, rerun.size());
+        assertEquals(0.9, rerun.get(0)
+                .getScorersData()
+                .get(0)
+                .getScore());
+        assertEquals(false, rerun.get(1)
+                .getSuccess());
+        assertEquals(0.5, cache.getHitRatio());
+    }
+
+    @Test
+    void run_withResultCacheAndDuplicateScorerNames_throws() {
+        Evaluation cached = evaluation().resultCache(EvaluationResultCache.builder()
+                .build())
+                .build();
+        List<BaseScorer> scorers = List.of(AnswerRelevancyScorer.builder()
+                .threshold(0.5)
+                .build(),
+                AnswerRelevancyScorer.builder()
+                        .threshold(0.9)
+                        .build());
+
+        assertThrows(IllegalArgumentException.class, () -> cached.run(examples(1), scorers));
+        assertEquals(0, server.findAll(postRequestedFor(urlEqualTo("/add_to_run_eval_queue/")))
+                .size());
+    }
+
+    @Test
+    void publish_emitsResultsAndCompletes() throws Exception {
+        status("{\"status\":\"completed\"}");
+        RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+
+        evaluation().chunkSize(2)
+                .build()
+                .publish(examples(5), scorers())
+                .subscribe(subscriber);
+
+        assertTrue(subscriber.done.await(5, TimeUnit.SECONDS));
+        assertEquals(6, subscriber.results.size());
+        assertNull(subscriber.error);
+    }
+
+    @Test
+    void publish_fromIterator_takesChunksAsNeeded() throws Exception {
+        status("{\"status\":\"completed\"}");
+        List<Integer> totals = new CopyOnWriteArrayList<>();
+        RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+
+        evaluation().chunkSize(2)
+                .progressListener((done, total) -> totals.add(total))
+                .build()
+                .publish(examples(5).iterator(), scorers())
+                .subscribe(subscriber);
+
+        assertTrue(subscriber.done.await(5, TimeUnit.SECONDS));
+        assertNull(subscriber.error);
+        assertEquals(6, subscriber.results.size());
+        assertEquals(List.of(-1, -1, -1), totals);
+    }
+
+    @Test
+    void publish_submitsChunksOnlyAsResultsAreRequested() throws Exception {
+        status("{\"status\":\"completed\"}");
+        RecordingSubscriber subscriber = new RecordingSubscriber(1);
+
+        evaluation().chunkSize(1)
+                .maxInFlight(1)
+                .build()
+                .publish(examples(10), scorers())
+                .subscribe(subscriber);
+        Thread.sleep(200);
+
+        assertEquals(1, subscriber.results.size());
+        assertEquals(1, server.findAll(postRequestedFor(urlEqualTo("/add_to_run_eval_queue/")))
+                .size());
+
+        subscriber.subscription.request(Long.MAX_VALUE);
+
+        assertTrue(subscriber.done.await(5, TimeUnit.SECONDS));
+        assertEquals(20, subscriber.results.size());
+    }
+
+    @Test
+    void publish_withFailedChunk_signalsError() throws Exception {
+        status("{\"status\":\"failed\"}");
+        RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+
+        evaluation().build()
+                .publish(examples(3), scorers())
+                .subscribe(subscriber);
+
+        assertTrue(subscriber.done.await(5, TimeUnit.SECONDS));
+        assertInstanceOf(IOException.class, subscriber.error);
+    }
+
+    @Test
+    void publish_secondSubscriber_isRejected() throws Exception {
+        Flow.Publisher<ScoringResult> publisher = evaluation().build()
+                .publish(List.of(), scorers());
+        RecordingSubscriber first = new RecordingSubscriber(1);
+        RecordingSubscriber second = new RecordingSubscriber(1);
+
+        publisher.subscribe(first);
+        publisher.subscribe(second);
+
+        assertTrue(first.done.await(1, TimeUnit.SECONDS));
+        assertNull(first.error);
+        assertInstanceOf(IllegalStateException.class, second.error);
+    }
+
+    private static final class RecordingSubscriber implements Flow.Subscriber<ScoringResult> {
+        private final long                 initialRequest;
+        private final List<ScoringResult>  results = new CopyOnWriteArrayList<>();
+        private final CountDownLatch       done    = new CountDownLatch(1);
+        private volatile Flow.Subscription subscription;
+        private volatile Throwable         error;
+
+        RecordingSubscriber(long initialRequest) {
+            this.initialRequest = initialRequest;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(initialRequest);
+        }
+
+        @Override
+        public void onNext(ScoringResult item) {
+            results.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+            done.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            done.countDown();
+        }
+    }
+}
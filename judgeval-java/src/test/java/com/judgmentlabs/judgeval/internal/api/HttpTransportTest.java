@@ -0,0 +1,327 @@
+package com.judgmentlabs.judgeval.internal.api;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.stubbing.Scenario;
+import com.judgmentlabs.judgeval.CircuitBreakerPolicy;
+import com.judgmentlabs.judgeval.Compression;
+import com.judgmentlabs.judgeval.EndpointMetrics;
+import com.judgmentlabs.judgeval.RetryPolicy;
+import com.judgmentlabs.judgeval.TransportConfig;
+import com.judgmentlabs.judgeval.internal.api.models.EvalResults;
+import com.judgmentlabs.judgeval.internal.api.models.ExampleEvaluationRun;
+
+class HttpTransportTest {
+
+    private WireMockServer server;
+
+    @BeforeEach
+    void setUp() {
+        server = new WireMockServer(wireMockConfig().dynamicPort());
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop();
+    }
+
+    private HttpRequest request(HttpTransport transport, String path) {
+        return transport.newRequest(URI.create(server.baseUrl() + path))
+                .POST(HttpRequest.BodyPublishers.ofString("{}"))
+                .build();
+    }
+
+    @Test
+    void sendAsync_neverExceedsMaxConcurrentRequests() throws Exception {
+        server.stubFor(post(urlEqualTo("/slow")).willReturn(aResponse().withStatus(200)
+                .withFixedDelay(150)));
+        HttpTransport transport = HttpTransport.create(TransportConfig.builder()
+                .httpVersion(HttpClient.Version.HTTP_1_1)
+                .maxConcurrentRequests(2)
+                .build());
+
+        AtomicInteger peak = new AtomicInteger();
+        List<CompletableFuture<HttpResponse<Void>>> responses = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            responses.add(transport.sendAsync(request(transport, "/slow"), HttpResponse.BodyHandlers.discarding()));
+            peak.accumulateAndGet(transport.getInFlightRequests(), Math::max);
+        }
+        CompletableFuture<Void> all = CompletableFuture.allOf(responses.toArray(CompletableFuture<?>[]::new));
+        while (!all.isDone()) {
+            peak.accumulateAndGet(transport.getInFlightRequests(), Math::max);
+            Thread.sleep(5);
+        }
+
+        all.get(5, TimeUnit.SECONDS);
+        assertEquals(2, peak.get());
+        assertEquals(0, transport.getInFlightRequests());
+        server.verify(6, postRequestedFor(urlEqualTo("/slow")));
+    }
+
+    @Test
+    void sendAsync_whenClientThrows_failsAndReleasesSlot() throws Exception {
+        server.stubFor(post(urlEqualTo("/ok")).willReturn(aResponse().withStatus(200)));
+        HttpTransport transport = HttpTransport.create(TransportConfig.builder()
+                .maxConcurrentRequests(1)
+                .retryPolicy(RetryPolicy.none())
+                .build());
+
+        CompletableFuture<HttpResponse<Void>> failed = transport.sendAsync(request(transport, "/ok"), null);
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> failed.get(5, TimeUnit.SECONDS));
+        assertTrue(error.getCause() instanceof NullPointerException);
+        assertEquals(0, transport.getInFlightRequests());
+        assertEquals(200, transport.sendAsync(request(transport, "/ok"), HttpResponse.BodyHandlers.discarding())
+                .get(5, TimeUnit.SECONDS)
+                .statusCode());
+    }
+
+    @Test
+    void send_appliesRequestTimeout() {
+        server.stubFor(post(urlEqualTo("/hang")).willReturn(aResponse().withStatus(200)
+                .withFixedDelay(2000)));
+        HttpTransport transport = HttpTransport.create(TransportConfig.builder()
+                .requestTimeout(Duration.ofMillis(100))
+                .build());
+
+        assertThrows(HttpTimeoutException.class,
+                () -> transport.send(request(transport, "/hang"), HttpResponse.BodyHandlers.discarding()));
+        assertEquals(0, transport.getInFlightRequests());
+    }
+
+    @Test
+    void syncClient_sendsThroughGivenTransport() throws Exception {
+        server.stubFor(post(urlEqualTo("/add_to_run_eval_queue/")).willReturn(aResponse().withStatus(200)
+                .withBody("{}")));
+        HttpTransport transport = HttpTransport.create(TransportConfig.defaults());
+        JudgmentSyncClient client = new JudgmentSyncClient(server.baseUrl(), "key", "org", transport);
+
+        client.addToRunEvalQueue(new ExampleEvaluationRun());
+
+        assertSame(transport, client.getTransport());
+        server.verify(postRequestedFor(urlEqualTo("/add_to_run_eval_queue/"))
+                .withHeader("Authorization", equalTo("Bearer key")));
+    }
+
+    @Test
+    void send_retriesTransientFailuresThenSucceeds() throws Exception {
+        server.stubFor(post(urlEqualTo("/flaky")).inScenario("flaky")
+                .whenScenarioStateIs(Scenario.STARTED)
+                .willReturn(aResponse().withStatus(503))
+                .willSetStateTo("recovered"));
+        server.stubFor(post(urlEqualTo("/flaky")).inScenario("flaky")
+                .whenScenarioStateIs("recovered")
+                .willReturn(aResponse().withStatus(200)));
+        HttpTransport transport = HttpTransport.create(fastRetries(CircuitBreakerPolicy.defaults()));
+
+        HttpResponse<Void> response = transport.send(request(transport, "/flaky"),
+                HttpResponse.BodyHandlers.discarding());
+
+        assertEquals(200, response.statusCode());
+        EndpointMetrics metrics = transport.getEndpointMetrics()
+                .get(0);
+        assertEquals("POST /flaky", metrics.getEndpoint());
+        assertEquals(2, metrics.getAttempts());
+        assertEquals(1, metrics.getRetries());
+        assertEquals(EndpointMetrics.CircuitState.CLOSED, metrics.getCircuitState());
+    }
+
+    @Test
+    void sendAsync_honorsRetryAfter() throws Exception {
+        server.stubFor(post(urlEqualTo("/throttled")).inScenario("throttled")
+                .whenScenarioStateIs(Scenario.STARTED)
+                .willReturn(aResponse().withStatus(429)
+                        .withHeader("Retry-After", "1"))
+                .willSetStateTo("allowed"));
+        server.stubFor(post(urlEqualTo("/throttled")).inScenario("throttled")
+                .whenScenarioStateIs("allowed")
+                .willReturn(aResponse().withStatus(200)));
+        HttpTransport transport = HttpTransport.create(fastRetries(CircuitBreakerPolicy.defaults()));
+
+        long start = System.nanoTime();
+        HttpResponse<Void> response = transport
+                .sendAsync(request(transport, "/throttled"), HttpResponse.BodyHandlers.discarding())
+                .get(5, TimeUnit.SECONDS);
+
+        assertEquals(200, response.statusCode());
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(1000));
+    }
+
+    @Test
+    void send_doesNotRetryClientErrors() throws Exception {
+        server.stubFor(post(urlEqualTo("/add_to_run_eval_queue/")).willReturn(aResponse().withStatus(400)
+                .withBody("bad run")));
+        HttpTransport transport = HttpTransport.create(fastRetries(CircuitBreakerPolicy.defaults()));
+        JudgmentSyncClient client = new JudgmentSyncClient(server.baseUrl(), "key", "org", transport);
+
+        JudgmentApiException error = assertThrows(JudgmentApiException.class,
+                () -> client.addToRunEvalQueue(new ExampleEvaluationRun()));
+
+        assertEquals(400, error.getStatusCode());
+        assertEquals("bad run", error.getResponseBody());
+        assertFalse(error.isRetryable());
+        server.verify(1, postRequestedFor(urlEqualTo("/add_to_run_eval_queue/")));
+    }
+
+    @Test
+    void circuitBreaker_opensAfterConsecutiveFailuresAndRecovers() throws Exception {
+        server.stubFor(post(urlEqualTo("/down")).willReturn(aResponse().withStatus(500)));
+        HttpTransport transport = HttpTransport.create(TransportConfig.builder()
+                .retryPolicy(RetryPolicy.none())
+                .circuitBreaker(CircuitBreakerPolicy.builder()
+                        .failureThreshold(2)
+                        .openDuration(Duration.ofMillis(200))
+                        .build())
+                .build());
+
+        transport.send(request(transport, "/down"), HttpResponse.BodyHandlers.discarding());
+        transport.send(request(transport, "/down"), HttpResponse.BodyHandlers.discarding());
+        assertThrows(CircuitBreakerOpenException.class,
+                () -> transport.send(request(transport, "/down"), HttpResponse.BodyHandlers.discarding()));
+        server.verify(2, postRequestedFor(urlEqualTo("/down")));
+        assertEquals(1, transport.getEndpointMetrics()
+                .get(0)
+                .getRejected());
+
+        server.stubFor(post(urlEqualTo("/down")).willReturn(aResponse().withStatus(200)));
+        Thread.sleep(250);
+        assertEquals(200, transport.send(request(transport, "/down"), HttpResponse.BodyHandlers.discarding())
+                .statusCode());
+        assertEquals(EndpointMetrics.CircuitState.CLOSED, transport.getEndpointMetrics()
+                .get(0)
+                .getCircuitState());
+    }
+
+    @Test
+    void circuitBreaker_whenHalfOpenTrialIsInterrupted_allowsNextTrial() throws Exception {
+        server.stubFor(post(urlEqualTo("/down")).willReturn(aResponse().withStatus(500)));
+        HttpTransport transport = HttpTransport.create(TransportConfig.builder()
+                .retryPolicy(RetryPolicy.none())
+                .circuitBreaker(CircuitBreakerPolicy.builder()
+                        .failureThreshold(1)
+                        .openDuration(Duration.ofMillis(100))
+                        .build())
+                .build());
+        transport.send(request(transport, "/down"), HttpResponse.BodyHandlers.discarding());
+
+        server.stubFor(post(urlEqualTo("/down")).willReturn(aResponse().withStatus(200)
+                .withFixedDelay(5000)));
+        Thread.sleep(150);
+        AtomicReference<Throwable> trialError = new AtomicReference<>();
+        Thread trial = new Thread(() -> {
+            try {
+                transport.send(request(transport, "/down"), HttpResponse.BodyHandlers.discarding());
+            } catch (Exception e) {
+                trialError.set(e);
+            }
+        });
+        trial.start();
+        while (transport.getInFlightRequests() == 0) {
+            Thread.sleep(5);
+        }
+        trial.interrupt();
+        trial.join(5000);
+        assertTrue(trialError.get() instanceof InterruptedException);
+
+        server.stubFor(post(urlEqualTo("/down")).willReturn(aResponse().withStatus(200)));
+        assertEquals(200, transport.send(request(transport, "/down"), HttpResponse.BodyHandlers.discarding())
+                .statusCode());
+        assertEquals(EndpointMetrics.CircuitState.CLOSED, transport.getEndpointMetrics()
+                .get(0)
+                .getCircuitState());
+    }
+
+    @Test
+    void parseRetryAfter_acceptsSecondsAndHttpDates() {
+        assertEquals(Duration.ofSeconds(3), HttpTransport.parseRetryAfter("3")
+                .orElseThrow());
+        assertTrue(HttpTransport.parseRetryAfter("Wed, 21 Oct 2015 07:28:00 GMT")
+                .orElseThrow()
+                .isZero());
+        assertTrue(HttpTransport.parseRetryAfter("soon")
+                .isEmpty());
+    }
+
+    private static TransportConfig fastRetries(CircuitBreakerPolicy circuitBreaker) {
+        return TransportConfig.builder()
+                .retryPolicy(RetryPolicy.builder()
+                        .initialBackoff(Duration.ofMillis(10))
+                        .maxBackoff(Duration.ofMillis(20))
+                        .build())
+                .circuitBreaker(circuitBreaker)
+                .build();
+    }
+
+    @Test
+    void newJsonRequest_compressesLargePayloads() throws Exception {
+        server.stubFor(post(urlEqualTo("/log_eval_results/")).willReturn(aResponse().withStatus(200)
+                .withBody("{}")));
+        HttpTransport transport = HttpTransport.create(TransportConfig.builder()
+                .compression(Compression.GZIP)
+                .compressionThreshold(64)
+                .build());
+        JudgmentSyncClient client = new JudgmentSyncClient(server.baseUrl(), "key", "org", transport);
+        EvalResults results = new EvalResults();
+        results.setAdditionalProperty("actual_output", "x".repeat(10_000));
+
+        client.logEvalResults(results);
+
+        server.verify(postRequestedFor(urlEqualTo("/log_eval_results/")).withHeader("Content-Encoding",
+                equalTo("gzip")));
+        assertTrue(server.getAllServeEvents()
+                .get(0)
+                .getRequest()
+                .getBodyAsString()
+                .contains("actual_output"));
+    }
+
+    @Test
+    void defaultTransport_isShared() {
+        assertSame(HttpTransport.defaultTransport(), HttpTransport.defaultTransport());
+        assertSame(HttpTransport.defaultTransport(), new JudgmentSyncClient("http://localhost", "key", "org")
+                .getTransport());
+    }
+
+    @Test
+    void config_withNonPositiveValues_throwsException() {
+        assertThrows(IllegalArgumentException.class, () -> TransportConfig.builder()
+                .maxConcurrentRequests(0)
+                .build());
+        assertThrows(IllegalArgumentException.class, () -> TransportConfig.builder()
+                .requestTimeout(Duration.ZERO)
+                .build());
+        assertTrue(TransportConfig.defaults()
+                .getExecutor()
+                .isEmpty());
+    }
+}
@@ -0,0 +1,200 @@
+package com.judgmentlabs.judgeval.internal.api;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.luben.zstd.ZstdInputStream;
+import com.judgmentlabs.judgeval.Compression;
+
+class JsonRequestBodyTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static JsonRequestBody encode(Object payload, Compression compression, int threshold)
+            throws IOException {
+        return JsonRequestBody.create(MAPPER.writer(), payload, compression, threshold,
+                JsonRequestBody.defaultExecutor(), Duration.ofSeconds(5));
+    }
+
+    private static Map<String, String> payloadOfSize(int chars) {
+        return Map.of("actual_output", "x".repeat(chars));
+    }
+
+    @Test
+    void smallBody_isSentInlineAndUncompressed() throws Exception {
+        JsonRequestBody body = encode(Map.of("small", true), Compression.GZIP, 1024);
+
+        assertEquals(Optional.empty(), body.contentEncoding());
+        assertEquals("{\"small\":true}", new String(drain(body, Long.MAX_VALUE).bytes()));
+        assertTrue(body.publisher()
+                .contentLength() > 0);
+    }
+
+    @Test
+    void mediumBody_isGzippedInline() throws Exception {
+        Map<String, String> payload = payloadOfSize(10_000);
+        JsonRequestBody body = encode(payload, Compression.GZIP, 1024);
+
+        assertEquals(Optional.of("gzip"), body.contentEncoding());
+        byte[] sent = drain(body, Long.MAX_VALUE).bytes();
+        assertTrue(sent.length < 1000);
+        assertArrayEquals(MAPPER.writeValueAsBytes(payload), decode(new GZIPInputStream(new ByteArrayInputStream(
+                sent))));
+    }
+
+    @Test
+    void largeBody_isStreamedInBoundedChunks() throws Exception {
+        Map<String, String> payload = payloadOfSize(1_000_000);
+        JsonRequestBody body = encode(payload, Compression.NONE, 1024);
+
+        assertEquals(-1, body.publisher()
+                .contentLength());
+        Drained drained = drain(body, 1);
+        assertArrayEquals(MAPPER.writeValueAsBytes(payload), drained.bytes());
+        assertTrue(drained.chunkSizes()
+                .stream()
+                .allMatch(size -> size <= JsonRequestBody.CHUNK_BYTES));
+    }
+
+    @Test
+    void largeBody_isStreamedThroughZstd() throws Exception {
+        Map<String, String> payload = payloadOfSize(1_000_000);
+        JsonRequestBody body = encode(payload, JsonRequestBody.resolve(Compression.ZSTD), 1024);
+
+        assertEquals(Optional.of("zstd"), body.contentEncoding());
+        byte[] sent = drain(body, 1).bytes();
+        assertArrayEquals(MAPPER.writeValueAsBytes(payload), decode(new ZstdInputStream(new ByteArrayInputStream(
+                sent))));
+    }
+
+    @Test
+    void streamedBody_canBeSubscribedAgainForRetries() throws Exception {
+        Map<String, String> payload = payloadOfSize(200_000);
+        JsonRequestBody body = encode(payload, Compression.NONE, 1024);
+
+        assertArrayEquals(drain(body, 4).bytes(), drain(body, 4).bytes());
+    }
+
+    @Test
+    void cancel_stopsTheWriter() throws Exception {
+        JsonRequestBody body = encode(payloadOfSize(1_000_000), Compression.NONE, 1024);
+        CompletableFuture<Throwable> terminal = new CompletableFuture<>();
+        List<ByteBuffer> received = new CopyOnWriteArrayList<>();
+
+        body.publisher()
+                .subscribe(new Flow.Subscriber<ByteBuffer>() {
+                    private Flow.Subscription subscription;
+
+                    @Override
+                    public void onSubscribe(Flow.Subscription subscription) {
+                        this.subscription = subscription;
+                        subscription.request(1);
+                    }
+
+                    @Override
+                    public void onNext(ByteBuffer item) {
+                        received.add(item);
+                        subscription.cancel();
+                    }
+
+                    @Override
+                    public void onError(Throwable throwable) {
+                        terminal.complete(throwable);
+                    }
+
+                    @Override
+                    public void onComplete() {
+                        terminal.complete(null);
+                    }
+                });
+
+        Thread.sleep(200);
+        assertEquals(1, received.size());
+        assertFalse(terminal.isDone());
+    }
+
+    private static byte[] decode(InputStream in) throws IOException {
+        try (in) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static Drained drain(JsonRequestBody body, long batch) throws Exception {
+        CompletableFuture<Drained> result = new CompletableFuture<>();
+        body.publisher()
+                .subscribe(new Flow.Subscriber<ByteBuffer>() {
+                    private final ByteArrayOutputStream collected = new ByteArrayOutputStream();
+                    private final List<Integer>         sizes     = new CopyOnWriteArrayList<>();
+                    private Flow.Subscription           subscription;
+                    private long                        outstanding;
+
+                    @Override
+                    public void onSubscribe(Flow.Subscription subscription) {
+                        this.subscription = subscription;
+                        outstanding = batch;
+                        subscription.request(batch);
+                    }
+
+                    @Override
+                    public void onNext(ByteBuffer item) {
+                        sizes.add(item.remaining());
+                        byte[] chunk = new byte[item.remaining()];
+                        item.get(chunk);
+                        collected.writeBytes(chunk);
+                        if (--outstanding == 0) {
+                            outstanding = batch;
+                            subscription.request(batch);
+                        }
+                    }
+
+                    @Override
+                    public void onError(Throwable throwable) {
+                        result.completeExceptionally(throwable);
+                    }
+
+                    @Override
+                    public void onComplete() {
+                        result.complete(new Drained(collected.toByteArray(), sizes));
+                    }
+                });
+        return result.get(10, TimeUnit.SECONDS);
+    }
+
+    private static final class Drained {
+        private final byte[]        bytes;
+        private final List<Integer> chunkSizes;
+
+        Drained(byte[] bytes, List<Integer> chunkSizes) {
+            this.bytes = bytes;
+            this.chunkSizes = chunkSizes;
+        }
+
+        byte[] bytes() {
+            return bytes;
+        }
+
+        List<Integer> chunkSizes() {
+            return chunkSizes;
+        }
+    }
+}
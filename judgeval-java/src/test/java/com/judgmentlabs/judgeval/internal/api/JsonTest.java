@@ -0,0 +1,53 @@
+package com.judgmentlabs.judgeval.internal.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.judgmentlabs.judgeval.internal.api.models.Example;
+import com.judgmentlabs.judgeval.internal.api.models.ExampleEvaluationRun;
+import com.judgmentlabs.judgeval.internal.api.models.ScorerConfig;
+
+class JsonTest {
+
+    @Test
+    void writersAndReaders_areCachedPerType() {
+        assertSame(Json.writerFor(ExampleEvaluationRun.class), Json.writerFor(ExampleEvaluationRun.class));
+        assertSame(Json.readerFor(ExampleEvaluationRun.class), Json.readerFor(ExampleEvaluationRun.class));
+    }
+
+    @Test
+    void mapper_registersBlackbirdWhenAvailable() {
+        assertTrue(Json.mapper()
+                .getRegisteredModuleIds()
+                .stream()
+                .anyMatch(id -> id.toString()
+                        .contains("Blackbird")));
+    }
+
+    @Test
+    void evaluationRun_roundTrips() throws Exception {
+        Example example = new Example();
+        example.setName("example");
+        example.setAdditionalProperty("input", "question");
+        ScorerConfig scorer = new ScorerConfig();
+        scorer.setScoreType("faithfulness");
+        ExampleEvaluationRun run = new ExampleEvaluationRun();
+        run.setId("run-1");
+        run.setProjectName("project");
+        run.setExamples(List.of(example));
+        run.setJudgmentScorers(List.of(scorer));
+        run.setAdditionalProperty("extra", 1);
+
+        byte[] json = Json.writerFor(ExampleEvaluationRun.class)
+                .writeValueAsBytes(run);
+        ExampleEvaluationRun decoded = Json.readerFor(ExampleEvaluationRun.class)
+                .readValue(json);
+
+        assertEquals(run, decoded);
+    }
+}
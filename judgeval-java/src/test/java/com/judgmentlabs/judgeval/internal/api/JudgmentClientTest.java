@@ -0,0 +1,157 @@
+package com.judgmentlabs.judgeval.internal.api;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.judgmentlabs.judgeval.RetryPolicy;
+import com.judgmentlabs.judgeval.TransportConfig;
+import com.judgmentlabs.judgeval.internal.api.models.EvalResultsFetch;
+import com.judgmentlabs.judgeval.internal.api.models.ScorerExistsRequest;
+import com.judgmentlabs.judgeval.internal.api.models.ScorerExistsResponse;
+import com.judgmentlabs.judgeval.internal.api.models.ScoringResult;
+
+class JudgmentClientTest {
+
+    private WireMockServer      server;
+    private HttpTransport       transport;
+    private JudgmentSyncClient  syncClient;
+    private JudgmentAsyncClient asyncClient;
+
+    @BeforeEach
+    void setUp() {
+        server = new WireMockServer(wireMockConfig().dynamicPort());
+        server.start();
+        transport = HttpTransport.create(TransportConfig.builder()
+                .retryPolicy(RetryPolicy.none())
+                .build());
+        syncClient = new JudgmentSyncClient(server.baseUrl(), "key", "org", transport);
+        asyncClient = new JudgmentAsyncClient(server.baseUrl(), "key", "org", transport);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop();
+    }
+
+    private void respond(String path, int status, String body) {
+        server.stubFor(post(urlEqualTo(path)).willReturn(aResponse().withStatus(status)
+                .withBody(body)));
+    }
+
+    private static String experimentRun(int results) {
+        StringBuilder body = new StringBuilder("{\"id\":\"run\",\"run\":{\"nested\":[1,2]},\"results\":[");
+        for (int i = 0; i < results; i++) {
+            body.append(i == 0 ? "" : ",")
+                    .append("{\"name\":\"result-")
+                    .append(i)
+                    .append("\",\"success\":true}");
+        }
+        return body.append("],\"total\":")
+                .append(results)
+                .append("}")
+                .toString();
+    }
+
+    @Test
+    void typedResponse_isDecodedToDeclaredType() throws Exception {
+        respond("/scorer_exists/", 200, "{\"exists\":true}");
+
+        ScorerExistsResponse sync = syncClient.scorerExists(new ScorerExistsRequest());
+        ScorerExistsResponse async = asyncClient.scorerExists(new ScorerExistsRequest())
+                .get(5, TimeUnit.SECONDS);
+
+        assertTrue(sync.getExists());
+        assertTrue(async.getExists());
+    }
+
+    @Test
+    void typedResponse_withErrorStatus_throwsApiException() {
+        respond("/scorer_exists/", 404, "{\"detail\":\"missing\"}");
+
+        JudgmentApiException sync = assertThrows(JudgmentApiException.class,
+                () -> syncClient.scorerExists(new ScorerExistsRequest()));
+        ExecutionException async = assertThrows(ExecutionException.class,
+                () -> asyncClient.scorerExists(new ScorerExistsRequest())
+                        .get(5, TimeUnit.SECONDS));
+
+        assertEquals(404, sync.getStatusCode());
+        assertEquals("{\"detail\":\"missing\"}", sync.getResponseBody());
+        assertInstanceOf(JudgmentApiException.class, async.getCause());
+    }
+
+    @Test
+    void streamExperimentRunResults_iteratesResultsOneAtATime() throws Exception {
+        respond("/fetch_experiment_run/", 200, experimentRun(2_000));
+
+        List<String> names = new ArrayList<>();
+        try (ResultStream<ScoringResult> results = syncClient.streamExperimentRunResults(new EvalResultsFetch())) {
+            results.forEachRemaining(result -> names.add(result.getName()));
+            assertFalse(results.hasNext());
+        }
+
+        assertEquals(2_000, names.size());
+        assertEquals("result-0", names.get(0));
+        assertEquals("result-1999", names.get(1999));
+    }
+
+    @Test
+    void streamExperimentRunResults_async_withoutResults_isEmpty() throws Exception {
+        respond("/fetch_experiment_run/", 200, "{\"id\":\"run\"}");
+
+        try (ResultStream<ScoringResult> results = asyncClient.streamExperimentRunResults(new EvalResultsFetch())
+                .get(5, TimeUnit.SECONDS)) {
+            assertFalse(results.hasNext());
+        }
+    }
+
+    @Test
+    void streamExperimentRunResults_closedEarly_allowsFurtherRequests() throws Exception {
+        respond("/fetch_experiment_run/", 200, experimentRun(10_000));
+
+        for (int i = 0; i < 3; i++) {
+            try (ResultStream<ScoringResult> results = syncClient.streamExperimentRunResults(
+                    new EvalResultsFetch())) {
+                assertEquals("result-0", results.next()
+                        .getName());
+            }
+        }
+
+        assertEquals(0, transport.getInFlightRequests());
+    }
+
+    @Test
+    void getEvaluationStatus_sendsEncodedQueryParameters() throws Exception {
+        server.stubFor(get(urlEqualTo("/get_evaluation_status/?experiment_run_id=run-1&project_name=my+project"))
+                .willReturn(aResponse().withStatus(200)
+                        .withBody("{\"status\":\"completed\"}")));
+
+        Object sync = syncClient.getEvaluationStatus("run-1", "my project");
+        Object async = asyncClient.getEvaluationStatus("run-1", "my project")
+                .get(5, TimeUnit.SECONDS);
+
+        assertEquals(Map.of("status", "completed"), sync);
+        assertEquals(sync, async);
+        server.verify(2, getRequestedFor(urlEqualTo(
+                "/get_evaluation_status/?experiment_run_id=run-1&project_name=my+project")));
+    }
+}
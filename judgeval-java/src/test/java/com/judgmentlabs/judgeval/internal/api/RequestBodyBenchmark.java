@@ -0,0 +1,114 @@
+package com.judgmentlabs.judgeval.internal.api;
+
+import java.lang.management.ManagementFactory;
+import java.net.http.HttpRequest;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.judgmentlabs.judgeval.Compression;
+import com.judgmentlabs.judgeval.TransportConfig;
+import com.judgmentlabs.judgeval.internal.api.models.EvalResults;
+import com.judgmentlabs.judgeval.internal.api.models.ScoringResult;
+
+/**
+ * Compares the bytes allocated per request when an {@link EvalResults} payload
+ * is serialized to a String up front with the allocation of
+ * {@link JsonRequestBody}. Not run as part of the test suite; start it with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.judgmentlabs.judgeval.internal.api.RequestBodyBenchmark}.
+ */
+public final class RequestBodyBenchmark {
+    private static final ObjectMapper MAPPER     = new ObjectMapper();
+    private static final int          ITERATIONS = 5;
+
+    private RequestBodyBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+                .getThreadMXBean();
+        for (int megabytes : new int[] { 1, 50 }) {
+            EvalResults payload = payloadOf(megabytes * 1024 * 1024);
+            for (int i = 0; i < 2; i++) {
+                materialized(payload);
+                streamed(payload);
+            }
+            long materialized = 0;
+            long streamed = 0;
+            for (int i = 0; i < ITERATIONS; i++) {
+                long before = allocatedBytes(threads);
+                materialized(payload);
+                long middle = allocatedBytes(threads);
+                streamed(payload);
+                materialized += middle - before;
+                streamed += allocatedBytes(threads) - middle;
+            }
+            System.out.printf("%3d MB EvalResults: materialized %,d bytes/request, streamed %,d bytes/request%n",
+                    megabytes, materialized / ITERATIONS, streamed / ITERATIONS);
+        }
+    }
+
+    private static EvalResults payloadOf(int bytes) {
+        List<ScoringResult> results = new ArrayList<>();
+        String output = "x".repeat(4096);
+        for (int size = 0; size < bytes; size += output.length()) {
+            ScoringResult result = new ScoringResult();
+            result.setName("result-" + results.size());
+            result.setSuccess(true);
+            result.setAdditionalProperty("actual_output", output);
+            results.add(result);
+        }
+        EvalResults payload = new EvalResults();
+        payload.setResults(results);
+        return payload;
+    }
+
+    private static void materialized(EvalResults payload) throws Exception {
+        drain(HttpRequest.BodyPublishers.ofString(MAPPER.writeValueAsString(payload)));
+    }
+
+    private static void streamed(EvalResults payload) throws Exception {
+        drain(JsonRequestBody.create(MAPPER.writer(), payload, Compression.NONE,
+                TransportConfig.DEFAULT_COMPRESSION_THRESHOLD, JsonRequestBody.defaultExecutor(),
+                Duration.ofSeconds(30))
+                .publisher());
+    }
+
+    private static long allocatedBytes(com.sun.management.ThreadMXBean threads) {
+        return Arrays.stream(threads.getThreadAllocatedBytes(threads.getAllThreadIds()))
+                .filter(bytes -> bytes > 0)
+                .sum();
+    }
+
+    private static void drain(HttpRequest.BodyPublisher publisher) throws Exception {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        publisher.subscribe(new Flow.Subscriber<ByteBuffer>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(ByteBuffer item) {
+                item.position(item.limit());
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                done.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                done.complete(null);
+            }
+        });
+        done.get();
+    }
+}
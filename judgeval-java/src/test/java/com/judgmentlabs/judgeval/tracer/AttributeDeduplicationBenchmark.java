@@ -0,0 +1,82 @@
+package com.judgmentlabs.judgeval.tracer;
+
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.judgmentlabs.judgeval.tracer.exporters.OtlpTraceEncoder;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.AttributeType;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+
+/**
+ * Compares the attribute bytes held by finished spans and the OTLP bytes
+ * exported for an agent trace that repeats its system prompt and retrieval
+ * context on every LLM span, with and without {@link AttributeDeduplication}.
+ * Not run as part of the test suite; start it with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.judgmentlabs.judgeval.tracer.AttributeDeduplicationBenchmark}.
+ */
+public final class AttributeDeduplicationBenchmark {
+    private static final int    SPANS         = 40;
+    private static final String SYSTEM_PROMPT = "You are a careful research assistant. Cite your sources. ".repeat(140);
+    private static final String CONTEXT       = "Retrieved passage about the topic under discussion. ".repeat(80);
+
+    private AttributeDeduplicationBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        for (AttributeDeduplication mode : AttributeDeduplication.values()) {
+            List<SpanData> spans = trace(AttributeInterner.of(mode));
+            Collection<SpanData> exported = mode == AttributeDeduplication.REFERENCE
+                    ? DeduplicatingExporter.deduplicate(spans, AttributeDeduplication.MIN_CHARS)
+                    : spans;
+            System.out.printf("%-9s held %,9d attribute chars, exported %,9d OTLP bytes%n", mode, heldChars(spans),
+                    otlpBytes(exported));
+        }
+    }
+
+    private static List<SpanData> trace(AttributeInterner interner) {
+        InMemorySpanExporter exporter = InMemorySpanExporter.create();
+        try (SdkTracerProvider tracerProvider = SdkTracerProvider.builder()
+                .addSpanProcessor(SimpleSpanProcessor.create(exporter))
+                .build()) {
+            for (int i = 0; i < SPANS; i++) {
+                // Each span serializes its own copy, as setInput does.
+                tracerProvider.get("benchmark")
+                        .spanBuilder("llm-call-" + i)
+                        .startSpan()
+                        .setAttribute("gen_ai.prompt", interner.intern(new String(SYSTEM_PROMPT)))
+                        .setAttribute("judgment.input", interner.intern(new String(CONTEXT)))
+                        .setAttribute("judgment.output", "answer " + i)
+                        .end();
+            }
+            return exporter.getFinishedSpanItems();
+        }
+    }
+
+    private static long heldChars(List<SpanData> spans) {
+        Map<Object, Boolean> distinct = new IdentityHashMap<>();
+        long chars = 0;
+        for (SpanData span : spans) {
+            for (Map.Entry<AttributeKey<?>, Object> attribute : span.getAttributes()
+                    .asMap()
+                    .entrySet()) {
+                if (attribute.getKey()
+                        .getType() == AttributeType.STRING && distinct.put(attribute.getValue(), true) == null) {
+                    chars += ((String) attribute.getValue()).length();
+                }
+            }
+        }
+        return chars;
+    }
+
+    private static int otlpBytes(Collection<SpanData> spans) {
+        return OtlpTraceEncoder.encode(spans).length;
+    }
+}
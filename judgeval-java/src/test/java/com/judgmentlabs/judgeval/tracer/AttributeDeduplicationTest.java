@@ -0,0 +1,97 @@
+package com.judgmentlabs.judgeval.tracer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+
+class AttributeDeduplicationTest {
+    private static final AttributeKey<String> PROMPT         = AttributeKey.stringKey("gen_ai.prompt");
+    private static final AttributeKey<String> PROMPT_ID      = AttributeKey.stringKey("gen_ai.prompt"
+            + AttributeDeduplication.CONTENT_ID_SUFFIX);
+    private static final AttributeKey<String> PROMPT_REF     = AttributeKey.stringKey("gen_ai.prompt"
+            + AttributeDeduplication.CONTENT_REF_SUFFIX);
+
+    private final InMemorySpanExporter        exporter       = InMemorySpanExporter.create();
+    private final SdkTracerProvider           tracerProvider = SdkTracerProvider.builder()
+            .addSpanProcessor(SimpleSpanProcessor.create(exporter))
+            .build();
+
+    @AfterEach
+    void tearDown() {
+        tracerProvider.close();
+    }
+
+    private List<SpanData> spans(String... prompts) {
+        for (String prompt : prompts) {
+            tracerProvider.get("test")
+                    .spanBuilder("llm")
+                    .setAttribute(PROMPT, prompt)
+                    .startSpan()
+                    .end();
+        }
+        return exporter.getFinishedSpanItems();
+    }
+
+    @Test
+    void repeatedLargeValue_isExportedOncePerBatch() {
+        String systemPrompt = "You are a helpful assistant. ".repeat(100);
+
+        List<SpanData> spans = new ArrayList<>(DeduplicatingExporter.deduplicate(
+                spans(systemPrompt, systemPrompt, "short", systemPrompt), AttributeDeduplication.MIN_CHARS));
+
+        Attributes first = spans.get(0)
+                .getAttributes();
+        assertEquals(systemPrompt, first.get(PROMPT));
+        String contentId = first.get(PROMPT_ID);
+        assertEquals(64, contentId.length());
+        for (int i : new int[] { 1, 3 }) {
+            Attributes repeated = spans.get(i)
+                    .getAttributes();
+            assertNull(repeated.get(PROMPT));
+            assertEquals(contentId, repeated.get(PROMPT_REF));
+            assertEquals(1, spans.get(i)
+                    .getTotalAttributeCount());
+        }
+        assertSame(exporter.getFinishedSpanItems()
+                .get(2), spans.get(2));
+    }
+
+    @Test
+    void eachBatch_definesItsOwnValues() {
+        String context = "retrieved document ".repeat(100);
+        List<SpanData> exported = spans(context, context);
+
+        SpanData second = DeduplicatingExporter.deduplicate(exported.subList(1, 2), AttributeDeduplication.MIN_CHARS)
+                .iterator()
+                .next();
+
+        assertEquals(context, second.getAttributes()
+                .get(PROMPT));
+    }
+
+    @Test
+    void interner_sharesLargeValuesOnly() {
+        AttributeInterner interner = AttributeInterner.of(AttributeDeduplication.INLINE);
+        String large = "x".repeat(AttributeDeduplication.MIN_CHARS);
+        String small = "short";
+
+        assertSame(large, interner.intern(large));
+        assertSame(large, interner.intern(new String(large)));
+        assertNotSame(small, interner.intern(new String(small)));
+        assertSame(AttributeInterner.NONE, AttributeInterner.of(AttributeDeduplication.OFF));
+    }
+}
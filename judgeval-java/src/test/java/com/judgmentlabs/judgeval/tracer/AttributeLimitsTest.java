@@ -0,0 +1,207 @@
+package com.judgmentlabs.judgeval.tracer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.common.AttributesBuilder;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+
+class AttributeLimitsTest {
+    private static final String        KEY        = "judgment.output";
+
+    private final GsonSerializer       serializer = new GsonSerializer();
+    private final InMemorySpanExporter exporter   = InMemorySpanExporter.create();
+    private SdkTracerProvider          tracerProvider;
+
+    @AfterEach
+    void tearDown() {
+        if (tracerProvider != null) {
+            tracerProvider.close();
+        }
+    }
+
+    private static String sha256(String value) throws Exception {
+        return HexFormat.of()
+                .formatHex(MessageDigest.getInstance("SHA-256")
+                        .digest(value.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static int utf8Length(String value) {
+        return value.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private static Attributes attributesOf(SerializedAttribute serialized) {
+        AttributesBuilder attributes = Attributes.builder();
+        serialized.putInto(attributes, KEY);
+        return attributes.build();
+    }
+
+    private Attributes export(AttributeBudget budget, Object... values) {
+        tracerProvider = SdkTracerProvider.builder()
+                .addSpanProcessor(SimpleSpanProcessor.create(exporter))
+                .build();
+        Span span = tracerProvider.get("test")
+                .spanBuilder("span")
+                .startSpan();
+        for (int i = 0; i < values.length; i++) {
+            SerializedAttribute serialized = budget.serialize(serializer, span, values[i], values[i].getClass());
+            if (serialized != null) {
+                serialized.setOn(span, KEY + i, AttributeInterner.NONE);
+            }
+        }
+        span.end();
+        return exporter.getFinishedSpanItems()
+                .get(0)
+                .getAttributes();
+    }
+
+    @Test
+    void valueWithinBudget_isUnchanged() {
+        SerializedAttribute serialized = AttributeBuffer.serialize(serializer, List.of("a", 1), List.class, 9);
+
+        assertEquals("[\"a\",1]", serialized.value());
+        assertFalse(serialized.isTruncated());
+    }
+
+    @Test
+    void oversizedValue_keepsPrefixWithMarkerAndHashesFullValue() throws Exception {
+        String completion = "x".repeat(200_000);
+        String json = "\"" + completion + "\"";
+
+        SerializedAttribute serialized = AttributeBuffer.serialize(serializer, completion, String.class, 1024);
+        Attributes attributes = attributesOf(serialized);
+
+        assertTrue(serialized.isTruncated());
+        assertEquals(1024, utf8Length(serialized.value()));
+        assertTrue(serialized.value()
+                .startsWith("\"xxx"));
+        assertTrue(serialized.value()
+                .endsWith(AttributeLimits.TRUNCATION_MARKER));
+        assertEquals(json.length(), attributes.get(AttributeKey.longKey(KEY + AttributeLimits.ORIGINAL_BYTES_SUFFIX)));
+        assertEquals(sha256(json), attributes.get(AttributeKey.stringKey(KEY + AttributeLimits.SHA256_SUFFIX)));
+    }
+
+    @Test
+    void multiByteValue_isMeasuredInUtf8AndNeverSplitsCharacters() throws Exception {
+        String text = "h\u00e9llo \u2713 \ud83d\ude00".repeat(50);
+        String json = serializer.serialize(text);
+
+        for (int limit = 20; limit < 40; limit++) {
+            AttributeWriter out = new AttributeWriter();
+            out.reset(limit);
+            SerializedAttribute serialized = out.append(json)
+                    .finish();
+
+            String value = serialized.value();
+            assertTrue(utf8Length(value) <= limit, value);
+            assertFalse(Character.isHighSurrogate(value.charAt(value.length() - AttributeLimits.TRUNCATION_MARKER
+                    .length() - 1)));
+            Attributes attributes = attributesOf(serialized);
+            assertEquals(utf8Length(json), attributes.get(AttributeKey.longKey(KEY
+                    + AttributeLimits.ORIGINAL_BYTES_SUFFIX)));
+            assertEquals(sha256(json), attributes.get(AttributeKey.stringKey(KEY + AttributeLimits.SHA256_SUFFIX)));
+        }
+    }
+
+    @Test
+    void spanBudget_truncatesLaterAttributesAndChargesTheirHash() {
+        AttributeBudget budget = new AttributeBudget(AttributeLimits.of(100, 180));
+
+        Attributes attributes = export(budget, "a".repeat(90), "b".repeat(90), "c");
+
+        assertEquals("\"" + "a".repeat(90) + "\"", attributes.get(AttributeKey.stringKey(KEY + 0)));
+        assertEquals("\"b" + AttributeLimits.TRUNCATION_MARKER, attributes.get(AttributeKey.stringKey(KEY + 1)));
+        assertEquals(92L, attributes.get(AttributeKey.longKey(KEY + 1 + AttributeLimits.ORIGINAL_BYTES_SUFFIX)));
+        assertFalse(attributes.asMap()
+                .containsKey(AttributeKey.stringKey(KEY + 2)));
+    }
+
+    @Test
+    void spanBudget_dropsValueWhoseTruncatedFormDoesNotFit() {
+        AttributeBudget budget = new AttributeBudget(AttributeLimits.of(100, 120));
+
+        Attributes attributes = export(budget, "a".repeat(90), "b".repeat(90), "c");
+
+        assertFalse(attributes.asMap()
+                .containsKey(AttributeKey.stringKey(KEY + 1)));
+        assertFalse(attributes.asMap()
+                .containsKey(AttributeKey.stringKey(KEY + 1 + AttributeLimits.SHA256_SUFFIX)));
+        assertEquals("\"c\"", attributes.get(AttributeKey.stringKey(KEY + 2)));
+    }
+
+    @Test
+    void spanBudget_appliesToStringAttributesInUtf8() {
+        tracerProvider = SdkTracerProvider.builder()
+                .addSpanProcessor(SimpleSpanProcessor.create(exporter))
+                .build();
+        Span span = tracerProvider.get("test")
+                .spanBuilder("span")
+                .startSpan();
+        AttributeBudget budget = new AttributeBudget(AttributeLimits.of(1000, 1000));
+
+        SerializedAttribute first = budget.bound(span, "\u00e9".repeat(300));
+        SerializedAttribute second = budget.bound(span, "\u00e9".repeat(300));
+        span.end();
+
+        assertFalse(first.isTruncated());
+        assertEquals(600, first.bytes());
+        assertTrue(second.isTruncated());
+        assertTrue(utf8Length(second.value()) <= 1000 - 600 - AttributeLimits.TRUNCATION_METADATA_BYTES);
+        assertNull(budget.bound(span, "x".repeat(400)));
+    }
+
+    @Test
+    void spanBudget_isReleasedWhenSpanEnds() {
+        AttributeBudget budget = new AttributeBudget(AttributeLimits.of(100, 180));
+        tracerProvider = SdkTracerProvider.builder()
+                .addSpanProcessor(new SpanBudgetReleaser(budget, null))
+                .addSpanProcessor(SimpleSpanProcessor.create(exporter))
+                .build();
+        Span span = tracerProvider.get("test")
+                .spanBuilder("span")
+                .startSpan();
+
+        budget.serialize(serializer, span, "a", String.class);
+        assertEquals(1, budget.trackedSpans());
+        span.end();
+
+        assertEquals(0, budget.trackedSpans());
+    }
+
+    @Test
+    void plainSerializer_isTruncatedAfterSerializing() {
+        ISerializer plain = obj -> "y".repeat(500);
+
+        SerializedAttribute serialized = AttributeBuffer.serialize(plain, "ignored", String.class, 64);
+
+        assertEquals("y".repeat(64 - AttributeLimits.TRUNCATION_MARKER.length()) + AttributeLimits.TRUNCATION_MARKER,
+                serialized.value());
+    }
+
+    @Test
+    void nonPositiveBudget_isRejected() {
+        assertThrows(IllegalArgumentException.class, () -> AttributeLimits.of(0, 10));
+    }
+
+    @Test
+    void attributeBudgetSmallerThanMarker_isRejected() {
+        assertThrows(IllegalArgumentException.class, () -> AttributeLimits.of(AttributeLimits.TRUNCATION_MARKER
+                .length() - 1, 1000));
+    }
+}
@@ -0,0 +1,113 @@
+package com.judgmentlabs.judgeval.tracer;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.gson.Gson;
+
+/**
+ * Compares the bytes allocated to serialize one span input or output with
+ * {@link Gson#toJson(Object)} against {@link GsonSerializer} writing into the
+ * per-thread {@link AttributeBuffer}. Not run as part of the test suite; start
+ * it with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.judgmentlabs.judgeval.tracer.AttributeSerializationBenchmark}.
+ */
+public final class AttributeSerializationBenchmark {
+    private static final Gson           GSON       = new Gson();
+    private static final GsonSerializer SERIALIZER = new GsonSerializer();
+    private static final int            ITERATIONS = 10_000;
+
+    private AttributeSerializationBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+                .getThreadMXBean();
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("prompt", "Summarize the following document:\n" + "lorem ipsum <dolor> sit amet ".repeat(40));
+        values.put("chat request", chatRequest(6));
+        values.put("chat response", chatResponse());
+        values.put("scored output", List.of(0.82, 0.91, 0.77, true, "faithfulness"));
+        values.put("pojo response", new Completion("chatcmpl-1", "stop", "The answer is 42."));
+
+        long sink = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            for (Object value : values.values()) {
+                sink += GSON.toJson(value, value.getClass())
+                        .length();
+                sink += AttributeBuffer.serialize(SERIALIZER, value, value.getClass())
+                        .length();
+            }
+        }
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            Object value = entry.getValue();
+            long before = threads.getCurrentThreadAllocatedBytes();
+            for (int i = 0; i < ITERATIONS; i++) {
+                sink += GSON.toJson(value, value.getClass())
+                        .length();
+            }
+            long middle = threads.getCurrentThreadAllocatedBytes();
+            for (int i = 0; i < ITERATIONS; i++) {
+                sink += AttributeBuffer.serialize(SERIALIZER, value, value.getClass())
+                        .length();
+            }
+            long after = threads.getCurrentThreadAllocatedBytes();
+            System.out.printf("%-14s Gson.toJson %,7d bytes/attribute, buffered %,7d bytes/attribute%n",
+                    entry.getKey(), (middle - before) / ITERATIONS, (after - middle) / ITERATIONS);
+        }
+        System.out.println(sink == 0 ? "" : "done");
+    }
+
+    private static Map<String, Object> chatRequest(int turns) {
+        List<Map<String, Object>> messages = new ArrayList<>();
+        messages.add(message("system", "You are a helpful assistant. Answer concisely."));
+        for (int i = 0; i < turns; i++) {
+            messages.add(message(i % 2 == 0 ? "user" : "assistant",
+                    "Turn " + i + ": what's the capital of France? It's Paris & it has ~2.1M people."));
+        }
+        Map<String, Object> request = new LinkedHashMap<>();
+        request.put("model", "gpt-4o-mini");
+        request.put("messages", messages);
+        request.put("temperature", 0.2);
+        request.put("max_tokens", 512);
+        request.put("stream", false);
+        return request;
+    }
+
+    private static Map<String, Object> chatResponse() {
+        Map<String, Object> usage = new LinkedHashMap<>();
+        usage.put("prompt_tokens", 412);
+        usage.put("completion_tokens", 96);
+        Map<String, Object> choice = new LinkedHashMap<>();
+        choice.put("index", 0);
+        choice.put("message", message("assistant", "Paris is the capital of France.\nIt has about 2.1M people."));
+        choice.put("finish_reason", "stop");
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("id", "chatcmpl-9x7");
+        response.put("choices", List.of(choice));
+        response.put("usage", usage);
+        return response;
+    }
+
+    private static Map<String, Object> message(String role, String content) {
+        Map<String, Object> message = new LinkedHashMap<>();
+        message.put("role", role);
+        message.put("content", content);
+        return message;
+    }
+
+    private static final class Completion {
+        private final String id;
+        private final String finishReason;
+        private final String content;
+
+        Completion(String id, String finishReason, String content) {
+            this.id = id;
+            this.finishReason = finishReason;
+            this.content = content;
+        }
+    }
+}
@@ -3,24 +3,43 @@ package com.judgmentlabs.judgeval.tracer;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.List;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import com.judgmentlabs.judgeval.data.Example;
 import com.judgmentlabs.judgeval.internal.api.JudgmentSyncClient;
+import com.judgmentlabs.judgeval.internal.api.models.ExampleEvaluationRun;
 import com.judgmentlabs.judgeval.internal.api.models.ResolveProjectNameRequest;
 import com.judgmentlabs.judgeval.internal.api.models.ResolveProjectNameResponse;
+import com.judgmentlabs.judgeval.scorers.BaseScorer;
+import com.judgmentlabs.judgeval.scorers.built_in.AnswerRelevancyScorer;
 import com.judgmentlabs.judgeval.tracer.exporters.JudgmentSpanExporter;
 import com.judgmentlabs.judgeval.tracer.exporters.NoOpSpanExporter;
+import com.judgmentlabs.judgeval.tracer.metrics.SpanDropReason;
 
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.testing.trace.TestSpanData;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.StatusData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
 import io.opentelemetry.sdk.trace.export.SpanExporter;
 
 @ExtendWith(MockitoExtension.class)
@@ -135,12 +154,112 @@ class BaseTracerTest {
         assertTrue(exporter instanceof NoOpSpanExporter);
     }
 
+    @Test
+    void getSpanExporter_withoutProjectId_countsDroppedSpans() throws Exception {
+        when(mockClient.projectsResolve(any(ResolveProjectNameRequest.class)))
+                .thenReturn(null);
+        TestableBaseTracer failedTracer = new TestableBaseTracer(
+                TEST_PROJECT_NAME,
+                true,
+                mockClient,
+                mockSerializer);
+
+        failedTracer.getSpanExporter()
+                .export(List.of(TestSpanData.builder()
+                        .setSpanContext(SpanContext.getInvalid())
+                        .setName("span")
+                        .setKind(SpanKind.INTERNAL)
+                        .setStartEpochNanos(0)
+                        .setEndEpochNanos(1)
+                        .setHasEnded(true)
+                        .setStatus(StatusData.unset())
+                        .build()));
+
+        assertEquals(1, failedTracer.getMetrics()
+                .snapshot()
+                .getSpansDropped(SpanDropReason.PROJECT_UNRESOLVED));
+    }
+
     @Test
     void getTracer_returnsTracer() {
         io.opentelemetry.api.trace.Tracer otelTracer = tracer.getTracer();
         assertNotNull(otelTracer);
     }
 
+    @Test
+    void span_afterUseOpenTelemetry_usesThatInstance() {
+        InMemorySpanExporter exporter = InMemorySpanExporter.create();
+        try (OpenTelemetrySdk openTelemetry = OpenTelemetrySdk.builder()
+                .setTracerProvider(SdkTracerProvider.builder()
+                        .addSpanProcessor(SimpleSpanProcessor.create(exporter))
+                        .build())
+                .build()) {
+            tracer.useOpenTelemetry(openTelemetry, false);
+
+            tracer.span("work", () -> {
+            });
+
+            assertSame(tracer.getTracer(), tracer.getTracer());
+            assertEquals(1, exporter.getFinishedSpanItems()
+                    .size());
+        }
+    }
+
+    @Test
+    void staticSpan_afterReleaseOpenTelemetry_stopsUsingThatInstance() {
+        InMemorySpanExporter exporter = InMemorySpanExporter.create();
+        try (OpenTelemetrySdk openTelemetry = OpenTelemetrySdk.builder()
+                .setTracerProvider(SdkTracerProvider.builder()
+                        .addSpanProcessor(SimpleSpanProcessor.create(exporter))
+                        .build())
+                .build()) {
+            tracer.useOpenTelemetry(openTelemetry, true);
+            BaseTracer.span("before")
+                    .end();
+
+            tracer.releaseOpenTelemetry();
+            BaseTracer.span("after")
+                    .end();
+
+            assertEquals(List.of("before"), exporter.getFinishedSpanItems()
+                    .stream()
+                    .map(span -> span.getName())
+                    .toList());
+        }
+    }
+
+    @Test
+    void asyncEvaluate_inDifferentSpans_submitsFewerRequestsThanRuns() throws Exception {
+        InMemorySpanExporter exporter = InMemorySpanExporter.create();
+        try (OpenTelemetrySdk openTelemetry = OpenTelemetrySdk.builder()
+                .setTracerProvider(SdkTracerProvider.builder()
+                        .addSpanProcessor(SimpleSpanProcessor.create(exporter))
+                        .build())
+                .build()) {
+            tracer.useOpenTelemetry(openTelemetry, false);
+            BaseScorer scorer = AnswerRelevancyScorer.builder()
+                    .build();
+
+            for (int i = 0; i < 6; i++) {
+                int index = i;
+                tracer.span("work", () -> tracer.asyncEvaluate(scorer, Example.builder()
+                        .property("input", "question " + index)
+                        .build()));
+            }
+            assertTrue(tracer.evaluationQueue.forceFlush(2000));
+
+            ArgumentCaptor<ExampleEvaluationRun> runs = ArgumentCaptor.forClass(ExampleEvaluationRun.class);
+            verify(mockClient, atLeastOnce()).addToRunEvalQueue(runs.capture());
+            assertTrue(runs.getAllValues()
+                    .size() < 6);
+            assertEquals(6, runs.getAllValues()
+                    .stream()
+                    .mapToInt(run -> run.getExamples()
+                            .size())
+                    .sum());
+        }
+    }
+
     @Test
     void setAttributes_withNull_doesNotThrow() {
         tracer.setAttributes(null);
@@ -0,0 +1,153 @@
+package com.judgmentlabs.judgeval.tracer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+
+class DeferredAttributesTest {
+    private final InMemorySpanExporter exporter   = InMemorySpanExporter.create();
+    private final CountingSerializer   serializer = new CountingSerializer();
+    private SdkTracerProvider          tracerProvider;
+
+    private static final class CountingSerializer implements ISerializer {
+        private final GsonSerializer gson       = new GsonSerializer();
+        private final AtomicInteger  serialized = new AtomicInteger();
+
+        @Override
+        public String serialize(Object obj) {
+            return serialize(obj, obj.getClass());
+        }
+
+        @Override
+        public String serialize(Object obj, Type type) {
+            serialized.incrementAndGet();
+            return gson.serialize(obj, type);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        tracerProvider.close();
+    }
+
+    private DeferredAttributes deferred(AttributeCapture capture) {
+        return deferred(capture, new AttributeBudget(AttributeLimits.none()));
+    }
+
+    private DeferredAttributes deferred(AttributeCapture capture, AttributeBudget budget) {
+        DeferredAttributes deferred = new DeferredAttributes(serializer, capture, budget);
+        tracerProvider = SdkTracerProvider.builder()
+                .addSpanProcessor(new SpanBudgetReleaser(budget, deferred))
+                .addSpanProcessor(SimpleSpanProcessor.create(deferred.wrap(exporter)))
+                .build();
+        return deferred;
+    }
+
+    private Span startSpan() {
+        return tracerProvider.get("test")
+                .spanBuilder("span")
+                .startSpan();
+    }
+
+    private SpanData exportedSpan() {
+        List<SpanData> spans = exporter.getFinishedSpanItems();
+        assertEquals(1, spans.size());
+        return spans.get(0);
+    }
+
+    private String exportedInput() {
+        return exportedSpan().getAttributes()
+                .get(AttributeKey.stringKey("judgment.input"));
+    }
+
+    @Test
+    void reference_serializesAtExportWithLatestState() {
+        DeferredAttributes deferred = deferred(AttributeCapture.REFERENCE);
+        List<String> messages = new ArrayList<>(List.of("hello"));
+        Span span = startSpan();
+
+        assertTrue(deferred.capture(span, "judgment.input", messages, List.class));
+        messages.add("world");
+        assertEquals(0, serializer.serialized.get());
+        span.end();
+
+        assertEquals("[\"hello\",\"world\"]", exportedInput());
+        assertEquals(1, serializer.serialized.get());
+        assertEquals(0, deferred.pendingSpans());
+    }
+
+    @Test
+    void snapshot_copiesValueWhenCaptured() {
+        DeferredAttributes deferred = deferred(AttributeCapture.SNAPSHOT);
+        Map<String, Object> request = new LinkedHashMap<>();
+        request.put("messages", new ArrayList<>(List.of("hello")));
+        request.put("scores", new double[] { 0.5 });
+        Span span = startSpan();
+
+        assertTrue(deferred.capture(span, "judgment.input", request, Map.class));
+        request.put("model", "changed");
+        ((double[]) request.get("scores"))[0] = 1.0;
+        span.end();
+
+        assertEquals("{\"messages\":[\"hello\"],\"scores\":[0.5]}", exportedInput());
+        assertEquals(1, exportedSpan().getTotalAttributeCount());
+    }
+
+    @Test
+    void snapshot_ofUncopyableValue_isRefused() {
+        DeferredAttributes deferred = deferred(AttributeCapture.SNAPSHOT);
+        Span span = startSpan();
+
+        assertTrue(deferred.capture(span, "judgment.input", "first", String.class));
+        assertFalse(deferred.capture(span, "judgment.input", List.of(new Object()), List.class));
+        span.end();
+
+        assertNull(exportedInput());
+        assertEquals(0, serializer.serialized.get());
+    }
+
+    @Test
+    void deferredValue_isChargedWithBytesSpentBeforeSpanEnded() {
+        AttributeBudget budget = new AttributeBudget(AttributeLimits.of(100, 120));
+        DeferredAttributes deferred = deferred(AttributeCapture.REFERENCE, budget);
+        Span span = startSpan();
+
+        budget.serialize(serializer, span, "a".repeat(90), String.class);
+        assertTrue(deferred.capture(span, "judgment.input", "b".repeat(90), String.class));
+        span.end();
+
+        assertNull(exportedInput());
+        assertEquals(0, budget.trackedSpans());
+        assertEquals(0, deferred.pendingSpans());
+    }
+
+    @Test
+    void unexportedSpan_isNeverSerialized() {
+        DeferredAttributes deferred = deferred(AttributeCapture.REFERENCE);
+        Span span = startSpan();
+
+        deferred.capture(span, "judgment.input", "unexported", String.class);
+        deferred.resolve(List.of());
+
+        assertEquals(0, serializer.serialized.get());
+        assertEquals(1, deferred.pendingSpans());
+    }
+}
@@ -0,0 +1,100 @@
+package com.judgmentlabs.judgeval.tracer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+class GsonSerializerTest {
+    private final GsonSerializer serializer = new GsonSerializer();
+    private final Gson           gson       = new Gson();
+
+    private static final class Message {
+        private final String role;
+        private final String content;
+
+        Message(String role, String content) {
+            this.role = role;
+            this.content = content;
+        }
+
+        @Override
+        public String toString() {
+            return role + ": " + content;
+        }
+    }
+
+    private void assertMatchesGson(Object value) {
+        assertEquals(gson.toJson(value), serializer.serialize(value));
+        assertEquals(gson.toJson(value), AttributeBuffer.serialize(serializer, value, value.getClass()));
+    }
+
+    @Test
+    void scalars_matchGson() {
+        for (Object value : new Object[] { "plain", "quote \" slash \\ <tag> & a=b 'x'", "\t\b\n\r\f\u0001\u001f",
+                "line\u2028para\u2029", "h\u00e9llo \u2713", "", 'c', '<', true, 42, -7L, (short) 3, (byte) 1, 1.0, 0.1,
+                1e-7, 123456789.125, 2.5f, Double.MIN_VALUE }) {
+            assertMatchesGson(value);
+        }
+    }
+
+    @Test
+    void collections_matchGson() {
+        Map<String, Object> request = new LinkedHashMap<>();
+        request.put("model", "gpt-4o");
+        request.put("messages", List.of(Map.of("role", "user", "content", "Hi <there>")));
+        request.put("temperature", 0.2);
+        request.put("stop", null);
+        request.put("tags", new LinkedList<>(Arrays.asList("a", null, "b")));
+        Map<Object, Object> keys = new HashMap<>();
+        keys.put(1, "one");
+        keys.put(null, "none");
+        keys.put("k", new ArrayList<>());
+
+        assertMatchesGson(request);
+        assertMatchesGson(keys);
+        assertMatchesGson(List.of(new Message("user", "Hi"), Map.of("nested", List.of(1, 2.5, true))));
+        assertMatchesGson(new Object[] { new Message("assistant", "Hello") });
+    }
+
+    @Test
+    void declaredType_isUsedForOtherObjects() {
+        Type type = new TypeToken<Map<String, Message>>() {
+        }.getType();
+        Map<String, Message> value = Map.of("m", new Message("user", "Hi"));
+
+        assertEquals(gson.toJson(value, type), serializer.serialize(value, type));
+    }
+
+    @Test
+    void nonFiniteNumbers_fallBackToToString() {
+        assertEquals("NaN", serializer.serialize(Double.NaN));
+        assertEquals("[Infinity]", serializer.serialize(List.of(Float.POSITIVE_INFINITY)));
+    }
+
+    @Test
+    void nullValue_serializesToNull() {
+        assertNull(serializer.serialize(null));
+        assertNull(AttributeBuffer.serialize(serializer, null, Object.class));
+    }
+
+    @Test
+    void largeValue_isNotRetainedByBuffer() {
+        String large = "x".repeat(AttributeBuffer.MAX_RETAINED_CHARS * 2);
+
+        assertEquals(gson.toJson(large), AttributeBuffer.serialize(serializer, large, String.class));
+        assertEquals("\"small\"", AttributeBuffer.serialize(serializer, "small", String.class));
+    }
+}
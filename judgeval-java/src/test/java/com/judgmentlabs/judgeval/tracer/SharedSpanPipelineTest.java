@@ -0,0 +1,172 @@
+package com.judgmentlabs.judgeval.tracer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.judgmentlabs.judgeval.JudgmentAttributeKeys;
+import com.judgmentlabs.judgeval.tracer.metrics.SpanDropReason;
+
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+class SharedSpanPipelineTest {
+    private final SharedSpanPipeline pipeline = SharedSpanPipeline.builder()
+            .build();
+
+    @AfterEach
+    void tearDown() {
+        pipeline.shutdown()
+                .join(5, TimeUnit.SECONDS);
+    }
+
+    private static SdkTracerProvider provider(String projectId, SpanProcessor processor) {
+        return SdkTracerProvider.builder()
+                .setResource(Resource.create(Attributes.builder()
+                        .put(JudgmentAttributeKeys.ResourceKeys.JUDGMENT_PROJECT_ID, projectId)
+                        .build()))
+                .addSpanProcessor(processor)
+                .build();
+    }
+
+    private static void endSpan(SdkTracerProvider provider, String name) {
+        provider.get("test")
+                .spanBuilder(name)
+                .startSpan()
+                .end();
+    }
+
+    private static List<String> names(InMemorySpanExporter exporter) {
+        return exporter.getFinishedSpanItems()
+                .stream()
+                .map(SpanData::getName)
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    void spans_areRoutedToTheirProjectsExporter() {
+        InMemorySpanExporter first = InMemorySpanExporter.create();
+        InMemorySpanExporter second = InMemorySpanExporter.create();
+        SdkTracerProvider firstProvider = provider("first", pipeline.attach("first", first));
+        SdkTracerProvider secondProvider = provider("second", pipeline.attach("second", second));
+
+        endSpan(firstProvider, "a");
+        endSpan(secondProvider, "b");
+        endSpan(firstProvider, "c");
+        assertTrue(pipeline.forceFlush()
+                .join(5, TimeUnit.SECONDS)
+                .isSuccess());
+
+        assertEquals(List.of("a", "c"), names(first));
+        assertEquals(List.of("b"), names(second));
+        assertEquals(2, pipeline.getProjectCount());
+    }
+
+    @Test
+    void spansOfUnattachedProjects_areDropped() {
+        InMemorySpanExporter other = InMemorySpanExporter.create();
+        SdkTracerProvider unattached = provider("unattached", pipeline.attach("other", other));
+
+        endSpan(unattached, "lost");
+        pipeline.forceFlush()
+                .join(5, TimeUnit.SECONDS);
+
+        assertEquals(List.of(), names(other));
+        assertEquals(1, pipeline.getMetrics()
+                .snapshot()
+                .getSpansDropped(SpanDropReason.PROJECT_UNRESOLVED));
+    }
+
+    @Test
+    void shuttingDownOneTracer_detachesOnlyItsProject() {
+        InMemorySpanExporter first = InMemorySpanExporter.create();
+        InMemorySpanExporter second = InMemorySpanExporter.create();
+        SdkTracerProvider firstProvider = provider("first", pipeline.attach("first", first));
+        SdkTracerProvider secondProvider = provider("second", pipeline.attach("second", second));
+
+        endSpan(firstProvider, "a");
+        assertTrue(firstProvider.shutdown()
+                .join(5, TimeUnit.SECONDS)
+                .isSuccess());
+        endSpan(secondProvider, "b");
+        assertTrue(pipeline.forceFlush()
+                .join(5, TimeUnit.SECONDS)
+                .isSuccess());
+
+        assertEquals(1, pipeline.getProjectCount());
+        assertEquals(List.of("b"), names(second));
+    }
+
+    @Test
+    void shuttingDownTracer_exportsSpansQueuedDuringAnotherFlush() throws InterruptedException {
+        BlockingExporter second = new BlockingExporter();
+        SdkTracerProvider firstProvider = provider("first", pipeline.attach("first", InMemorySpanExporter.create()));
+        SdkTracerProvider secondProvider = provider("second", pipeline.attach("second", second));
+
+        endSpan(secondProvider, "b");
+        pipeline.forceFlush();
+        assertTrue(second.exporting.await(5, TimeUnit.SECONDS));
+        endSpan(firstProvider, "a");
+        CompletableResultCode detached = firstProvider.shutdown();
+        second.release.countDown();
+
+        assertTrue(detached.join(5, TimeUnit.SECONDS)
+                .isSuccess());
+        assertTrue(pipeline.forceFlush()
+                .join(5, TimeUnit.SECONDS)
+                .isSuccess());
+        assertEquals(0, pipeline.getMetrics()
+                .snapshot()
+                .getSpansDropped(SpanDropReason.PROJECT_UNRESOLVED));
+    }
+
+    @Test
+    void attachingAnAttachedProject_isRejected() {
+        pipeline.attach("first", InMemorySpanExporter.create());
+
+        assertThrows(IllegalStateException.class, () -> pipeline.attach("first", InMemorySpanExporter.create()));
+        assertEquals(1, pipeline.getProjectCount());
+    }
+
+    private static final class BlockingExporter implements SpanExporter {
+        private final CountDownLatch exporting = new CountDownLatch(1);
+        private final CountDownLatch release   = new CountDownLatch(1);
+
+        @Override
+        public CompletableResultCode export(Collection<SpanData> spans) {
+            exporting.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread()
+                        .interrupt();
+            }
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode flush() {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+            return CompletableResultCode.ofSuccess();
+        }
+    }
+}
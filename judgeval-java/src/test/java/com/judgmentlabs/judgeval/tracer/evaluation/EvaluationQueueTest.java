@@ -0,0 +1,295 @@
+package com.judgmentlabs.judgeval.tracer.evaluation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.judgmentlabs.judgeval.internal.api.models.Example;
+import com.judgmentlabs.judgeval.internal.api.models.ExampleEvaluationRun;
+
+class EvaluationQueueTest {
+
+    private static ExampleEvaluationRun run(String id) {
+        return run(id, id);
+    }
+
+    private static ExampleEvaluationRun run(String id, String spanId) {
+        Example example = new Example();
+        example.setAdditionalProperty("input", id);
+
+        ExampleEvaluationRun run = new ExampleEvaluationRun();
+        run.setId(id);
+        run.setProjectName("project");
+        run.setEvalName("async_evaluate_" + spanId);
+        run.setTraceId("trace");
+        run.setTraceSpanId(spanId);
+        run.setExamples(List.of(example));
+        return run;
+    }
+
+    @Test
+    void offer_submitsRunOnWorkerThread() {
+        List<String> threads = new CopyOnWriteArrayList<>();
+        EvaluationQueue queue = EvaluationQueue.builder()
+                .sink(r -> threads.add(Thread.currentThread()
+                        .getName()))
+                .build();
+
+        assertTrue(queue.offer(run("a")));
+        assertTrue(queue.forceFlush(1000));
+
+        assertEquals(1, threads.size());
+        assertTrue(threads.get(0)
+                .startsWith("judgeval-evaluation-"));
+    }
+
+    @Test
+    void offer_whenFullWithDropNewest_rejectsNewRun() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> submitted = new CopyOnWriteArrayList<>();
+        EvaluationQueue queue = blockingQueue(BackpressurePolicy.DROP_NEWEST, entered, release, submitted);
+
+        assertTrue(queue.offer(run("in-flight")));
+        assertTrue(entered.await(1, TimeUnit.SECONDS));
+        assertTrue(queue.offer(run("queued")));
+        assertFalse(queue.offer(run("dropped")));
+
+        release.countDown();
+        assertTrue(queue.forceFlush(1000));
+        assertEquals(List.of("in-flight", "queued"), submitted);
+        assertEquals(1, queue.getDroppedCount());
+    }
+
+    @Test
+    void offer_whenFullWithDropOldest_evictsOldestRun() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> submitted = new CopyOnWriteArrayList<>();
+        EvaluationQueue queue = blockingQueue(BackpressurePolicy.DROP_OLDEST, entered, release, submitted);
+
+        assertTrue(queue.offer(run("in-flight")));
+        assertTrue(entered.await(1, TimeUnit.SECONDS));
+        assertTrue(queue.offer(run("evicted")));
+        assertTrue(queue.offer(run("newest")));
+
+        release.countDown();
+        assertTrue(queue.forceFlush(1000));
+        assertEquals(List.of("in-flight", "newest"), submitted);
+        assertEquals(1, queue.getDroppedCount());
+    }
+
+    @Test
+    void offer_whenFullWithBlock_waitsForTimeout() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        EvaluationQueue queue = EvaluationQueue.builder()
+                .capacity(1)
+                .backpressurePolicy(BackpressurePolicy.BLOCK_WITH_TIMEOUT)
+                .offerTimeout(Duration.ofMillis(50))
+                .sink(r -> {
+                    entered.countDown();
+                    awaitQuietly(release);
+                })
+                .build();
+
+        assertTrue(queue.offer(run("in-flight")));
+        assertTrue(entered.await(1, TimeUnit.SECONDS));
+        assertTrue(queue.offer(run("queued")));
+
+        long start = System.nanoTime();
+        assertFalse(queue.offer(run("timed-out")));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+
+        release.countDown();
+        assertTrue(queue.forceFlush(1000));
+    }
+
+    @Test
+    void shutdown_drainsQueuedRunsAndRejectsNewOnes() {
+        List<Example> submitted = new CopyOnWriteArrayList<>();
+        EvaluationQueue queue = EvaluationQueue.builder()
+                .workers(2)
+                .sink(r -> submitted.addAll(r.getExamples()))
+                .build();
+
+        for (int i = 0; i < 100; i++) {
+            queue.offer(run("run-" + i));
+        }
+
+        assertTrue(queue.shutdown(2000));
+        assertEquals(100, submitted.size());
+        assertFalse(queue.offer(run("late")));
+    }
+
+    @Test
+    void sinkFailure_doesNotStopWorker() {
+        List<String> submitted = new CopyOnWriteArrayList<>();
+        EvaluationQueue queue = EvaluationQueue.builder()
+                .maxBatchSize(1)
+                .sink(r -> {
+                    if (r.getId()
+                            .equals("bad")) {
+                        throw new IllegalStateException("boom");
+                    }
+                    submitted.add(r.getId());
+                })
+                .build();
+
+        queue.offer(run("bad"));
+        queue.offer(run("good"));
+
+        assertTrue(queue.forceFlush(1000));
+        assertEquals(List.of("good"), submitted);
+    }
+
+    @Test
+    void batch_mergesRunsFromDifferentSpansIntoOneRequest() {
+        List<ExampleEvaluationRun> submitted = new CopyOnWriteArrayList<>();
+        EvaluationQueue queue = EvaluationQueue.builder()
+                .maxBatchLatency(Duration.ofMillis(200))
+                .sink(submitted::add)
+                .build();
+
+        queue.offer(run("a", "span-1"));
+        queue.offer(run("b", "span-1"));
+        queue.offer(run("c", "span-2"));
+
+        assertTrue(queue.forceFlush(2000));
+        assertEquals(1, submitted.size());
+        ExampleEvaluationRun merged = submitted.get(0);
+        assertEquals("a", merged.getId());
+        assertEquals(EvaluationBatcher.BATCH_EVAL_NAME_PREFIX + "a", merged.getEvalName());
+        assertNull(merged.getTraceSpanId());
+        assertEquals(List.of("span-1", "span-1", "span-2"), merged.getExamples()
+                .stream()
+                .map(example -> example.getAdditionalProperties()
+                        .get(EvaluationBatcher.SPAN_ID))
+                .toList());
+    }
+
+    @Test
+    void batch_mergesOnlyRunsScoredAlikeIntoNewRuns() {
+        List<ExampleEvaluationRun> submitted = new CopyOnWriteArrayList<>();
+        EvaluationQueue queue = EvaluationQueue.builder()
+                .maxBatchLatency(Duration.ofMillis(200))
+                .sink(submitted::add)
+                .build();
+        ExampleEvaluationRun first = run("a", "span");
+        first.setEvalName("eval-1");
+        ExampleEvaluationRun second = run("b", "span");
+        second.setEvalName("eval-1");
+        ExampleEvaluationRun otherModel = run("c", "span");
+        otherModel.setModel("other-model");
+
+        queue.offer(first);
+        queue.offer(second);
+        queue.offer(otherModel);
+
+        assertTrue(queue.forceFlush(2000));
+        assertEquals(2, submitted.size());
+        assertEquals("a", submitted.get(0)
+                .getId());
+        assertEquals("eval-1", submitted.get(0)
+                .getEvalName());
+        assertEquals("span", submitted.get(0)
+                .getTraceSpanId());
+        assertEquals(2, submitted.get(0)
+                .getExamples()
+                .size());
+        assertEquals("other-model", submitted.get(1)
+                .getModel());
+        assertEquals(1, first.getExamples()
+                .size());
+        assertFalse(first.getExamples()
+                .get(0)
+                .getAdditionalProperties()
+                .containsKey(EvaluationBatcher.SPAN_ID));
+    }
+
+    @Test
+    void batch_respectsMaxBatchSize() {
+        List<ExampleEvaluationRun> submitted = new CopyOnWriteArrayList<>();
+        EvaluationQueue queue = EvaluationQueue.builder()
+                .maxBatchSize(2)
+                .maxBatchLatency(Duration.ofMillis(200))
+                .sink(submitted::add)
+                .build();
+
+        for (int i = 0; i < 5; i++) {
+            queue.offer(run("run-" + i, "span"));
+        }
+
+        assertTrue(queue.forceFlush(2000));
+        assertEquals(5, submitted.stream()
+                .mapToInt(r -> r.getExamples()
+                        .size())
+                .sum());
+        assertTrue(submitted.stream()
+                .allMatch(r -> r.getExamples()
+                        .size() <= 2));
+    }
+
+    @Test
+    void batch_respectsMaxBatchBytes() {
+        List<ExampleEvaluationRun> submitted = new CopyOnWriteArrayList<>();
+        EvaluationQueue queue = EvaluationQueue.builder()
+                .maxBatchBytes(1)
+                .maxBatchLatency(Duration.ofMillis(200))
+                .sink(submitted::add)
+                .build();
+
+        queue.offer(run("a", "span"));
+        queue.offer(run("b", "span"));
+
+        assertTrue(queue.forceFlush(2000));
+        assertEquals(2, submitted.size());
+    }
+
+    @Test
+    void builder_withoutSink_throwsException() {
+        assertThrows(NullPointerException.class, () -> EvaluationQueue.builder()
+                .build());
+    }
+
+    @Test
+    void builder_withNonPositiveCapacity_throwsException() {
+        assertThrows(IllegalArgumentException.class, () -> EvaluationQueue.builder()
+                .capacity(0)
+                .sink(r -> {
+                })
+                .build());
+    }
+
+    private static EvaluationQueue blockingQueue(BackpressurePolicy policy, CountDownLatch entered,
+            CountDownLatch release, List<String> submitted) {
+        return EvaluationQueue.builder()
+                .capacity(1)
+                .backpressurePolicy(policy)
+                .sink(r -> {
+                    entered.countDown();
+                    awaitQuietly(release);
+                    submitted.add(r.getId());
+                })
+                .build();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                    .interrupt();
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package com.judgmentlabs.judgeval.tracer.evaluation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.judgmentlabs.judgeval.internal.api.models.TraceEvaluationRun;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+class TraceAssemblerTest {
+    private final List<TraceEvaluationRun>    submitted = new CopyOnWriteArrayList<>();
+    private final List<CompletableResultCode> exports   = new CopyOnWriteArrayList<>();
+    private SdkTracerProvider                 tracerProvider;
+    private TraceAssembler                    assembler;
+
+    @AfterEach
+    void tearDown() {
+        exports.forEach(CompletableResultCode::succeed);
+        if (tracerProvider != null) {
+            tracerProvider.close();
+        }
+    }
+
+    private void start(TraceAssembler.Builder builder) {
+        assembler = builder.sink(submitted::add)
+                .build();
+        tracerProvider = SdkTracerProvider.builder()
+                .addSpanProcessor(assembler)
+                .build();
+    }
+
+    /** Starts an assembler tracking an exporter whose exports complete on demand. */
+    private void startTrackingExports(TraceAssembler.Builder builder) {
+        SpanExporter pending = new SpanExporter() {
+            @Override
+            public CompletableResultCode export(Collection<SpanData> spans) {
+                CompletableResultCode result = new CompletableResultCode();
+                exports.add(result);
+                return result;
+            }
+
+            @Override
+            public CompletableResultCode flush() {
+                return CompletableResultCode.ofSuccess();
+            }
+
+            @Override
+            public CompletableResultCode shutdown() {
+                return CompletableResultCode.ofSuccess();
+            }
+        };
+        assembler = builder.sink(submitted::add)
+                .build();
+        tracerProvider = SdkTracerProvider.builder()
+                .addSpanProcessor(assembler)
+                .addSpanProcessor(SimpleSpanProcessor.create(assembler.trackExports(pending)))
+                .build();
+    }
+
+    private Span startSpan(String name, Span parent) {
+        return tracerProvider.get("test")
+                .spanBuilder(name)
+                .setParent(parent == null ? Context.root() : Context.root()
+                        .with(parent))
+                .startSpan();
+    }
+
+    private List<TraceEvaluationRun> flushed() {
+        assertTrue(assembler.forceFlush()
+                .join(5, TimeUnit.SECONDS)
+                .isSuccess());
+        return submitted;
+    }
+
+    private static TraceEvaluationRun run(String id) {
+        TraceEvaluationRun run = new TraceEvaluationRun();
+        run.setId(id);
+        return run;
+    }
+
+    private static List<Object> ids(Span span) {
+        return List.of(span.getSpanContext()
+                .getTraceId(),
+                span.getSpanContext()
+                        .getSpanId());
+    }
+
+    @Test
+    void completedTrace_submitsRunWithEverySpan() {
+        start(TraceAssembler.builder());
+
+        Span root = startSpan("root", null);
+        Span child = startSpan("child", root);
+        assertTrue(assembler.addEvaluation(child.getSpanContext(), run("run")));
+        Span grandchild = startSpan("grandchild", child);
+        grandchild.end();
+        child.end();
+        assertEquals(List.of(), flushed());
+        root.end();
+
+        assertEquals(1, flushed().size());
+        assertEquals(List.of(ids(grandchild), ids(child), ids(root)), submitted.get(0)
+                .getTraceAndSpanIds());
+        assertEquals(0, assembler.getOpenTraces());
+        assertEquals(1, assembler.getSubmittedRuns());
+    }
+
+    @Test
+    void rootEndedBeforeChild_waitsForChild() {
+        start(TraceAssembler.builder());
+
+        Span root = startSpan("root", null);
+        assembler.addEvaluation(root.getSpanContext(), run("run"));
+        Span child = startSpan("child", root);
+        root.end();
+        assertEquals(List.of(), flushed());
+        child.end();
+
+        assertEquals(List.of(ids(root), ids(child)), flushed().get(0)
+                .getTraceAndSpanIds());
+    }
+
+    @Test
+    void traceWithoutEvaluations_isForgotten() {
+        start(TraceAssembler.builder());
+
+        Span root = startSpan("root", null);
+        startSpan("child", root).end();
+        root.end();
+
+        assertEquals(List.of(), flushed());
+        assertEquals(0, assembler.getOpenTraces());
+    }
+
+    @Test
+    void orphanedTrace_isSubmittedAfterTimeout() throws Exception {
+        start(TraceAssembler.builder()
+                .traceTimeout(Duration.ofMillis(50)));
+
+        Span root = startSpan("root", null);
+        Span child = startSpan("child", root);
+        assembler.addEvaluation(root.getSpanContext(), run("run"));
+        child.end();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (submitted.isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(List.of(ids(child)), submitted.get(0)
+                .getTraceAndSpanIds());
+        assertEquals(1, assembler.getTimedOutTraces());
+        assertEquals(0, assembler.getOpenTraces());
+    }
+
+    @Test
+    void maxTraces_leavesFurtherTracesUntracked() {
+        start(TraceAssembler.builder()
+                .maxTraces(1));
+
+        Span first = startSpan("first", null);
+        Span second = startSpan("second", null);
+
+        assertTrue(assembler.addEvaluation(first.getSpanContext(), run("first")));
+        assertFalse(assembler.addEvaluation(second.getSpanContext(), run("second")));
+        assertEquals(1, assembler.getUntrackedTraces());
+        second.end();
+        first.end();
+        assertEquals(1, flushed().size());
+    }
+
+    @Test
+    void maxSpansPerTrace_capsSpanIds() {
+        start(TraceAssembler.builder()
+                .maxSpansPerTrace(2));
+
+        Span root = startSpan("root", null);
+        assembler.addEvaluation(root.getSpanContext(), run("run"));
+        for (int i = 0; i < 5; i++) {
+            startSpan("child", root).end();
+        }
+        root.end();
+
+        assertEquals(2, flushed().get(0)
+                .getTraceAndSpanIds()
+                .size());
+    }
+
+    @Test
+    void shutdown_submitsOpenTraces() {
+        start(TraceAssembler.builder());
+
+        Span root = startSpan("root", null);
+        assembler.addEvaluation(root.getSpanContext(), run("run"));
+
+        assertTrue(assembler.shutdown()
+                .join(5, TimeUnit.SECONDS)
+                .isSuccess());
+        assertEquals(1, submitted.size());
+        assertEquals(List.of(), submitted.get(0)
+                .getTraceAndSpanIds());
+        assertFalse(assembler.addEvaluation(startSpan("late", null).getSpanContext(), run("late")));
+    }
+
+    @Test
+    void trackedExports_delaySubmissionUntilEverySpanIsExported() {
+        startTrackingExports(TraceAssembler.builder());
+
+        Span root = startSpan("root", null);
+        assembler.addEvaluation(root.getSpanContext(), run("run"));
+        startSpan("child", root).end();
+        root.end();
+        exports.get(1)
+                .succeed();
+        assertEquals(List.of(), flushed());
+        assertEquals(1, assembler.getOpenTraces());
+
+        exports.get(0)
+                .fail();
+
+        assertEquals(1, flushed().size());
+        assertEquals(0, assembler.getOpenTraces());
+    }
+
+    @Test
+    void trackedExports_traceWithoutEvaluationsIsNotHeld() {
+        startTrackingExports(TraceAssembler.builder());
+
+        Span root = startSpan("root", null);
+        startSpan("child", root).end();
+        root.end();
+
+        assertEquals(0, assembler.getOpenTraces());
+    }
+
+    @Test
+    void trackedExports_unexportedTraceIsSubmittedAfterTimeout() throws Exception {
+        startTrackingExports(TraceAssembler.builder()
+                .traceTimeout(Duration.ofMillis(50)));
+
+        Span root = startSpan("root", null);
+        assembler.addEvaluation(root.getSpanContext(), run("run"));
+        root.end();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (submitted.isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(1, submitted.size());
+        assertEquals(1, assembler.getTimedOutTraces());
+    }
+}
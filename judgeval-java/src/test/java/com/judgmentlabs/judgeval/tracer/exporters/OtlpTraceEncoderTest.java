@@ -0,0 +1,105 @@
+package com.judgmentlabs.judgeval.tracer.exporters;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.TraceFlags;
+import io.opentelemetry.api.trace.TraceState;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.exporter.internal.otlp.traces.TraceRequestMarshaler;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+
+/**
+ * Checks the encoder against the SDK's own OTLP marshaler, which is only used
+ * here as a reference.
+ */
+class OtlpTraceEncoderTest {
+    private final InMemorySpanExporter exporter = InMemorySpanExporter.create();
+    private final SdkTracerProvider    provider = SdkTracerProvider.builder()
+            .setResource(Resource.create(Attributes.of(AttributeKey.stringKey("service.name"), "judgeval")))
+            .addSpanProcessor(SimpleSpanProcessor.create(exporter))
+            .build();
+
+    @AfterEach
+    void tearDown() {
+        provider.close();
+    }
+
+    private static byte[] reference(Collection<SpanData> spans) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TraceRequestMarshaler.create(spans)
+                .writeBinaryTo(out);
+        return out.toByteArray();
+    }
+
+    @Test
+    void encode_matchesOtlpMarshaler() throws Exception {
+        SpanContext remote = SpanContext.createFromRemoteParent("0af7651916cd43dd8448eb211c80319c",
+                "b7ad6b7169203331", TraceFlags.getSampled(), TraceState.builder()
+                        .put("vendor", "value")
+                        .build());
+        Span root = provider.get("judgeval", "1.2.3")
+                .spanBuilder("root")
+                .setParent(Context.root()
+                        .with(Span.wrap(remote)))
+                .setSpanKind(SpanKind.SERVER)
+                .addLink(remote, Attributes.of(AttributeKey.longKey("link.index"), 1L))
+                .startSpan();
+        root.setAttribute("judgment.input", "{\"question\":\"why?\"}");
+        root.setAttribute("judgment.count", 42L);
+        root.setAttribute("judgment.score", 0.75);
+        root.setAttribute("judgment.cached", true);
+        root.setAttribute(AttributeKey.stringArrayKey("judgment.tags"), List.of("a", "b"));
+        root.setAttribute(AttributeKey.longArrayKey("judgment.sizes"), List.of(1L, 300L));
+        root.addEvent("retry", Attributes.of(AttributeKey.stringKey("reason"), "timeout"));
+        root.setStatus(StatusCode.ERROR, "failed");
+        root.end();
+        provider.get("judgeval", "1.2.3")
+                .spanBuilder("child")
+                .setParent(Context.root()
+                        .with(root))
+                .startSpan()
+                .end();
+
+        List<SpanData> spans = exporter.getFinishedSpanItems();
+
+        assertArrayEquals(reference(spans), OtlpTraceEncoder.encode(spans));
+    }
+
+    @Test
+    void encode_groupsSpansByScope() throws Exception {
+        for (String scope : List.of("first", "second", "first")) {
+            provider.get(scope)
+                    .spanBuilder("span")
+                    .startSpan()
+                    .end();
+        }
+
+        List<SpanData> spans = exporter.getFinishedSpanItems();
+
+        // The marshaler orders scopes by hash, so only the sizes are compared.
+        assertEquals(reference(spans).length, OtlpTraceEncoder.encode(spans).length);
+    }
+
+    @Test
+    void encode_emptyBatch_matchesOtlpMarshaler() throws Exception {
+        assertArrayEquals(reference(List.of()), OtlpTraceEncoder.encode(List.of()));
+    }
+}
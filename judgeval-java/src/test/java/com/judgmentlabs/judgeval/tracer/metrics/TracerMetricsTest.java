@@ -0,0 +1,127 @@
+package com.judgmentlabs.judgeval.tracer.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+class TracerMetricsTest {
+    @Test
+    void histogram_reportsCountMeanMaxAndPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 99; i++) {
+            histogram.record(TimeUnit.MICROSECONDS.toNanos(100));
+        }
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(50));
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        assertEquals(100, snapshot.getCount());
+        assertEquals(Duration.ofMillis(50), snapshot.getMax());
+        assertEquals(Duration.ofNanos((99 * 100_000L + 50_000_000L) / 100), snapshot.getMean());
+        assertEquals(Duration.ofNanos(128_000), snapshot.getPercentile(0.5));
+        assertEquals(Duration.ofNanos(128_000), snapshot.getPercentile(0.99));
+        assertEquals(Duration.ofMillis(50), snapshot.getPercentile(1.0));
+        assertThrows(IllegalArgumentException.class, () -> snapshot.getPercentile(1.5));
+    }
+
+    @Test
+    void emptyHistogram_reportsZero() {
+        LatencyHistogram.Snapshot snapshot = new LatencyHistogram().snapshot();
+
+        assertEquals(0, snapshot.getCount());
+        assertEquals(Duration.ZERO, snapshot.getMean());
+        assertEquals(Duration.ZERO, snapshot.getPercentile(0.99));
+    }
+
+    @Test
+    void snapshot_combinesRecordedAndBoundCounts() {
+        TracerMetrics metrics = new TracerMetrics();
+        metrics.bindSpanQueue(() -> 7, () -> 3);
+        metrics.bindEvaluationQueue(() -> 2, () -> 1);
+
+        metrics.recordSpansDropped(SpanDropReason.QUEUE_FULL, 2);
+        metrics.recordSpansDropped(SpanDropReason.EXPORT_FAILED, 5);
+        metrics.recordExport(10, 1_000, 1_000_000, true);
+        metrics.recordExport(4, 400, 2_000_000, false);
+        metrics.recordEvaluationEnqueue(1_000, true);
+        metrics.recordEvaluationEnqueue(1_000, false);
+        metrics.recordEvaluationFailure();
+
+        TracerMetrics.Snapshot snapshot = metrics.snapshot();
+
+        assertEquals(7, snapshot.getQueuedSpans());
+        assertEquals(5, snapshot.getSpansDropped(SpanDropReason.QUEUE_FULL));
+        assertEquals(10, snapshot.getSpansDropped());
+        assertEquals(10, snapshot.getSpansExported());
+        assertEquals(1, snapshot.getExportFailures());
+        assertEquals(1_000, snapshot.getBytesSent());
+        assertEquals(2, snapshot.getExportLatency()
+                .getCount());
+        assertEquals(2, snapshot.getQueuedEvaluations());
+        assertEquals(1, snapshot.getEvaluationsEnqueued());
+        assertEquals(1, snapshot.getEvaluationsDropped());
+        assertEquals(1, snapshot.getEvaluationFailures());
+        assertEquals(2, snapshot.getEvaluationEnqueueLatency()
+                .getCount());
+    }
+
+    @Test
+    void batchSpanProcessorMetrics_countsQueueFullDrops() {
+        CountDownLatch release = new CountDownLatch(1);
+        SpanExporter blocked = new SpanExporter() {
+            @Override
+            public CompletableResultCode export(Collection<SpanData> spans) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread()
+                            .interrupt();
+                }
+                return CompletableResultCode.ofSuccess();
+            }
+
+            @Override
+            public CompletableResultCode flush() {
+                return CompletableResultCode.ofSuccess();
+            }
+
+            @Override
+            public CompletableResultCode shutdown() {
+                return CompletableResultCode.ofSuccess();
+            }
+        };
+        BatchSpanProcessorMetrics processorMetrics = new BatchSpanProcessorMetrics();
+        try (SdkTracerProvider tracerProvider = SdkTracerProvider.builder()
+                .addSpanProcessor(BatchSpanProcessor.builder(blocked)
+                        .setMaxQueueSize(4)
+                        .setMaxExportBatchSize(4)
+                        .setMeterProvider(processorMetrics.meterProvider())
+                        .build())
+                .build()) {
+            for (int i = 0; i < 50; i++) {
+                tracerProvider.get("test")
+                        .spanBuilder("span")
+                        .startSpan()
+                        .end();
+            }
+            long dropped = processorMetrics.getDroppedSpans();
+            release.countDown();
+
+            // At most a full queue plus the batch held by the blocked worker survive.
+            assertTrue(dropped >= 50 - 4 - 4, "dropped " + dropped);
+        }
+    }
+}
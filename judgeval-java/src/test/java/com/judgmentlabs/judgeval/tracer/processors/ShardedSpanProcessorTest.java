@@ -0,0 +1,261 @@
+package com.judgmentlabs.judgeval.tracer.processors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+class ShardedSpanProcessorTest {
+    private static final Duration      NEVER    = Duration.ofHours(1);
+
+    private final InMemorySpanExporter exporter = InMemorySpanExporter.create();
+    private SdkTracerProvider          tracerProvider;
+
+    @AfterEach
+    void tearDown() {
+        if (tracerProvider != null) {
+            tracerProvider.close();
+        }
+    }
+
+    private void endSpans(SdkTracerProvider provider, int count) {
+        for (int i = 0; i < count; i++) {
+            provider.get("test")
+                    .spanBuilder("span-" + i)
+                    .startSpan()
+                    .end();
+        }
+    }
+
+    /** An exporter that passes each batch to the given consumer. */
+    private static SpanExporter consumingExporter(Consumer<Collection<SpanData>> onExport) {
+        return new SpanExporter() {
+            @Override
+            public CompletableResultCode export(Collection<SpanData> spans) {
+                onExport.accept(spans);
+                return CompletableResultCode.ofSuccess();
+            }
+
+            @Override
+            public CompletableResultCode flush() {
+                return CompletableResultCode.ofSuccess();
+            }
+
+            @Override
+            public CompletableResultCode shutdown() {
+                return CompletableResultCode.ofSuccess();
+            }
+        };
+    }
+
+    @Test
+    void forceFlush_exportsSpansEndedOnManyThreads() throws Exception {
+        ShardedSpanProcessor processor = ShardedSpanProcessor.builder(exporter)
+                .maxQueueSize(40_000)
+                .shards(4)
+                .scheduleDelay(NEVER)
+                .build();
+        tracerProvider = SdkTracerProvider.builder()
+                .addSpanProcessor(processor)
+                .build();
+
+        List<Thread> producers = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            producers.add(new Thread(() -> endSpans(tracerProvider, 2_500)));
+        }
+        producers.forEach(Thread::start);
+        for (Thread producer : producers) {
+            producer.join();
+        }
+
+        assertTrue(processor.forceFlush()
+                .join(10, TimeUnit.SECONDS)
+                .isSuccess());
+        assertEquals(20_000, exporter.getFinishedSpanItems()
+                .size());
+        assertEquals(20_000, processor.getExportedSpans());
+        assertEquals(0, processor.getDroppedSpans());
+    }
+
+    @Test
+    void fullQueue_dropsAndCountsSpans() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        SpanExporter blocked = consumingExporter(spans -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread()
+                        .interrupt();
+            }
+        });
+        ShardedSpanProcessor processor = ShardedSpanProcessor.builder(blocked)
+                .maxQueueSize(8)
+                .maxExportBatchSize(8)
+                .shards(1)
+                .scheduleDelay(NEVER)
+                .build();
+        tracerProvider = SdkTracerProvider.builder()
+                .addSpanProcessor(processor)
+                .build();
+
+        endSpans(tracerProvider, 100);
+        release.countDown();
+
+        assertTrue(processor.getDroppedSpans() > 0);
+        assertTrue(processor.forceFlush()
+                .join(10, TimeUnit.SECONDS)
+                .isSuccess());
+        assertEquals(100, processor.getDroppedSpans() + processor.getExportedSpans());
+    }
+
+    @Test
+    void queuedSpans_neverExceedMaxQueueSize() throws Exception {
+        CountDownLatch exporting = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        SpanExporter blocked = consumingExporter(spans -> {
+            exporting.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread()
+                        .interrupt();
+            }
+        });
+        ShardedSpanProcessor processor = ShardedSpanProcessor.builder(blocked)
+                .maxQueueSize(6)
+                .shards(4)
+                .scheduleDelay(NEVER)
+                .build();
+        tracerProvider = SdkTracerProvider.builder()
+                .addSpanProcessor(processor)
+                .build();
+        endSpans(tracerProvider, 1);
+        processor.forceFlush();
+        assertTrue(exporting.await(10, TimeUnit.SECONDS));
+
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> endSpans(tracerProvider, 50));
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertTrue(processor.getQueuedSpans() <= 6, "queued " + processor.getQueuedSpans());
+        release.countDown();
+        assertTrue(processor.forceFlush()
+                .join(10, TimeUnit.SECONDS)
+                .isSuccess());
+        assertEquals(401, processor.getDroppedSpans() + processor.getExportedSpans());
+    }
+
+    @Test
+    void batches_neverExceedMaxExportBatchSize() {
+        List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        SpanExporter recording = consumingExporter(spans -> batchSizes.add(spans.size()));
+        ShardedSpanProcessor processor = ShardedSpanProcessor.builder(recording)
+                .maxQueueSize(1_000)
+                .maxExportBatchSize(64)
+                .shards(2)
+                .scheduleDelay(NEVER)
+                .build();
+        tracerProvider = SdkTracerProvider.builder()
+                .addSpanProcessor(processor)
+                .build();
+
+        endSpans(tracerProvider, 500);
+        processor.forceFlush()
+                .join(10, TimeUnit.SECONDS);
+
+        assertEquals(500, batchSizes.stream()
+                .mapToInt(Integer::intValue)
+                .sum());
+        assertTrue(batchSizes.stream()
+                .allMatch(size -> size <= 64), batchSizes.toString());
+    }
+
+    @Test
+    void scheduleDelay_exportsPartialBatch() throws Exception {
+        tracerProvider = SdkTracerProvider.builder()
+                .addSpanProcessor(ShardedSpanProcessor.builder(exporter)
+                        .scheduleDelay(Duration.ofMillis(20))
+                        .build())
+                .build();
+
+        endSpans(tracerProvider, 3);
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (exporter.getFinishedSpanItems()
+                .size() < 3 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(3, exporter.getFinishedSpanItems()
+                .size());
+    }
+
+    @Test
+    void shutdown_exportsQueuedSpansAndDropsLaterOnes() {
+        List<SpanData> exported = new CopyOnWriteArrayList<>();
+        ShardedSpanProcessor processor = ShardedSpanProcessor.builder(consumingExporter(exported::addAll))
+                .scheduleDelay(NEVER)
+                .build();
+        tracerProvider = SdkTracerProvider.builder()
+                .addSpanProcessor(processor)
+                .build();
+
+        endSpans(tracerProvider, 10);
+        assertTrue(processor.shutdown()
+                .join(10, TimeUnit.SECONDS)
+                .isSuccess());
+        processor.onEnd((ReadableSpan) tracerProvider.get("test")
+                .spanBuilder("late")
+                .startSpan());
+
+        assertEquals(10, exported.size());
+        assertEquals(1, processor.getDroppedSpans());
+    }
+
+    @Test
+    void forceFlush_afterShutdown_completes() {
+        ShardedSpanProcessor processor = ShardedSpanProcessor.builder(exporter)
+                .build();
+
+        assertTrue(processor.shutdown()
+                .join(10, TimeUnit.SECONDS)
+                .isSuccess());
+
+        assertTrue(processor.forceFlush()
+                .join(1, TimeUnit.SECONDS)
+                .isSuccess());
+    }
+
+    @Test
+    void nonPositiveSizes_areRejected() {
+        assertThrows(IllegalArgumentException.class, () -> ShardedSpanProcessor.builder(exporter)
+                .maxQueueSize(0)
+                .build());
+        assertThrows(IllegalArgumentException.class, () -> ShardedSpanProcessor.builder(exporter)
+                .shards(0)
+                .build());
+    }
+}
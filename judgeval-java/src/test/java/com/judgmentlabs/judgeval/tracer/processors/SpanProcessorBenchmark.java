@@ -0,0 +1,100 @@
+package com.judgmentlabs.judgeval.tracer.processors;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+/**
+ * Measures how many spans per second eight threads can end through the
+ * {@code BatchSpanProcessor} and the {@link ShardedSpanProcessor} with the
+ * same queue and batch sizes, and how many of them each processor drops. Not
+ * run as part of the test suite; start it with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.judgmentlabs.judgeval.tracer.processors.SpanProcessorBenchmark}.
+ */
+public final class SpanProcessorBenchmark {
+    private static final int      THREADS          = 8;
+    private static final int      SPANS_PER_THREAD = 250_000;
+    private static final int      QUEUE_SIZE       = 2048;
+    private static final int      BATCH_SIZE       = 512;
+    private static final Duration DELAY            = Duration.ofMillis(200);
+
+    private SpanProcessorBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        for (int round = 0; round < 3; round++) {
+            CountingExporter batchExporter = new CountingExporter();
+            run("batch", batchExporter, BatchSpanProcessor.builder(batchExporter)
+                    .setMaxQueueSize(QUEUE_SIZE)
+                    .setMaxExportBatchSize(BATCH_SIZE)
+                    .setScheduleDelay(DELAY)
+                    .build());
+            CountingExporter shardedExporter = new CountingExporter();
+            run("sharded", shardedExporter, ShardedSpanProcessor.builder(shardedExporter)
+                    .maxQueueSize(QUEUE_SIZE)
+                    .maxExportBatchSize(BATCH_SIZE)
+                    .scheduleDelay(DELAY)
+                    .build());
+        }
+    }
+
+    private static void run(String name, CountingExporter exporter, SpanProcessor processor) throws Exception {
+        try (SdkTracerProvider tracerProvider = SdkTracerProvider.builder()
+                .addSpanProcessor(processor)
+                .build()) {
+            List<Thread> producers = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                producers.add(new Thread(() -> {
+                    for (int i = 0; i < SPANS_PER_THREAD; i++) {
+                        tracerProvider.get("benchmark")
+                                .spanBuilder("span")
+                                .startSpan()
+                                .end();
+                    }
+                }));
+            }
+            long start = System.nanoTime();
+            producers.forEach(Thread::start);
+            for (Thread producer : producers) {
+                producer.join();
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            tracerProvider.forceFlush()
+                    .join(30, TimeUnit.SECONDS);
+            long total = (long) THREADS * SPANS_PER_THREAD;
+            System.out.printf("%-8s %,12.0f spans/s, exported %,9d of %,d%n", name, total / seconds,
+                    exporter.exported.sum(), total);
+        }
+    }
+
+    private static final class CountingExporter implements SpanExporter {
+        private final LongAdder exported = new LongAdder();
+
+        @Override
+        public CompletableResultCode export(Collection<SpanData> spans) {
+            exported.add(spans.size());
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode flush() {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+            return CompletableResultCode.ofSuccess();
+        }
+    }
+}
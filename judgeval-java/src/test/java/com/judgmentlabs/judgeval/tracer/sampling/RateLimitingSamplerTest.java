@@ -0,0 +1,46 @@
+package com.judgmentlabs.judgeval.tracer.sampling;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.trace.IdGenerator;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import io.opentelemetry.sdk.trace.samplers.SamplingDecision;
+
+class RateLimitingSamplerTest {
+    private static int sampled(Sampler sampler, int attempts) {
+        int sampled = 0;
+        for (int i = 0; i < attempts; i++) {
+            if (sampler.shouldSample(Context.root(), IdGenerator.random()
+                    .generateTraceId(), "span", SpanKind.INTERNAL, Attributes.empty(), List.of())
+                    .getDecision() == SamplingDecision.RECORD_AND_SAMPLE) {
+                sampled++;
+            }
+        }
+        return sampled;
+    }
+
+    @Test
+    void burst_isLimitedToOneSecondOfTraces() {
+        assertEquals(10, sampled(new RateLimitingSampler(10), 1_000));
+    }
+
+    @Test
+    void droppedByDelegate_doesNotUseRate() {
+        RateLimitingSampler sampler = new RateLimitingSampler(5, Sampler.alwaysOff());
+
+        assertEquals(0, sampled(sampler, 100));
+    }
+
+    @Test
+    void nonPositiveRate_isRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new RateLimitingSampler(0));
+    }
+}
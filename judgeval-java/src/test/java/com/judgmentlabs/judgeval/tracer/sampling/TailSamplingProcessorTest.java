@@ -0,0 +1,240 @@
+package com.judgmentlabs.judgeval.tracer.sampling;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.judgmentlabs.judgeval.JudgmentAttributeKeys;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+
+class TailSamplingProcessorTest {
+    private final InMemorySpanExporter exporter = InMemorySpanExporter.create();
+    private SdkTracerProvider          tracerProvider;
+    private TailSamplingProcessor      processor;
+
+    @AfterEach
+    void tearDown() {
+        if (tracerProvider != null) {
+            tracerProvider.close();
+        }
+    }
+
+    private void start(TailSamplingProcessor.Builder builder) {
+        start(builder, Sampler.alwaysOn());
+    }
+
+    private void start(TailSamplingProcessor.Builder builder, Sampler headSampler) {
+        processor = builder.delegate(SimpleSpanProcessor.create(exporter))
+                .build();
+        tracerProvider = SdkTracerProvider.builder()
+                .setSampler(headSampler)
+                .addSpanProcessor(processor)
+                .build();
+    }
+
+    private Span startSpan(String name, Span parent) {
+        return tracerProvider.get("test")
+                .spanBuilder(name)
+                .setParent(parent == null ? Context.root() : Context.root()
+                        .with(parent))
+                .startSpan();
+    }
+
+    private List<String> exportedNames() {
+        return exporter.getFinishedSpanItems()
+                .stream()
+                .map(SpanData::getName)
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    void ordinaryTraces_areDroppedAtRatioZero() {
+        start(TailSamplingProcessor.builder()
+                .samplingRatio(0));
+
+        for (int i = 0; i < 20; i++) {
+            Span root = startSpan("root", null);
+            startSpan("child", root).end();
+            root.end();
+        }
+
+        assertEquals(List.of(), exportedNames());
+        assertEquals(20, processor.getDroppedTraces());
+        assertEquals(40, processor.getDroppedSpans());
+        assertEquals(0, processor.getPendingTraces());
+    }
+
+    @Test
+    void pendingTraceEvaluation_keepsWholeTrace() {
+        start(TailSamplingProcessor.builder()
+                .samplingRatio(0));
+
+        Span root = startSpan("root", null);
+        Span child = startSpan("child", root);
+        child.setAttribute(JudgmentAttributeKeys.AttributeKeys.JUDGMENT_PENDING_TRACE_EVAL, "{}");
+        child.end();
+        root.end();
+
+        assertEquals(List.of("child", "root"), exportedNames());
+        assertEquals(1, processor.getKeptTraces());
+    }
+
+    @Test
+    void errorStatus_keepsTrace() {
+        start(TailSamplingProcessor.builder()
+                .samplingRatio(0));
+
+        Span root = startSpan("root", null);
+        root.setStatus(StatusCode.ERROR);
+        root.end();
+
+        assertEquals(List.of("root"), exportedNames());
+    }
+
+    @Test
+    void slowSpan_keepsTrace() throws Exception {
+        start(TailSamplingProcessor.builder()
+                .samplingRatio(0)
+                .latencyThreshold(Duration.ofMillis(20)));
+
+        Span root = startSpan("root", null);
+        Thread.sleep(30);
+        root.end();
+
+        assertEquals(List.of("root"), exportedNames());
+    }
+
+    @Test
+    void keepTrace_keepsTraceBeforeItsSpansEnd() {
+        start(TailSamplingProcessor.builder()
+                .samplingRatio(0));
+
+        Span root = startSpan("root", null);
+        processor.keepTrace(root.getSpanContext());
+        root.end();
+
+        assertEquals(List.of("root"), exportedNames());
+    }
+
+    @Test
+    void lateSpans_followTheTraceDecision() {
+        start(TailSamplingProcessor.builder()
+                .samplingRatio(0));
+
+        Span kept = startSpan("kept-root", null);
+        Span keptChild = startSpan("kept-late", kept);
+        kept.setStatus(StatusCode.ERROR);
+        kept.end();
+        Span dropped = startSpan("dropped-root", null);
+        Span droppedChild = startSpan("dropped-late", dropped);
+        dropped.end();
+        keptChild.end();
+        droppedChild.end();
+
+        assertEquals(List.of("kept-root", "kept-late"), exportedNames());
+    }
+
+    @Test
+    void samplingRatio_keepsAboutThatFractionOfTraces() {
+        start(TailSamplingProcessor.builder()
+                .samplingRatio(0.25));
+
+        for (int i = 0; i < 4_000; i++) {
+            startSpan("root", null).end();
+        }
+
+        long kept = processor.getKeptTraces();
+        assertTrue(kept > 800 && kept < 1_200, "kept " + kept);
+    }
+
+    @Test
+    void samplingRatio_isIndependentOfHeadSampler() {
+        start(TailSamplingProcessor.builder()
+                .samplingRatio(0.2), Sampler.traceIdRatioBased(0.2));
+
+        for (int i = 0; i < 10_000; i++) {
+            startSpan("root", null).end();
+        }
+
+        // Both ratios apply, so about 4% of all traces are kept.
+        long kept = processor.getKeptTraces();
+        assertTrue(kept > 300 && kept < 500, "kept " + kept);
+    }
+
+    @Test
+    void forceFlush_decidesTracesWithoutRoot() {
+        start(TailSamplingProcessor.builder()
+                .samplingRatio(1));
+
+        Span root = startSpan("root", null);
+        startSpan("child", root).end();
+        assertEquals(List.of(), exportedNames());
+
+        processor.forceFlush();
+
+        assertEquals(List.of("child"), exportedNames());
+    }
+
+    @Test
+    void fullBuffer_decidesSpansIndividually() {
+        start(TailSamplingProcessor.builder()
+                .samplingRatio(1)
+                .maxTraces(1));
+
+        Span first = startSpan("first-root", null);
+        startSpan("first-child", first).end();
+        Span second = startSpan("second-root", null);
+        startSpan("second-child", second).end();
+
+        assertEquals(List.of("second-child"), exportedNames());
+        assertEquals(1, processor.getPendingTraces());
+    }
+
+    @Test
+    void keepTrace_whenBufferFull_keepsWithoutBuffering() {
+        start(TailSamplingProcessor.builder()
+                .samplingRatio(0)
+                .maxTraces(1));
+
+        Span first = startSpan("first-root", null);
+        startSpan("first-child", first).end();
+        Span second = startSpan("second-root", null);
+        processor.keepTrace(second.getSpanContext());
+        startSpan("second-child", second).end();
+        second.end();
+
+        assertEquals(List.of("second-child", "second-root"), exportedNames());
+        assertEquals(1, processor.getPendingTraces());
+    }
+
+    @Test
+    void decidedTraces_areRememberedUpToMaxTraces() {
+        start(TailSamplingProcessor.builder()
+                .samplingRatio(0)
+                .maxTraces(1));
+
+        Span first = startSpan("first-root", null);
+        Span late = startSpan("first-late", first);
+        first.setStatus(StatusCode.ERROR);
+        first.end();
+        startSpan("second-root", null).end();
+        late.end();
+
+        assertEquals(List.of("first-root"), exportedNames());
+        assertEquals(1, processor.getPendingTraces());
+    }
+}
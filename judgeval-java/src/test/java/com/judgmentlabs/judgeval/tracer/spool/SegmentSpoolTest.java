@@ -0,0 +1,202 @@
+package com.judgmentlabs.judgeval.tracer.spool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SegmentSpoolTest {
+
+    private static final int SEGMENT_BYTES = 1024;
+
+    @TempDir
+    Path directory;
+
+    private SegmentSpool open() throws IOException {
+        return SegmentSpool.builder()
+                .directory(directory)
+                .segmentBytes(SEGMENT_BYTES)
+                .maxBytes(8L * SEGMENT_BYTES)
+                .build();
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<String> drain(SegmentSpool spool) {
+        List<String> replayed = new ArrayList<>();
+        spool.replay((type, payload) -> {
+            replayed.add(type + ":" + new String(payload, StandardCharsets.UTF_8));
+            return SpoolOutcome.REPLAYED;
+        });
+        return replayed;
+    }
+
+    @Test
+    void replay_deliversRecordsInAppendOrder() throws IOException {
+        try (SegmentSpool spool = open()) {
+            assertTrue(spool.isEmpty());
+            spool.append(SpoolRecordType.EVALUATION_RUN, bytes("a"));
+            spool.append(SpoolRecordType.SPAN_BATCH, bytes("b"));
+            assertFalse(spool.isEmpty());
+
+            assertEquals(List.of("EVALUATION_RUN:a", "SPAN_BATCH:b"), drain(spool));
+            assertTrue(spool.isEmpty());
+        }
+    }
+
+    @Test
+    void replay_rotatesAcrossSegmentsAndDeletesConsumedOnes() throws IOException {
+        try (SegmentSpool spool = open()) {
+            List<String> expected = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                String value = "record-" + i + "-" + "x".repeat(100);
+                spool.append(SpoolRecordType.EVALUATION_RUN, bytes(value));
+                expected.add("EVALUATION_RUN:" + value);
+            }
+            assertTrue(segmentCount() > 1);
+
+            assertEquals(expected, drain(spool));
+            assertTrue(segmentCount() <= 1);
+        }
+    }
+
+    @Test
+    void replay_stopsOnRetryAndResumesFromSameRecord() throws IOException {
+        try (SegmentSpool spool = open()) {
+            spool.append(SpoolRecordType.EVALUATION_RUN, bytes("a"));
+            spool.append(SpoolRecordType.EVALUATION_RUN, bytes("b"));
+
+            List<String> attempts = new ArrayList<>();
+            int removed = spool.replay((type, payload) -> {
+                String value = new String(payload, StandardCharsets.UTF_8);
+                attempts.add(value);
+                return value.equals("b") ? SpoolOutcome.RETRY : SpoolOutcome.REPLAYED;
+            });
+
+            assertEquals(1, removed);
+            assertEquals(List.of("a", "b"), attempts);
+            assertEquals(List.of("EVALUATION_RUN:b"), drain(spool));
+        }
+    }
+
+    @Test
+    void replay_treatsHandlerExceptionAsRetry() throws IOException {
+        try (SegmentSpool spool = open()) {
+            spool.append(SpoolRecordType.EVALUATION_RUN, bytes("a"));
+
+            assertEquals(0, spool.replay((type, payload) -> {
+                throw new IOException("offline");
+            }));
+            assertFalse(spool.isEmpty());
+        }
+    }
+
+    @Test
+    void reopen_resumesFromCommittedCursor() throws IOException {
+        try (SegmentSpool spool = open()) {
+            spool.append(SpoolRecordType.EVALUATION_RUN, bytes("a"));
+            spool.append(SpoolRecordType.EVALUATION_RUN, bytes("b"));
+            spool.append(SpoolRecordType.EVALUATION_RUN, bytes("c"));
+            spool.replay((type, payload) -> payload[0] == 'a' ? SpoolOutcome.REPLAYED : SpoolOutcome.RETRY);
+        }
+
+        try (SegmentSpool spool = open()) {
+            spool.append(SpoolRecordType.EVALUATION_RUN, bytes("d"));
+            assertEquals(List.of("EVALUATION_RUN:b", "EVALUATION_RUN:c", "EVALUATION_RUN:d"), drain(spool));
+        }
+    }
+
+    @Test
+    void reopen_ignoresTornRecordAtEndOfSegment() throws IOException {
+        try (SegmentSpool spool = open()) {
+            spool.append(SpoolRecordType.EVALUATION_RUN, bytes("a"));
+            spool.append(SpoolRecordType.EVALUATION_RUN, bytes("b"));
+        }
+        corruptLastByteOf("b");
+
+        try (SegmentSpool spool = open()) {
+            assertEquals(List.of("EVALUATION_RUN:a"), drain(spool));
+            spool.append(SpoolRecordType.EVALUATION_RUN, bytes("c"));
+            assertEquals(List.of("EVALUATION_RUN:c"), drain(spool));
+        }
+    }
+
+    @Test
+    void append_whenCapReached_dropsOldestSegment() throws IOException {
+        try (SegmentSpool spool = SegmentSpool.builder()
+                .directory(directory)
+                .segmentBytes(SEGMENT_BYTES)
+                .maxBytes(2L * SEGMENT_BYTES)
+                .build()) {
+            for (int i = 0; i < 30; i++) {
+                String value = String.format("%03d", i) + "y".repeat(100);
+                assertTrue(spool.append(SpoolRecordType.EVALUATION_RUN, bytes(value)));
+            }
+
+            List<String> replayed = drain(spool);
+            assertTrue(replayed.size() < 30);
+            assertTrue(replayed.get(replayed.size() - 1)
+                    .startsWith("EVALUATION_RUN:029"));
+            assertTrue(segmentCount() <= 2);
+        }
+    }
+
+    @Test
+    void append_recordLargerThanSegment_isRejected() throws IOException {
+        try (SegmentSpool spool = open()) {
+            assertFalse(spool.append(SpoolRecordType.SPAN_BATCH, new byte[SEGMENT_BYTES]));
+            assertTrue(spool.isEmpty());
+        }
+    }
+
+    @Test
+    void build_whenDirectoryInUse_throwsException() throws IOException {
+        SegmentSpool spool = open();
+        try {
+            assertThrows(IOException.class, this::open);
+        } finally {
+            spool.close();
+        }
+    }
+
+    private long segmentCount() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(p -> p.getFileName()
+                    .toString()
+                    .endsWith(".seg"))
+                    .count();
+        }
+    }
+
+    private void corruptLastByteOf(String payload) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            Path segment = files.filter(p -> p.getFileName()
+                    .toString()
+                    .endsWith(".seg"))
+                    .findFirst()
+                    .orElseThrow();
+            byte[] content = Files.readAllBytes(segment);
+            byte target = bytes(payload)[0];
+            for (int i = content.length - 1; i >= 0; i--) {
+                if (content[i] == target) {
+                    content[i] = (byte) ~target;
+                    break;
+                }
+            }
+            Files.write(segment, content);
+        }
+    }
+}
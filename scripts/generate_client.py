@@ -11,6 +11,7 @@ JUDGEVAL_PATHS = [
     "/log_eval_results/",
     "/fetch_experiment_run/",
     "/add_to_run_eval_queue/",
+    "/add_to_run_eval_queue/traces",
     "/get_evaluation_status/",
     "/save_scorer/",
     "/fetch_scorers/",
@@ -18,6 +19,16 @@ JUDGEVAL_PATHS = [
     "/projects/resolve/",
 ]
 
+# Endpoints whose response holds a large array that clients may iterate over
+# element by element: path -> (stream method name, array field, element type).
+STREAMED_ARRAYS = {
+    "/fetch_experiment_run/": (
+        "streamExperimentRunResults",
+        "results",
+        "ScoringResult",
+    ),
+}
+
 HTTP_METHODS = {"GET", "POST", "PUT", "PATCH", "DELETE"}
 SUCCESS_STATUS_CODES = {"200", "201"}
 SCHEMA_REF_PREFIX = "#/components/schemas/"
@@ -306,239 +317,321 @@ def generate_model_class(className: str, schema: Dict[str, Any]) -> str:
     return "\n".join(lines)
 
 
-def generate_method_signature(
-    method_name: str,
-    request_type: Optional[str],
-    query_params: List[Dict[str, Any]],
-    response_type: str,
-    is_async: bool,
-) -> str:
-    params = []
+def get_endpoints(methods: List[Dict[str, Any]]) -> List[Dict[str, Any]]:
+    endpoints = []
+    for method_info in methods:
+        endpoints.append(
+            {
+                "field": method_info["name"],
+                "path": method_info["path"],
+                "method": method_info["method"],
+                "request_type": method_info["request_type"],
+                "response_type": method_info["response_type"],
+            }
+        )
+        if method_info["stream"]:
+            stream_name, _, item_type = method_info["stream"]
+            endpoints.append(
+                {
+                    "field": stream_name,
+                    "path": method_info["path"],
+                    "method": method_info["method"],
+                    "request_type": method_info["request_type"],
+                    "response_type": item_type,
+                }
+            )
+    return endpoints
 
-    for param in query_params:
-        if param["required"]:
-            params.append(f"String {param['name']}")
 
-    if request_type:
-        params.append(f"{request_type} payload")
+def generate_core_class(methods: List[Dict[str, Any]]) -> str:
+    endpoints = get_endpoints(methods)
 
-    for param in query_params:
-        if not param["required"]:
-            params.append(f"String {param['name']}")
+    lines = [
+        "package com.judgmentlabs.judgeval.internal.api;",
+        "",
+        "import com.fasterxml.jackson.databind.ObjectWriter;",
+        "import java.io.IOException;",
+        "import java.io.InputStream;",
+        "import java.net.URI;",
+        "import java.net.http.HttpRequest;",
+        "import java.net.http.HttpResponse;",
+        "import java.nio.charset.StandardCharsets;",
+        "import java.util.LinkedHashMap;",
+        "import java.util.Map;",
+        "import java.util.Objects;",
+        "import java.util.Optional;",
+        "import java.util.concurrent.CompletableFuture;",
+        "import com.judgmentlabs.judgeval.internal.api.models.*;",
+        "",
+        "/**",
+        " * The request pipeline behind {@link JudgmentSyncClient} and",
+        " * {@link JudgmentAsyncClient}. Every endpoint's URI, request writer and response",
+        " * reader are resolved once when the core is created, and the headers are built",
+        " * once, so a call only serializes, sends and decodes.",
+        " */",
+        "final class JudgmentApiCore {",
+        "    private final HttpTransport transport;",
+        "    private final String baseUrl;",
+        "    private final String apiKey;",
+        "    private final String organizationId;",
+        "    private final String[] headers;",
+        "",
+    ]
 
-    return_type = f"CompletableFuture<{response_type}>" if is_async else response_type
-    throws_clause = "" if is_async else " throws IOException, InterruptedException"
+    for endpoint in endpoints:
+        lines.append(
+            f"    final ApiEndpoint<{endpoint['response_type']}> {endpoint['field']};"
+        )
 
-    return (
-        f"    public {return_type} {method_name}({', '.join(params)}){throws_clause} {{"
+    lines.extend(
+        [
+            "",
+            "    JudgmentApiCore(String baseUrl, String apiKey, String organizationId, HttpTransport transport) {",
+            '        this.baseUrl = Objects.requireNonNull(baseUrl, "Base URL cannot be null");',
+            '        this.apiKey = Objects.requireNonNull(apiKey, "API key cannot be null");',
+            '        this.organizationId = Objects.requireNonNull(organizationId, "Organization ID cannot be null");',
+            '        this.transport = Objects.requireNonNull(transport, "Transport cannot be null");',
+            "        this.headers = new String[] {",
+            '            "Content-Type",',
+            '            "application/json",',
+            '            "Authorization",',
+            '            "Bearer " + apiKey,',
+            '            "X-Organization-Id",',
+            "            organizationId",
+            "        };",
+        ]
     )
 
+    for endpoint in endpoints:
+        if endpoint["method"] in ["GET", "DELETE"]:
+            request_class = "null"
+        else:
+            request_class = f"{endpoint['request_type'] or 'Object'}.class"
+        lines.append(
+            f'        this.{endpoint["field"]} = endpoint("{endpoint["method"]}", "{endpoint["path"]}", '
+            f"{request_class}, {endpoint['response_type']}.class);"
+        )
 
-def generate_method_body(
+    lines.extend(
+        [
+            "    }",
+            "",
+            "    private <T> ApiEndpoint<T> endpoint(String method, String path, Class<?> requestType, Class<T> responseType) {",
+            "        return new ApiEndpoint<>(method, URI.create(baseUrl + path),",
+            "                Optional.ofNullable(requestType).map(Json::writerFor),",
+            "                Json.readerFor(responseType));",
+            "    }",
+            "",
+            "    String getApiUrl() {",
+            "        return baseUrl;",
+            "    }",
+            "",
+            "    String getApiKey() {",
+            "        return apiKey;",
+            "    }",
+            "",
+            "    String getOrganizationId() {",
+            "        return organizationId;",
+            "    }",
+            "",
+            "    HttpTransport getTransport() {",
+            "        return transport;",
+            "    }",
+            "",
+            "    static Map<String, String> query(String... namesAndValues) {",
+            "        Map<String, String> query = new LinkedHashMap<>();",
+            "        for (int i = 0; i < namesAndValues.length; i += 2) {",
+            "            if (namesAndValues[i + 1] != null) {",
+            "                query.put(namesAndValues[i], namesAndValues[i + 1]);",
+            "            }",
+            "        }",
+            "        return query;",
+            "    }",
+            "",
+            "    private HttpRequest request(ApiEndpoint<?> endpoint, Object payload, Map<String, String> query) throws IOException {",
+            "        URI uri = endpoint.uri(query);",
+            "        Optional<ObjectWriter> writer = endpoint.writer();",
+            "        HttpRequest.Builder builder;",
+            "        if (writer.isPresent()) {",
+            "            builder = transport.newJsonRequest(endpoint.method(), uri, writer.get(), payload);",
+            "        } else {",
+            "            builder = transport.newRequest(uri).method(endpoint.method(), HttpRequest.BodyPublishers.noBody());",
+            "        }",
+            "        return builder.headers(headers).build();",
+            "    }",
+            "",
+            "    private HttpRequest requestAsync(ApiEndpoint<?> endpoint, Object payload, Map<String, String> query) {",
+            "        try {",
+            "            return request(endpoint, payload, query);",
+            "        } catch (Exception e) {",
+            '            throw new RuntimeException("Failed to serialize payload", e);',
+            "        }",
+            "    }",
+            "",
+            "    <T> T send(ApiEndpoint<T> endpoint, Object payload, Map<String, String> query) throws IOException, InterruptedException {",
+            "        HttpRequest request = request(endpoint, payload, query);",
+            "        HttpResponse<InputStream> response = transport.send(request, HttpResponse.BodyHandlers.ofInputStream());",
+            "        return decode(endpoint, response);",
+            "    }",
+            "",
+            "    <T> CompletableFuture<T> sendAsync(ApiEndpoint<T> endpoint, Object payload, Map<String, String> query) {",
+            "        HttpRequest request = requestAsync(endpoint, payload, query);",
+            "        return transport.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream())",
+            "                .thenApplyAsync(response -> decodeAsync(endpoint, response), transport.getBodyExecutor());",
+            "    }",
+            "",
+            "    <T> ResultStream<T> stream(ApiEndpoint<T> endpoint, Object payload, String field) throws IOException, InterruptedException {",
+            "        HttpRequest request = request(endpoint, payload, Map.of());",
+            "        HttpResponse<InputStream> response = transport.send(request, HttpResponse.BodyHandlers.ofInputStream());",
+            "        return open(endpoint, response, field);",
+            "    }",
+            "",
+            "    <T> CompletableFuture<ResultStream<T>> streamAsync(ApiEndpoint<T> endpoint, Object payload, String field) {",
+            "        HttpRequest request = requestAsync(endpoint, payload, Map.of());",
+            "        return transport.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream())",
+            "                .thenApplyAsync(response -> openAsync(endpoint, response, field), transport.getBodyExecutor());",
+            "    }",
+            "",
+            "    private static <T> T decodeAsync(ApiEndpoint<T> endpoint, HttpResponse<InputStream> response) {",
+            "        try {",
+            "            return decode(endpoint, response);",
+            "        } catch (IOException e) {",
+            '            throw new RuntimeException("Failed to parse response", e);',
+            "        }",
+            "    }",
+            "",
+            "    private static <T> ResultStream<T> openAsync(ApiEndpoint<T> endpoint, HttpResponse<InputStream> response, String field) {",
+            "        try {",
+            "            return open(endpoint, response, field);",
+            "        } catch (IOException e) {",
+            '            throw new RuntimeException("Failed to parse response", e);',
+            "        }",
+            "    }",
+            "",
+            "    private static <T> T decode(ApiEndpoint<T> endpoint, HttpResponse<InputStream> response) throws IOException {",
+            "        try (InputStream body = response.body()) {",
+            "            checkStatus(response.statusCode(), body);",
+            "            return endpoint.reader().readValue(body);",
+            "        }",
+            "    }",
+            "",
+            "    private static <T> ResultStream<T> open(ApiEndpoint<T> endpoint, HttpResponse<InputStream> response, String field) throws IOException {",
+            "        if (response.statusCode() >= 400) {",
+            "            try (InputStream body = response.body()) {",
+            "                checkStatus(response.statusCode(), body);",
+            "            }",
+            "        }",
+            "        return ResultStream.open(endpoint.reader(), response.body(), field);",
+            "    }",
+            "",
+            "    private static void checkStatus(int statusCode, InputStream body) throws IOException {",
+            "        if (statusCode >= 400) {",
+            "            throw new JudgmentApiException(statusCode, new String(body.readAllBytes(), StandardCharsets.UTF_8));",
+            "        }",
+            "    }",
+            "}",
+        ]
+    )
+    return "\n".join(lines)
+
+
+def generate_facade_method(
     method_name: str,
-    path: str,
+    endpoint_field: str,
     method: str,
     request_type: Optional[str],
     query_params: List[Dict[str, Any]],
     response_type: str,
     is_async: bool,
-) -> str:
-    lines = []
-
-    if query_params:
-        lines.append("        Map<String, String> queryParams = new HashMap<>();")
-        for param in query_params:
-            param_name = param["name"]
-            if param["required"]:
-                lines.append(f'        queryParams.put("{param_name}", {param_name});')
-            else:
-                param_key = param["name"]
-                lines.append(
-                    f'        Optional.ofNullable({param_name}).ifPresent(v -> queryParams.put("{param_key}", v));'
-                )
-
-    lines.append(
-        f'        String url = buildUrl("{path}"{", queryParams" if query_params else ""});'
+    stream_field: Optional[str] = None,
+) -> List[str]:
+    params = [f"String {to_camel_case(p['name'])}" for p in query_params if p["required"]]
+    if request_type:
+        params.append(f"{request_type} payload")
+    params.extend(
+        f"String {to_camel_case(p['name'])}" for p in query_params if not p["required"]
     )
 
-    if method in ["GET", "DELETE"]:
-        lines.extend(
-            [
-                "        HttpRequest request = HttpRequest.newBuilder()",
-                f"                .{method}()",
-                "                .uri(URI.create(url))",
-                "                .headers(buildHeaders())",
-                "                .build();",
-            ]
-        )
+    return_type = f"CompletableFuture<{response_type}>" if is_async else response_type
+    throws_clause = "" if is_async else " throws IOException, InterruptedException"
+    if request_type:
+        payload = "payload"
     else:
-        payload_expr = "payload" if request_type else "new Object()"
-
-        if is_async:
-            lines.extend(
-                [
-                    "        String jsonPayload;",
-                    "        try {",
-                    f"            jsonPayload = mapper.writeValueAsString({payload_expr});",
-                    "        } catch (Exception e) {",
-                    '            throw new RuntimeException("Failed to serialize payload", e);',
-                    "        }",
-                ]
-            )
-        else:
-            lines.append(
-                f"        String jsonPayload = mapper.writeValueAsString({payload_expr});"
-            )
-
-        lines.extend(
-            [
-                "        HttpRequest request = HttpRequest.newBuilder()",
-                f"                .{method}(HttpRequest.BodyPublishers.ofString(jsonPayload))",
-                "                .uri(URI.create(url))",
-                "                .headers(buildHeaders())",
-                "                .build();",
-            ]
-        )
+        payload = "null" if method in ["GET", "DELETE"] else "new Object()"
 
-    if is_async:
-        lines.extend(
-            [
-                "        return client.sendAsync(request, HttpResponse.BodyHandlers.ofString())",
-                "                .thenApply(this::handleResponse);",
-            ]
-        )
+    if stream_field:
+        call = f'core.{"streamAsync" if is_async else "stream"}(core.{endpoint_field}, {payload}, "{stream_field}")'
     else:
-        lines.append(
-            "        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());"
-        )
-        if response_type == "Object":
-            lines.append("        return handleResponse(response);")
-        else:
-            lines.append(
-                f"        return mapper.readValue(response.body(), {response_type}.class);"
+        if query_params:
+            pairs = ", ".join(
+                f'"{p["name"]}", {to_camel_case(p["name"])}' for p in query_params
             )
+            query = f"JudgmentApiCore.query({pairs})"
+        else:
+            query = "Map.of()"
+        call = f'core.{"sendAsync" if is_async else "send"}(core.{endpoint_field}, {payload}, {query})'
 
-    return "\n".join(lines)
+    return [
+        f"    public {return_type} {method_name}({', '.join(params)}){throws_clause} {{",
+        f"        return {call};",
+        "    }",
+        "",
+    ]
 
 
 def generate_client_class(
     className: str, methods: List[Dict[str, Any]], is_async: bool
 ) -> str:
-    imports = [
+    lines = [
         "package com.judgmentlabs.judgeval.internal.api;",
         "",
-        "import com.fasterxml.jackson.core.type.TypeReference;",
-        "import com.fasterxml.jackson.databind.ObjectMapper;",
-        "import java.io.IOException;",
-        "import java.net.URI;",
-        "import java.net.http.HttpClient;",
-        "import java.net.http.HttpRequest;",
-        "import java.net.http.HttpResponse;",
-        "import java.util.HashMap;",
         "import java.util.Map;",
-        "import java.util.Objects;",
-        "import java.util.Optional;",
         "import com.judgmentlabs.judgeval.internal.api.models.*;",
     ]
 
     if is_async:
-        imports.append("import java.util.concurrent.CompletableFuture;")
-
-    lines = imports + [
-        "",
-        f"public class {className} {{",
-        "    private final HttpClient client;",
-        "    private final ObjectMapper mapper;",
-        "    private final String baseUrl;",
-        "    private final String apiKey;",
-        "    private final String organizationId;",
-        "",
-        f"    public {className}(String baseUrl, String apiKey, String organizationId) {{",
-        '        this.baseUrl = Objects.requireNonNull(baseUrl, "Base URL cannot be null");',
-        '        this.apiKey = Objects.requireNonNull(apiKey, "API key cannot be null");',
-        '        this.organizationId = Objects.requireNonNull(organizationId, "Organization ID cannot be null");',
-        "        this.client = HttpClient.newBuilder()",
-        "                .version(HttpClient.Version.HTTP_1_1)",
-        "                .build();",
-        "        this.mapper = new ObjectMapper();",
-        "    }",
-        "",
-        "    public String getApiUrl() {",
-        "        return baseUrl;",
-        "    }",
-        "",
-        "    public String getApiKey() {",
-        "        return apiKey;",
-        "    }",
-        "",
-        "    public String getOrganizationId() {",
-        "        return organizationId;",
-        "    }",
-        "",
-        "    private String buildUrl(String path, Map<String, String> queryParams) {",
-        "        StringBuilder url = new StringBuilder(baseUrl).append(path);",
-        "        if (!queryParams.isEmpty()) {",
-        '            url.append("?");',
-        "            String queryString = queryParams.entrySet().stream()",
-        '                    .map(entry -> entry.getKey() + "=" + entry.getValue())',
-        '                    .reduce("", (a, b) -> a.isEmpty() ? b : a + "&" + b);',
-        "            url.append(queryString);",
-        "        }",
-        "        return url.toString();",
-        "    }",
-        "",
-        "    private String buildUrl(String path) {",
-        "        return buildUrl(path, new HashMap<>());",
-        "    }",
-        "",
-        "    private String[] buildHeaders() {",
-        "        return new String[] {",
-        '            "Content-Type",',
-        '            "application/json",',
-        '            "Authorization",',
-        '            "Bearer " + apiKey,',
-        '            "X-Organization-Id",',
-        "            organizationId",
-        "        };",
-        "    }",
-        "",
-    ]
+        lines.append("import java.util.concurrent.CompletableFuture;")
+    else:
+        lines.append("import java.io.IOException;")
 
-    throws_clause = "" if is_async else " throws IOException"
-    lines.append(
-        f"    private <T> T handleResponse(HttpResponse<String> response){throws_clause} {{"
-    )
-    lines.append("        if (response.statusCode() >= 400) {")
-    lines.append(
-        f'            throw new RuntimeException("HTTP Error: " + response.statusCode() + " - " + response.body());'
-    )
-    lines.append("        }")
-    lines.append("        try {")
-    lines.append(
-        "            return mapper.readValue(response.body(), new TypeReference<T>() {});"
-    )
-    lines.append("        } catch (Exception e) {")
-    lines.append(
-        '            throw new RuntimeException("Failed to parse response", e);'
+    lines.extend(
+        [
+            "",
+            f"public class {className} {{",
+            "    private final JudgmentApiCore core;",
+            "",
+            f"    public {className}(String baseUrl, String apiKey, String organizationId) {{",
+            "        this(baseUrl, apiKey, organizationId, HttpTransport.defaultTransport());",
+            "    }",
+            "",
+            f"    public {className}(String baseUrl, String apiKey, String organizationId, HttpTransport transport) {{",
+            "        this.core = new JudgmentApiCore(baseUrl, apiKey, organizationId, transport);",
+            "    }",
+            "",
+            "    public String getApiUrl() {",
+            "        return core.getApiUrl();",
+            "    }",
+            "",
+            "    public String getApiKey() {",
+            "        return core.getApiKey();",
+            "    }",
+            "",
+            "    public String getOrganizationId() {",
+            "        return core.getOrganizationId();",
+            "    }",
+            "",
+            "    public HttpTransport getTransport() {",
+            "        return core.getTransport();",
+            "    }",
+            "",
+        ]
     )
-    lines.append("        }")
-    lines.append("    }")
-    lines.append("")
 
     for method_info in methods:
-        lines.append(
-            generate_method_signature(
+        lines.extend(
+            generate_facade_method(
                 method_info["name"],
-                method_info["request_type"],
-                method_info["query_params"],
-                method_info["response_type"],
-                is_async,
-            )
-        )
-        lines.append(
-            generate_method_body(
                 method_info["name"],
-                method_info["path"],
                 method_info["method"],
                 method_info["request_type"],
                 method_info["query_params"],
@@ -546,8 +639,20 @@ def generate_client_class(
                 is_async,
             )
         )
-        lines.append("    }")
-        lines.append("")
+        if method_info["stream"]:
+            stream_name, stream_field, item_type = method_info["stream"]
+            lines.extend(
+                generate_facade_method(
+                    stream_name,
+                    stream_name,
+                    method_info["method"],
+                    method_info["request_type"],
+                    method_info["query_params"],
+                    f"ResultStream<{item_type}>",
+                    is_async,
+                    stream_field,
+                )
+            )
 
     lines.append("}")
     return "\n".join(lines)
@@ -612,12 +717,17 @@ def generate_api_files(spec: Dict[str, Any]) -> None:
                     "response_type": (
                         to_class_name(response_schema) if response_schema else "Object"
                     ),
+                    "stream": STREAMED_ARRAYS.get(path),
                 }
                 methods.append(method_info)
 
     api_dir = "judgeval-java/src/main/java/com/judgmentlabs/judgeval/internal/api"
     os.makedirs(api_dir, exist_ok=True)
 
+    with open(f"{api_dir}/JudgmentApiCore.java", "w") as f:
+        f.write(generate_core_class(methods))
+    print(f"Generated: {api_dir}/JudgmentApiCore.java", file=sys.stderr)
+
     for is_async, class_name in [
         (False, "JudgmentSyncClient"),
         (True, "JudgmentAsyncClient"),